@@ -0,0 +1,55 @@
+package dk.tbsalling.aismessages.benchmark;
+
+import dk.tbsalling.aismessages.AISInputStreamReader;
+import dk.tbsalling.aismessages.nmea.AISMessageBatch;
+import dk.tbsalling.aismessages.nmea.NMEAMessageHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of AISInputStreamReader on a mixed corpus: reading lines, parsing NMEA,
+ * reassembling multipart messages and decoding AIS messages. The score is per AIS message.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AISInputStreamReaderBenchmark {
+
+    private static final int NUMBER_OF_MESSAGES = 10_000;
+
+    private byte[] corpus;
+
+    @Setup
+    public void setUp() {
+        corpus = (String.join("\r\n", Corpus.mixed(NUMBER_OF_MESSAGES)) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_MESSAGES)
+    public void decode(Blackhole blackhole) {
+        new AISInputStreamReader(new ByteArrayInputStream(corpus), blackhole::consume).run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_MESSAGES)
+    public void decodeLazily(Blackhole blackhole) {
+        AISInputStreamReader reader = new AISInputStreamReader(new ByteArrayInputStream(corpus), blackhole::consume);
+        reader.setLazyDecoding(true);
+        reader.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_MESSAGES)
+    public AISMessageBatch decodeBatch() {
+        return new NMEAMessageHandler("SRC").decodeBatch(ByteBuffer.wrap(corpus));
+    }
+
+}
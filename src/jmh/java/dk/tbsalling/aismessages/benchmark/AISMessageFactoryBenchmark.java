@@ -0,0 +1,44 @@
+package dk.tbsalling.aismessages.benchmark;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of decoding each AIS message type from already parsed NMEA messages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AISMessageFactoryBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16", "17", "18", "19", "20", "21", "22", "23", "24", "25", "26", "27"})
+    private int messageType;
+
+    private NMEAMessage[] nmeaMessages;
+    private Instant received;
+
+    @Setup
+    public void setUp() {
+        nmeaMessages = Corpus.nmeaMessages(messageType);
+        received = Instant.now();
+    }
+
+    @Benchmark
+    public AISMessage create() {
+        return AISMessageFactory.create(received, "BENCHMARK", null, nmeaMessages);
+    }
+
+    @Benchmark
+    public AISMessage createLazily() {
+        return AISMessageFactory.createLazily(received, "BENCHMARK", null, nmeaMessages);
+    }
+
+}
@@ -0,0 +1,79 @@
+package dk.tbsalling.aismessages.benchmark;
+
+import dk.tbsalling.aismessages.ais.BitDecoder;
+import dk.tbsalling.aismessages.ais.BitStringParser;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the bit level decoding primitives: de-armouring of payloads and extraction of fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BitDecodingBenchmark {
+
+    /** Payload of a type 5 message (first fragment). */
+    private String payload = "55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB";
+
+    private String bitString;
+    private BitStringParser parser;
+    private String mmsiBits;
+    private String longitudeBits;
+    private String shipNameBits;
+
+    @Setup
+    public void setUp() {
+        bitString = AISMessageFactory.toBitString(payload, 0);
+        parser = BitStringParser.fromSixBitPayload(0, payload);
+        mmsiBits = bitString.substring(8, 38);
+        longitudeBits = bitString.substring(61, 89);
+        shipNameBits = bitString.substring(112, 232);
+    }
+
+    @Benchmark
+    public String toBitString() {
+        return AISMessageFactory.toBitString(payload, 0);
+    }
+
+    @Benchmark
+    public BitStringParser fromSixBitPayload() {
+        return BitStringParser.fromSixBitPayload(0, payload);
+    }
+
+    @Benchmark
+    public int decodeUnsignedInt() {
+        return BitDecoder.INSTANCE.decodeUnsignedInt(mmsiBits);
+    }
+
+    @Benchmark
+    public int decodeSignedInt() {
+        return BitDecoder.INSTANCE.decodeSignedInt(longitudeBits);
+    }
+
+    @Benchmark
+    public String decodeString() {
+        return BitDecoder.INSTANCE.decodeString(shipNameBits);
+    }
+
+    @Benchmark
+    public int getUnsignedInt() {
+        return parser.getUnsignedInt(8, 38);
+    }
+
+    @Benchmark
+    public int getSignedInt() {
+        return parser.getSignedInt(61, 89);
+    }
+
+    @Benchmark
+    public String getString() {
+        return parser.getString(112, 232);
+    }
+
+}
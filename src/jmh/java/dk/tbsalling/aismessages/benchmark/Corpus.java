@@ -0,0 +1,79 @@
+package dk.tbsalling.aismessages.benchmark;
+
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * NMEA sample data for the benchmarks: one sample of each AIS message type, and a mixed corpus
+ * resembling a typical terrestrial AIS feed.
+ */
+final class Corpus {
+
+    private Corpus() {
+    }
+
+    /** Sample NMEA sentences indexed by AIS message type (1..27); multipart messages have several sentences. */
+    static final String[][] SAMPLES = {
+            null,
+            {"!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"},
+            {"!AIVDM,1,1,,A,24RjBV0028o:pnNEBeU<pJF>0PT@,0*3F"},
+            {"!AIVDM,1,1,,A,33nr7t001f13KNTOahh2@QpF00vh,0*58"},
+            {"!AIVDM,1,1,,B,402=481uaUcf;OQ55JS9ITi025Jp,0*2B"},
+            {"!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27", "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C"},
+            {"!AIVDM,1,1,,B,63bump80OEGr06P060,4*79"},
+            {"!AIVDM,1,1,,B,702;bCSdToR`,0*34"},
+            {"!AIVDM,1,1,,A,85Mwp`1Kf3aCnsNvBWLi=wQuNhA5t43N`5nCuI=p<IBfVqnMgPGs,0*47"},
+            {"!AIVDM,1,1,,A,9>rAUn00GiU7gi<COH913Pu:0@6:,0*4B"},
+            {"!AIVDM,1,1,,A,:5AKhr1GORMH,0*57"},
+            {"!AIVDM,1,1,,B,;4R33:1uUK2F`q?mOt@@GoQ00000,0*5D"},
+            {"!AIVDM,1,1,,A,<42Lati0W:Ov=C7P6B?=Pjoihhjhqq,2*2B"},
+            {"!AIVDM,1,1,,A,=39UOj0jFs9R,0*17"},
+            {"!AIVDM,1,1,,A,>5?Per18=HB1U:1@E=B0m<L,2*51"},
+            {"!AIVDM,1,1,,A,?h3Ovk1GOPph000,2*53"},
+            {"!AIVDM,1,1,,A,@6TMCD1GOSmUBKh4,0*29"},
+            {"!AIVDM,1,1,,A,A02VqLPA4I6C07h5Ed1h,0*43"},
+            {"!AIVDM,1,1,,B,B5NJ;PP005l4ot5Isbl03wsUkP06,0*76"},
+            {"!AIVDM,1,1,,B,C69DqeP0Ar8;JH3R6<4O7wWPl@:62L>jcaQgh0000000?104222P,0*32"},
+            {"!AIVDM,1,1,,A,Dh3Ovk1UAN>4,0*0A"},
+            {"!AIVDO,1,1,,A,E>lt;Lqaps0h3V:@;4a:@0b7W005J`6Dq9e<000003v010,4*7E"},
+            {"!AIVDM,1,1,,B,F030p:j2N2P5aJR0r;6f3rj10000,0*11"},
+            {"!AIVDM,1,1,,B,G02:Kn01R`sn@291nj600000900,2*12"},
+            {"!AIVDM,1,1,,A,H5NLOjTUG5CD=1BG46mqhj0P7130,0*78"},
+            {"!AIVDM,1,1,,A,I6SWo?8P00a3PKpEKEVj0?vNP<65,0*73"},
+            {"!AIVDM,2,1,1,A,J5NJP<82<mN1<tn4GfOl1lTp8h6000000000000000000000000000000000,0*38", "!AIVDM,2,2,1,A,00000000000,2*26"},
+            {"!AIVDM,1,1,,B,KC5E2b@U19PFdLbMuc5=ROv62<7m,0*16"}
+    };
+
+    /** Relative frequency (in percent) of the message types in the mixed corpus. */
+    private static final int[][] MIX = {
+            {1, 40}, {3, 12}, {18, 12}, {5, 8}, {4, 6}, {24, 6}, {2, 3}, {8, 3}, {21, 3}, {19, 2}, {27, 2}, {9, 1}, {6, 1}, {7, 1}
+    };
+
+    static NMEAMessage[] nmeaMessages(int messageType) {
+        String[] sample = SAMPLES[messageType];
+        NMEAMessage[] nmeaMessages = new NMEAMessage[sample.length];
+        for (int i = 0; i < sample.length; i++)
+            nmeaMessages[i] = new NMEAMessage(sample[i]);
+        return nmeaMessages;
+    }
+
+    /**
+     * @return NMEA sentences of the given number of AIS messages, drawn from the samples with the frequencies of MIX.
+     */
+    static List<String> mixed(int numberOfMessages) {
+        List<Integer> messageTypes = new ArrayList<>();
+        for (int[] mix : MIX)
+            messageTypes.addAll(Collections.nCopies(mix[1], mix[0]));
+
+        Random random = new Random(1371);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < numberOfMessages; i++)
+            Collections.addAll(lines, SAMPLES[messageTypes.get(random.nextInt(messageTypes.size()))]);
+        return lines;
+    }
+
+}
@@ -0,0 +1,44 @@
+package dk.tbsalling.aismessages.benchmark;
+
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.tagblock.NMEATagBlock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of parsing NMEA sentences and tag blocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NMEAParsingBenchmark {
+
+    private String sentence = "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A";
+    private String tagBlock = "\\g:1-2-1234,s:rORBCOMM*1E\\";
+    private String sentenceWithTagBlock = tagBlock + "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27";
+
+    @Benchmark
+    public NMEAMessage nmeaMessage() {
+        return new NMEAMessage(sentence);
+    }
+
+    @Benchmark
+    public NMEAMessage nmeaMessageWithTagBlock() {
+        return new NMEAMessage(sentenceWithTagBlock);
+    }
+
+    @Benchmark
+    public NMEATagBlock nmeaTagBlock() {
+        return NMEATagBlock.fromString(tagBlock);
+    }
+
+    @Benchmark
+    public boolean checksum() {
+        return new NMEAMessage(sentence).isChecksumValid();
+    }
+
+}
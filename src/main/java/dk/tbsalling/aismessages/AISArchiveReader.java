@@ -0,0 +1,251 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ * **
+ */
+
+package dk.tbsalling.aismessages;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.NMEAMessageHandler;
+import dk.tbsalling.aismessages.nmea.NMEAMessageHandler.FragmentKey;
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseStatus;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * AISArchiveReader decodes a file of NMEA strings - typically a log of recorded AIS traffic - in parallel.
+ * <p>
+ * The file is memory mapped and split into line-aligned chunks, which are decoded independently on the
+ * fork-join pool of the returned parallel stream. A multipart message belongs to the chunk holding its first
+ * fragment; fragments which straddle a chunk boundary are picked up by looking ahead into the following chunk.
+ * <p>
+ * The stream has the order of the file, except that a multipart message straddling a chunk boundary
+ * is placed after the other messages of its chunk. Use forEachOrdered() to consume it in that order.
+ *
+ * @see AISInputStreamReader
+ */
+@Log
+public class AISArchiveReader implements AutoCloseable {
+
+    /** Default size of the chunks decoded in parallel. */
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /** Number of bytes beyond the end of a chunk searched for remaining fragments of its multipart messages. */
+    static final int LOOKAHEAD_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final long[] chunkStarts;
+
+    public AISArchiveReader(Path path) throws IOException {
+        this(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    public AISArchiveReader(Path path, int chunkSize) throws IOException {
+        if (chunkSize < 1 || chunkSize > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("chunkSize must be in range 1..%d: %d".formatted(Integer.MAX_VALUE / 2, chunkSize));
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.chunkStarts = chunkStarts(channel, size, chunkSize);
+    }
+
+    /**
+     * @return a parallel stream of the AIS messages decoded from the file.
+     */
+    public Stream<AISMessage> stream() {
+        return IntStream.range(0, chunkStarts.length - 1)
+                .parallel()
+                .mapToObj(this::decodeChunk)
+                .flatMap(List::stream);
+    }
+
+    /**
+     * @return a spliterator over the AIS messages decoded from the file.
+     */
+    public Spliterator<AISMessage> spliterator() {
+        return stream().spliterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** @return the number of chunks the file is split into. */
+    int numberOfChunks() {
+        return chunkStarts.length - 1;
+    }
+
+    /**
+     * Decode the AIS messages whose first (or only) NMEA message starts in the given chunk.
+     */
+    private List<AISMessage> decodeChunk(int chunk) {
+        final long start = chunkStarts[chunk];
+        final long end = chunkStarts[chunk + 1];
+        final long mappedEnd = Math.min(size, end + LOOKAHEAD_SIZE);
+
+        List<AISMessage> aisMessages = new ArrayList<>();
+        NMEAMessageHandler handler = new NMEAMessageHandler(path.getFileName().toString(), aisMessages::add);
+
+        MappedByteBuffer buffer = map(start, mappedEnd - start);
+        final int endOfChunk = (int) (end - start);
+        Set<FragmentKey> begunAfterEnd = new HashSet<>();
+        byte[] line = new byte[256];
+        int position = 0;
+        while (position < buffer.limit()) {
+            int endOfLine = position;
+            while (endOfLine < buffer.limit() && !isLineTerminator(buffer.get(endOfLine)))
+                endOfLine++;
+
+            boolean lookahead = position >= endOfChunk;
+            if (lookahead && (endOfLine == buffer.limit() && mappedEnd < size || isResolved(handler, begunAfterEnd)))
+                break;
+
+            int length = endOfLine - position;
+            if (length > 0) {
+                if (length > line.length)
+                    line = new byte[Math.max(length, 2 * line.length)];
+                buffer.get(position, line, 0, length);
+                decodeLine(new String(line, 0, length, StandardCharsets.ISO_8859_1), handler, lookahead ? begunAfterEnd : null);
+            }
+
+            position = endOfLine + 1;
+        }
+
+        return aisMessages;
+    }
+
+    /**
+     * Decode a line. Beyond the end of the chunk - when begunAfterEnd is given - only remaining fragments of
+     * multipart messages begun inside the chunk are of interest: fragments of multipart messages begun after
+     * the end of the chunk are left for the following chunk, and their keys are collected in begunAfterEnd.
+     */
+    private void decodeLine(String string, NMEAMessageHandler handler, Set<FragmentKey> begunAfterEnd) {
+        NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(string);
+        if (!result.isSuccess()) {
+            if (result.status() == NMEAParseStatus.UNSUPPORTED_MESSAGE_TYPE)
+                log.warning("Received unsupported NMEA message: \"%s\"".formatted(string));
+            else
+                log.warning("Received non-compliant NMEA message: \"%s\"".formatted(string));
+            return;
+        }
+        try {
+            NMEAMessage nmea = result.value();
+            if (begunAfterEnd == null) {
+                handler.accept(nmea);
+            } else if (nmea.getNumberOfFragments() > 1) {
+                FragmentKey key = FragmentKey.of(nmea);
+                if (nmea.getFragmentNumber() == 1)
+                    begunAfterEnd.add(key);
+                else if (!begunAfterEnd.contains(key))
+                    handler.accept(nmea);
+            }
+        } catch (InvalidMessage invalidMessageException) {
+            log.warning("Received invalid AIS message: \"%s\"".formatted(string));
+        } catch (UnsupportedMessageType unsupportedMessageTypeException) {
+            log.warning("Received unsupported NMEA message: \"%s\"".formatted(string));
+        } catch (NMEAParseException parseException) {
+            log.warning("Received non-compliant NMEA message: \"%s\"".formatted(string));
+        } catch (RuntimeException e) {
+            log.warning("Failed to decode NMEA message: \"%s\": %s".formatted(string, e.getMessage()));
+        }
+    }
+
+    /**
+     * @return true if no multipart message begun inside the chunk can be completed by looking further ahead; i.e.
+     * each one still incomplete has been superseded by a multipart message begun after the end of the chunk.
+     */
+    private static boolean isResolved(NMEAMessageHandler handler, Set<FragmentKey> begunAfterEnd) {
+        int superseded = 0;
+        for (FragmentKey key : begunAfterEnd) {
+            if (handler.isIncomplete(key))
+                superseded++;
+        }
+        return handler.getIncompleteMessageCount() == superseded;
+    }
+
+    private MappedByteBuffer map(long position, long size) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Split the file into chunks of approximately the given size, each starting at the beginning of a line.
+     * @return the start offsets of the chunks followed by the size of the file.
+     */
+    private static long[] chunkStarts(FileChannel channel, long size, int chunkSize) throws IOException {
+        List<Long> chunkStarts = new ArrayList<>();
+        chunkStarts.add(0L);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long candidate = chunkSize;
+        while (candidate < size) {
+            long start = startOfNextLine(channel, candidate - 1, buffer);
+            if (start >= size)
+                break;
+            chunkStarts.add(start);
+            candidate = Math.max(start + 1, candidate + chunkSize);
+        }
+
+        chunkStarts.add(size);
+        return chunkStarts.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /** @return the offset of the first line starting after the given position. */
+    private static long startOfNextLine(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        boolean seenTerminator = false;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0)
+                return channel.size();
+            for (int i = 0; i < read; i++, position++) {
+                boolean isTerminator = isLineTerminator(buffer.get(i));
+                if (seenTerminator && !isTerminator)
+                    return position;
+                seenTerminator |= isTerminator;
+            }
+        }
+    }
+
+    private static boolean isLineTerminator(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+}
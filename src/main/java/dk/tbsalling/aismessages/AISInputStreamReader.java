@@ -17,13 +17,16 @@
 package dk.tbsalling.aismessages;
 
 import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFilter;
 import dk.tbsalling.aismessages.nmea.NMEAMessageHandler;
 import dk.tbsalling.aismessages.nmea.NMEAMessageInputStreamReader;
+import dk.tbsalling.aismessages.nmea.NMEAParseStatistics;
 
 import java.io.InputStream;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * AISMessageInputStreamReader is the main entry point into the program loop
@@ -59,11 +62,57 @@ public class AISInputStreamReader {
         return this.nmeaMessageInputStreamReader.isStopRequested();
     }
 
+    /**
+     * Enable or disable lazy decoding of the AIS messages passed to the consumer.
+     *
+     * @param lazyDecoding true to decode costly fields on first access only.
+     * @see NMEAMessageHandler#setLazyDecoding(boolean)
+     */
+    public void setLazyDecoding(boolean lazyDecoding) {
+        this.lazyDecoding = lazyDecoding;
+        this.nmeaMessageHandler.setLazyDecoding(lazyDecoding);
+    }
+
+    /**
+     * Only decode and pass on AIS messages accepted by the given filter.
+     *
+     * @param messageFilter the filter to apply; or null to pass on all messages.
+     * @see NMEAMessageHandler#setMessageFilter(AISMessageFilter)
+     */
+    public void setMessageFilter(AISMessageFilter messageFilter) {
+        this.messageFilter = messageFilter;
+        this.nmeaMessageHandler.setMessageFilter(messageFilter);
+    }
+
     public void run() {
         this.nmeaMessageInputStreamReader.run();
     }
 
+    /** @return the outcomes of parsing the NMEA strings read by run(), counted per parse status. */
+    public NMEAParseStatistics getParseStatistics() {
+        return this.nmeaMessageInputStreamReader.getParseStatistics();
+    }
+
+    /**
+     * Decode the input into a stream of AIS messages, instead of passing them to the consumer. The stream can
+     * be processed in parallel - e.g. for offline analysis of large inputs - with multipart messages straddling
+     * the split points handled. Use either this method or run() - not both.
+     *
+     * @return a sequential stream of the AIS messages; call parallel() to decode in parallel.
+     * @see NMEAMessageInputStreamReader#aisMessageStream(Function)
+     */
+    public Stream<AISMessage> stream() {
+        return this.nmeaMessageInputStreamReader.aisMessageStream(receiver -> {
+            NMEAMessageHandler handler = new NMEAMessageHandler("SRC", receiver);
+            handler.setLazyDecoding(lazyDecoding);
+            handler.setMessageFilter(messageFilter);
+            return handler;
+        });
+    }
+
     private final NMEAMessageHandler nmeaMessageHandler;
+    private volatile boolean lazyDecoding;
+    private volatile AISMessageFilter messageFilter;
 	private final NMEAMessageInputStreamReader nmeaMessageInputStreamReader;
 
 }
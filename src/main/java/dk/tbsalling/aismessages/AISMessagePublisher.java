@@ -0,0 +1,76 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ * **
+ */
+
+package dk.tbsalling.aismessages;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFilter;
+import dk.tbsalling.aismessages.nmea.AsyncAISMessageReceiver.OverflowPolicy;
+import dk.tbsalling.aismessages.nmea.BufferedPublisher;
+
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A Flow.Publisher of the AIS messages decoded from an input stream of NMEA messages, honouring the demand of
+ * its subscriber. This lets reactive frameworks consume AIS messages at the rate they can handle.
+ *
+ * @author tbsalling
+ * @see BufferedPublisher
+ */
+public class AISMessagePublisher extends BufferedPublisher<AISMessage> {
+
+    private final InputStream inputStream;
+    private volatile AISMessageFilter messageFilter;
+    private volatile AISInputStreamReader reader;
+
+    public AISMessagePublisher(InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    public AISMessagePublisher(InputStream inputStream, int bufferCapacity, OverflowPolicy overflowPolicy) {
+        super(bufferCapacity, overflowPolicy);
+        this.inputStream = Objects.requireNonNull(inputStream, "inputStream cannot be null.");
+    }
+
+    /**
+     * Only decode and publish AIS messages accepted by the given filter. Must be set before subscribing.
+     *
+     * @param messageFilter the filter to apply; or null to publish all messages.
+     * @see AISInputStreamReader#setMessageFilter(AISMessageFilter)
+     */
+    public void setMessageFilter(AISMessageFilter messageFilter) {
+        this.messageFilter = messageFilter;
+    }
+
+    @Override
+    protected void read(Consumer<AISMessage> sink) {
+        AISInputStreamReader r = new AISInputStreamReader(inputStream, sink);
+        r.setMessageFilter(messageFilter);
+        reader = r;
+        if (!isCancelled())
+            r.run();
+    }
+
+    @Override
+    protected void requestStop() {
+        AISInputStreamReader r = reader;
+        if (r != null)
+            r.requestStop();
+    }
+
+}
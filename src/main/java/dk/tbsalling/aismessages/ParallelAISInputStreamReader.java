@@ -0,0 +1,115 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ * **
+ */
+
+package dk.tbsalling.aismessages;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.NMEALineReader;
+import dk.tbsalling.aismessages.nmea.NMEAMessagePipeline;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A variant of AISInputStreamReader which decodes on several threads.
+ *
+ * The thread calling run() reads the NMEA strings and hands them to an NMEAMessagePipeline,
+ * which parses, reassembles and decodes them on a number of worker threads.
+ *
+ * @see AISInputStreamReader
+ * @see NMEAMessagePipeline
+ */
+@Log
+public class ParallelAISInputStreamReader {
+
+    /**
+     * @param inputStream the stream to read NMEA strings from.
+     * @param numberOfWorkers the number of decode worker threads.
+     * @param orderedDelivery true to deliver AIS messages in input order; false to deliver them from the worker threads as soon as they are decoded.
+     * @param aisMessageConsumer the consumer of decoded AIS messages.
+     */
+    public ParallelAISInputStreamReader(InputStream inputStream, int numberOfWorkers, boolean orderedDelivery, Consumer<? super AISMessage> aisMessageConsumer) {
+        this(inputStream, Function.identity(), numberOfWorkers, orderedDelivery, aisMessageConsumer);
+    }
+
+    public ParallelAISInputStreamReader(InputStream inputStream, Function<String, String> nmeaStringPreProcessor, int numberOfWorkers, boolean orderedDelivery, Consumer<? super AISMessage> aisMessageConsumer) {
+        NMEALineReader lineReader = new NMEALineReader(Channels.newChannel(inputStream));
+        this.stringSupplier = () -> {
+            try {
+                return lineReader.readLine();
+            } catch (IOException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        };
+        this.nmeaStringPreProcessor = nmeaStringPreProcessor;
+        this.numberOfWorkers = numberOfWorkers;
+        this.orderedDelivery = orderedDelivery;
+        this.aisMessageConsumer = aisMessageConsumer;
+    }
+
+    public ParallelAISInputStreamReader(List<String> nmeaStrings, int numberOfWorkers, boolean orderedDelivery, Consumer<? super AISMessage> aisMessageConsumer) {
+        final Queue<String> nmeaStringsQueue = new LinkedList<>(nmeaStrings);
+        this.stringSupplier = nmeaStringsQueue::poll;
+        this.nmeaStringPreProcessor = Function.identity();
+        this.numberOfWorkers = numberOfWorkers;
+        this.orderedDelivery = orderedDelivery;
+        this.aisMessageConsumer = aisMessageConsumer;
+    }
+
+    public final void requestStop() {
+        this.stopRequested.set(true);
+    }
+
+    public final boolean isStopRequested() {
+        return this.stopRequested.get();
+    }
+
+    /**
+     * Read and decode until end of input or stop is requested. Returns when all
+     * AIS messages read have been delivered.
+     */
+    public void run() {
+        log.info("ParallelAISInputStreamReader running with %d workers.".formatted(numberOfWorkers));
+
+        try (NMEAMessagePipeline pipeline = new NMEAMessagePipeline("SRC", numberOfWorkers, orderedDelivery, aisMessageConsumer)) {
+            String string;
+            while ((string = stringSupplier.get()) != null) {
+                if (isStopRequested())
+                    break;
+                pipeline.accept(nmeaStringPreProcessor.apply(string));
+            }
+        }
+
+        log.info("ParallelAISInputStreamReader stopping.");
+    }
+
+    private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+    private final Supplier<String> stringSupplier;
+    private final Function<String, String> nmeaStringPreProcessor;
+    private final int numberOfWorkers;
+    private final boolean orderedDelivery;
+    private final Consumer<? super AISMessage> aisMessageConsumer;
+
+}
@@ -1,8 +1,5 @@
 package dk.tbsalling.aismessages.ais;
 
-import java.util.Map;
-import java.util.TreeMap;
-
 /**
  * BitDecoder provides low-level decoders for interpreting AIS payload bit strings.
  * It converts fixed-width binary substrings to Java primitives and AIS 6-bit ASCII text.
@@ -130,14 +127,32 @@ public class BitDecoder {
         int len = bitString.length();
         StringBuilder stringBuffer = new StringBuilder(len / 6 + 1);
         for (int i = 0; i + 6 <= len; i += 6) {
-            String b = bitString.substring(i, i + 6);
-            Integer v = decodeUnsignedInt(b);
-            String c = SIX_BIT_ASCII.get(v);
-            stringBuffer.append(c);
+            int v = decodeUnsignedInt(bitString.substring(i, i + 6));
+            stringBuffer.append(decodeSixBitAscii(v));
         }
-        String string = stringBuffer.toString();
+        return stripAlphaSigns(stringBuffer);
+    }
+
+    /**
+     * Maps a single 6-bit value to its character in the AIS 6-bit ASCII table.
+     *
+     * @param sixBitValue a value in the range 0..63
+     * @return the corresponding character
+     */
+    public char decodeSixBitAscii(int sixBitValue) {
+        return SIX_BIT_ASCII[sixBitValue & 0x3F];
+    }
+
+    /**
+     * Applies the '@' stripping rule used by {@link #decodeString(String)} to an already decoded text.
+     *
+     * @param decoded characters decoded from the AIS 6-bit ASCII table
+     * @return the decoded text with '@' filler characters turned into spaces and trimmed (if enabled)
+     */
+    String stripAlphaSigns(CharSequence decoded) {
+        String string = decoded.toString();
         if (STRIP_ALPHA_SIGNS) {
-            string = string.replace("@", " ").trim();
+            string = string.replace('@', ' ').trim();
         }
         return string;
     }
@@ -154,73 +169,73 @@ public class BitDecoder {
     }
 
     private static final boolean STRIP_ALPHA_SIGNS = true;
-    private static final Map<Integer, String> SIX_BIT_ASCII = new TreeMap<>();
+    private static final char[] SIX_BIT_ASCII = new char[64];
 
     static {
-        SIX_BIT_ASCII.put(0, "@"); // 0
-        SIX_BIT_ASCII.put(1, "A"); // 1
-        SIX_BIT_ASCII.put(2, "B"); // 2
-        SIX_BIT_ASCII.put(3, "C"); // 3
-        SIX_BIT_ASCII.put(4, "D"); // 4
-        SIX_BIT_ASCII.put(5, "E"); // 5
-        SIX_BIT_ASCII.put(6, "F"); // 6
-        SIX_BIT_ASCII.put(7, "G"); // 7
-        SIX_BIT_ASCII.put(8, "H"); // 8
-        SIX_BIT_ASCII.put(9, "I"); // 9
-        SIX_BIT_ASCII.put(10, "J"); // 10
-        SIX_BIT_ASCII.put(11, "K"); // 11
-        SIX_BIT_ASCII.put(12, "L"); // 12
-        SIX_BIT_ASCII.put(13, "M"); // 13
-        SIX_BIT_ASCII.put(14, "N"); // 14
-        SIX_BIT_ASCII.put(15, "O"); // 15
-        SIX_BIT_ASCII.put(16, "P"); // 16
-        SIX_BIT_ASCII.put(17, "Q"); // 17
-        SIX_BIT_ASCII.put(18, "R"); // 18
-        SIX_BIT_ASCII.put(19, "S"); // 19
-        SIX_BIT_ASCII.put(20, "T"); // 20
-        SIX_BIT_ASCII.put(21, "U"); // 21
-        SIX_BIT_ASCII.put(22, "V"); // 22
-        SIX_BIT_ASCII.put(23, "W"); // 23
-        SIX_BIT_ASCII.put(24, "X"); // 24
-        SIX_BIT_ASCII.put(25, "Y"); // 25
-        SIX_BIT_ASCII.put(26, "Z"); // 26
-        SIX_BIT_ASCII.put(27, "["); // 27
-        SIX_BIT_ASCII.put(28, "\\"); // 28
-        SIX_BIT_ASCII.put(29, "]"); // 29
-        SIX_BIT_ASCII.put(30, "^"); // 30
-        SIX_BIT_ASCII.put(31, "_"); // 31
-        SIX_BIT_ASCII.put(32, " "); // 32
-        SIX_BIT_ASCII.put(33, "!"); // 33
-        SIX_BIT_ASCII.put(34, "\""); // 34
-        SIX_BIT_ASCII.put(35, "#"); // 35
-        SIX_BIT_ASCII.put(36, "$"); // 36
-        SIX_BIT_ASCII.put(37, "%"); // 37
-        SIX_BIT_ASCII.put(38, "&"); // 38
-        SIX_BIT_ASCII.put(39, "'"); // 39
-        SIX_BIT_ASCII.put(40, "("); // 40
-        SIX_BIT_ASCII.put(41, ")"); // 41
-        SIX_BIT_ASCII.put(42, "*"); // 42
-        SIX_BIT_ASCII.put(43, "+"); // 43
-        SIX_BIT_ASCII.put(44, ","); // 44
-        SIX_BIT_ASCII.put(45, "-"); // 45
-        SIX_BIT_ASCII.put(46, "."); // 46
-        SIX_BIT_ASCII.put(47, "/"); // 47
-        SIX_BIT_ASCII.put(48, "0"); // 48
-        SIX_BIT_ASCII.put(49, "1"); // 49
-        SIX_BIT_ASCII.put(50, "2"); // 50
-        SIX_BIT_ASCII.put(51, "3"); // 51
-        SIX_BIT_ASCII.put(52, "4"); // 52
-        SIX_BIT_ASCII.put(53, "5"); // 53
-        SIX_BIT_ASCII.put(54, "6"); // 54
-        SIX_BIT_ASCII.put(55, "7"); // 55
-        SIX_BIT_ASCII.put(56, "8"); // 56
-        SIX_BIT_ASCII.put(57, "9"); // 57
-        SIX_BIT_ASCII.put(58, ":"); // 58
-        SIX_BIT_ASCII.put(59, ";"); // 59
-        SIX_BIT_ASCII.put(60, "<"); // 60
-        SIX_BIT_ASCII.put(61, "="); // 61
-        SIX_BIT_ASCII.put(62, ">"); // 62
-        SIX_BIT_ASCII.put(63, "?"); // 63
+        SIX_BIT_ASCII[0] = '@'; // 0
+        SIX_BIT_ASCII[1] = 'A'; // 1
+        SIX_BIT_ASCII[2] = 'B'; // 2
+        SIX_BIT_ASCII[3] = 'C'; // 3
+        SIX_BIT_ASCII[4] = 'D'; // 4
+        SIX_BIT_ASCII[5] = 'E'; // 5
+        SIX_BIT_ASCII[6] = 'F'; // 6
+        SIX_BIT_ASCII[7] = 'G'; // 7
+        SIX_BIT_ASCII[8] = 'H'; // 8
+        SIX_BIT_ASCII[9] = 'I'; // 9
+        SIX_BIT_ASCII[10] = 'J'; // 10
+        SIX_BIT_ASCII[11] = 'K'; // 11
+        SIX_BIT_ASCII[12] = 'L'; // 12
+        SIX_BIT_ASCII[13] = 'M'; // 13
+        SIX_BIT_ASCII[14] = 'N'; // 14
+        SIX_BIT_ASCII[15] = 'O'; // 15
+        SIX_BIT_ASCII[16] = 'P'; // 16
+        SIX_BIT_ASCII[17] = 'Q'; // 17
+        SIX_BIT_ASCII[18] = 'R'; // 18
+        SIX_BIT_ASCII[19] = 'S'; // 19
+        SIX_BIT_ASCII[20] = 'T'; // 20
+        SIX_BIT_ASCII[21] = 'U'; // 21
+        SIX_BIT_ASCII[22] = 'V'; // 22
+        SIX_BIT_ASCII[23] = 'W'; // 23
+        SIX_BIT_ASCII[24] = 'X'; // 24
+        SIX_BIT_ASCII[25] = 'Y'; // 25
+        SIX_BIT_ASCII[26] = 'Z'; // 26
+        SIX_BIT_ASCII[27] = '['; // 27
+        SIX_BIT_ASCII[28] = '\\'; // 28
+        SIX_BIT_ASCII[29] = ']'; // 29
+        SIX_BIT_ASCII[30] = '^'; // 30
+        SIX_BIT_ASCII[31] = '_'; // 31
+        SIX_BIT_ASCII[32] = ' '; // 32
+        SIX_BIT_ASCII[33] = '!'; // 33
+        SIX_BIT_ASCII[34] = '"'; // 34
+        SIX_BIT_ASCII[35] = '#'; // 35
+        SIX_BIT_ASCII[36] = '$'; // 36
+        SIX_BIT_ASCII[37] = '%'; // 37
+        SIX_BIT_ASCII[38] = '&'; // 38
+        SIX_BIT_ASCII[39] = '\''; // 39
+        SIX_BIT_ASCII[40] = '('; // 40
+        SIX_BIT_ASCII[41] = ')'; // 41
+        SIX_BIT_ASCII[42] = '*'; // 42
+        SIX_BIT_ASCII[43] = '+'; // 43
+        SIX_BIT_ASCII[44] = ','; // 44
+        SIX_BIT_ASCII[45] = '-'; // 45
+        SIX_BIT_ASCII[46] = '.'; // 46
+        SIX_BIT_ASCII[47] = '/'; // 47
+        SIX_BIT_ASCII[48] = '0'; // 48
+        SIX_BIT_ASCII[49] = '1'; // 49
+        SIX_BIT_ASCII[50] = '2'; // 50
+        SIX_BIT_ASCII[51] = '3'; // 51
+        SIX_BIT_ASCII[52] = '4'; // 52
+        SIX_BIT_ASCII[53] = '5'; // 53
+        SIX_BIT_ASCII[54] = '6'; // 54
+        SIX_BIT_ASCII[55] = '7'; // 55
+        SIX_BIT_ASCII[56] = '8'; // 56
+        SIX_BIT_ASCII[57] = '9'; // 57
+        SIX_BIT_ASCII[58] = ':'; // 58
+        SIX_BIT_ASCII[59] = ';'; // 59
+        SIX_BIT_ASCII[60] = '<'; // 60
+        SIX_BIT_ASCII[61] = '='; // 61
+        SIX_BIT_ASCII[62] = '>'; // 62
+        SIX_BIT_ASCII[63] = '?'; // 63
     }
 
 }
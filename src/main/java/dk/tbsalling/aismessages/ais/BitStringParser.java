@@ -16,8 +16,8 @@
 
 package dk.tbsalling.aismessages.ais;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * BitStringParser provides a clean separation between AIS message bitstring parsing
@@ -28,17 +28,107 @@ import lombok.Getter;
  * <p>
  * The parser provides typed methods for extracting different data types from specific
  * bit ranges, using the standard AIS decoders.
+ * <p>
+ * Internally the bits are packed most significant bit first into an array of longs, so numeric
+ * fields are extracted by shift-and-mask without creating intermediate strings. Bits beyond the
+ * length of the bit string read as zero.
  *
  * @author tbsalling
  */
-@Getter
-@AllArgsConstructor
 public final class BitStringParser {
 
     /**
-     * The binary string representation of the AIS message payload (string of 0's and 1's).
+     * Creates a parser for the given binary string representation of an AIS message payload.
+     *
+     * @param bitString string of '0' and '1' characters
+     * @throws NumberFormatException if the string contains characters other than '0' or '1'
      */
-    private final String bitString;
+    public BitStringParser(String bitString) {
+        int length = bitString.length();
+        long[] words = new long[wordsFor(length)];
+        for (int i = 0; i < length; i++) {
+            char c = bitString.charAt(i);
+            if (c == '1')
+                words[i >>> 6] |= 1L << (63 - (i & 63));
+            else if (c != '0')
+                throw new NumberFormatException("Invalid bit character '" + c + "' at index " + i);
+        }
+        this.words = words;
+        this.length = length;
+    }
+
+    private BitStringParser(long[] words, int length) {
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Creates a parser directly from the six-bit armoured payload of one or more NMEA sentences,
+     * without building an intermediate binary string.
+     * <p>
+     * The payloads are concatenated in the given order, and the fill bits are discarded from the end
+     * of the last payload.
+     *
+     * @param fillBits        number of fill bits to discard from the end (0..5)
+     * @param encodedPayloads the six-bit encoded payloads
+     * @return a parser for the decoded payload bits
+     * @throws IllegalArgumentException if fillBits is out of range or a payload contains an invalid six-bit character
+     */
+    public static BitStringParser fromSixBitPayload(int fillBits, CharSequence... encodedPayloads) {
+        int numberOfChars = 0;
+        for (CharSequence encodedPayload : encodedPayloads) {
+            numberOfChars += encodedPayload.length();
+        }
+        int length = checkFillBits(fillBits, numberOfChars);
+        long[] words = new long[wordsFor(numberOfChars * 6)];
+        int bitIndex = 0;
+        for (CharSequence encodedPayload : encodedPayloads) {
+            for (int i = 0; i < encodedPayload.length(); i++) {
+                put(words, bitIndex, sixBitValue(encodedPayload.charAt(i)));
+                bitIndex += 6;
+            }
+        }
+        return new BitStringParser(clearTrailingBits(words, length), length);
+    }
+
+    /**
+     * Creates a parser directly from a slice of ASCII bytes holding a six-bit armoured payload.
+     *
+     * @param bytes    the bytes holding the encoded payload
+     * @param offset   index of the first payload byte
+     * @param count    number of payload bytes
+     * @param fillBits number of fill bits to discard from the end (0..5)
+     * @return a parser for the decoded payload bits
+     * @throws IllegalArgumentException if fillBits is out of range or the slice contains an invalid six-bit character
+     */
+    public static BitStringParser fromSixBitPayload(byte[] bytes, int offset, int count, int fillBits) {
+        int length = checkFillBits(fillBits, count);
+        long[] words = new long[wordsFor(count * 6)];
+        for (int i = 0; i < count; i++) {
+            put(words, i * 6, sixBitValue((char) (bytes[offset + i] & 0xFF)));
+        }
+        return new BitStringParser(clearTrailingBits(words, length), length);
+    }
+
+    /**
+     * Creates a parser directly from the remaining ASCII bytes of a buffer holding a six-bit armoured payload.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer   the buffer; the payload is read from position to limit
+     * @param fillBits number of fill bits to discard from the end (0..5)
+     * @return a parser for the decoded payload bits
+     * @throws IllegalArgumentException if fillBits is out of range or the buffer contains an invalid six-bit character
+     */
+    public static BitStringParser fromSixBitPayload(ByteBuffer buffer, int fillBits) {
+        int position = buffer.position();
+        int count = buffer.remaining();
+        int length = checkFillBits(fillBits, count);
+        long[] words = new long[wordsFor(count * 6)];
+        for (int i = 0; i < count; i++) {
+            put(words, i * 6, sixBitValue((char) (buffer.get(position + i) & 0xFF)));
+        }
+        return new BitStringParser(clearTrailingBits(words, length), length);
+    }
 
     /**
      * Retrieves a substring of the zero bit-stuffed string based on the given beginIndex and endIndex.
@@ -50,7 +140,12 @@ public final class BitStringParser {
      * @return the substring of the zero bit-stuffed string
      */
     public String getBits(int beginIndex, int endIndex) {
-        return getZeroBitStuffedString(endIndex).substring(beginIndex, endIndex);
+        checkRange(beginIndex, endIndex);
+        char[] chars = new char[endIndex - beginIndex];
+        for (int i = beginIndex; i < endIndex; i++) {
+            chars[i - beginIndex] = bit(i) ? '1' : '0';
+        }
+        return new String(chars);
     }
 
     /**
@@ -61,7 +156,21 @@ public final class BitStringParser {
      * @return the decoded unsigned integer value
      */
     public int getUnsignedInt(int beginIndex, int endIndex) {
-        return BitDecoder.INSTANCE.decodeUnsignedInt(getBits(beginIndex, endIndex));
+        checkRange(beginIndex, endIndex);
+        int width = endIndex - beginIndex;
+        if (width == 0)
+            throw new NumberFormatException("Cannot decode integer from empty bit range " + beginIndex + ".." + endIndex);
+        if (width > 32) {
+            // Wider ranges are accepted as long as the value itself fits in 32 bits
+            int leading = width - 32;
+            for (int i = beginIndex; i < beginIndex + leading; i++) {
+                if (bit(i))
+                    throw new NumberFormatException("Value in bit range " + beginIndex + ".." + endIndex + " exceeds 32 bits");
+            }
+            beginIndex += leading;
+            width = 32;
+        }
+        return (int) extract(beginIndex, width);
     }
 
     /**
@@ -72,7 +181,12 @@ public final class BitStringParser {
      * @return the decoded signed integer value
      */
     public int getSignedInt(int beginIndex, int endIndex) {
-        return BitDecoder.INSTANCE.decodeSignedInt(getBits(beginIndex, endIndex));
+        checkRange(beginIndex, endIndex);
+        int width = endIndex - beginIndex;
+        if (width == 0 || width > 32)
+            throw new NumberFormatException("Cannot decode signed integer from bit range " + beginIndex + ".." + endIndex);
+        int shift = 64 - width;
+        return (int) (extract(beginIndex, width) << shift >> shift); // two's complement sign extension
     }
 
     /**
@@ -83,7 +197,7 @@ public final class BitStringParser {
      * @return the decoded unsigned float value
      */
     public float getUnsignedFloat(int beginIndex, int endIndex) {
-        return BitDecoder.INSTANCE.decodeUnsignedFloat(getBits(beginIndex, endIndex));
+        return (float) getUnsignedInt(beginIndex, endIndex);
     }
 
     /**
@@ -94,7 +208,7 @@ public final class BitStringParser {
      * @return the decoded signed float value
      */
     public float getSignedFloat(int beginIndex, int endIndex) {
-        return BitDecoder.INSTANCE.decodeFloat(getBits(beginIndex, endIndex));
+        return (float) getSignedInt(beginIndex, endIndex);
     }
 
     /**
@@ -105,7 +219,10 @@ public final class BitStringParser {
      * @return the decoded boolean value
      */
     public boolean getBoolean(int beginIndex, int endIndex) {
-        return BitDecoder.INSTANCE.decodeBoolean(getBits(beginIndex, endIndex));
+        checkRange(beginIndex, endIndex);
+        if (endIndex == beginIndex)
+            throw new StringIndexOutOfBoundsException("Cannot decode boolean from empty bit range at " + beginIndex);
+        return bit(beginIndex);
     }
 
     /**
@@ -116,7 +233,12 @@ public final class BitStringParser {
      * @return the decoded string value
      */
     public String getString(int beginIndex, int endIndex) {
-        return BitDecoder.INSTANCE.decodeString(getBits(beginIndex, endIndex));
+        checkRange(beginIndex, endIndex);
+        StringBuilder decoded = new StringBuilder((endIndex - beginIndex) / 6 + 1);
+        for (int i = beginIndex; i + 6 <= endIndex; i += 6) {
+            decoded.append(BitDecoder.INSTANCE.decodeSixBitAscii((int) extract(i, 6)));
+        }
+        return BitDecoder.INSTANCE.stripAlphaSigns(decoded);
     }
 
     /**
@@ -128,7 +250,18 @@ public final class BitStringParser {
      * @return the bit pattern as a string
      */
     public String getBitPattern(int beginIndex, int endIndex) {
-        return BitDecoder.INSTANCE.getBitString(getBits(beginIndex, endIndex));
+        return getBits(beginIndex, endIndex);
+    }
+
+    /**
+     * Returns the binary string representation of the AIS message payload (string of 0's and 1's).
+     * <p>
+     * The string is built from the packed bits on every call.
+     *
+     * @return the bit string
+     */
+    public String getBitString() {
+        return getBits(0, length);
     }
 
     /**
@@ -137,23 +270,112 @@ public final class BitStringParser {
      * @return the number of bits in the bit string
      */
     public int getLength() {
-        return bitString.length();
+        return length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BitStringParser that)) return false;
+        return length == that.length && Arrays.equals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * length + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return getBitString();
     }
 
     /**
-     * Returns a zero bit-stuffed string based on the given endIndex.
-     * <p>
-     * If the bitString is shorter than endIndex, it is padded with zeros.
-     *
-     * @param endIndex the index where the string should end
-     * @return the zero bit-stuffed string
+     * Returns the bit at the given index; bits beyond the length read as zero.
+     */
+    private boolean bit(int index) {
+        return (word(index >>> 6) & (1L << (63 - (index & 63)))) != 0;
+    }
+
+    /**
+     * Extracts up to 64 bits starting at beginIndex as an unsigned value right-aligned in a long.
+     */
+    private long extract(int beginIndex, int width) {
+        int wordIndex = beginIndex >>> 6;
+        int offset = beginIndex & 63;
+        long value = word(wordIndex) << offset;
+        if (offset + width > 64)
+            value |= word(wordIndex + 1) >>> (64 - offset);
+        return value >>> (64 - width);
+    }
+
+    private long word(int wordIndex) {
+        return wordIndex < words.length ? words[wordIndex] : 0L;
+    }
+
+    private static void checkRange(int beginIndex, int endIndex) {
+        if (beginIndex < 0 || endIndex < beginIndex)
+            throw new StringIndexOutOfBoundsException("begin " + beginIndex + ", end " + endIndex);
+    }
+
+    /**
+     * Converts a character of the six-bit armoured payload to its six-bit value.
      */
-    private String getZeroBitStuffedString(int endIndex) {
-        int deficit = endIndex - bitString.length();
-        if (deficit > 0) {
-            return bitString + "0".repeat(deficit);
+    private static int sixBitValue(char c) {
+        int value = c - 48;
+        if (value > 40)
+            value -= 8;
+        if (c < '0' || c > 'w' || (c > 'W' && c < '`'))
+            throw new IllegalArgumentException("Invalid six-bit character: '" + c + "'");
+        return value;
+    }
+
+    /**
+     * Writes a six-bit value at the given bit index, possibly spanning two words.
+     */
+    private static void put(long[] words, int bitIndex, int sixBitValue) {
+        int wordIndex = bitIndex >>> 6;
+        int offset = bitIndex & 63;
+        int shift = 58 - offset;
+        if (shift >= 0) {
+            words[wordIndex] |= (long) sixBitValue << shift;
+        } else {
+            words[wordIndex] |= (long) sixBitValue >>> -shift;
+            words[wordIndex + 1] |= (long) sixBitValue << (64 + shift);
         }
-        return bitString;
     }
 
+    private static int checkFillBits(int fillBits, int numberOfChars) {
+        if (fillBits < 0 || fillBits > 5)
+            throw new IllegalArgumentException("fillBits must be in range 0..5");
+        return Math.max(0, numberOfChars * 6 - fillBits);
+    }
+
+    /**
+     * Zeroes the fill bits after the given length, so that reads beyond the length yield zero.
+     */
+    private static long[] clearTrailingBits(long[] words, int length) {
+        int used = length & 63;
+        int wordIndex = length >>> 6;
+        if (used != 0)
+            words[wordIndex] &= -1L << (64 - used);
+        else if (wordIndex < words.length)
+            words[wordIndex] = 0L;
+        return words;
+    }
+
+    static int wordsFor(int numberOfBits) {
+        return (numberOfBits + 63) >>> 6;
+    }
+
+    /**
+     * The payload bits packed most significant bit first; unused trailing bits are zero.
+     */
+    private final long[] words;
+
+    /**
+     * The number of bits in the payload.
+     */
+    private final int length;
+
 }
@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
@@ -96,17 +97,17 @@ public abstract sealed class AISMessage permits AddressedBinaryMessage, Addresse
      * @param received        the metadata received timestamp (can be null)
      * @param nmeaTagBlock    the NMEA tag block
      * @param nmeaMessages    the NMEA messages
-     * @param bitString       the binary string representation
+     * @param payload         the packed payload bits
      * @param source          the metadata source (can be null)
      * @param sourceMmsi      the pre-parsed source MMSI
      * @param repeatIndicator the pre-parsed repeat indicator
      */
-    protected AISMessage(Instant received, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, MMSI sourceMmsi, int repeatIndicator) {
+    protected AISMessage(Instant received, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, MMSI sourceMmsi, int repeatIndicator) {
         requireNonNull(nmeaMessages);
-        requireNonNull(bitString);
+        requireNonNull(payload);
 
-        this.numberOfBits = bitString.length();
-        this.metadata = new Metadata(received, nmeaTagBlock, nmeaMessages, Version.VERSION, bitString, source);
+        this.numberOfBits = payload.getLength();
+        this.metadata = new Metadata(received, nmeaTagBlock, nmeaMessages, Version.VERSION, payload, source);
         this.repeatIndicator = repeatIndicator;
         this.sourceMmsi = sourceMmsi;
 
@@ -115,9 +116,11 @@ public abstract sealed class AISMessage permits AddressedBinaryMessage, Addresse
 
     /**
      * Compute a SHA-1 message digest of this AISmessage. Suitable for e.g. doublet discovery and filtering.
+     * For suppressing doublets in high-volume streams, use the much cheaper AISMessageDeduplicator instead.
      *
      * @return Message digest
      * @throws NoSuchAlgorithmException if SHA-1 algorithm is not accessible
+     * @see dk.tbsalling.aismessages.nmea.AISMessageDeduplicator
      */
     public byte[] digest() throws NoSuchAlgorithmException {
         MessageDigest messageDigester = MessageDigest.getInstance("SHA");
@@ -136,12 +139,12 @@ public abstract sealed class AISMessage permits AddressedBinaryMessage, Addresse
     protected void checkAISMessage() {
         StringBuilder message = new StringBuilder();
 
-        final String bitString = metadata.bitString();
+        final BitStringParser payload = metadata.payload();
 
-        if (bitString.length() < 6)
-            message.append(String.format("Message is too short to determine message type: %d bits.", bitString.length()));
+        if (payload.getLength() < 6)
+            message.append(String.format("Message is too short to determine message type: %d bits.", payload.getLength()));
 
-        final int messageType = Integer.parseInt(bitString.substring(0, 6), 2);
+        final int messageType = payload.getUnsignedInt(0, 6);
         if (messageType < AISMessageType.MINIMUM_CODE || messageType > AISMessageType.MAXIMUM_CODE)
             message.append(String.format("Unsupported message type: %d.", messageType));
         else if (messageType != getMessageType().getCode())
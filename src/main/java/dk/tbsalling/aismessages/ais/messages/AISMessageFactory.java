@@ -34,6 +34,9 @@ public class AISMessageFactory {
 
     private static final String[] CHAR_TO_SIX_BIT = new String[128];
 
+    /** Number of armoured characters needed to cover the 38 header bits. */
+    private static final int HEADER_CHARS = 7;
+
     static {
         CHAR_TO_SIX_BIT['0'] = "000000"; // 0 (ASCII 48)
         CHAR_TO_SIX_BIT['1'] = "000001"; // 1 (ASCII 49)
@@ -134,11 +137,63 @@ public class AISMessageFactory {
      * Create proper type of AISMessage from 1..n NMEA messages, and attach metadata.
      */
     public static AISMessage create(Instant received, String source, NMEATagBlock nmeaTagBlock, NMEAMessage... nmeaMessages) {
-        // Decode payload into bit string
-        String bitString = decodePayloadToBitString(nmeaMessages);
+        return create(false, received, source, nmeaTagBlock, nmeaMessages);
+    }
+
+    /**
+     * Create proper type of AISMessage from 1..n NMEA messages, and attach metadata - in lazy mode.
+     * <p>
+     * In lazy mode the fields which are costly to decode (communication states, binary data and
+     * application specific messages, and 6-bit text fields of static data reports) are not decoded
+     * up front. Instead they are decoded from the packed payload kept in the message metadata, the first
+     * time their getters are called. The public getters return the same values as in eager mode.
+     */
+    public static AISMessage createLazily(Instant received, String source, NMEATagBlock nmeaTagBlock, NMEAMessage... nmeaMessages) {
+        return create(true, received, source, nmeaTagBlock, nmeaMessages);
+    }
+
+    /**
+     * Evaluate a filter on the header of an AIS message, without decoding the message. Only the first
+     * 7 characters of the armoured payload - holding the message type, repeat indicator and source MMSI -
+     * are looked at.
+     * <p>
+     * Messages with a header which cannot be evaluated (too short, invalid characters or unknown message type)
+     * are accepted, so that they are reported by {@link #create} as usual.
+     *
+     * @param filter the filter to evaluate.
+     * @param nmeaMessage the first (or only) NMEA message carrying the AIS message.
+     * @return true if the AIS message should be decoded.
+     */
+    public static boolean accepts(AISMessageFilter filter, NMEAMessage nmeaMessage) {
+        String encodedPayload = nmeaMessage.getEncodedPayload();
+        if (encodedPayload == null || encodedPayload.length() < HEADER_CHARS)
+            return true;
+
+        long header = 0;
+        for (int i = 0; i < HEADER_CHARS; i++) {
+            char c = encodedPayload.charAt(i);
+            if (c < '0' || c > 'w' || (c > 'W' && c < '`'))
+                return true;
+            int value = c - 48;
+            header = header << 6 | (value > 40 ? value - 8 : value);
+        }
+
+        // 42 bits: type (6), repeat indicator (2), MMSI (30) and 4 bits of the following field
+        AISMessageType messageType = AISMessageType.fromInteger((int) (header >>> 36));
+        if (messageType == null)
+            return true;
+        int repeatIndicator = (int) (header >>> 34) & 0x3;
+        int mmsi = (int) (header >>> 4) & 0x3FFFFFFF;
+
+        return filter.test(messageType, mmsi, repeatIndicator);
+    }
+
+    private static AISMessage create(boolean lazy, Instant received, String source, NMEATagBlock nmeaTagBlock, NMEAMessage... nmeaMessages) {
+        // Decode payload straight from the six-bit armoured NMEA payload(s)
+        BitStringParser parser = decodePayload(nmeaMessages);
 
         // Determine message type
-        AISMessageType messageType = AISMessageType.fromInteger(Integer.parseInt(bitString.substring(0, 6), 2));
+        AISMessageType messageType = AISMessageType.fromInteger(parser.getUnsignedInt(0, 6));
         if (messageType == null) {
             StringBuilder sb = new StringBuilder();
             for (NMEAMessage nmeaMessage : nmeaMessages) {
@@ -147,9 +202,6 @@ public class AISMessageFactory {
             throw new dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage("Cannot extract message type from NMEA message: %s".formatted(sb.toString()));
         }
 
-        // Use BitStringParser to parse the message
-        BitStringParser parser = new BitStringParser(bitString);
-
         // Parse common fields from all messages
         int repeatIndicator = parser.getUnsignedInt(6, 8);
         MMSI sourceMmsi = new MMSI(parser.getUnsignedInt(8, 38));
@@ -161,17 +213,17 @@ public class AISMessageFactory {
                 repeatIndicator,
                 nmeaTagBlock,
                 nmeaMessages,
-                bitString,
                 source,
                 received,
-                parser
+                parser,
+                lazy
         );
     }
 
-    private static ShipAndVoyageData createShipAndVoyageData(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static ShipAndVoyageData createShipAndVoyageData(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser, boolean lazy) {
         IMO imo = new IMO(parser.getUnsignedInt(40, 70));
-        String callsign = parser.getString(70, 112);
-        String shipName = parser.getString(112, 232);
+        String callsign = lazy ? null : decodeCallsign(parser);
+        String shipName = lazy ? null : decodeShipName(AISMessageType.ShipAndVoyageRelatedData, parser);
         ShipType shipType = ShipType.fromInteger(parser.getUnsignedInt(232, 240));
         int toBow = parser.getUnsignedInt(240, 249);
         int toStern = parser.getUnsignedInt(249, 258);
@@ -183,35 +235,35 @@ public class AISMessageFactory {
         int etaHour = parser.getUnsignedInt(283, 288);
         int etaMinute = parser.getUnsignedInt(288, 294);
         float draught = parser.getUnsignedFloat(294, 302) / 10f;
-        String destination = parser.getString(302, 422);
+        String destination = lazy ? null : decodeDestination(parser);
         boolean dataTerminalReady = parser.getBoolean(422, 423);
         int rawDraught = parser.getUnsignedInt(294, 302);
 
-        return new ShipAndVoyageData(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new ShipAndVoyageData(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 imo, callsign, shipName, shipType, toBow, toStern, toPort, toStarboard,
                 positionFixingDevice, etaMonth, etaDay, etaHour, etaMinute, draught, destination, dataTerminalReady, rawDraught);
     }
 
-    private static PositionReport createPositionReportClassAScheduled(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser,
-                                                              AISMessageType messageType) {
-        return createPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser,
-                messageType, PositionReportClassAScheduled::new);
+    private static PositionReport createPositionReportClassAScheduled(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser,
+                                                              AISMessageType messageType, boolean lazy) {
+        return createPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser,
+                messageType, lazy, PositionReportClassAScheduled::new);
     }
 
-    private static PositionReport createPositionReportClassAAssignedSchedule(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser,
-                                                                     AISMessageType messageType) {
-        return createPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser,
-                messageType, PositionReportClassAAssignedSchedule::new);
+    private static PositionReport createPositionReportClassAAssignedSchedule(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser,
+                                                                     AISMessageType messageType, boolean lazy) {
+        return createPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser,
+                messageType, lazy, PositionReportClassAAssignedSchedule::new);
     }
 
-    private static PositionReport createPositionReportClassAResponseToInterrogation(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser,
-                                                                            AISMessageType messageType) {
-        return createPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser,
-                messageType, PositionReportClassAResponseToInterrogation::new);
+    private static PositionReport createPositionReportClassAResponseToInterrogation(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser,
+                                                                            AISMessageType messageType, boolean lazy) {
+        return createPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser,
+                messageType, lazy, PositionReportClassAResponseToInterrogation::new);
     }
 
-    private static PositionReport createPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser,
-                                                       AISMessageType messageType,
+    private static PositionReport createPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser,
+                                                       AISMessageType messageType, boolean lazy,
                                                        PositionReportConstructor constructor) {
         NavigationStatus navigationStatus = NavigationStatus.fromInteger(parser.getUnsignedInt(38, 42));
         int rawRateOfTurn = parser.getSignedInt(42, 50);
@@ -231,22 +283,15 @@ public class AISMessageFactory {
         boolean raimFlag = parser.getBoolean(148, 149);
 
         // Communication state depends on the message type
-        CommunicationState communicationState = switch (messageType) {
-            case PositionReportClassAScheduled, PositionReportClassAAssignedSchedule ->
-                    SOTDMACommunicationState.fromBitString(parser.getBitPattern(149, 168));
-            case PositionReportClassAResponseToInterrogation ->
-                    ITDMACommunicationState.fromBitString(parser.getBitPattern(149, 168));
-            default ->
-                    throw new IllegalArgumentException("Unsupported message type for PositionReport: " + messageType);
-        };
+        CommunicationState communicationState = lazy ? null : decodeCommunicationState(messageType, parser);
 
-        return constructor.create(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return constructor.create(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 navigationStatus, rateOfTurn, speedOverGround, positionAccuracy, latitude, longitude,
                 courseOverGround, trueHeading, second, specialManeuverIndicator, raimFlag, communicationState,
                 rawRateOfTurn, rawSpeedOverGround, rawLatitude, rawLongitude, rawCourseOverGround);
     }
 
-    private static BaseStationReport createBaseStationReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static BaseStationReport createBaseStationReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser, boolean lazy) {
         int year = parser.getUnsignedInt(38, 52);
         int month = parser.getUnsignedInt(52, 56);
         int day = parser.getUnsignedInt(56, 61);
@@ -258,29 +303,29 @@ public class AISMessageFactory {
         float latitude = parser.getSignedFloat(107, 134) / 600000f;
         PositionFixingDevice positionFixingDevice = PositionFixingDevice.fromInteger(parser.getUnsignedInt(134, 138));
         boolean raimFlag = parser.getBoolean(148, 149);
-        SOTDMACommunicationState communicationState = SOTDMACommunicationState.fromBitString(parser.getBits(149, 168));
+        SOTDMACommunicationState communicationState = lazy ? null : decodeSOTDMACommunicationState(parser);
 
-        return new BaseStationReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new BaseStationReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 year, month, day, hour, minute, second, positionAccurate, latitude, longitude,
                 positionFixingDevice, raimFlag, communicationState);
     }
 
-    private static AddressedBinaryMessage createAddressedBinaryMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static AddressedBinaryMessage createAddressedBinaryMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser, boolean lazy) {
         int sequenceNumber = parser.getUnsignedInt(38, 40);
         MMSI destinationMmsi = new MMSI(parser.getUnsignedInt(40, 70));
         boolean retransmitFlag = parser.getBoolean(70, 71);
         int spare = parser.getUnsignedInt(71, 72);
         int designatedAreaCode = parser.getUnsignedInt(72, 82);
         int functionalId = parser.getUnsignedInt(82, 88);
-        String binaryData = parser.getBitPattern(88, parser.getLength());
-        ApplicationSpecificMessage applicationSpecificMessage = ApplicationSpecificMessage.create(designatedAreaCode, functionalId, binaryData);
+        String binaryData = lazy ? null : decodeBinaryData(AISMessageType.AddressedBinaryMessage, parser);
+        ApplicationSpecificMessage applicationSpecificMessage = lazy ? null : ApplicationSpecificMessage.create(designatedAreaCode, functionalId, binaryData);
 
-        return new AddressedBinaryMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new AddressedBinaryMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 sequenceNumber, destinationMmsi, retransmitFlag, spare, designatedAreaCode, functionalId, binaryData,
                 applicationSpecificMessage);
     }
 
-    private static BinaryAcknowledge createBinaryAcknowledge(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static BinaryAcknowledge createBinaryAcknowledge(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int spare = parser.getUnsignedInt(38, 40);
 
         MMSI mmsi1 = new MMSI(parser.getUnsignedInt(40, 70));
@@ -314,22 +359,22 @@ public class AISMessageFactory {
         if (parser.getLength() > 104) numOfAcks++;
         if (parser.getLength() > 136) numOfAcks++;
 
-        return new BinaryAcknowledge(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new BinaryAcknowledge(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 spare, mmsi1, sequence1, mmsi2, sequence2, mmsi3, sequence3, mmsi4, sequence4, numOfAcks);
     }
 
-    private static BinaryBroadcastMessage createBinaryBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static BinaryBroadcastMessage createBinaryBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser, boolean lazy) {
         Integer spare = parser.getUnsignedInt(38, 40);
         Integer designatedAreaCode = parser.getUnsignedInt(40, 50);
         Integer functionalId = parser.getUnsignedInt(50, 56);
-        String binaryData = parser.getLength() > 56 ? parser.getBitPattern(56, parser.getLength()) : "";
-        ApplicationSpecificMessage applicationSpecificMessage = ApplicationSpecificMessage.create(designatedAreaCode, functionalId, binaryData);
+        String binaryData = lazy ? null : decodeBinaryData(AISMessageType.BinaryBroadcastMessage, parser);
+        ApplicationSpecificMessage applicationSpecificMessage = lazy ? null : ApplicationSpecificMessage.create(designatedAreaCode, functionalId, binaryData);
 
-        return new BinaryBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new BinaryBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 spare, designatedAreaCode, functionalId, binaryData, applicationSpecificMessage);
     }
 
-    private static StandardSARAircraftPositionReport createStandardSARAircraftPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static StandardSARAircraftPositionReport createStandardSARAircraftPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int altitude = parser.getUnsignedInt(38, 50);
         int rawSpeedOverGround = parser.getUnsignedInt(50, 60);
         int speed = rawSpeedOverGround;
@@ -347,20 +392,20 @@ public class AISMessageFactory {
         boolean raimFlag = parser.getBoolean(147, 148);
         String radioStatus = parser.getBitPattern(148, 168);
 
-        return new StandardSARAircraftPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new StandardSARAircraftPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 altitude, speed, positionAccuracy, latitude, longitude, courseOverGround, second,
                 regionalReserved, dataTerminalReady, assigned, raimFlag, radioStatus,
                 rawSpeedOverGround, rawLongitude, rawLatitude, rawCourseOverGround);
     }
 
-    private static UTCAndDateInquiry createUTCAndDateInquiry(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static UTCAndDateInquiry createUTCAndDateInquiry(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         MMSI destinationMmsi = new MMSI(parser.getUnsignedInt(40, 70));
 
-        return new UTCAndDateInquiry(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new UTCAndDateInquiry(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 destinationMmsi);
     }
 
-    private static UTCAndDateResponse createUTCAndDateResponse(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static UTCAndDateResponse createUTCAndDateResponse(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int year = parser.getUnsignedInt(38, 52);
         int month = parser.getUnsignedInt(52, 56);
         int day = parser.getUnsignedInt(56, 61);
@@ -373,23 +418,23 @@ public class AISMessageFactory {
         PositionFixingDevice positionFixingDevice = PositionFixingDevice.fromInteger(parser.getUnsignedInt(134, 138));
         boolean raimFlag = parser.getBoolean(148, 149);
 
-        return new UTCAndDateResponse(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new UTCAndDateResponse(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 year, month, day, hour, minute, second, positionAccurate, latitude, longitude,
                 positionFixingDevice, raimFlag);
     }
 
-    private static AddressedSafetyRelatedMessage createAddressedSafetyRelatedMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static AddressedSafetyRelatedMessage createAddressedSafetyRelatedMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int sequenceNumber = parser.getUnsignedInt(38, 40);
         MMSI destinationMmsi = new MMSI(parser.getUnsignedInt(40, 70));
         boolean retransmit = parser.getBoolean(70, 71);
         int spare = parser.getUnsignedInt(71, 72);
         String text = parser.getString(72, parser.getLength());
 
-        return new AddressedSafetyRelatedMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new AddressedSafetyRelatedMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 sequenceNumber, destinationMmsi, retransmit, spare, text);
     }
 
-    private static SafetyRelatedAcknowledge createSafetyRelatedAcknowledge(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static SafetyRelatedAcknowledge createSafetyRelatedAcknowledge(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int spare = parser.getUnsignedInt(38, 40);
 
         MMSI mmsi1 = new MMSI(parser.getUnsignedInt(40, 70));
@@ -423,19 +468,19 @@ public class AISMessageFactory {
         if (parser.getLength() > 104) numOfAcks++;
         if (parser.getLength() > 136) numOfAcks++;
 
-        return new SafetyRelatedAcknowledge(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new SafetyRelatedAcknowledge(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 spare, mmsi1, sequence1, mmsi2, sequence2, mmsi3, sequence3, mmsi4, sequence4, numOfAcks);
     }
 
-    private static SafetyRelatedBroadcastMessage createSafetyRelatedBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static SafetyRelatedBroadcastMessage createSafetyRelatedBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int spare = parser.getUnsignedInt(38, 40);
         String text = parser.getString(40, parser.getLength());
 
-        return new SafetyRelatedBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new SafetyRelatedBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 spare, text);
     }
 
-    private static Interrogation createInterrogation(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static Interrogation createInterrogation(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int spare1 = parser.getUnsignedInt(38, 40);
         MMSI interrogatedMmsi1 = new MMSI(parser.getUnsignedInt(40, 70));
         int type1_1 = parser.getUnsignedInt(70, 76);
@@ -458,12 +503,12 @@ public class AISMessageFactory {
             offset2_1 = parser.getUnsignedInt(156, 162);
         }
 
-        return new Interrogation(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new Interrogation(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 interrogatedMmsi1, type1_1, offset1_1, type1_2, offset1_2,
                 interrogatedMmsi2, type2_1, offset2_1);
     }
 
-    private static AssignedModeCommand createAssignedModeCommand(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static AssignedModeCommand createAssignedModeCommand(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int spare = parser.getUnsignedInt(38, 40);
         MMSI destinationMmsiA = new MMSI(parser.getUnsignedInt(40, 70));
         Integer offsetA = parser.getUnsignedInt(70, 82);
@@ -479,11 +524,11 @@ public class AISMessageFactory {
             incrementB = parser.getUnsignedInt(134, 144);
         }
 
-        return new AssignedModeCommand(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new AssignedModeCommand(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 destinationMmsiA, offsetA, incrementA, destinationMmsiB, offsetB, incrementB);
     }
 
-    private static GNSSBinaryBroadcastMessage createGNSSBinaryBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static GNSSBinaryBroadcastMessage createGNSSBinaryBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int spare1 = parser.getUnsignedInt(38, 40);
         float longitude = parser.getSignedFloat(40, 58) / 10f;
         float latitude = parser.getSignedFloat(58, 75) / 10f;
@@ -507,11 +552,11 @@ public class AISMessageFactory {
             binaryData = parser.getBitPattern(80, parser.getLength());
         }
 
-        return new GNSSBinaryBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new GNSSBinaryBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 spare1, latitude, longitude, spare2, mType, stationId, zCount, sequenceNumber, numOfWords, health, binaryData);
     }
 
-    private static StandardClassBCSPositionReport createStandardClassBCSPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static StandardClassBCSPositionReport createStandardClassBCSPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser, boolean lazy) {
         String regionalReserved1 = parser.getBitPattern(38, 46);
         int rawSpeedOverGround = parser.getUnsignedInt(46, 56);
         float speedOverGround = rawSpeedOverGround / 10f;
@@ -534,18 +579,16 @@ public class AISMessageFactory {
         boolean raimFlag = parser.getBoolean(147, 148);
         boolean commStateSelectorFlag = parser.getBoolean(148, 149);
 
-        CommunicationState commState = commStateSelectorFlag
-                ? ITDMACommunicationState.fromBitString(parser.getBits(149, 168))
-                : SOTDMACommunicationState.fromBitString(parser.getBits(149, 168));
+        CommunicationState commState = lazy ? null : decodeCommunicationState(AISMessageType.StandardClassBCSPositionReport, parser);
 
-        return new StandardClassBCSPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new StandardClassBCSPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 regionalReserved1, speedOverGround, positionAccuracy, latitude, longitude, courseOverGround,
                 trueHeading, second, regionalReserved2, csUnit, display, dsc, band, message22, assigned,
                 raimFlag, commStateSelectorFlag, commState,
                 rawSpeedOverGround, rawLatitude, rawLongitude, rawCourseOverGround);
     }
 
-    private static ExtendedClassBEquipmentPositionReport createExtendedClassBEquipmentPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static ExtendedClassBEquipmentPositionReport createExtendedClassBEquipmentPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser, boolean lazy) {
         String regionalReserved1 = parser.getBitPattern(38, 46);
         int rawSpeedOverGround = parser.getUnsignedInt(46, 56);
         float speedOverGround = rawSpeedOverGround / 10f;
@@ -559,7 +602,7 @@ public class AISMessageFactory {
         int trueHeading = parser.getUnsignedInt(124, 133);
         int second = parser.getUnsignedInt(133, 139);
         String regionalReserved2 = parser.getBitPattern(139, 143);
-        String shipName = parser.getString(143, 263);
+        String shipName = lazy ? null : decodeShipName(AISMessageType.ExtendedClassBEquipmentPositionReport, parser);
         ShipType shipType = ShipType.fromInteger(parser.getUnsignedInt(263, 271));
         int toBow = parser.getUnsignedInt(271, 280);
         int toStern = parser.getUnsignedInt(280, 289);
@@ -571,14 +614,14 @@ public class AISMessageFactory {
         boolean assigned = parser.getBoolean(307, 308);
         String regionalReserved3 = parser.getBitPattern(308, 312);
 
-        return new ExtendedClassBEquipmentPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new ExtendedClassBEquipmentPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 regionalReserved1, speedOverGround, positionAccuracy, latitude, longitude, courseOverGround, trueHeading,
                 second, regionalReserved2, shipName, shipType, toBow, toStern, toPort, toStarboard,
                 positionFixingDevice, raimFlag, dataTerminalReady, assigned, regionalReserved3,
                 rawSpeedOverGround, rawLatitude, rawLongitude, rawCourseOverGround);
     }
 
-    private static DataLinkManagement createDataLinkManagement(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static DataLinkManagement createDataLinkManagement(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int spare = parser.getUnsignedInt(38, 40);
         int offsetNumber1 = parser.getUnsignedInt(40, 52);
         int reservedSlots1 = parser.getUnsignedInt(52, 56);
@@ -619,14 +662,14 @@ public class AISMessageFactory {
             increment4 = parser.getUnsignedInt(147, 154);
         }
 
-        return new DataLinkManagement(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new DataLinkManagement(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 offsetNumber1, reservedSlots1, timeout1, increment1,
                 offsetNumber2, reservedSlots2, timeout2, increment2,
                 offsetNumber3, reservedSlots3, timeout3, increment3,
                 offsetNumber4, reservedSlots4, timeout4, increment4);
     }
 
-    private static AidToNavigationReport createAidToNavigationReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static AidToNavigationReport createAidToNavigationReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         AidType aidType = AidType.fromInteger(parser.getUnsignedInt(38, 43));
         String name = parser.getString(43, 163);
         boolean positionAccurate = parser.getBoolean(163, 164);
@@ -658,13 +701,13 @@ public class AISMessageFactory {
             }
         }
 
-        return new AidToNavigationReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new AidToNavigationReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 aidType, name, positionAccurate, latitude, longitude, toBow, toStern, toPort, toStarboard,
                 positionFixingDevice, second, offPosition, regionalUse, raimFlag, virtualAid, assignedMode,
                 spare1, nameExtension, spare2);
     }
 
-    private static ChannelManagement createChannelManagement(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static ChannelManagement createChannelManagement(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int spare1 = parser.getUnsignedInt(38, 40);
         int channelA = parser.getUnsignedInt(40, 52);
         int channelB = parser.getUnsignedInt(52, 64);
@@ -697,13 +740,13 @@ public class AISMessageFactory {
         boolean bandB = parser.getBoolean(141, 142);
         int zoneSize = parser.getUnsignedInt(142, 145);
 
-        return new ChannelManagement(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new ChannelManagement(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 channelA, channelB, transmitReceiveMode, power, northEastLongitude, northEastLatitude,
                 southWestLongitude, southWestLatitude, destinationMmsi1, destinationMmsi2, addressed,
                 bandA, bandB, zoneSize);
     }
 
-    private static GroupAssignmentCommand createGroupAssignmentCommand(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static GroupAssignmentCommand createGroupAssignmentCommand(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         String spare1 = parser.getString(38, 40);
         float northEastLongitude = parser.getSignedFloat(40, 58) / 10f;
         float northEastLatitude = parser.getSignedFloat(58, 75) / 10f;
@@ -716,12 +759,12 @@ public class AISMessageFactory {
         ReportingInterval reportingInterval = ReportingInterval.fromInteger(parser.getUnsignedInt(168, 172));
         int quietTime = parser.getUnsignedInt(172, 176);
 
-        return new GroupAssignmentCommand(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new GroupAssignmentCommand(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 spare1, northEastLongitude, northEastLatitude, southWestLongitude, southWestLatitude,
                 stationType, shipType, spare2, transmitReceiveMode, reportingInterval, quietTime);
     }
 
-    private static ClassBCSStaticDataReport createClassBCSStaticDataReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static ClassBCSStaticDataReport createClassBCSStaticDataReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         int spare = parser.getUnsignedInt(38, 40);
         int partNumber = parser.getUnsignedInt(38, 40);
 
@@ -753,21 +796,21 @@ public class AISMessageFactory {
             }
         }
 
-        return new ClassBCSStaticDataReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new ClassBCSStaticDataReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 partNumber, shipName, shipType, vendorId, callsign, toBow, toStern, toStarboard, toPort, mothershipMmsi);
     }
 
-    private static BinaryMessageSingleSlot createBinaryMessageSingleSlot(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static BinaryMessageSingleSlot createBinaryMessageSingleSlot(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         boolean destinationIndicator = parser.getBoolean(38, 39);
         boolean binaryDataFlag = parser.getBoolean(39, 40);
         MMSI destinationMMSI = new MMSI(parser.getUnsignedInt(40, 70));
         String binaryData = parser.getBitPattern(40, 168);
 
-        return new BinaryMessageSingleSlot(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new BinaryMessageSingleSlot(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 destinationIndicator, binaryDataFlag, destinationMMSI, binaryData);
     }
 
-    private static BinaryMessageMultipleSlot createBinaryMessageMultipleSlot(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static BinaryMessageMultipleSlot createBinaryMessageMultipleSlot(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         boolean addressed = parser.getBoolean(38, 39);
         boolean structured = parser.getBoolean(39, 40);
 
@@ -784,11 +827,11 @@ public class AISMessageFactory {
             data = data + "0".repeat(maxDataBits - data.length());
         }
 
-        return new BinaryMessageMultipleSlot(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new BinaryMessageMultipleSlot(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 addressed, structured, destinationMmsi, applicationId, data);
     }
 
-    private static LongRangeBroadcastMessage createLongRangeBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received, BitStringParser parser) {
+    private static LongRangeBroadcastMessage createLongRangeBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String source, Instant received, BitStringParser parser) {
         boolean positionAccuracy = parser.getBoolean(38, 39);
         boolean raim = parser.getBoolean(39, 40);
         NavigationStatus status = NavigationStatus.fromInteger(parser.getUnsignedInt(40, 44));
@@ -803,11 +846,55 @@ public class AISMessageFactory {
         int positionLatency = parser.getUnsignedInt(94, 95);
         int spare = parser.getUnsignedInt(95, 96);
 
-        return new LongRangeBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received,
+        return new LongRangeBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, parser, source, received,
                 positionAccuracy, raim, status, latitude, longitude, speed, course, positionLatency, spare,
                 rawLongitude, rawLatitude, rawSpeedOverGround, rawCourseOverGround);
     }
 
+    // Decoders of fields which can be decoded lazily (placed before private helper methods)
+
+    static CommunicationState decodeCommunicationState(AISMessageType messageType, BitStringParser parser) {
+        return switch (messageType) {
+            case PositionReportClassAScheduled, PositionReportClassAAssignedSchedule, BaseStationReport ->
+                    SOTDMACommunicationState.fromBitString(parser.getBitPattern(149, 168));
+            case PositionReportClassAResponseToInterrogation ->
+                    ITDMACommunicationState.fromBitString(parser.getBitPattern(149, 168));
+            case StandardClassBCSPositionReport -> parser.getBoolean(148, 149)
+                    ? ITDMACommunicationState.fromBitString(parser.getBits(149, 168))
+                    : SOTDMACommunicationState.fromBitString(parser.getBits(149, 168));
+            default ->
+                    throw new IllegalArgumentException("Unsupported message type for communication state: " + messageType);
+        };
+    }
+
+    static SOTDMACommunicationState decodeSOTDMACommunicationState(BitStringParser parser) {
+        return SOTDMACommunicationState.fromBitString(parser.getBits(149, 168));
+    }
+
+    static String decodeBinaryData(AISMessageType messageType, BitStringParser parser) {
+        return switch (messageType) {
+            case AddressedBinaryMessage -> parser.getBitPattern(88, parser.getLength());
+            case BinaryBroadcastMessage -> parser.getLength() > 56 ? parser.getBitPattern(56, parser.getLength()) : "";
+            default -> throw new IllegalArgumentException("Unsupported message type for binary data: " + messageType);
+        };
+    }
+
+    static String decodeShipName(AISMessageType messageType, BitStringParser parser) {
+        return switch (messageType) {
+            case ShipAndVoyageRelatedData -> parser.getString(112, 232);
+            case ExtendedClassBEquipmentPositionReport -> parser.getString(143, 263);
+            default -> throw new IllegalArgumentException("Unsupported message type for ship name: " + messageType);
+        };
+    }
+
+    static String decodeCallsign(BitStringParser parser) {
+        return parser.getString(70, 112);
+    }
+
+    static String decodeDestination(BitStringParser parser) {
+        return parser.getString(302, 422);
+    }
+
     // Private helper methods (placed last)
     private static AISMessage createByType(
             AISMessageType messageType,
@@ -815,99 +902,95 @@ public class AISMessageFactory {
             int repeatIndicator,
             NMEATagBlock nmeaTagBlock,
             NMEAMessage[] nmeaMessages,
-            String bitString,
             String source,
             Instant received,
-            BitStringParser parser
+            BitStringParser parser,
+            boolean lazy
     ) {
         return switch (messageType) {
             case ShipAndVoyageRelatedData ->
-                    AISMessageFactory.createShipAndVoyageData(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createShipAndVoyageData(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser, lazy);
             case PositionReportClassAScheduled ->
-                    AISMessageFactory.createPositionReportClassAScheduled(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser, messageType);
+                    AISMessageFactory.createPositionReportClassAScheduled(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser, messageType, lazy);
             case PositionReportClassAAssignedSchedule ->
-                    AISMessageFactory.createPositionReportClassAAssignedSchedule(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser, messageType);
+                    AISMessageFactory.createPositionReportClassAAssignedSchedule(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser, messageType, lazy);
             case PositionReportClassAResponseToInterrogation ->
-                    AISMessageFactory.createPositionReportClassAResponseToInterrogation(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser, messageType);
+                    AISMessageFactory.createPositionReportClassAResponseToInterrogation(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser, messageType, lazy);
             case BaseStationReport ->
-                    AISMessageFactory.createBaseStationReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createBaseStationReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser, lazy);
             case AddressedBinaryMessage ->
-                    AISMessageFactory.createAddressedBinaryMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createAddressedBinaryMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser, lazy);
             case BinaryAcknowledge ->
-                    AISMessageFactory.createBinaryAcknowledge(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createBinaryAcknowledge(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case BinaryBroadcastMessage ->
-                    AISMessageFactory.createBinaryBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createBinaryBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser, lazy);
             case StandardSARAircraftPositionReport ->
-                    AISMessageFactory.createStandardSARAircraftPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createStandardSARAircraftPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case UTCAndDateInquiry ->
-                    AISMessageFactory.createUTCAndDateInquiry(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createUTCAndDateInquiry(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case UTCAndDateResponse ->
-                    AISMessageFactory.createUTCAndDateResponse(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createUTCAndDateResponse(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case AddressedSafetyRelatedMessage ->
-                    AISMessageFactory.createAddressedSafetyRelatedMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createAddressedSafetyRelatedMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case SafetyRelatedAcknowledge ->
-                    AISMessageFactory.createSafetyRelatedAcknowledge(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createSafetyRelatedAcknowledge(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case SafetyRelatedBroadcastMessage ->
-                    AISMessageFactory.createSafetyRelatedBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createSafetyRelatedBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case Interrogation ->
-                    AISMessageFactory.createInterrogation(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createInterrogation(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case AssignedModeCommand ->
-                    AISMessageFactory.createAssignedModeCommand(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createAssignedModeCommand(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case GNSSBinaryBroadcastMessage ->
-                    AISMessageFactory.createGNSSBinaryBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createGNSSBinaryBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case StandardClassBCSPositionReport ->
-                    AISMessageFactory.createStandardClassBCSPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createStandardClassBCSPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser, lazy);
             case ExtendedClassBEquipmentPositionReport ->
-                    AISMessageFactory.createExtendedClassBEquipmentPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createExtendedClassBEquipmentPositionReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser, lazy);
             case DataLinkManagement ->
-                    AISMessageFactory.createDataLinkManagement(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createDataLinkManagement(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case AidToNavigationReport ->
-                    AISMessageFactory.createAidToNavigationReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createAidToNavigationReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case ChannelManagement ->
-                    AISMessageFactory.createChannelManagement(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createChannelManagement(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case GroupAssignmentCommand ->
-                    AISMessageFactory.createGroupAssignmentCommand(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createGroupAssignmentCommand(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case ClassBCSStaticDataReport ->
-                    AISMessageFactory.createClassBCSStaticDataReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createClassBCSStaticDataReport(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case BinaryMessageSingleSlot ->
-                    AISMessageFactory.createBinaryMessageSingleSlot(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createBinaryMessageSingleSlot(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case BinaryMessageMultipleSlot ->
-                    AISMessageFactory.createBinaryMessageMultipleSlot(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createBinaryMessageMultipleSlot(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             case LongRangeBroadcastMessage ->
-                    AISMessageFactory.createLongRangeBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, bitString, source, received, parser);
+                    AISMessageFactory.createLongRangeBroadcastMessage(sourceMmsi, repeatIndicator, nmeaTagBlock, nmeaMessages, source, received, parser);
             default -> throw new dk.tbsalling.aismessages.ais.exceptions.UnsupportedMessageType(messageType.getCode());
         };
     }
 
-    private static String decodePayloadToBitString(NMEAMessage... nmeaMessages) {
+    private static BitStringParser decodePayload(NMEAMessage... nmeaMessages) {
         if (nmeaMessages == null || nmeaMessages.length == 0) {
             throw new IllegalArgumentException("nmeaMessages must contain at least one element");
         }
-        StringBuilder sixBitEncodedPayload = new StringBuilder();
+        String[] encodedPayloads = new String[nmeaMessages.length];
         int fillBits = -1;
         for (int i = 0; i < nmeaMessages.length; i++) {
             NMEAMessage m = nmeaMessages[i];
             if (m == null) {
                 throw new IllegalArgumentException("nmeaMessages[" + i + "] is null");
             }
-            sixBitEncodedPayload.append(m.getEncodedPayload());
+            encodedPayloads[i] = m.getEncodedPayload() == null ? "" : m.getEncodedPayload();
             if (i == nmeaMessages.length - 1) {
-                Integer fb = m.getFillBits();
-                if (fb == null) {
-                    throw new IllegalArgumentException("fillBits cannot be null on the last NMEAMessage");
-                }
-                fillBits = fb;
+                fillBits = m.getFillBits();
             }
         }
         if (fillBits < 0) {
             throw new IllegalArgumentException("fillBits not set");
         }
-        return toBitString(sixBitEncodedPayload.toString(), fillBits);
+        return BitStringParser.fromSixBitPayload(fillBits, encodedPayloads);
     }
 
     @FunctionalInterface
     private interface PositionReportConstructor {
-        PositionReport create(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+        PositionReport create(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                               NavigationStatus navigationStatus, int rateOfTurn, float speedOverGround,
                               boolean positionAccuracy, float latitude, float longitude,
                               float courseOverGround, int trueHeading, int second,
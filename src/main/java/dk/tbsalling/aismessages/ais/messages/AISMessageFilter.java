@@ -0,0 +1,57 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.ais.messages;
+
+import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A cheap predicate on the header of an AIS message - i.e. its message type, source MMSI and
+ * repeat indicator. The header is contained in the first 38 bits of the payload, so the predicate
+ * can be evaluated before the message is decoded. Messages rejected by the filter are never decoded.
+ *
+ * @see AISMessageFactory#accepts(AISMessageFilter, dk.tbsalling.aismessages.nmea.messages.NMEAMessage)
+ */
+@FunctionalInterface
+public interface AISMessageFilter {
+
+    /**
+     * @param messageType     the message type (bits 0-5).
+     * @param mmsi            the source MMSI (bits 8-37).
+     * @param repeatIndicator the repeat indicator (bits 6-7).
+     * @return true if the message should be decoded; false if it should be skipped.
+     */
+    boolean test(AISMessageType messageType, int mmsi, int repeatIndicator);
+
+    default AISMessageFilter and(AISMessageFilter other) {
+        return (messageType, mmsi, repeatIndicator) -> test(messageType, mmsi, repeatIndicator) && other.test(messageType, mmsi, repeatIndicator);
+    }
+
+    /** Accept only messages of the given types. */
+    static AISMessageFilter messageTypes(AISMessageType first, AISMessageType... rest) {
+        Set<AISMessageType> messageTypes = EnumSet.of(first, rest);
+        return (messageType, mmsi, repeatIndicator) -> messageTypes.contains(messageType);
+    }
+
+    /** Accept only messages from sources with an MMSI in the given range (both inclusive). */
+    static AISMessageFilter mmsiRange(int fromMmsi, int toMmsi) {
+        return (messageType, mmsi, repeatIndicator) -> mmsi >= fromMmsi && mmsi <= toMmsi;
+    }
+
+}
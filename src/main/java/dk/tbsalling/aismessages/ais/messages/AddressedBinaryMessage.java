@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.asm.ApplicationSpecificMessage;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
@@ -47,19 +48,19 @@ public class AddressedBinaryMessage extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected AddressedBinaryMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected AddressedBinaryMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                      int sequenceNumber, MMSI destinationMmsi, boolean retransmit, int spare,
                                      int designatedAreaCode, int functionalId, String binaryData,
                                      ApplicationSpecificMessage applicationSpecificMessage) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.sequenceNumber = sequenceNumber;
         this.destinationMmsi = destinationMmsi;
         this.retransmit = retransmit;
         this.spare = spare;
         this.designatedAreaCode = designatedAreaCode;
         this.functionalId = functionalId;
-        this.binaryData = binaryData;
-        this.applicationSpecificMessage = applicationSpecificMessage;
+        this.binaryData = LazyField.of(binaryData, () -> AISMessageFactory.decodeBinaryData(getMessageType(), getMetadata().payload()));
+        this.applicationSpecificMessage = LazyField.of(applicationSpecificMessage, () -> ApplicationSpecificMessage.create(designatedAreaCode, functionalId, getBinaryData()));
     }
 
     @Override
@@ -93,12 +94,20 @@ public class AddressedBinaryMessage extends AISMessage {
         return AISMessageType.AddressedBinaryMessage;
     }
 
+    public String getBinaryData() {
+        return binaryData.get();
+    }
+
+    public ApplicationSpecificMessage getApplicationSpecificMessage() {
+        return applicationSpecificMessage.get();
+    }
+
     int sequenceNumber;
     MMSI destinationMmsi;
     boolean retransmit;
     int spare;
     int designatedAreaCode;
     int functionalId;
-    String binaryData;
-    ApplicationSpecificMessage applicationSpecificMessage;
+    LazyField<String> binaryData;
+    LazyField<ApplicationSpecificMessage> applicationSpecificMessage;
 }
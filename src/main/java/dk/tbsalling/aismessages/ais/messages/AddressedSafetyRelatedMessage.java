@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
@@ -37,10 +38,10 @@ public class AddressedSafetyRelatedMessage extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected AddressedSafetyRelatedMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected AddressedSafetyRelatedMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                             int sequenceNumber, MMSI destinationMmsi,
                                             boolean retransmit, int spare, String text) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.sequenceNumber = sequenceNumber;
         this.destinationMmsi = destinationMmsi;
         this.retransmit = retransmit;
@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.AidType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
@@ -44,7 +45,7 @@ public class AidToNavigationReport extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected AidToNavigationReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected AidToNavigationReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                     AidType aidType, String name, boolean positionAccurate,
                                     float latitude, float longitude,
                                     int toBow, int toStern, int toPort, int toStarboard,
@@ -52,7 +53,7 @@ public class AidToNavigationReport extends AISMessage {
                                     boolean offPosition, String regionalUse, boolean raimFlag,
                                     boolean virtualAid, boolean assignedMode, int spare1,
                                     String nameExtension, Integer spare2) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.aidType = aidType;
         this.name = name;
         this.positionAccurate = positionAccurate;
@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
@@ -46,10 +47,10 @@ public class AssignedModeCommand extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected AssignedModeCommand(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected AssignedModeCommand(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                   MMSI destinationMmsiA, Integer offsetA, Integer incrementA,
                                   MMSI destinationMmsiB, Integer offsetB, Integer incrementB) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.destinationMmsiA = destinationMmsiA;
         this.offsetA = offsetA;
         this.incrementA = incrementA;
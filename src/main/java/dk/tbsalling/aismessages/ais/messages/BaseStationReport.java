@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.ais.messages.types.PositionFixingDevice;
@@ -44,12 +45,12 @@ public class BaseStationReport extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected BaseStationReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected BaseStationReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                 int year, int month, int day, int hour, int minute, int second,
                                 boolean positionAccurate, float latitude, float longitude,
                                 PositionFixingDevice positionFixingDevice, boolean raimFlag,
                                 SOTDMACommunicationState communicationState) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.year = year;
         this.month = month;
         this.day = day;
@@ -61,7 +62,7 @@ public class BaseStationReport extends AISMessage {
         this.longitude = longitude;
         this.positionFixingDevice = positionFixingDevice;
         this.raimFlag = raimFlag;
-        this.communicationState = communicationState;
+        this.communicationState = LazyField.of(communicationState, () -> AISMessageFactory.decodeSOTDMACommunicationState(getMetadata().payload()));
     }
 
     @Override
@@ -87,6 +88,10 @@ public class BaseStationReport extends AISMessage {
         return AISMessageType.BaseStationReport;
     }
 
+    public SOTDMACommunicationState getCommunicationState() {
+        return communicationState.get();
+    }
+
     int year;
     int month;
     int day;
@@ -98,6 +103,6 @@ public class BaseStationReport extends AISMessage {
     float longitude;
     PositionFixingDevice positionFixingDevice;
     boolean raimFlag;
-    SOTDMACommunicationState communicationState;
+    LazyField<SOTDMACommunicationState> communicationState;
 
 }
@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.asm.ApplicationSpecificMessage;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
@@ -47,15 +48,15 @@ public class BinaryBroadcastMessage extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected BinaryBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected BinaryBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                      Integer spare, Integer designatedAreaCode, Integer functionalId,
                                      String binaryData, ApplicationSpecificMessage applicationSpecificMessage) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.spare = spare;
         this.designatedAreaCode = designatedAreaCode;
         this.functionalId = functionalId;
-        this.binaryData = binaryData;
-        this.applicationSpecificMessage = applicationSpecificMessage;
+        this.binaryData = LazyField.of(binaryData, () -> AISMessageFactory.decodeBinaryData(getMessageType(), getMetadata().payload()));
+        this.applicationSpecificMessage = LazyField.of(applicationSpecificMessage, () -> ApplicationSpecificMessage.create(designatedAreaCode, functionalId, getBinaryData()));
     }
 
     @Override
@@ -89,19 +90,25 @@ public class BinaryBroadcastMessage extends AISMessage {
     }
 
     public ApplicationSpecificMessage getApplicationSpecificMessage() {
-        if (applicationSpecificMessage.getDesignatedAreaCode() != designatedAreaCode)
-            throw new IllegalStateException("Implementation error: DAC of AISMessage does not match ASM: " + applicationSpecificMessage.getDesignatedAreaCode() + " " + this.getDesignatedAreaCode());
+        final ApplicationSpecificMessage asm = applicationSpecificMessage.get();
 
-        if (applicationSpecificMessage.getFunctionalId() != functionalId)
-            throw new IllegalStateException("Implementation error: FI of AISMessage does not match ASM: " + applicationSpecificMessage.getFunctionalId() + " " + this.getFunctionalId());
+        if (asm.getDesignatedAreaCode() != designatedAreaCode)
+            throw new IllegalStateException("Implementation error: DAC of AISMessage does not match ASM: " + asm.getDesignatedAreaCode() + " " + this.getDesignatedAreaCode());
 
-        return applicationSpecificMessage;
+        if (asm.getFunctionalId() != functionalId)
+            throw new IllegalStateException("Implementation error: FI of AISMessage does not match ASM: " + asm.getFunctionalId() + " " + this.getFunctionalId());
+
+        return asm;
+    }
+
+    public String getBinaryData() {
+        return binaryData.get();
     }
 
     int spare;
     int designatedAreaCode;
     int functionalId;
-    String binaryData;
-    ApplicationSpecificMessage applicationSpecificMessage;
+    LazyField<String> binaryData;
+    LazyField<ApplicationSpecificMessage> applicationSpecificMessage;
 
 }
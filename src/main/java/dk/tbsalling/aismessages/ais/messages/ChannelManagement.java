@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.ais.messages.types.TxRxMode;
@@ -38,13 +39,13 @@ public class ChannelManagement extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected ChannelManagement(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected ChannelManagement(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                 int channelA, int channelB, TxRxMode transmitReceiveMode, boolean power,
                                 Float northEastLongitude, Float northEastLatitude,
                                 Float southWestLongitude, Float southWestLatitude,
                                 MMSI destinationMmsi1, MMSI destinationMmsi2,
                                 boolean addressed, boolean bandA, boolean bandB, int zoneSize) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.channelA = channelA;
         this.channelB = channelB;
         this.transmitReceiveMode = transmitReceiveMode;
@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
@@ -46,12 +47,12 @@ public class DataLinkManagement extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected DataLinkManagement(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected DataLinkManagement(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                  int offsetNumber1, int reservedSlots1, int timeout1, int increment1,
                                  Integer offsetNumber2, Integer reservedSlots2, Integer timeout2, Integer increment2,
                                  Integer offsetNumber3, Integer reservedSlots3, Integer timeout3, Integer increment3,
                                  Integer offsetNumber4, Integer reservedSlots4, Integer timeout4, Integer increment4) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.offsetNumber1 = offsetNumber1;
         this.reservedSlots1 = reservedSlots1;
         this.timeout1 = timeout1;
@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.*;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
 import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
@@ -36,7 +37,7 @@ public class ExtendedClassBEquipmentPositionReport extends AISMessage implements
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected ExtendedClassBEquipmentPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected ExtendedClassBEquipmentPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                                     String regionalReserved1, float speedOverGround, boolean positionAccuracy,
                                                     float latitude, float longitude, float courseOverGround, int trueHeading,
                                                     int second, String regionalReserved2, String shipName, ShipType shipType,
@@ -44,7 +45,7 @@ public class ExtendedClassBEquipmentPositionReport extends AISMessage implements
                                                     PositionFixingDevice positionFixingDevice, boolean raimFlag,
                                                     boolean dataTerminalReady, boolean assigned, String regionalReserved3,
                                                     int rawSpeedOverGround, int rawLatitude, int rawLongitude, int rawCourseOverGround) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.regionalReserved1 = regionalReserved1;
         this.speedOverGround = speedOverGround;
         this.positionAccuracy = positionAccuracy;
@@ -54,7 +55,7 @@ public class ExtendedClassBEquipmentPositionReport extends AISMessage implements
         this.trueHeading = trueHeading;
         this.second = second;
         this.regionalReserved2 = regionalReserved2;
-        this.shipName = shipName;
+        this.shipName = LazyField.of(shipName, () -> AISMessageFactory.decodeShipName(getMessageType(), getMetadata().payload()));
         this.shipType = shipType;
         this.toBow = toBow;
         this.toStern = toStern;
@@ -99,6 +100,10 @@ public class ExtendedClassBEquipmentPositionReport extends AISMessage implements
         return TransponderClass.B;
     }
 
+    public String getShipName() {
+        return shipName.get();
+    }
+
     String regionalReserved1;
     float speedOverGround;
     boolean positionAccuracy;
@@ -108,7 +113,7 @@ public class ExtendedClassBEquipmentPositionReport extends AISMessage implements
     int trueHeading;
     int second;
     String regionalReserved2;
-    String shipName;
+    LazyField<String> shipName;
     ShipType shipType;
     int toBow;
     int toStern;
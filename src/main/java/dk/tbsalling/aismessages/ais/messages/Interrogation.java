@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
@@ -43,10 +44,10 @@ public class Interrogation extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected Interrogation(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected Interrogation(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                             MMSI interrogatedMmsi1, int type1_1, int offset1_1, int type1_2, int offset1_2,
                             MMSI interrogatedMmsi2, int type2_1, int offset2_1) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.interrogatedMmsi1 = interrogatedMmsi1;
         this.type1_1 = type1_1;
         this.offset1_1 = offset1_1;
@@ -0,0 +1,83 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.ais.messages;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Holds the value of a message field which is either decoded up front by {@link AISMessageFactory}
+ * or, when the message was created in lazy mode, decoded from the message payload on first access.
+ * <p>
+ * Equality, hash code and string representation are those of the (decoded) value, so the
+ * value objects behave the same in both modes.
+ *
+ * @param <T> the type of the field value
+ */
+final class LazyField<T> {
+
+    private LazyField(T value, Supplier<? extends T> decoder) {
+        this.value = value;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Creates a field holding the given value, or one decoding the value on first access if the value is null.
+     *
+     * @param value   the eagerly decoded value; null if the value is to be decoded lazily
+     * @param decoder decodes the value from the message payload
+     * @return the field
+     */
+    static <T> LazyField<T> of(T value, Supplier<? extends T> decoder) {
+        return value != null ? new LazyField<>(value, null) : new LazyField<>(null, decoder);
+    }
+
+    T get() {
+        T result = value;
+        if (result == null && decoder != null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = decoder.get();
+                    value = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LazyField<?> that)) return false;
+        return Objects.equals(get(), that.get());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(get());
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(get());
+    }
+
+    private volatile T value;
+    private final Supplier<? extends T> decoder;
+
+}
@@ -1,5 +1,6 @@
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.ais.messages.types.NavigationStatus;
@@ -24,12 +25,12 @@ public class LongRangeBroadcastMessage extends AISMessage implements DynamicData
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected LongRangeBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected LongRangeBroadcastMessage(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                         boolean positionAccuracy, boolean raim, NavigationStatus navigationStatus,
                                         float latitude, float longitude, float speedOverGround, float courseOverGround,
                                         int positionLatency, int spare,
                                         int rawLongitude, int rawLatitude, int rawSpeedOverGround, int rawCourseOverGround) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.positionAccuracy = positionAccuracy;
         this.raim = raim;
         this.navigationStatus = navigationStatus;
@@ -1,5 +1,6 @@
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
 import dk.tbsalling.aismessages.nmea.tagblock.NMEATagBlock;
 
@@ -13,7 +14,7 @@ import java.time.Instant;
  * @param nmeaTagBlock Optional NMEA tag block with additional metadata
  * @param nmeaMessages Array of NMEA messages that were assembled to form this AIS message
  * @param decoderVersion Version of the decoder that processed this message
- * @param bitString Binary representation of the AIS message payload
+ * @param payload Packed binary representation of the AIS message payload
  * @param source Identifier of the message source
  */
 public record Metadata(
@@ -21,7 +22,18 @@ public record Metadata(
         NMEATagBlock nmeaTagBlock,
         NMEAMessage[] nmeaMessages,
         String decoderVersion,
-        String bitString,
+        BitStringParser payload,
         String source
 ) {
+
+    /**
+     * Returns the binary representation of the AIS message payload as a string of '0' and '1' characters.
+     * The string is built from the packed payload on every call.
+     *
+     * @return the payload bit string
+     */
+    public String bitString() {
+        return payload.getBitString();
+    }
+
 }
@@ -19,6 +19,7 @@
  */
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.*;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
 import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
@@ -47,7 +48,7 @@ public abstract sealed class PositionReport extends AISMessage implements Extend
      * @param repeatIndicator          the pre-parsed repeat indicator
      * @param nmeaTagBlock             the NMEA tag block
      * @param nmeaMessages             the NMEA messages
-     * @param bitString                the bit string
+     * @param payload                  the packed payload bits
      * @param navigationStatus         the navigation status
      * @param rateOfTurn               the rate of turn (calculated from raw value)
      * @param speedOverGround          the speed over ground
@@ -66,13 +67,13 @@ public abstract sealed class PositionReport extends AISMessage implements Extend
      * @param rawLongitude             the raw longitude value
      * @param rawCourseOverGround      the raw course over ground value
      */
-    protected PositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected PositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                              NavigationStatus navigationStatus, int rateOfTurn, float speedOverGround,
                              boolean positionAccuracy, float latitude, float longitude,
                              float courseOverGround, int trueHeading, int second,
                              ManeuverIndicator specialManeuverIndicator, boolean raimFlag, CommunicationState communicationState,
                              int rawRateOfTurn, int rawSpeedOverGround, int rawLatitude, int rawLongitude, int rawCourseOverGround) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.navigationStatus = navigationStatus;
         this.rateOfTurn = rateOfTurn;
         this.speedOverGround = speedOverGround;
@@ -84,7 +85,7 @@ public abstract sealed class PositionReport extends AISMessage implements Extend
         this.second = second;
         this.specialManeuverIndicator = specialManeuverIndicator;
         this.raimFlag = raimFlag;
-        this.communicationState = communicationState;
+        this.communicationState = LazyField.of(communicationState, () -> AISMessageFactory.decodeCommunicationState(getMessageType(), getMetadata().payload()));
         this.rawRateOfTurn = rawRateOfTurn;
         this.rawSpeedOverGround = rawSpeedOverGround;
         this.rawLatitude = rawLatitude;
@@ -116,6 +117,10 @@ public abstract sealed class PositionReport extends AISMessage implements Extend
         return TransponderClass.A;
     }
 
+    public CommunicationState getCommunicationState() {
+        return communicationState.get();
+    }
+
     NavigationStatus navigationStatus;
     int rateOfTurn;
     float speedOverGround;
@@ -127,7 +132,7 @@ public abstract sealed class PositionReport extends AISMessage implements Extend
     int second;
     ManeuverIndicator specialManeuverIndicator;
     boolean raimFlag;
-    CommunicationState communicationState;
+    LazyField<CommunicationState> communicationState;
     int rawRateOfTurn;
     int rawSpeedOverGround;
     int rawLatitude;
@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
@@ -38,13 +39,13 @@ public class SafetyRelatedAcknowledge extends AISMessage {
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected SafetyRelatedAcknowledge(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected SafetyRelatedAcknowledge(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                        int spare, MMSI mmsi1, int sequence1,
                                        MMSI mmsi2, int sequence2,
                                        MMSI mmsi3, int sequence3,
                                        MMSI mmsi4, int sequence4,
                                        int numOfAcks) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.spare = spare;
         this.mmsi1 = mmsi1;
         this.sequence1 = sequence1;
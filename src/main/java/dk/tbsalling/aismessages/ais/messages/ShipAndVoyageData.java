@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.exceptions.UnsupportedMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.*;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
@@ -50,7 +51,7 @@ public class ShipAndVoyageData extends AISMessage implements StaticDataReport {
      * @param repeatIndicator      the pre-parsed repeat indicator
      * @param nmeaTagBlock         the NMEA tag block
      * @param nmeaMessages         the NMEA messages
-     * @param bitString            the bit string
+     * @param payload              the packed payload bits
      * @param imo                  the IMO number
      * @param callsign             the callsign
      * @param shipName             the ship name
@@ -69,16 +70,16 @@ public class ShipAndVoyageData extends AISMessage implements StaticDataReport {
      * @param dataTerminalReady    the data terminal ready flag
      * @param rawDraught           the raw draught value
      */
-    protected ShipAndVoyageData(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected ShipAndVoyageData(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                 IMO imo, String callsign, String shipName, ShipType shipType,
                                 int toBow, int toStern, int toPort, int toStarboard,
                                 PositionFixingDevice positionFixingDevice,
                                 int etaMonth, int etaDay, int etaHour, int etaMinute,
                                 float draught, String destination, boolean dataTerminalReady, int rawDraught) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.imo = imo;
-        this.callsign = callsign;
-        this.shipName = shipName;
+        this.callsign = LazyField.of(callsign, () -> AISMessageFactory.decodeCallsign(getMetadata().payload()));
+        this.shipName = LazyField.of(shipName, () -> AISMessageFactory.decodeShipName(getMessageType(), getMetadata().payload()));
         this.shipType = shipType;
         this.toBow = toBow;
         this.toStern = toStern;
@@ -90,7 +91,7 @@ public class ShipAndVoyageData extends AISMessage implements StaticDataReport {
         this.etaHour = etaHour;
         this.etaMinute = etaMinute;
         this.draught = draught;
-        this.destination = destination;
+        this.destination = LazyField.of(destination, () -> AISMessageFactory.decodeDestination(getMetadata().payload()));
         this.dataTerminalReady = dataTerminalReady;
         this.rawDraught = rawDraught;
     }
@@ -151,9 +152,21 @@ public class ShipAndVoyageData extends AISMessage implements StaticDataReport {
         }
     }
 
+    public String getCallsign() {
+        return callsign.get();
+    }
+
+    public String getShipName() {
+        return shipName.get();
+    }
+
+    public String getDestination() {
+        return destination.get();
+    }
+
     IMO imo;
-    String callsign;
-    String shipName;
+    LazyField<String> callsign;
+    LazyField<String> shipName;
     ShipType shipType;
     int toBow;
     int toStern;
@@ -165,7 +178,7 @@ public class ShipAndVoyageData extends AISMessage implements StaticDataReport {
     int etaHour;
     int etaMinute;
     float draught;
-    String destination;
+    LazyField<String> destination;
     boolean dataTerminalReady;
     int rawDraught;
 }
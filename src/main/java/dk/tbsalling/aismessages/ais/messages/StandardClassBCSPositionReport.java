@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.CommunicationState;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
@@ -46,7 +47,7 @@ public class StandardClassBCSPositionReport extends AISMessage implements Extend
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected StandardClassBCSPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected StandardClassBCSPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                              String regionalReserved1, float speedOverGround,
                                              boolean positionAccuracy, float latitude, float longitude,
                                              float courseOverGround, int trueHeading, int second,
@@ -54,7 +55,7 @@ public class StandardClassBCSPositionReport extends AISMessage implements Extend
                                              boolean message22, boolean assigned, boolean raimFlag, boolean commStateSelectorFlag,
                                              CommunicationState communicationState,
                                              int rawSpeedOverGround, int rawLatitude, int rawLongitude, int rawCourseOverGround) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.regionalReserved1 = regionalReserved1;
         this.speedOverGround = speedOverGround;
         this.positionAccuracy = positionAccuracy;
@@ -72,7 +73,7 @@ public class StandardClassBCSPositionReport extends AISMessage implements Extend
         this.assigned = assigned;
         this.raimFlag = raimFlag;
         this.commStateSelectorFlag = commStateSelectorFlag;
-        this.communicationState = communicationState;
+        this.communicationState = LazyField.of(communicationState, () -> AISMessageFactory.decodeCommunicationState(getMessageType(), getMetadata().payload()));
         this.rawSpeedOverGround = rawSpeedOverGround;
         this.rawLatitude = rawLatitude;
         this.rawLongitude = rawLongitude;
@@ -107,6 +108,10 @@ public class StandardClassBCSPositionReport extends AISMessage implements Extend
         return TransponderClass.B;
     }
 
+    public CommunicationState getCommunicationState() {
+        return communicationState.get();
+    }
+
     String regionalReserved1;
     float speedOverGround;
     boolean positionAccuracy;
@@ -124,7 +129,7 @@ public class StandardClassBCSPositionReport extends AISMessage implements Extend
     boolean assigned;
     boolean raimFlag;
     boolean commStateSelectorFlag;
-    CommunicationState communicationState;
+    LazyField<CommunicationState> communicationState;
     int rawSpeedOverGround;
     int rawLatitude;
     int rawLongitude;
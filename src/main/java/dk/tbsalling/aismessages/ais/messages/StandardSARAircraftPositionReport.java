@@ -16,6 +16,7 @@
 
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.ais.messages.types.MMSI;
 import dk.tbsalling.aismessages.ais.messages.types.TransponderClass;
@@ -38,13 +39,13 @@ public class StandardSARAircraftPositionReport extends AISMessage implements Dyn
     /**
      * Constructor accepting pre-parsed values for true immutability.
      */
-    protected StandardSARAircraftPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, String bitString, String source, Instant received,
+    protected StandardSARAircraftPositionReport(MMSI sourceMmsi, int repeatIndicator, NMEATagBlock nmeaTagBlock, NMEAMessage[] nmeaMessages, BitStringParser payload, String source, Instant received,
                                                 int altitude, float speedOverGround, boolean positionAccuracy,
                                                 float latitude, float longitude, float courseOverGround,
                                                 int second, String regionalReserved, boolean dataTerminalReady,
                                                 boolean assigned, boolean raimFlag, String radioStatus,
                                                 int rawSpeedOverGround, int rawLongitude, int rawLatitude, int rawCourseOverGround) {
-        super(received, nmeaTagBlock, nmeaMessages, bitString, source, sourceMmsi, repeatIndicator);
+        super(received, nmeaTagBlock, nmeaMessages, payload, source, sourceMmsi, repeatIndicator);
         this.altitude = altitude;
         this.speedOverGround = speedOverGround;
         this.positionAccuracy = positionAccuracy;
@@ -64,14 +64,24 @@ public enum AISMessageType {
 
 	public static AISMessageType fromInteger(Integer integer) {
 		if (integer != null) {
-			for (AISMessageType b : AISMessageType.values()) {
-				if (integer.intValue() == b.code) {
-					return b;
-				}
+			if (integer >= 0 && integer <= MAXIMUM_CODE) {
+				return BY_CODE[integer];
+			} else if (integer == Error.code) {
+				return Error;
 			}
 		}
 		return null;
 	}
 
 	private final int code;
+
+	private static final AISMessageType[] BY_CODE = new AISMessageType[MAXIMUM_CODE + 1];
+
+	static {
+		for (AISMessageType b : values()) {
+			if (b.code >= 0) {
+				BY_CODE[b.code] = b;
+			}
+		}
+	}
 }
@@ -0,0 +1,52 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+
+import java.util.List;
+
+/**
+ * The result of decoding a batch of NMEA strings: the AIS messages decoded, and a summary of the errors met.
+ *
+ * @param aisMessages          the AIS messages decoded, in order of completion.
+ * @param lineCount            the number of non-empty lines in the batch.
+ * @param invalidChecksumCount the number of NMEA messages with an invalid checksum; these are decoded nevertheless.
+ * @param parseErrorCount      the number of lines which could not be parsed as NMEA messages.
+ * @param decodeErrorCount     the number of complete sets of NMEA messages which could not be decoded as AIS messages.
+ * @param errorSamples         descriptions of the first errors met; at most {@link #MAX_ERROR_SAMPLES}.
+ * @author tbsalling
+ * @see NMEAMessageHandler#decodeBatch(String...)
+ */
+public record AISMessageBatch(
+        AISMessage[] aisMessages,
+        int lineCount,
+        int invalidChecksumCount,
+        int parseErrorCount,
+        int decodeErrorCount,
+        List<String> errorSamples
+) {
+
+    /** Maximum number of error descriptions kept per batch. */
+    public static final int MAX_ERROR_SAMPLES = 8;
+
+    /** @return the number of lines and message sets which could not be parsed or decoded. */
+    public int errorCount() {
+        return parseErrorCount + decodeErrorCount;
+    }
+
+}
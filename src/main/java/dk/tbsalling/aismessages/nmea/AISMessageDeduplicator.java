@@ -0,0 +1,217 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Suppresses duplicates of AIS messages seen within a time window; such as the same transmission relayed by
+ * several base stations of an aggregated feed.
+ * <p>
+ * Messages are keyed on a 64-bit hash of their reassembled armoured payload and fill bits - or of the raw
+ * sentences, if a fragment carries no payload - so duplicates are recognised across sources, channels and tag
+ * blocks. Keys are held in a bounded open-addressing table: expired keys are reused in place, and when the probe
+ * range of a key is full, the oldest key in it is evicted. A message is a duplicate if its key was first seen
+ * within the window; repeated duplicates do not extend the window.
+ * <p>
+ * Instances are thread-safe, and the same instance may be shared by the handlers of several feeds.
+ *
+ * @author tbsalling
+ * @see NMEAMessageHandler#setDeduplicator(AISMessageDeduplicator)
+ */
+public class AISMessageDeduplicator {
+
+    /** Default time window in which identical messages are considered duplicates. */
+    public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(10);
+
+    /** Default number of keys held. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** Maximum number of slots probed for a key. */
+    private static final int MAX_PROBES = 8;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long windowNanos;
+    private final int mask;
+    private final long[] keys;
+    /** Time the key was first seen, relative to origin; or 0 if the slot was never used. */
+    private final long[] stamps;
+    private final LongSupplier nanoClock;
+    private final long origin;
+
+    private final Map<String, Counts> countsPerSource = new ConcurrentHashMap<>();
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    public AISMessageDeduplicator() {
+        this(DEFAULT_WINDOW, DEFAULT_CAPACITY);
+    }
+
+    public AISMessageDeduplicator(Duration window) {
+        this(window, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param window   the time window in which identical messages are considered duplicates.
+     * @param capacity the number of keys held; rounded up to a power of two. Should comfortably exceed the number
+     *                 of distinct messages received within the window.
+     */
+    public AISMessageDeduplicator(Duration window, int capacity) {
+        this(window, capacity, System::nanoTime);
+    }
+
+    AISMessageDeduplicator(Duration window, int capacity, LongSupplier nanoClock) {
+        Objects.requireNonNull(window, "window cannot be null.");
+        if (window.isNegative())
+            throw new IllegalArgumentException("window cannot be negative: " + window);
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+
+        int tableSize = Math.max(MAX_PROBES, Integer.highestOneBit(capacity - 1) << 1);
+        this.windowNanos = window.toNanos();
+        this.mask = tableSize - 1;
+        this.keys = new long[tableSize];
+        this.stamps = new long[tableSize];
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong() - 1;
+    }
+
+    /**
+     * Record an AIS message and tell whether it duplicates one seen within the window.
+     * @return true if the message is a duplicate.
+     */
+    public boolean isDuplicate(AISMessage aisMessage) {
+        return isDuplicate(aisMessage.getMetadata().source(), aisMessage.getMetadata().nmeaMessages());
+    }
+
+    /**
+     * Record the complete set of NMEA messages of an AIS message and tell whether it duplicates one seen
+     * within the window. This allows duplicates to be suppressed before they are decoded.
+     * @param source the source of the messages; for counting only. May be null.
+     * @return true if the message is a duplicate.
+     */
+    public boolean isDuplicate(String source, NMEAMessage... nmeaMessages) {
+        boolean duplicate = isDuplicateKey(hash(nmeaMessages));
+        Counts counts = countsPerSource.computeIfAbsent(source == null ? "" : source, s -> new Counts());
+        (duplicate ? counts.hits : counts.misses).incrementAndGet();
+        return duplicate;
+    }
+
+    private synchronized boolean isDuplicateKey(long key) {
+        final long now = nanoClock.getAsLong() - origin;
+        int free = -1;
+        int oldest = -1;
+        for (int probe = 0, i = (int) key & mask; probe < MAX_PROBES; probe++, i = (i + 1) & mask) {
+            long stamp = stamps[i];
+            if (stamp == 0) {
+                // Never used; so the key cannot be further along the probe range
+                if (free < 0)
+                    free = i;
+                break;
+            }
+            boolean expired = now - stamp > windowNanos;
+            if (!expired && keys[i] == key)
+                return true;
+            if (expired && free < 0)
+                free = i;
+            if (oldest < 0 || stamp < stamps[oldest])
+                oldest = i;
+        }
+
+        if (free < 0) {
+            free = oldest;
+            evictedCount.incrementAndGet();
+        }
+        keys[free] = key;
+        stamps[free] = Math.max(1, now);
+        return false;
+    }
+
+    /**
+     * Compute the 64-bit key of the complete set of NMEA messages of an AIS message: an FNV-1a hash of the
+     * armoured payloads and fill bits, or of the raw sentences of fragments without payload, with a final mix.
+     */
+    static long hash(NMEAMessage... nmeaMessages) {
+        long h = FNV_OFFSET_BASIS;
+        for (NMEAMessage nmeaMessage : nmeaMessages) {
+            String payload = nmeaMessage.getEncodedPayload();
+            String s = payload != null ? payload : nmeaMessage.getRawMessage();
+            for (int i = 0, n = s.length(); i < n; i++)
+                h = (h ^ s.charAt(i)) * FNV_PRIME;
+            h = (h ^ (',' + nmeaMessage.getFillBits())) * FNV_PRIME;
+        }
+        // Final mix of MurmurHash3, so the low bits used to index the table depend on all bits of the hash
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** @return the number of duplicates suppressed from all sources. */
+    public long getHitCount() {
+        return countsPerSource.values().stream().mapToLong(c -> c.hits.get()).sum();
+    }
+
+    /** @return the number of messages passed on from all sources. */
+    public long getMissCount() {
+        return countsPerSource.values().stream().mapToLong(c -> c.misses.get()).sum();
+    }
+
+    /** @return the number of duplicates suppressed from the source; where a null source is counted as "". */
+    public long getHitCount(String source) {
+        Counts counts = countsPerSource.get(source == null ? "" : source);
+        return counts == null ? 0 : counts.hits.get();
+    }
+
+    /** @return the number of messages passed on from the source; where a null source is counted as "". */
+    public long getMissCount(String source) {
+        Counts counts = countsPerSource.get(source == null ? "" : source);
+        return counts == null ? 0 : counts.misses.get();
+    }
+
+    /** @return the sources seen so far. */
+    public Set<String> getSources() {
+        return Set.copyOf(countsPerSource.keySet());
+    }
+
+    /** @return the number of keys evicted within the window, because their probe range was full. */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /** @return the number of keys which can be held. */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    private static final class Counts {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+    }
+}
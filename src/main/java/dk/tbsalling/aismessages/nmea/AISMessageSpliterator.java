@@ -0,0 +1,249 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.NMEAMessageHandler.FragmentKey;
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
+import lombok.extern.java.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A Spliterator decoding AIS messages from a list of NMEA strings; splittable for parallel processing.
+ * <p>
+ * Each part is decoded by an NMEAMessageHandler of its own. A multipart message belongs to the part holding its
+ * first fragment; fragments straddling the end of a part are picked up by looking ahead into the following lines,
+ * while the following part ignores them. Such a message is placed after the other messages of its part.
+ *
+ * @author tbsalling
+ */
+@Log
+public final class AISMessageSpliterator implements Spliterator<AISMessage> {
+
+    /** Number of lines beyond the end of a part searched for remaining fragments of its multipart messages. */
+    static final int LOOKAHEAD_LINES = 256;
+
+    /** Parts are not split into parts smaller than this number of lines. */
+    static final int MIN_SPLIT_SIZE = 1024;
+
+    private final List<String> nmeaStrings;
+    private final Function<String, String> nmeaStringPreProcessor;
+    private final Function<Consumer<? super AISMessage>, NMEAMessageHandler> handlerFactory;
+    private final ArrayDeque<AISMessage> decoded = new ArrayDeque<>();
+    private NMEAMessageHandler handler;
+    private int index;
+    private int fence;
+
+    /**
+     * @param nmeaStrings the NMEA strings to decode; should support fast random access.
+     * @param nmeaStringPreProcessor applied to each NMEA string before parsing.
+     * @param handlerFactory creates the handler of each part, given the receiver of its AIS messages.
+     */
+    public AISMessageSpliterator(List<String> nmeaStrings, Function<String, String> nmeaStringPreProcessor, Function<Consumer<? super AISMessage>, NMEAMessageHandler> handlerFactory) {
+        this(nmeaStrings, 0, nmeaStrings.size(), nmeaStringPreProcessor, handlerFactory);
+    }
+
+    private AISMessageSpliterator(List<String> nmeaStrings, int origin, int fence, Function<String, String> nmeaStringPreProcessor, Function<Consumer<? super AISMessage>, NMEAMessageHandler> handlerFactory) {
+        this.nmeaStrings = Objects.requireNonNull(nmeaStrings, "nmeaStrings cannot be null.");
+        this.nmeaStringPreProcessor = Objects.requireNonNull(nmeaStringPreProcessor, "nmeaStringPreProcessor cannot be null.");
+        this.handlerFactory = Objects.requireNonNull(handlerFactory, "handlerFactory cannot be null.");
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    /**
+     * Create a spliterator decoding AIS messages from NMEA strings supplied one by one - e.g. read from a stream.
+     * It is split by reading batches of strings, which are decoded in parallel.
+     * @param nmeaStringSupplier supplies the NMEA strings; null at end of input.
+     */
+    public static Spliterator<AISMessage> ofSupplier(Supplier<String> nmeaStringSupplier, Function<String, String> nmeaStringPreProcessor, Function<Consumer<? super AISMessage>, NMEAMessageHandler> handlerFactory) {
+        return new BatchSpliterator(nmeaStringSupplier, nmeaStringPreProcessor, handlerFactory);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super AISMessage> action) {
+        if (handler == null)
+            handler = handlerFactory.apply(decoded::add);
+
+        while (decoded.isEmpty() && index < fence)
+            accept(nmeaStrings.get(index++));
+
+        if (decoded.isEmpty() && index == fence) {
+            lookahead();
+            index++;
+        }
+
+        AISMessage aisMessage = decoded.poll();
+        if (aisMessage == null)
+            return false;
+        action.accept(aisMessage);
+        return true;
+    }
+
+    @Override
+    public Spliterator<AISMessage> trySplit() {
+        if (handler != null || fence - index < 2 * MIN_SPLIT_SIZE)
+            return null;
+        int mid = (index + fence) >>> 1;
+        AISMessageSpliterator prefix = new AISMessageSpliterator(nmeaStrings, index, mid, nmeaStringPreProcessor, handlerFactory);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.max(0, fence - index);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+    private void accept(String nmeaString) {
+        NMEAMessage nmea = parse(nmeaString);
+        if (nmea != null)
+            handle(nmea);
+    }
+
+    /** Pass a message to the handler; logging and skipping it if it cannot be decoded. */
+    private void handle(NMEAMessage nmea) {
+        try {
+            handler.accept(nmea);
+        } catch (InvalidMessage invalidMessageException) {
+            log.warning("Received invalid AIS message: \"%s\"".formatted(nmea.getRawMessage()));
+        } catch (UnsupportedMessageType unsupportedMessageTypeException) {
+            log.warning("Received unsupported NMEA message: \"%s\"".formatted(nmea.getRawMessage()));
+        } catch (NMEAParseException parseException) {
+            log.warning("Received non-compliant NMEA message: \"%s\"".formatted(nmea.getRawMessage()));
+        } catch (RuntimeException e) {
+            log.warning("Failed to decode NMEA message: \"%s\": %s".formatted(nmea.getRawMessage(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Feed the handler the remaining fragments of the multipart messages begun in this part. Fragments of
+     * multipart messages begun after the end of this part are left for the following part.
+     */
+    private void lookahead() {
+        Set<FragmentKey> begunAfterEnd = new HashSet<>();
+        int end = Math.min(nmeaStrings.size(), fence + LOOKAHEAD_LINES);
+        for (int i = fence; i < end && handler.getIncompleteMessageCount() > 0; i++) {
+            NMEAMessage nmea = parse(nmeaStrings.get(i));
+            if (nmea == null || nmea.getNumberOfFragments() < 2)
+                continue;
+            FragmentKey key = FragmentKey.of(nmea);
+            if (nmea.getFragmentNumber() == 1)
+                begunAfterEnd.add(key);
+            else if (!begunAfterEnd.contains(key))
+                handle(nmea);
+        }
+    }
+
+    private NMEAMessage parse(String string) {
+        string = nmeaStringPreProcessor.apply(string);
+        NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(string);
+        if (!result.isSuccess())
+            log.warning(NMEAParseStatistics.warningOf(result.status(), string));
+        return result.value();
+    }
+
+    /**
+     * Splits NMEA strings supplied one by one into batches of increasing size. Each batch carries the first
+     * lines of the following batch, to look ahead into.
+     */
+    private static final class BatchSpliterator implements Spliterator<AISMessage> {
+
+        private static final int MAX_BATCH_SIZE = 1 << 20;
+
+        private final Supplier<String> nmeaStringSupplier;
+        private final Function<String, String> nmeaStringPreProcessor;
+        private final Function<Consumer<? super AISMessage>, NMEAMessageHandler> handlerFactory;
+        private List<String> carried = new ArrayList<>();
+        private int batchSize = MIN_SPLIT_SIZE;
+        private boolean endOfInput;
+        private AISMessageSpliterator current;
+
+        private BatchSpliterator(Supplier<String> nmeaStringSupplier, Function<String, String> nmeaStringPreProcessor, Function<Consumer<? super AISMessage>, NMEAMessageHandler> handlerFactory) {
+            this.nmeaStringSupplier = Objects.requireNonNull(nmeaStringSupplier, "nmeaStringSupplier cannot be null.");
+            this.nmeaStringPreProcessor = Objects.requireNonNull(nmeaStringPreProcessor, "nmeaStringPreProcessor cannot be null.");
+            this.handlerFactory = Objects.requireNonNull(handlerFactory, "handlerFactory cannot be null.");
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super AISMessage> action) {
+            while (current == null || !current.tryAdvance(action)) {
+                current = nextBatch();
+                if (current == null)
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Spliterator<AISMessage> trySplit() {
+            if (current != null)
+                return null;
+            AISMessageSpliterator batch = nextBatch();
+            batchSize = Math.min(MAX_BATCH_SIZE, 2 * batchSize);
+            return batch;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+        /** @return a spliterator over the next batch; or null at end of input. */
+        private AISMessageSpliterator nextBatch() {
+            List<String> lines = carried;
+            String line;
+            while (lines.size() < batchSize + LOOKAHEAD_LINES && !endOfInput) {
+                if ((line = nmeaStringSupplier.get()) == null)
+                    endOfInput = true;
+                else
+                    lines.add(line);
+            }
+            if (lines.isEmpty())
+                return null;
+
+            int fence = Math.min(batchSize, lines.size());
+            carried = new ArrayList<>(lines.subList(fence, lines.size()));
+            return new AISMessageSpliterator(lines, 0, fence, nmeaStringPreProcessor, handlerFactory);
+        }
+    }
+
+}
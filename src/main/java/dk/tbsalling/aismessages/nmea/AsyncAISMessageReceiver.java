@@ -0,0 +1,217 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import lombok.extern.java.Log;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Delivers AIS messages to a receiver on a worker thread of its own, through a bounded queue.
+ * <p>
+ * This decouples a slow receiver - such as a database writer - from the decoding thread and from other receivers.
+ * When the queue is full, messages are handled according to the OverflowPolicy. The queue is lock-free;
+ * its capacity may be exceeded briefly by the number of concurrent producers.
+ *
+ * @author tbsalling
+ * @see NMEAMessageHandler#addAsyncAisMessageReceiver(Consumer, int, OverflowPolicy)
+ */
+@Log
+public class AsyncAISMessageReceiver implements Consumer<AISMessage>, AutoCloseable {
+
+    /** Default capacity of the queue. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+
+    /** Default interval of sampling: every n-th message is kept when the OverflowPolicy is SAMPLE. */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 10;
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * What to do with a message offered to a full queue.
+     */
+    public enum OverflowPolicy {
+        /** Wait until there is room in the queue; slowing down the caller. */
+        BLOCK,
+        /** Drop the oldest message in the queue to make room. */
+        DROP_OLDEST,
+        /** Drop the message offered. */
+        DROP_NEWEST,
+        /** Keep only every n-th message offered while the queue is half full or more; drop the newest when full. */
+        SAMPLE
+    }
+
+    private final Consumer<? super AISMessage> receiver;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleInterval;
+    private final Queue<AISMessage> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean workerParked;
+    private volatile boolean closed;
+
+    public AsyncAISMessageReceiver(Consumer<? super AISMessage> receiver) {
+        this(receiver, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    public AsyncAISMessageReceiver(Consumer<? super AISMessage> receiver, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(receiver, queueCapacity, overflowPolicy, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param receiver the receiver to deliver messages to.
+     * @param queueCapacity the maximum number of messages waiting to be delivered.
+     * @param overflowPolicy what to do with messages offered when the queue is full.
+     * @param sampleInterval keep every n-th message when sampling; only used with OverflowPolicy.SAMPLE.
+     */
+    public AsyncAISMessageReceiver(Consumer<? super AISMessage> receiver, int queueCapacity, OverflowPolicy overflowPolicy, int sampleInterval) {
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+        if (sampleInterval < 1)
+            throw new IllegalArgumentException("sampleInterval must be positive: " + sampleInterval);
+        this.receiver = Objects.requireNonNull(receiver, "receiver cannot be null.");
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy cannot be null.");
+        this.queueCapacity = queueCapacity;
+        this.sampleInterval = sampleInterval;
+        this.worker = new Thread(this::deliver, "aismessages-receiver-" + THREAD_NUMBER.getAndIncrement());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue a message for delivery.
+     * @throws IllegalStateException if this receiver is closed.
+     */
+    @Override
+    public void accept(AISMessage aisMessage) {
+        if (closed)
+            throw new IllegalStateException("AsyncAISMessageReceiver is closed.");
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                while (queueDepth.get() >= queueCapacity && !closed)
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+            case DROP_OLDEST -> {
+                while (queueDepth.get() >= queueCapacity) {
+                    if (queue.poll() != null) {
+                        queueDepth.decrementAndGet();
+                        droppedCount.incrementAndGet();
+                    }
+                }
+            }
+            case DROP_NEWEST -> {
+                if (queueDepth.get() >= queueCapacity) {
+                    droppedCount.incrementAndGet();
+                    return;
+                }
+            }
+            case SAMPLE -> {
+                int depth = queueDepth.get();
+                if (depth >= queueCapacity || (2 * depth >= queueCapacity && sampleCounter.getAndIncrement() % sampleInterval != 0)) {
+                    droppedCount.incrementAndGet();
+                    return;
+                }
+            }
+        }
+
+        queue.offer(aisMessage);
+        queueDepth.incrementAndGet();
+        // Closed meanwhile: the worker may have seen the queue empty and ended, so take the message back
+        if (closed && queue.remove(aisMessage)) {
+            queueDepth.decrementAndGet();
+            droppedCount.incrementAndGet();
+            return;
+        }
+        if (workerParked)
+            LockSupport.unpark(worker);
+    }
+
+    private void deliver() {
+        while (true) {
+            AISMessage aisMessage = queue.poll();
+            if (aisMessage == null) {
+                if (closed)
+                    return;
+                workerParked = true;
+                if (queue.isEmpty() && !closed)
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                workerParked = false;
+                continue;
+            }
+
+            queueDepth.decrementAndGet();
+            try {
+                receiver.accept(aisMessage);
+                deliveredCount.incrementAndGet();
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                log.warning("Receiver failed to handle AIS message: %s".formatted(e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Stop accepting messages, and wait for the messages already queued to be delivered.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        LockSupport.unpark(worker);
+        worker.join();
+    }
+
+    /** @return the number of messages waiting to be delivered. */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /** @return the number of messages delivered to the receiver. */
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    /** @return the number of messages dropped because the queue was full, or because the receiver was closed while queueing them. */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /** @return the number of messages on which the receiver threw an exception. */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+}
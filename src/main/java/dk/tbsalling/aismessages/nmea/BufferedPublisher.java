@@ -0,0 +1,229 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.nmea.AsyncAISMessageReceiver.OverflowPolicy;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A Flow.Publisher of the items pushed by a blocking reader, honouring the demand of its subscriber.
+ * <p>
+ * The reader is started on a thread of its own when subscribed to. Items are passed on as requested by the
+ * subscriber; until then they are held in a bounded buffer. When the buffer is full, the OverflowPolicy decides:
+ * BLOCK holds up the reader - so it stops reading, and the sender is slowed down by flow control - while the
+ * other policies drop items to keep up with the input.
+ * <p>
+ * A publisher can be subscribed to once, as the input can only be read once.
+ *
+ * @param <T> the type of items published.
+ * @author tbsalling
+ */
+public abstract class BufferedPublisher<T> implements Flow.Publisher<T> {
+
+    /** Default capacity of the buffer. */
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+
+    private final int bufferCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final ArrayDeque<T> buffer = new ArrayDeque<>();
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger drainers = new AtomicInteger();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private long sampleCounter;
+    private volatile Flow.Subscriber<? super T> subscriber;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private volatile Throwable error;
+
+    protected BufferedPublisher(int bufferCapacity, OverflowPolicy overflowPolicy) {
+        if (bufferCapacity < 1)
+            throw new IllegalArgumentException("bufferCapacity must be positive: " + bufferCapacity);
+        this.bufferCapacity = bufferCapacity;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy cannot be null.");
+    }
+
+    /**
+     * Read the input, and pass each item to the sink. Called on the reader thread; returns at end of input.
+     */
+    protected abstract void read(Consumer<T> sink);
+
+    /**
+     * Ask the reader to stop; called when the subscription is cancelled.
+     */
+    protected abstract void requestStop();
+
+    /** @return true if the subscription is cancelled. */
+    protected final boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber cannot be null.");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Publisher can only be subscribed to once."));
+            return;
+        }
+
+        this.subscriber = subscriber;
+        subscriber.onSubscribe(new Subscription());
+
+        Thread thread = new Thread(() -> {
+            try {
+                if (!cancelled)
+                    read(this::emit);
+            } catch (RuntimeException e) {
+                error = e;
+            } finally {
+                done = true;
+                drain();
+            }
+        }, "aismessages-publisher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void emit(T item) {
+        synchronized (buffer) {
+            if (buffer.size() >= bufferCapacity) {
+                switch (overflowPolicy) {
+                    case BLOCK -> {
+                        try {
+                            while (buffer.size() >= bufferCapacity && !cancelled)
+                                buffer.wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        if (cancelled)
+                            return;
+                    }
+                    case DROP_OLDEST -> {
+                        buffer.poll();
+                        droppedCount.incrementAndGet();
+                    }
+                    case DROP_NEWEST, SAMPLE -> {
+                        droppedCount.incrementAndGet();
+                        return;
+                    }
+                }
+            } else if (overflowPolicy == OverflowPolicy.SAMPLE && 2 * buffer.size() >= bufferCapacity
+                    && sampleCounter++ % AsyncAISMessageReceiver.DEFAULT_SAMPLE_INTERVAL != 0) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+            buffer.add(item);
+        }
+        drain();
+    }
+
+    /** Pass on buffered items as demanded; called from the reader and the subscriber, but run by one at a time. */
+    private void drain() {
+        if (drainers.getAndIncrement() != 0)
+            return;
+
+        int missed = 1;
+        do {
+            long requested = demand.get();
+            long emitted = 0;
+            while (emitted != requested && !cancelled) {
+                T item;
+                synchronized (buffer) {
+                    item = buffer.poll();
+                    if (item != null)
+                        buffer.notifyAll();
+                }
+                if (item == null)
+                    break;
+                subscriber.onNext(item);
+                emitted++;
+            }
+
+            if (cancelled)
+                return;
+
+            boolean finished = done;
+            boolean empty;
+            synchronized (buffer) {
+                empty = buffer.isEmpty();
+            }
+            if (finished && empty) {
+                cancelled = true;
+                Throwable e = error;
+                if (e != null)
+                    subscriber.onError(e);
+                else
+                    subscriber.onComplete();
+                return;
+            }
+
+            if (emitted != 0 && requested != Long.MAX_VALUE)
+                demand.addAndGet(-emitted);
+            missed = drainers.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /** @return the number of items dropped because the buffer was full. */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private final class Subscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Number of items requested must be positive: " + n);
+                cancel();
+                subscriber.onError(error);
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled)
+                return;
+            cancelled = true;
+            requestStop();
+            synchronized (buffer) {
+                buffer.clear();
+                buffer.notifyAll();
+            }
+        }
+    }
+
+}
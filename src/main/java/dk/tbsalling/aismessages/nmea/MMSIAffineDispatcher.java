@@ -0,0 +1,115 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.types.MMSI;
+import dk.tbsalling.aismessages.nmea.AsyncAISMessageReceiver.OverflowPolicy;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches AIS messages to a receiver on a number of parallel worker lanes, keeping the messages of each
+ * vessel in order.
+ * <p>
+ * The lane of a message is chosen by hashing its source MMSI, so all messages from one vessel are processed by
+ * the same worker in the order received, while messages from different vessels are processed in parallel.
+ * Messages without a source MMSI go to lane 0. The receiver must be thread-safe, as it is called from all lanes.
+ *
+ * @author tbsalling
+ */
+public class MMSIAffineDispatcher implements Consumer<AISMessage>, AutoCloseable {
+
+    private final AsyncAISMessageReceiver[] lanes;
+
+    /**
+     * @param receiver the receiver to dispatch messages to.
+     * @param numberOfLanes the number of worker lanes.
+     */
+    public MMSIAffineDispatcher(Consumer<? super AISMessage> receiver, int numberOfLanes) {
+        this(receiver, numberOfLanes, AsyncAISMessageReceiver.DEFAULT_QUEUE_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param receiver the receiver to dispatch messages to.
+     * @param numberOfLanes the number of worker lanes.
+     * @param laneCapacity the maximum number of messages waiting on each lane.
+     * @param overflowPolicy what to do with messages for a lane which is full.
+     */
+    public MMSIAffineDispatcher(Consumer<? super AISMessage> receiver, int numberOfLanes, int laneCapacity, OverflowPolicy overflowPolicy) {
+        if (numberOfLanes < 1)
+            throw new IllegalArgumentException("numberOfLanes must be positive: " + numberOfLanes);
+        Objects.requireNonNull(receiver, "receiver cannot be null.");
+        this.lanes = new AsyncAISMessageReceiver[numberOfLanes];
+        for (int i = 0; i < numberOfLanes; i++)
+            lanes[i] = new AsyncAISMessageReceiver(receiver, laneCapacity, overflowPolicy);
+    }
+
+    @Override
+    public void accept(AISMessage aisMessage) {
+        MMSI sourceMmsi = aisMessage.getSourceMmsi();
+        int lane = sourceMmsi == null ? 0 : laneOf(sourceMmsi.getMmsi(), lanes.length);
+        lanes[lane].accept(aisMessage);
+    }
+
+    /**
+     * Stop accepting messages, and wait for the messages already queued on all lanes to be delivered.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        for (AsyncAISMessageReceiver lane : lanes)
+            lane.close();
+    }
+
+    /** @return the lane of messages from a given MMSI. */
+    static int laneOf(int mmsi, int numberOfLanes) {
+        // MMSIs share prefixes (country codes) and suffixes (zeros), so spread them before reducing
+        int h = mmsi * 0x9E3779B9;
+        h ^= h >>> 16;
+        return Math.floorMod(h, numberOfLanes);
+    }
+
+    public int getNumberOfLanes() {
+        return lanes.length;
+    }
+
+    /** @return the number of messages waiting on each lane. */
+    public int[] getLaneQueueDepths() {
+        int[] depths = new int[lanes.length];
+        for (int i = 0; i < lanes.length; i++)
+            depths[i] = lanes[i].getQueueDepth();
+        return depths;
+    }
+
+    /** @return the number of messages delivered by each lane. */
+    public long[] getLaneDeliveredCounts() {
+        long[] counts = new long[lanes.length];
+        for (int i = 0; i < lanes.length; i++)
+            counts[i] = lanes[i].getDeliveredCount();
+        return counts;
+    }
+
+    /** @return the number of messages dropped on all lanes, because a lane was full. */
+    public long getDroppedCount() {
+        long count = 0;
+        for (AsyncAISMessageReceiver lane : lanes)
+            count += lane.getDroppedCount();
+        return count;
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * A bounded buffer splitting lines of NMEA text read from a non-blocking channel.
+ * <p>
+ * Lines are split on raw bytes at '\n' and '\r'; empty lines are skipped. An incomplete line is kept
+ * until the next read. This class is not thread-safe.
+ *
+ * @author tbsalling
+ */
+final class NMEALineBuffer {
+
+    private final ByteBuffer buffer;
+
+    NMEALineBuffer(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.buffer = ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Read the bytes available from the channel.
+     * @return the number of bytes read; or -1 at end of input.
+     */
+    int read(ReadableByteChannel channel) throws IOException {
+        return channel.read(buffer);
+    }
+
+    /**
+     * Pass on the complete lines in the buffer, and keep any incomplete line.
+     * @return the number of lines passed on.
+     */
+    int drainLines(Consumer<String> lineConsumer) {
+        byte[] bytes = buffer.array();
+        int end = buffer.position();
+        int start = 0;
+        int lines = 0;
+        for (int i = 0; i < end; i++) {
+            if (bytes[i] == '\n' || bytes[i] == '\r') {
+                if (i > start) {
+                    lines++;
+                    lineConsumer.accept(new String(bytes, start, i - start, StandardCharsets.ISO_8859_1));
+                }
+                start = i + 1;
+            }
+        }
+        buffer.limit(end).position(start);
+        buffer.compact();
+        return lines;
+    }
+
+    /** @return true if the buffer is filled by an incomplete line, so nothing more can be read. */
+    boolean isFull() {
+        return !buffer.hasRemaining();
+    }
+
+    /** @return the number of bytes buffered. */
+    int size() {
+        return buffer.position();
+    }
+
+    void clear() {
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Reads lines of NMEA text from a ReadableByteChannel.
+ * <p>
+ * NMEA sentences are pure ASCII, so lines are split on raw bytes and no charset decoding takes place.
+ * Lines are terminated by '\n', '\r' or "\r\n" - as in BufferedReader.readLine(). They are available
+ * either as views of the underlying buffer, or as Strings built straight from the bytes.
+ * <p>
+ * The channel is expected to be in blocking mode. This class is not thread-safe.
+ *
+ * @author tbsalling
+ */
+public class NMEALineReader {
+
+    /** Default initial size of the read buffer. It grows if a single line does not fit. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private boolean endOfInput;
+    private boolean skipLineFeed;
+
+    /** Number of terminator bytes consumed after the line last returned by nextLine() - 0 or 1. */
+    private int terminatorLength;
+
+    public NMEALineReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public NMEALineReader(ReadableByteChannel channel, int bufferSize) {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        this.channel = Objects.requireNonNull(channel, "channel cannot be null.");
+        this.buffer = ByteBuffer.allocate(bufferSize).flip();
+    }
+
+    /**
+     * Read the next line as a String.
+     * @return the line without terminator; or null at end of input.
+     * @throws IOException if reading from the channel fails.
+     */
+    public String readLine() throws IOException {
+        int length = nextLine();
+        if (length < 0)
+            return null;
+        int start = buffer.position() - length - terminatorLength;
+        return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Read the next line as a read-only view of the internal buffer. The view is only valid until
+     * the next call to this reader.
+     * @return the line without terminator; or null at end of input.
+     * @throws IOException if reading from the channel fails.
+     */
+    public ByteBuffer readLineBytes() throws IOException {
+        int length = nextLine();
+        if (length < 0)
+            return null;
+        int start = buffer.position() - length - terminatorLength;
+        return buffer.slice(start, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Advance past the next line. On return the line occupies the bytes just before the buffer position,
+     * followed by terminatorLength terminator bytes.
+     * @return the length of the line; or -1 at end of input.
+     */
+    private int nextLine() throws IOException {
+        int scanFrom = buffer.position();
+        while (true) {
+            if (skipLineFeed && buffer.hasRemaining()) {
+                skipLineFeed = false;
+                if (buffer.get(buffer.position()) == '\n') {
+                    buffer.position(buffer.position() + 1);
+                    scanFrom = buffer.position();
+                }
+            }
+
+            int start = buffer.position();
+            int limit = buffer.limit();
+            for (int i = scanFrom; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    skipLineFeed = b == '\r';
+                    terminatorLength = 1;
+                    buffer.position(i + 1);
+                    return i - start;
+                }
+            }
+
+            if (endOfInput) {
+                if (start == limit)
+                    return -1;
+                terminatorLength = 0;
+                buffer.position(limit);
+                return limit - start;
+            }
+
+            scanFrom = fill();
+        }
+    }
+
+    /**
+     * Read more bytes from the channel; compacting or growing the buffer to make room.
+     * @return the index from which to continue scanning.
+     */
+    private int fill() throws IOException {
+        int scanned = buffer.remaining();
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+            grown.put(buffer);
+            buffer = grown;
+        } else {
+            buffer.compact();
+        }
+
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0)
+            endOfInput = true;
+
+        buffer.flip();
+        return scanned;
+    }
+
+}
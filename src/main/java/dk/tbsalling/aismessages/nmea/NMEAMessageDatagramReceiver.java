@@ -0,0 +1,378 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Receives NMEA messages in UDP datagrams using NIO DatagramChannels.
+ * <p>
+ * Any number of channels can be bound - several to the same port using SO_REUSEPORT, and to multicast
+ * groups. The thread calling run() only drains the channels: received datagrams are copied out of a
+ * direct buffer and handed over in batches to a bounded queue. Decode threads take the batches from
+ * the queue, split them into lines and parse the NMEA messages. If the queue is full, the batch is
+ * dropped and counted.
+ * <p>
+ * With more than one decode thread, the NMEA message consumer is called concurrently and must be thread-safe.
+ *
+ * @see NMEAMessageUDPSocket
+ * @author tbsalling
+ */
+@Log
+public class NMEAMessageDatagramReceiver {
+
+    /** Default capacity of the hand-off queue, in batches of datagrams. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /** Maximum number of datagrams drained from one channel in one batch. */
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private static final int MAX_DATAGRAM_SIZE = 65536;
+
+    /** Time to wait for room in the queue for an end of input marker, before checking the decode threads again. */
+    private static final long END_OF_INPUT_OFFER_MILLIS = 100;
+
+    private static final List<byte[]> END_OF_INPUT = new ArrayList<>();
+
+    private final Consumer<? super NMEAMessage> nmeaMessageConsumer;
+    private final BlockingQueue<List<byte[]>> queue;
+    private final int numberOfDecodeThreads;
+    private final List<DatagramChannel> channels = new ArrayList<>();
+    private final List<SocketAddress> localAddresses = new ArrayList<>();
+    private final Selector selector;
+    private int receiveBufferSize;
+
+    private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+    private final AtomicLong receivedPacketCount = new AtomicLong();
+    private final AtomicLong queueOverflowCount = new AtomicLong();
+
+    public NMEAMessageDatagramReceiver(Consumer<? super NMEAMessage> nmeaMessageConsumer) throws IOException {
+        this(nmeaMessageConsumer, DEFAULT_QUEUE_CAPACITY, 1);
+    }
+
+    public NMEAMessageDatagramReceiver(Consumer<? super NMEAMessage> nmeaMessageConsumer, int queueCapacity, int numberOfDecodeThreads) throws IOException {
+        if (numberOfDecodeThreads < 1)
+            throw new IllegalArgumentException("numberOfDecodeThreads must be positive: " + numberOfDecodeThreads);
+        this.nmeaMessageConsumer = nmeaMessageConsumer;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.numberOfDecodeThreads = numberOfDecodeThreads;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Set the size of the socket receive buffer (SO_RCVBUF) of channels bound hereafter.
+     * @param receiveBufferSize the size in bytes.
+     */
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    /**
+     * Bind a channel to the given address.
+     * @param address the address to bind to.
+     */
+    public void bind(InetSocketAddress address) throws IOException {
+        bind(address, 1);
+    }
+
+    /**
+     * Bind a number of channels to the same address. If more than one, SO_REUSEPORT is used so that
+     * the operating system spreads the datagrams over the channels.
+     * @param address the address to bind to; if the port is 0 all channels are bound to the same ephemeral port.
+     * @param numberOfChannels the number of channels to bind.
+     */
+    public void bind(InetSocketAddress address, int numberOfChannels) throws IOException {
+        for (int i = 0; i < numberOfChannels; i++) {
+            DatagramChannel channel = DatagramChannel.open();
+            if (numberOfChannels > 1) {
+                if (!channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                    channel.close();
+                    throw new UnsupportedOperationException("SO_REUSEPORT is not supported on this platform.");
+                }
+                channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
+            channel.bind(address);
+            if (address.getPort() == 0)
+                address = (InetSocketAddress) channel.getLocalAddress();
+            register(channel);
+        }
+        log.info("Listening for UDP packets on %s using %d channel(s)".formatted(address, numberOfChannels));
+    }
+
+    /**
+     * Bind a channel to the given port and join a multicast group on it.
+     * @param group the multicast group address.
+     * @param port the port to receive on.
+     * @param networkInterface the network interface to join the group on.
+     */
+    public void joinGroup(InetAddress group, int port, NetworkInterface networkInterface) throws IOException {
+        DatagramChannel channel = DatagramChannel.open(group.getAddress().length == 4 ? StandardProtocolFamily.INET : StandardProtocolFamily.INET6);
+        channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        channel.bind(new InetSocketAddress(port));
+        channel.join(group, networkInterface);
+        register(channel);
+        log.info("Listening for UDP packets on multicast group %s:%d on %s".formatted(group.getHostAddress(), port, networkInterface.getName()));
+    }
+
+    private void register(DatagramChannel channel) throws IOException {
+        if (receiveBufferSize > 0)
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ);
+        channels.add(channel);
+        localAddresses.add(channel.getLocalAddress());
+    }
+
+    /** @return the local addresses of the bound channels. */
+    public List<SocketAddress> getLocalAddresses() {
+        return List.copyOf(localAddresses);
+    }
+
+    public void requestStop() {
+        this.stopRequested.set(true);
+        selector.wakeup();
+    }
+
+    /**
+     * Receive datagrams until stop is requested. Returns when the received datagrams have been decoded.
+     */
+    public void run() throws IOException {
+        log.info("NMEAMessageDatagramReceiver running.");
+
+        List<Thread> decodeThreads = new ArrayList<>();
+        for (int i = 0; i < numberOfDecodeThreads; i++) {
+            Thread decodeThread = new Thread(this::decode, "aismessages-udp-decoder-" + i);
+            decodeThread.setDaemon(true);
+            decodeThread.start();
+            decodeThreads.add(decodeThread);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+        try {
+            while (!isStopRequested()) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys())
+                    drain((DatagramChannel) key.channel(), buffer);
+                selector.selectedKeys().clear();
+            }
+        } finally {
+            for (DatagramChannel channel : channels)
+                channel.close();
+            selector.close();
+            endInput(decodeThreads);
+            for (Thread decodeThread : decodeThreads)
+                joinUninterruptibly(decodeThread);
+        }
+
+        log.info("NMEAMessageDatagramReceiver stopping.");
+    }
+
+    /** Receive up to MAX_BATCH_SIZE datagrams from the channel and hand them over as one batch. */
+    private void drain(DatagramChannel channel, ByteBuffer buffer) throws IOException {
+        List<byte[]> batch = new ArrayList<>();
+        while (batch.size() < MAX_BATCH_SIZE) {
+            buffer.clear();
+            if (channel.receive(buffer) == null)
+                break;
+            buffer.flip();
+            byte[] datagram = new byte[buffer.remaining()];
+            buffer.get(datagram);
+            batch.add(datagram);
+        }
+
+        if (!batch.isEmpty()) {
+            receivedPacketCount.addAndGet(batch.size());
+            if (!queue.offer(batch)) {
+                queueOverflowCount.addAndGet(batch.size());
+                log.fine("Hand-off queue full; dropped %d datagrams".formatted(batch.size()));
+            }
+        }
+    }
+
+    private void decode() {
+        try {
+            List<byte[]> batch;
+            while ((batch = queue.take()) != END_OF_INPUT) {
+                for (byte[] datagram : batch)
+                    decode(datagram);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Split a datagram into lines on raw bytes, and parse each line. */
+    private void decode(byte[] datagram) {
+        int start = 0;
+        for (int i = 0; i <= datagram.length; i++) {
+            if (i == datagram.length || datagram[i] == '\n' || datagram[i] == '\r') {
+                if (i > start) {
+                    String line = new String(datagram, start, i - start, StandardCharsets.ISO_8859_1);
+                    if (!line.isBlank())
+                        decode(line);
+                }
+                start = i + 1;
+            }
+        }
+    }
+
+    private void decode(String line) {
+        NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(line);
+        if (!result.isSuccess()) {
+            log.warning(NMEAParseStatistics.warningOf(result.status(), line));
+            return;
+        }
+        try {
+            NMEAMessage nmea = result.value();
+            nmeaMessageConsumer.accept(nmea);
+        } catch (InvalidMessage invalidMessageException) {
+            log.warning("Received invalid AIS message: \"%s\"".formatted(line));
+        } catch (UnsupportedMessageType unsupportedMessageTypeException) {
+            log.warning("Received unsupported NMEA message: \"%s\"".formatted(line));
+        } catch (NMEAParseException parseException) {
+            log.warning("Received non-compliant NMEA message: \"%s\"".formatted(line));
+        } catch (RuntimeException e) {
+            log.warning("Failed to decode NMEA message: \"%s\": %s".formatted(line, e.getMessage()));
+        }
+    }
+
+    /**
+     * Queue an end of input marker for each decode thread. Waits for room in the queue only while a decode
+     * thread is alive to make it; so a decode thread ended by an Error does not block shutdown.
+     */
+    private void endInput(List<Thread> decodeThreads) {
+        boolean interrupted = false;
+        for (int queued = 0; queued < decodeThreads.size() && decodeThreads.stream().anyMatch(Thread::isAlive); ) {
+            try {
+                if (queue.offer(END_OF_INPUT, END_OF_INPUT_OFFER_MILLIS, TimeUnit.MILLISECONDS))
+                    queued++;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        while (true) {
+            try {
+                thread.join();
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean isStopRequested() {
+        return this.stopRequested.get();
+    }
+
+    /** @return the number of datagrams received from the channels. */
+    public long getReceivedPacketCount() {
+        return receivedPacketCount.get();
+    }
+
+    /** @return the number of received datagrams dropped because the hand-off queue was full. */
+    public long getQueueOverflowCount() {
+        return queueOverflowCount.get();
+    }
+
+    /**
+     * The number of datagrams dropped by the kernel on the bound channels, e.g. because the socket
+     * receive buffers were full. Read from /proc/net/udp and /proc/net/udp6, so only available on Linux.
+     * <p>
+     * Sockets are matched by local port and by inode among the sockets open in this process; so sockets of
+     * other processes bound to the same port are not counted, but other sockets of this process bound to
+     * the same port - e.g. of another receiver - are.
+     * @return the number of dropped datagrams; or -1 if not available.
+     */
+    public long getKernelDropCount() throws IOException {
+        List<String> ports = new ArrayList<>();
+        for (SocketAddress localAddress : localAddresses)
+            ports.add(":%04X".formatted(((InetSocketAddress) localAddress).getPort()));
+        Set<String> inodes = socketInodesOfThisProcess();
+
+        long drops = -1;
+        for (Path path : List.of(Path.of("/proc/net/udp"), Path.of("/proc/net/udp6"))) {
+            if (!Files.isReadable(path))
+                continue;
+            for (String line : Files.readAllLines(path)) {
+                String[] fields = line.trim().split("\\s+");
+                // sl local_address rem_address st tx_queue:rx_queue tr:tm->when retrnsmt uid timeout inode ref pointer drops
+                if (fields.length >= 13 && inodes.contains(fields[9])
+                        && ports.stream().anyMatch(port -> fields[1].toUpperCase(Locale.ROOT).endsWith(port)))
+                    drops = Math.max(drops, 0) + Long.parseLong(fields[12]);
+            }
+        }
+        return drops;
+    }
+
+    /** @return the inodes of the sockets open in this process; read from the links "socket:[inode]" in /proc/self/fd. */
+    private static Set<String> socketInodesOfThisProcess() throws IOException {
+        Set<String> inodes = new HashSet<>();
+        Path fds = Path.of("/proc/self/fd");
+        if (!Files.isDirectory(fds))
+            return inodes;
+        try (Stream<Path> links = Files.list(fds)) {
+            for (Path link : (Iterable<Path>) links::iterator) {
+                try {
+                    String target = Files.readSymbolicLink(link).toString();
+                    if (target.startsWith("socket:[") && target.endsWith("]"))
+                        inodes.add(target.substring("socket:[".length(), target.length() - 1));
+                } catch (IOException e) {
+                    // Closed meanwhile
+                }
+            }
+        }
+        return inodes;
+    }
+
+}
@@ -0,0 +1,335 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Receives NMEA messages from any number of TCP feeds, using a single thread and a NIO Selector.
+ * <p>
+ * Connections are non-blocking. A feed whose connection fails or is closed by the server is reconnected
+ * automatically, with exponential backoff. Lines are split per connection on raw bytes, and passed on with the
+ * name of their feed as source - either to a line consumer, such as {@link NMEAMessagePipeline#submit(String, String)},
+ * or to an NMEAMessageHandler per feed, which all deliver to the same AIS message consumer.
+ * <p>
+ * All consumers are called from the thread calling run().
+ *
+ * @author tbsalling
+ */
+@Log
+public class NMEAMessageFeedClient {
+
+    /** Default initial delay before reconnecting a feed. Doubled for each failed attempt. */
+    public static final Duration DEFAULT_MIN_RECONNECT_DELAY = Duration.ofSeconds(1);
+
+    /** Default maximum delay before reconnecting a feed. */
+    public static final Duration DEFAULT_MAX_RECONNECT_DELAY = Duration.ofMinutes(1);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BiConsumer<String, String> lineConsumer;
+    private final List<Feed> feeds = new CopyOnWriteArrayList<>();
+    private final Selector selector;
+    private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+    private Duration minReconnectDelay = DEFAULT_MIN_RECONNECT_DELAY;
+    private Duration maxReconnectDelay = DEFAULT_MAX_RECONNECT_DELAY;
+
+    /**
+     * @param lineConsumer receives the feed name and each raw NMEA line received from the feed.
+     */
+    public NMEAMessageFeedClient(BiConsumer<String, String> lineConsumer) throws IOException {
+        this.lineConsumer = Objects.requireNonNull(lineConsumer, "lineConsumer cannot be null.");
+        this.selector = Selector.open();
+    }
+
+    /**
+     * @param aisMessageConsumer receives the AIS messages decoded from all feeds; their source is the feed name.
+     */
+    public NMEAMessageFeedClient(Consumer<? super AISMessage> aisMessageConsumer) throws IOException {
+        this(new HandlerPerFeed(aisMessageConsumer));
+    }
+
+    /**
+     * Set the delays before reconnecting a feed. The delay starts at the minimum and is doubled for each
+     * failed attempt, up to the maximum.
+     */
+    public void setReconnectDelay(Duration minReconnectDelay, Duration maxReconnectDelay) {
+        this.minReconnectDelay = minReconnectDelay;
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+
+    /**
+     * Add a feed. Can be called before or while running.
+     * @param name the name of the feed; used as source of its messages.
+     * @param host the host to connect to.
+     * @param port the port to connect to.
+     * @return the feed; holding its counters.
+     */
+    public Feed addFeed(String name, String host, int port) {
+        Feed feed = new Feed(name, host, port);
+        feeds.add(feed);
+        selector.wakeup();
+        return feed;
+    }
+
+    /** @return the feeds added. */
+    public List<Feed> getFeeds() {
+        return List.copyOf(feeds);
+    }
+
+    public void requestStop() {
+        this.stopRequested.set(true);
+        selector.wakeup();
+    }
+
+    /**
+     * Connect and receive from the feeds until stop is requested.
+     */
+    public void run() throws IOException {
+        log.info("NMEAMessageFeedClient running.");
+
+        try {
+            while (!stopRequested.get()) {
+                long now = System.nanoTime();
+                long timeout = Long.MAX_VALUE;
+                for (Feed f : feeds) {
+                    if (f.channel == null) {
+                        if (f.reconnectAtNanos - now <= 0)
+                            connect(f);
+                        else
+                            timeout = Math.min(timeout, f.reconnectAtNanos - now);
+                    }
+                }
+
+                selector.select(timeout == Long.MAX_VALUE ? 0 : Math.max(1, Duration.ofNanos(timeout).toMillis()));
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Feed f = (Feed) key.attachment();
+                    if (key.isValid() && key.isConnectable())
+                        finishConnect(f);
+                    if (key.isValid() && key.isReadable())
+                        read(f);
+                }
+                selector.selectedKeys().clear();
+            }
+        } finally {
+            for (Feed feed : feeds)
+                disconnect(feed);
+            selector.close();
+        }
+
+        log.info("NMEAMessageFeedClient stopping.");
+    }
+
+    private void connect(Feed feed) {
+        try {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            feed.channel = channel;
+            feed.connectAttempts++;
+            if (channel.connect(new InetSocketAddress(feed.host, feed.port))) {
+                channel.register(selector, SelectionKey.OP_READ, feed);
+                connected(feed);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, feed);
+            }
+        } catch (IOException | RuntimeException e) {
+            reconnectLater(feed, e);
+        }
+    }
+
+    private void finishConnect(Feed feed) {
+        try {
+            feed.channel.finishConnect();
+            feed.channel.keyFor(selector).interestOps(SelectionKey.OP_READ);
+            connected(feed);
+        } catch (IOException e) {
+            reconnectLater(feed, e);
+        }
+    }
+
+    private void connected(Feed feed) {
+        log.info("Connected to feed %s on %s:%d".formatted(feed.name, feed.host, feed.port));
+        feed.connectAttempts = 0;
+        feed.connectCount.incrementAndGet();
+        feed.connected = true;
+    }
+
+    private void read(Feed feed) {
+        try {
+            int read = feed.buffer.read(feed.channel);
+            if (read < 0) {
+                reconnectLater(feed, null);
+                return;
+            }
+            feed.bytesReceived.addAndGet(read);
+            feed.lastReceivedNanos = System.nanoTime();
+            feed.linesReceived.addAndGet(feed.buffer.drainLines(line -> accept(feed, line)));
+            if (feed.buffer.isFull()) {
+                log.warning("Discarding %d bytes without line terminator from feed %s".formatted(feed.buffer.size(), feed.name));
+                feed.buffer.clear();
+            }
+        } catch (IOException e) {
+            reconnectLater(feed, e);
+        }
+    }
+
+    private void accept(Feed feed, String line) {
+        try {
+            lineConsumer.accept(feed.name, line);
+        } catch (RuntimeException e) {
+            log.warning("Failed to handle line from feed %s: \"%s\": %s".formatted(feed.name, line, e.getMessage()));
+        }
+    }
+
+    private void reconnectLater(Feed feed, Exception cause) {
+        disconnect(feed);
+        long delayNanos = Math.min(maxReconnectDelay.toNanos(), minReconnectDelay.toNanos() << Math.min(Math.max(feed.connectAttempts - 1, 0), 20));
+        feed.reconnectAtNanos = System.nanoTime() + delayNanos;
+        log.warning("Feed %s on %s:%d disconnected%s; reconnecting in %d ms".formatted(feed.name, feed.host, feed.port,
+                cause == null ? "" : " (" + cause + ")", Duration.ofNanos(delayNanos).toMillis()));
+    }
+
+    private void disconnect(Feed feed) {
+        feed.connected = false;
+        feed.buffer.clear();
+        if (feed.channel != null) {
+            try {
+                feed.channel.close();
+            } catch (IOException e) {
+                log.fine("Failed to close channel of feed %s: %s".formatted(feed.name, e.getMessage()));
+            }
+            feed.channel = null;
+        }
+    }
+
+    /**
+     * A TCP feed of NMEA messages, with its counters.
+     */
+    public static final class Feed {
+
+        private final String name;
+        private final String host;
+        private final int port;
+        private final NMEALineBuffer buffer = new NMEALineBuffer(BUFFER_SIZE);
+        private final AtomicLong bytesReceived = new AtomicLong();
+        private final AtomicLong linesReceived = new AtomicLong();
+        private final AtomicLong connectCount = new AtomicLong();
+        private volatile boolean connected;
+        private volatile long lastReceivedNanos;
+        private SocketChannel channel;
+        private int connectAttempts;
+        /** Time to connect at when not connected; a new feed is connected at once. */
+        private long reconnectAtNanos = System.nanoTime();
+
+        private Feed(String name, String host, int port) {
+            this.name = Objects.requireNonNull(name, "name cannot be null.");
+            this.host = Objects.requireNonNull(host, "host cannot be null.");
+            this.port = port;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isConnected() {
+            return connected;
+        }
+
+        /** @return the number of bytes received from the feed. */
+        public long getBytesReceived() {
+            return bytesReceived.get();
+        }
+
+        /** @return the number of non-empty lines received from the feed. */
+        public long getLinesReceived() {
+            return linesReceived.get();
+        }
+
+        /** @return the number of times a connection to the feed has been established. */
+        public long getConnectCount() {
+            return connectCount.get();
+        }
+
+        /** @return the time elapsed since data was last received from the feed; or null if none has been received. */
+        public Duration getLag() {
+            long last = lastReceivedNanos;
+            return last == 0 ? null : Duration.ofNanos(System.nanoTime() - last);
+        }
+
+        @Override
+        public String toString() {
+            return "Feed{name=%s, host=%s, port=%d, connected=%s, bytesReceived=%d, linesReceived=%d, connectCount=%d}"
+                    .formatted(name, host, port, connected, getBytesReceived(), getLinesReceived(), getConnectCount());
+        }
+    }
+
+    /**
+     * Parses lines into NMEA messages and passes them on to an NMEAMessageHandler per feed.
+     */
+    private static final class HandlerPerFeed implements BiConsumer<String, String> {
+
+        private final Consumer<? super AISMessage> aisMessageConsumer;
+        private final Map<String, NMEAMessageHandler> handlers = new HashMap<>();
+
+        private HandlerPerFeed(Consumer<? super AISMessage> aisMessageConsumer) {
+            this.aisMessageConsumer = Objects.requireNonNull(aisMessageConsumer, "aisMessageConsumer cannot be null.");
+        }
+
+        @Override
+        public void accept(String feedName, String line) {
+            NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(line);
+            if (!result.isSuccess()) {
+                log.warning(NMEAParseStatistics.warningOf(result.status(), line));
+                return;
+            }
+            try {
+                NMEAMessage nmea = result.value();
+                handlers.computeIfAbsent(feedName, name -> new NMEAMessageHandler(name, aisMessageConsumer)).accept(nmea);
+            } catch (InvalidMessage invalidMessageException) {
+                log.warning("Received invalid AIS message: \"%s\"".formatted(line));
+            } catch (UnsupportedMessageType unsupportedMessageTypeException) {
+                log.warning("Received unsupported NMEA message: \"%s\"".formatted(line));
+            } catch (NMEAParseException parseException) {
+                log.warning("Received non-compliant NMEA message: \"%s\"".formatted(line));
+            }
+        }
+    }
+
+}
@@ -18,13 +18,25 @@ package dk.tbsalling.aismessages.nmea;
 
 import dk.tbsalling.aismessages.ais.messages.AISMessage;
 import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFilter;
 import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
+import dk.tbsalling.aismessages.nmea.tagblock.NMEATagBlock;
 import lombok.extern.java.Log;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
@@ -33,15 +45,38 @@ import java.util.function.Consumer;
  * is observed in the input, an AISMessage is constructed and passed on to all registered
  * receivers of encoded AIS messages.
  *
+ * Fragments of multipart messages are reassembled by sequence number, radio channel and
+ * tag block sentence group, so that interleaved multipart messages do not destroy each other.
+ * The number of incomplete messages kept is bounded, and incomplete messages time out.
+ *
  * @author tbsalling
  *
  */
 @Log
 public class NMEAMessageHandler implements Consumer<NMEAMessage> {
 
+    /** Default maximum number of multipart messages under reassembly at the same time. */
+    public static final int DEFAULT_MAX_INCOMPLETE_MESSAGES = 64;
+
+    /** Default time to wait for the remaining fragments of a multipart message. */
+    public static final Duration DEFAULT_FRAGMENT_TIMEOUT = Duration.ofSeconds(60);
+
 	private final String source;
-    private final List<NMEAMessage> messageFragments = new ArrayList<>();
-    private final List<Consumer<? super AISMessage>> aisMessageReceivers = new LinkedList<>();
+    /** Incomplete multipart messages, oldest first. */
+    private final Map<FragmentKey, Fragments> messageFragments = new LinkedHashMap<>();
+    private final List<Consumer<? super AISMessage>> aisMessageReceivers = new CopyOnWriteArrayList<>();
+    private volatile boolean lazyDecoding;
+    private volatile AISMessageFilter messageFilter;
+    private volatile AISMessageDeduplicator deduplicator;
+    private volatile BiConsumer<NMEATagBlock, NMEAMessage[]> completeMessageReceiver;
+    private Batch batch;
+    private int maxIncompleteMessages = DEFAULT_MAX_INCOMPLETE_MESSAGES;
+    private long fragmentTimeoutNanos = DEFAULT_FRAGMENT_TIMEOUT.toNanos();
+
+    private final AtomicLong reassembledCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
 
     public NMEAMessageHandler(String source, Consumer<? super AISMessage>... aisMessageReceivers) {
     	this.source = source;
@@ -71,48 +106,201 @@ public class NMEAMessageHandler implements Consumer<NMEAMessage> {
      * @param nmeaMessage the NMEAMessage to process.
      */
     protected void processMessage(NMEAMessage nmeaMessage) {
-        log.fine("Received for processing: %s".formatted(nmeaMessage.getRawMessage()));
+        log.fine(() -> "Received for processing: %s".formatted(nmeaMessage.getRawMessage()));
 
         int numberOfFragments = nmeaMessage.getNumberOfFragments();
 		if (numberOfFragments <= 0) {
             log.warning("NMEA message is invalid: %s".formatted(nmeaMessage.toString()));
-			messageFragments.clear();
 		} else if (numberOfFragments == 1) {
-            log.fine("Handling unfragmented NMEA message");
-            AISMessage aisMessage = AISMessageFactory.create(Instant.now(), source, nmeaMessage.getTagBlock(), nmeaMessage);
-            sendToAisMessageReceivers(aisMessage);
-			messageFragments.clear();
+            log.fine(() -> "Handling unfragmented NMEA message");
+            if (isAccepted(nmeaMessage)) {
+                complete(nmeaMessage.getTagBlock(), nmeaMessage);
+            }
 		} else {
 			int fragmentNumber = nmeaMessage.getFragmentNumber();
-            log.fine("Handling fragmented NMEA message with fragment number %d".formatted(fragmentNumber));
+            log.fine(() -> "Handling fragmented NMEA message with fragment number %d".formatted(fragmentNumber));
+            evictTimedOutFragments();
+            FragmentKey key = FragmentKey.of(nmeaMessage);
 			if (fragmentNumber < 0) {
                 log.warning("Fragment number cannot be negative: %d: %s".formatted(fragmentNumber, nmeaMessage.getRawMessage()));
-				messageFragments.clear();
+                discardFragments(key);
 			} else if (fragmentNumber > numberOfFragments) {
-                log.fine("Fragment number %d higher than expected %d: %s".formatted(fragmentNumber, numberOfFragments, nmeaMessage.getRawMessage()));
-				messageFragments.clear();
+                log.fine(() -> "Fragment number %d higher than expected %d: %s".formatted(fragmentNumber, numberOfFragments, nmeaMessage.getRawMessage()));
+                discardFragments(key);
 			} else {
-				int expectedFragmentNumber = messageFragments.size() + 1;
-                log.fine("Expected fragment number is: %d: %s".formatted(expectedFragmentNumber, nmeaMessage.getRawMessage()));
+                Fragments fragments = messageFragments.get(key);
+				int expectedFragmentNumber = fragments == null ? 1 : fragments.nmeaMessages.size() + 1;
+                log.fine(() -> "Expected fragment number is: %d: %s".formatted(expectedFragmentNumber, nmeaMessage.getRawMessage()));
 
 				if (expectedFragmentNumber != fragmentNumber) {
-                    log.fine("Expected fragment number %d; not %d: %s".formatted(expectedFragmentNumber, fragmentNumber, nmeaMessage.getRawMessage()));
-					messageFragments.clear();
-				} else {
-					messageFragments.add(nmeaMessage);
-                    log.fine("nmeaMessage.getNumberOfFragments(): %d".formatted(nmeaMessage.getNumberOfFragments()));
-                    log.fine("messageFragments.size(): %d".formatted(messageFragments.size()));
-					if (nmeaMessage.getNumberOfFragments() == messageFragments.size()) {
-                        AISMessage aisMessage = AISMessageFactory.create(Instant.now(), source, nmeaMessage.getTagBlock(), messageFragments.toArray(new NMEAMessage[0]));
-                        sendToAisMessageReceivers(aisMessage);
-						messageFragments.clear();
-					} else
-                        log.fine("Fragmented message not yet complete; missing " + (nmeaMessage.getNumberOfFragments() - messageFragments.size()) + " fragment(s).");
-				}
+                    log.fine(() -> "Expected fragment number %d; not %d: %s".formatted(expectedFragmentNumber, fragmentNumber, nmeaMessage.getRawMessage()));
+                    discardFragments(key);
+                    if (fragmentNumber == 1)
+                        fragments = addFragments(key);
+                    else
+                        return;
+				} else if (fragments == null) {
+                    fragments = addFragments(key);
+                }
+
+                fragments.nmeaMessages.add(nmeaMessage);
+                int numberOfFragmentsReceived = fragments.nmeaMessages.size();
+                log.fine(() -> "nmeaMessage.getNumberOfFragments(): %d".formatted(nmeaMessage.getNumberOfFragments()));
+                log.fine(() -> "fragments.size(): %d".formatted(numberOfFragmentsReceived));
+                if (nmeaMessage.getNumberOfFragments() == numberOfFragmentsReceived) {
+                    messageFragments.remove(key);
+                    reassembledCount.incrementAndGet();
+                    if (isAccepted(fragments.nmeaMessages.get(0))) {
+                        complete(nmeaMessage.getTagBlock(), fragments.nmeaMessages.toArray(new NMEAMessage[0]));
+                    }
+                } else
+                    log.fine(() -> "Fragmented message not yet complete; missing %d fragment(s).".formatted(nmeaMessage.getNumberOfFragments() - numberOfFragmentsReceived));
 			}
 		}
 	}
 
+    /** Start reassembly of a new multipart message; evicting the oldest incomplete one if at capacity. */
+    private Fragments addFragments(FragmentKey key) {
+        while (messageFragments.size() >= maxIncompleteMessages) {
+            Iterator<Fragments> iterator = messageFragments.values().iterator();
+            Fragments oldest = iterator.next();
+            log.fine(() -> "Evicting incomplete message: %s".formatted(oldest.nmeaMessages));
+            iterator.remove();
+            evictedCount.incrementAndGet();
+        }
+        Fragments fragments = new Fragments(System.nanoTime());
+        messageFragments.put(key, fragments);
+        return fragments;
+    }
+
+    /** Drop the incomplete multipart message with the given key, if any. */
+    private void discardFragments(FragmentKey key) {
+        if (messageFragments.remove(key) != null)
+            discardedCount.incrementAndGet();
+    }
+
+    /** Drop incomplete multipart messages whose first fragment was received longer ago than the fragment timeout. */
+    private void evictTimedOutFragments() {
+        long now = System.nanoTime();
+        Iterator<Fragments> iterator = messageFragments.values().iterator();
+        while (iterator.hasNext()) {
+            Fragments fragments = iterator.next();
+            if (now - fragments.firstReceivedNanos <= fragmentTimeoutNanos)
+                break;
+            log.fine(() -> "Timed out incomplete message: %s".formatted(fragments.nmeaMessages));
+            iterator.remove();
+            timedOutCount.incrementAndGet();
+        }
+    }
+
+    /** Evaluate the message filter (if any) on the header of the AIS message carried by the NMEA message. */
+    private boolean isAccepted(NMEAMessage firstNmeaMessage) {
+        AISMessageFilter filter = messageFilter;
+        if (filter == null || AISMessageFactory.accepts(filter, firstNmeaMessage))
+            return true;
+        log.fine(() -> "AIS message rejected by filter: %s".formatted(firstNmeaMessage.getRawMessage()));
+        return false;
+    }
+
+    /** Pass on complete set of NMEA messages; decoded, unless a batch is being decoded or a complete message receiver is set. */
+    private void complete(NMEATagBlock tagBlock, NMEAMessage... nmeaMessages) {
+        AISMessageDeduplicator d = deduplicator;
+        if (d != null && d.isDuplicate(source, nmeaMessages)) {
+            log.fine(() -> "Suppressed duplicate: %s".formatted(nmeaMessages[0].getRawMessage()));
+            return;
+        }
+        BiConsumer<NMEATagBlock, NMEAMessage[]> receiver = completeMessageReceiver;
+        if (batch != null)
+            batch.complete(tagBlock, nmeaMessages);
+        else if (receiver != null)
+            receiver.accept(tagBlock, nmeaMessages);
+        else
+            sendToAisMessageReceivers(createAisMessage(tagBlock, nmeaMessages));
+    }
+
+    /** Decode AIS message from complete set of NMEA messages. */
+    private AISMessage createAisMessage(NMEATagBlock tagBlock, NMEAMessage... nmeaMessages) {
+        return createAisMessage(Instant.now(), tagBlock, nmeaMessages);
+    }
+
+    private AISMessage createAisMessage(Instant received, NMEATagBlock tagBlock, NMEAMessage... nmeaMessages) {
+        return lazyDecoding
+                ? AISMessageFactory.createLazily(received, source, tagBlock, nmeaMessages)
+                : AISMessageFactory.create(received, source, tagBlock, nmeaMessages);
+    }
+
+    /**
+     * Decode a batch of NMEA strings.
+     * <p>
+     * The AIS messages decoded are returned rather than passed to the receivers, and errors are summarised in the
+     * result rather than logged. All messages of the batch get the same time of reception. Reassembly state is
+     * shared with accept(), so multipart messages may span batches.
+     *
+     * @param nmeaStrings the NMEA strings to decode.
+     * @return the AIS messages decoded and a summary of errors.
+     */
+    public AISMessageBatch decodeBatch(String... nmeaStrings) {
+        Batch b = startBatch(nmeaStrings.length);
+        try {
+            for (String nmeaString : nmeaStrings)
+                b.line(nmeaString);
+        } finally {
+            batch = null;
+        }
+        return b.decode();
+    }
+
+    /**
+     * Decode a batch of NMEA strings.
+     * @see #decodeBatch(String...)
+     */
+    public AISMessageBatch decodeBatch(List<? extends CharSequence> nmeaStrings) {
+        Batch b = startBatch(nmeaStrings.size());
+        try {
+            for (CharSequence nmeaString : nmeaStrings)
+                b.line(nmeaString.toString());
+        } finally {
+            batch = null;
+        }
+        return b.decode();
+    }
+
+    /**
+     * Decode a batch of NMEA strings held as lines of ASCII text in a buffer; separated by '\n', '\r' or "\r\n".
+     * The buffer is read from its position to its limit, and its position is advanced to its limit.
+     * @see #decodeBatch(String...)
+     */
+    public AISMessageBatch decodeBatch(ByteBuffer lines) {
+        Batch b = startBatch(lines.remaining() / 64);
+        try {
+            byte[] line = new byte[128];
+            int start = lines.position();
+            int limit = lines.limit();
+            for (int i = start; i <= limit; i++) {
+                if (i == limit || lines.get(i) == '\n' || lines.get(i) == '\r') {
+                    int length = i - start;
+                    if (length > 0) {
+                        if (length > line.length)
+                            line = new byte[Math.max(length, 2 * line.length)];
+                        lines.get(start, line, 0, length);
+                        b.line(new String(line, 0, length, StandardCharsets.ISO_8859_1));
+                    }
+                    start = i + 1;
+                }
+            }
+            lines.position(limit);
+        } finally {
+            batch = null;
+        }
+        return b.decode();
+    }
+
+    /** Start collecting complete messages into a new batch; the caller must reset batch to null when done. */
+    private Batch startBatch(int expectedSize) {
+        batch = new Batch(expectedSize);
+        return batch;
+    }
+
     /** Send encoded AIS message to all interested receivers. */
     private void sendToAisMessageReceivers(final AISMessage aisMessage) {
         aisMessageReceivers.forEach(r -> r.accept(aisMessage));
@@ -127,14 +315,206 @@ public class NMEAMessageHandler implements Consumer<NMEAMessage> {
         aisMessageReceivers.add(aisMessageReceiver);
     }
 
+    /**
+     * Add a consumer of encoded AIS messages, which receives them on a worker thread of its own through a
+     * bounded queue; so a slow consumer does not hold up decoding or other consumers.
+     * @param aisMessageReceiver The consumer to add.
+     * @param queueCapacity The maximum number of messages waiting to be delivered to the consumer.
+     * @param overflowPolicy What to do with messages when the queue is full.
+     * @return the asynchronous receiver; to be closed when no longer needed.
+     */
+    public AsyncAISMessageReceiver addAsyncAisMessageReceiver(Consumer<? super AISMessage> aisMessageReceiver, int queueCapacity, AsyncAISMessageReceiver.OverflowPolicy overflowPolicy) {
+        AsyncAISMessageReceiver asyncReceiver = new AsyncAISMessageReceiver(aisMessageReceiver, queueCapacity, overflowPolicy);
+        addAisMessageReceiver(asyncReceiver);
+        return asyncReceiver;
+    }
+
+    /**
+     * Hand complete sets of NMEA messages to a receiver instead of decoding them; so decoding can take place
+     * in a later stage on another thread.
+     * @param completeMessageReceiver receives the tag block and NMEA messages of each complete AIS message; or null to decode.
+     */
+    void setCompleteMessageReceiver(BiConsumer<NMEATagBlock, NMEAMessage[]> completeMessageReceiver) {
+        this.completeMessageReceiver = completeMessageReceiver;
+    }
+
+    /**
+     * Enable or disable lazy decoding of AIS messages. In lazy mode, fields which are costly to decode
+     * are only decoded when their getters are first called.
+     * @param lazyDecoding true to decode lazily; false (default) to decode all fields up front.
+     * @see AISMessageFactory#createLazily
+     */
+    public void setLazyDecoding(boolean lazyDecoding) {
+        this.lazyDecoding = lazyDecoding;
+    }
+
+    /**
+     * Set a filter on message type, source MMSI and repeat indicator. The filter is evaluated on the
+     * header bits of the armoured payload, and AIS messages rejected by it are not decoded nor passed on to
+     * the receivers.
+     * @param messageFilter the filter to apply; or null to decode all messages (default).
+     */
+    public void setMessageFilter(AISMessageFilter messageFilter) {
+        this.messageFilter = messageFilter;
+    }
+
+    /**
+     * Suppress duplicates of AIS messages - such as the same transmission relayed by several base stations -
+     * before they are decoded and passed on to the receivers. The deduplicator may be shared by several handlers.
+     * @param deduplicator the deduplicator to apply; or null to pass on all messages (default).
+     */
+    public void setDeduplicator(AISMessageDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    /**
+     * Set the maximum number of multipart messages under reassembly at the same time. When exceeded,
+     * the oldest incomplete message is evicted.
+     * @param maxIncompleteMessages the maximum; must be positive.
+     */
+    public void setMaxIncompleteMessages(int maxIncompleteMessages) {
+        if (maxIncompleteMessages < 1)
+            throw new IllegalArgumentException("maxIncompleteMessages must be positive: " + maxIncompleteMessages);
+        this.maxIncompleteMessages = maxIncompleteMessages;
+    }
+
+    /**
+     * Set the time to wait for the remaining fragments of a multipart message, counted from
+     * its first fragment. Incomplete messages older than this are evicted.
+     * @param fragmentTimeout the timeout.
+     */
+    public void setFragmentTimeout(Duration fragmentTimeout) {
+        this.fragmentTimeoutNanos = fragmentTimeout.toNanos();
+    }
+
+    /** @return the number of multipart messages currently under reassembly. */
+    public int getIncompleteMessageCount() {
+        return messageFragments.size();
+    }
+
+    /** @return true if a multipart message with the given key is under reassembly. */
+    public boolean isIncomplete(FragmentKey key) {
+        return messageFragments.containsKey(key);
+    }
+
+    /** @return the number of multipart messages reassembled. */
+    public long getReassembledCount() {
+        return reassembledCount.get();
+    }
+
+    /** @return the number of incomplete multipart messages evicted because too many were under reassembly. */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /** @return the number of incomplete multipart messages evicted because of the fragment timeout. */
+    public long getTimedOutCount() {
+        return timedOutCount.get();
+    }
+
+    /** @return the number of incomplete multipart messages discarded because of missing or invalid fragments. */
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
     /**
 	 * Empty buffer of unhandled messages and return those not handled.
      * @return List of unhandled NMEAMessages.
 	 */
     public List<NMEAMessage> flush() {
-        List<NMEAMessage> unhandled = List.copyOf(messageFragments);
+        List<NMEAMessage> unhandled = new ArrayList<>();
+        messageFragments.values().forEach(fragments -> unhandled.addAll(fragments.nmeaMessages));
 		messageFragments.clear();
-		return unhandled;
+		return List.copyOf(unhandled);
 	}
 
+    /**
+     * Identifies the fragments of one multipart message: sequence number, radio channel and
+     * the group id of the tag block sentence grouping (if any).
+     */
+    public record FragmentKey(int sequenceNumber, String radioChannelCode, String group) {
+        public static FragmentKey of(NMEAMessage nmeaMessage) {
+            NMEATagBlock tagBlock = nmeaMessage.getTagBlock();
+            String sentenceGrouping = tagBlock == null ? null : tagBlock.getSentenceGrouping();
+            String group = sentenceGrouping == null ? null : sentenceGrouping.substring(sentenceGrouping.lastIndexOf('-') + 1);
+            return new FragmentKey(nmeaMessage.getSequenceNumber(), nmeaMessage.getRadioChannelCode(), group);
+        }
+    }
+
+    /** State of the batch being decoded; parsing and reassembly first, then decoding in one go. */
+    private final class Batch {
+        private final List<NMEATagBlock> tagBlocks;
+        private final List<NMEAMessage[]> completeMessages;
+        private final List<String> errorSamples = new ArrayList<>();
+        private int lineCount;
+        private int invalidChecksumCount;
+        private int parseErrorCount;
+
+        private Batch(int expectedSize) {
+            tagBlocks = new ArrayList<>(expectedSize);
+            completeMessages = new ArrayList<>(expectedSize);
+        }
+
+        private void line(String nmeaString) {
+            if (nmeaString.isEmpty())
+                return;
+            lineCount++;
+            NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(nmeaString);
+            if (!result.isSuccess()) {
+                parseErrorCount++;
+                addErrorSample(result.status().name(), nmeaString);
+                return;
+            }
+            NMEAMessage nmeaMessage = result.value();
+            if (!nmeaMessage.isChecksumValid())
+                invalidChecksumCount++;
+            try {
+                processMessage(nmeaMessage);
+            } catch (RuntimeException e) {
+                parseErrorCount++;
+                addErrorSample(e.getClass().getSimpleName(), nmeaString);
+            }
+        }
+
+        private void complete(NMEATagBlock tagBlock, NMEAMessage[] nmeaMessages) {
+            tagBlocks.add(tagBlock);
+            completeMessages.add(nmeaMessages);
+        }
+
+        private AISMessageBatch decode() {
+            Instant received = Instant.now();
+            int n = completeMessages.size();
+            AISMessage[] aisMessages = new AISMessage[n];
+            int decoded = 0;
+            int decodeErrorCount = 0;
+            for (int i = 0; i < n; i++) {
+                NMEAMessage[] nmeaMessages = completeMessages.get(i);
+                try {
+                    AISMessage aisMessage = createAisMessage(received, tagBlocks.get(i), nmeaMessages);
+                    aisMessages[decoded++] = aisMessage;
+                } catch (RuntimeException e) {
+                    decodeErrorCount++;
+                    addErrorSample(e.getClass().getSimpleName(), nmeaMessages[0].getRawMessage());
+                }
+            }
+            if (decoded < n)
+                aisMessages = Arrays.copyOf(aisMessages, decoded);
+            return new AISMessageBatch(aisMessages, lineCount, invalidChecksumCount, parseErrorCount, decodeErrorCount, List.copyOf(errorSamples));
+        }
+
+        private void addErrorSample(String reason, String nmeaString) {
+            if (errorSamples.size() < AISMessageBatch.MAX_ERROR_SAMPLES)
+                errorSamples.add("%s: %s".formatted(reason, nmeaString));
+        }
+    }
+
+    private static final class Fragments {
+        private final long firstReceivedNanos;
+        private final List<NMEAMessage> nmeaMessages = new ArrayList<>(2);
+
+        private Fragments(long firstReceivedNanos) {
+            this.firstReceivedNanos = firstReceivedNanos;
+        }
+    }
+
 }
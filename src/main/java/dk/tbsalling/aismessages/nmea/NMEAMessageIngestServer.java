@@ -0,0 +1,352 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A TCP server receiving NMEA messages from many inbound connections, using a single thread and a NIO Selector.
+ * <p>
+ * Each connection has its own NMEAMessageHandler - and thereby its own reassembly of fragmented messages - with
+ * a source label derived from the remote address. The decoded AIS messages of all connections are delivered to
+ * the same receivers, on the thread calling run().
+ * <p>
+ * Each connection has a bounded buffer. A connection is closed if it sends a line not fitting the buffer, or if
+ * it does not complete a line within the idle timeout - so stalled or misbehaving clients cannot hold on to
+ * resources. New connections beyond the maximum number of connections are closed right away.
+ *
+ * @author tbsalling
+ */
+@Log
+public class NMEAMessageIngestServer {
+
+    /** Default maximum number of concurrent connections. */
+    public static final int DEFAULT_MAX_CONNECTIONS = 1024;
+
+    /** Default size of the buffer of each connection; the maximum length of a line. */
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    /** Default time a connection may go without completing a line before being closed. */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    /** Time to pause accepting connections after accepting failed. */
+    private static final Duration ACCEPT_RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final Consumer<? super AISMessage>[] aisMessageReceivers;
+    private final Selector selector;
+    private final List<Connection> connections = new ArrayList<>();
+    private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong acceptFailedCount = new AtomicLong();
+    private final AtomicLong overflowDisconnectCount = new AtomicLong();
+    private final AtomicLong idleDisconnectCount = new AtomicLong();
+    private final AtomicLong lineCount = new AtomicLong();
+    private volatile int connectionCount;
+    private ServerSocketChannel serverChannel;
+    private SelectionKey serverKey;
+    /** Time to resume accepting connections after accepting failed; or 0 if accepting. */
+    private long resumeAcceptAtNanos;
+    private InetSocketAddress localAddress;
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private Duration idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    private Function<SocketAddress, String> sourceLabeller = String::valueOf;
+
+    @SafeVarargs
+    public NMEAMessageIngestServer(Consumer<? super AISMessage>... aisMessageReceivers) throws IOException {
+        this.aisMessageReceivers = aisMessageReceivers.clone();
+        this.selector = Selector.open();
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        if (maxConnections < 1)
+            throw new IllegalArgumentException("maxConnections must be positive: " + maxConnections);
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Set the size of the buffer of each connection; the maximum length of a line. Applies to new connections.
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        this.bufferSize = bufferSize;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = Objects.requireNonNull(idleTimeout, "idleTimeout cannot be null.");
+    }
+
+    /**
+     * Set the function deriving the source label of messages from the remote address of their connection.
+     * The default is the String value of the address.
+     */
+    public void setSourceLabeller(Function<SocketAddress, String> sourceLabeller) {
+        this.sourceLabeller = Objects.requireNonNull(sourceLabeller, "sourceLabeller cannot be null.");
+    }
+
+    /**
+     * Bind the server to a local address. Must be called before run().
+     */
+    public void bind(InetSocketAddress address) throws IOException {
+        if (serverChannel != null)
+            throw new IllegalStateException("Server is already bound to " + localAddress);
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        localAddress = (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /** @return the local address the server is bound to; or null if not bound. */
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    public void requestStop() {
+        this.stopRequested.set(true);
+        selector.wakeup();
+    }
+
+    /**
+     * Accept connections and receive from them until stop is requested.
+     */
+    public void run() throws IOException {
+        if (serverChannel == null)
+            throw new IllegalStateException("Server must be bound before running.");
+
+        log.info("NMEAMessageIngestServer running on %s.".formatted(localAddress));
+
+        try {
+            while (!stopRequested.get()) {
+                selector.select(Math.max(1, Math.min(idleTimeout.toMillis(), 1000)));
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable())
+                        accept();
+                    else if (key.isReadable())
+                        read((Connection) key.attachment());
+                }
+                selector.selectedKeys().clear();
+                closeIdleConnections();
+                resumeAccepting();
+            }
+        } finally {
+            for (Connection connection : List.copyOf(connections))
+                close(connection);
+            serverChannel.close();
+            selector.close();
+        }
+
+        log.info("NMEAMessageIngestServer stopping.");
+    }
+
+    /**
+     * Accept the pending connections. A failure to set up one connection closes that connection only. If accepting
+     * itself fails - e.g. when out of file descriptors - accepting is paused for a while rather than retried at once.
+     */
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                log.warning("Failed to accept connection; pausing for %d ms: %s".formatted(ACCEPT_RETRY_DELAY.toMillis(), e.getMessage()));
+                acceptFailedCount.incrementAndGet();
+                serverKey.interestOps(0);
+                resumeAcceptAtNanos = System.nanoTime() + ACCEPT_RETRY_DELAY.toNanos();
+                return;
+            }
+            if (channel == null)
+                return;
+            try {
+                accept(channel);
+            } catch (IOException | RuntimeException e) {
+                log.warning("Failed to set up connection: %s".formatted(e.getMessage()));
+                acceptFailedCount.incrementAndGet();
+                try {
+                    channel.close();
+                } catch (IOException closeException) {
+                    log.fine("Failed to close connection: %s".formatted(closeException.getMessage()));
+                }
+            }
+        }
+    }
+
+    private void accept(SocketChannel channel) throws IOException {
+        if (connections.size() >= maxConnections) {
+            log.warning("Rejecting connection from %s; %d connections already open".formatted(channel.getRemoteAddress(), connections.size()));
+            rejectedCount.incrementAndGet();
+            channel.close();
+            return;
+        }
+        SocketAddress remoteAddress = channel.getRemoteAddress();
+        Connection connection = new Connection(channel, sourceLabeller.apply(remoteAddress), new NMEALineBuffer(bufferSize));
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.add(connection);
+        connectionCount = connections.size();
+        acceptedCount.incrementAndGet();
+        log.info("Accepted connection from %s as %s".formatted(remoteAddress, connection.source));
+    }
+
+    private void resumeAccepting() {
+        if (resumeAcceptAtNanos != 0 && System.nanoTime() - resumeAcceptAtNanos >= 0) {
+            resumeAcceptAtNanos = 0;
+            serverKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+    }
+
+    private void read(Connection connection) {
+        try {
+            if (connection.buffer.read(connection.channel) < 0) {
+                close(connection);
+                return;
+            }
+            int lines = connection.buffer.drainLines(connection::accept);
+            if (lines > 0) {
+                connection.lastLineNanos = System.nanoTime();
+                lineCount.addAndGet(lines);
+            }
+            if (connection.buffer.isFull()) {
+                log.warning("Closing connection %s; line exceeds %d bytes".formatted(connection.source, connection.buffer.size()));
+                overflowDisconnectCount.incrementAndGet();
+                close(connection);
+            }
+        } catch (IOException e) {
+            log.fine("Failed to read from connection %s: %s".formatted(connection.source, e.getMessage()));
+            close(connection);
+        }
+    }
+
+    private void closeIdleConnections() {
+        long now = System.nanoTime();
+        long timeout = idleTimeout.toNanos();
+        for (Connection connection : List.copyOf(connections)) {
+            if (now - connection.lastLineNanos > timeout) {
+                log.warning("Closing connection %s; no line received within %s".formatted(connection.source, idleTimeout));
+                idleDisconnectCount.incrementAndGet();
+                close(connection);
+            }
+        }
+    }
+
+    private void close(Connection connection) {
+        connections.remove(connection);
+        connectionCount = connections.size();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            log.fine("Failed to close connection %s: %s".formatted(connection.source, e.getMessage()));
+        }
+    }
+
+    /** @return the number of currently open connections. */
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /** @return the number of connections accepted. */
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    /** @return the number of connections closed right away, because the maximum number of connections was reached. */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /** @return the number of failures to accept or set up a connection. */
+    public long getAcceptFailedCount() {
+        return acceptFailedCount.get();
+    }
+
+    /** @return the number of connections closed, because a line did not fit the buffer. */
+    public long getOverflowDisconnectCount() {
+        return overflowDisconnectCount.get();
+    }
+
+    /** @return the number of connections closed, because no line was completed within the idle timeout. */
+    public long getIdleDisconnectCount() {
+        return idleDisconnectCount.get();
+    }
+
+    /** @return the number of lines received on all connections. */
+    public long getLineCount() {
+        return lineCount.get();
+    }
+
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final String source;
+        private final NMEALineBuffer buffer;
+        private final NMEAMessageHandler handler;
+        private long lastLineNanos = System.nanoTime();
+
+        private Connection(SocketChannel channel, String source, NMEALineBuffer buffer) {
+            this.channel = channel;
+            this.source = source;
+            this.buffer = buffer;
+            this.handler = new NMEAMessageHandler(source, aisMessageReceivers);
+        }
+
+        private void accept(String line) {
+            NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(line);
+            if (!result.isSuccess()) {
+                log.warning(NMEAParseStatistics.warningOf(result.status(), line));
+                return;
+            }
+            try {
+                handler.accept(result.value());
+            } catch (InvalidMessage invalidMessageException) {
+                log.warning("Received invalid AIS message: \"%s\"".formatted(line));
+            } catch (UnsupportedMessageType unsupportedMessageTypeException) {
+                log.warning("Received unsupported NMEA message: \"%s\"".formatted(line));
+            } catch (NMEAParseException parseException) {
+                log.warning("Received non-compliant NMEA message: \"%s\"".formatted(line));
+            } catch (RuntimeException e) {
+                log.warning("Failed to handle line from %s: \"%s\": %s".formatted(source, line, e.getMessage()));
+            }
+        }
+    }
+
+}
@@ -16,25 +16,31 @@
 
 package dk.tbsalling.aismessages.nmea;
 
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
 import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
 import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
 import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
 import lombok.extern.java.Log;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Log
 public class NMEAMessageInputStreamReader {
@@ -44,11 +50,13 @@ public class NMEAMessageInputStreamReader {
 		Objects.requireNonNull(nmeaStringPreProcessor, "nmeaStringPreProcessor cannot be null.");
 		Objects.requireNonNull(nmeaMessageHandler, "nmeaMessageHandler cannot be null.");
 
-        if (nmeaStrings instanceof Queue<?> q)
+        if (nmeaStrings instanceof Queue<?> q) {
             this.stringSupplier = () -> (String) q.poll();
-		else {
+            this.nmeaStrings = null;
+		} else {
 			final Queue<String> nmeaStringsQueue = new LinkedList<>(nmeaStrings);
             this.stringSupplier = nmeaStringsQueue::poll;
+            this.nmeaStrings = nmeaStrings instanceof RandomAccess ? nmeaStrings : new ArrayList<>(nmeaStrings);
 		}
 
 		this.nmeaMessagePreProcessor = nmeaStringPreProcessor;
@@ -60,20 +68,33 @@ public class NMEAMessageInputStreamReader {
 	}
 
 	public NMEAMessageInputStreamReader(InputStream inputStream, Function<String, String> nmeaStringPreProcessor, Consumer<? super NMEAMessage> nmeaMessageHandler) {
+		this(Channels.newChannel(inputStream), nmeaStringPreProcessor, nmeaMessageHandler);
+	}
+
+	/**
+	 * Read NMEA strings from a channel. Lines are split on raw bytes and turned into Strings without
+	 * charset decoding, since NMEA sentences are pure ASCII.
+	 */
+	public NMEAMessageInputStreamReader(ReadableByteChannel channel, Function<String, String> nmeaStringPreProcessor, Consumer<? super NMEAMessage> nmeaMessageHandler) {
 		this.nmeaMessageHandler = nmeaMessageHandler;
 		this.nmeaMessagePreProcessor = nmeaStringPreProcessor;
 
-		InputStreamReader reader = new InputStreamReader(inputStream, Charset.defaultCharset());
-		BufferedReader bufferedReader = new BufferedReader(reader);
+		this.nmeaStrings = null;
+
+		NMEALineReader lineReader = new NMEALineReader(channel);
 		this.stringSupplier = () -> {
 			try {
-				return bufferedReader.readLine();
+				return lineReader.readLine();
 			} catch (IOException e) {
 				throw new RuntimeException(e.getMessage(), e);
 			}
 		};
 	}
 
+	public NMEAMessageInputStreamReader(ReadableByteChannel channel, Consumer<? super NMEAMessage> nmeaMessageHandler) {
+		this(channel, Function.identity(), nmeaMessageHandler);
+	}
+
 	public NMEAMessageInputStreamReader(InputStream inputStream, Consumer<? super NMEAMessage> nmeaMessageHandler) {
 		this(inputStream, Function.identity(), nmeaMessageHandler);
 	}
@@ -92,10 +113,17 @@ public class NMEAMessageInputStreamReader {
 
 			string = nmeaMessagePreProcessor.apply(string);
 
+			NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(string);
+			parseStatistics.record(result.status());
+			if (!result.isSuccess()) {
+                log.warning(NMEAParseStatistics.warningOf(result.status(), string));
+				continue;
+			}
+
 			try {
-                NMEAMessage nmea = new NMEAMessage(string);
+                NMEAMessage nmea = result.value();
 				nmeaMessageHandler.accept(nmea);
-                log.fine("Received: %s".formatted(nmea.toString()));
+                log.fine(() -> "Received: %s".formatted(nmea));
 			} catch (InvalidMessage invalidMessageException) {
                 log.warning("Received invalid AIS message: \"%s\"".formatted(string));
 			} catch (UnsupportedMessageType unsupportedMessageTypeException) {
@@ -108,12 +136,35 @@ public class NMEAMessageInputStreamReader {
         log.info("NMEAMessageInputStreamReader stopping.");
 	}
 
+	/**
+	 * Decode the input into a stream of AIS messages, which can be processed in parallel. The input is split into
+	 * parts, each decoded by an NMEAMessageHandler of its own; multipart messages straddling parts are handled.
+	 * Use either this method or run() - not both.
+	 *
+	 * @param handlerFactory creates the handler of each part, given the receiver of its AIS messages.
+	 * @return a sequential stream of the AIS messages; call parallel() to decode in parallel.
+	 * @see AISMessageSpliterator
+	 */
+	public Stream<AISMessage> aisMessageStream(Function<Consumer<? super AISMessage>, NMEAMessageHandler> handlerFactory) {
+		Spliterator<AISMessage> spliterator = nmeaStrings != null
+				? new AISMessageSpliterator(nmeaStrings, nmeaMessagePreProcessor, handlerFactory)
+				: AISMessageSpliterator.ofSupplier(stringSupplier, nmeaMessagePreProcessor, handlerFactory);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/** @return the outcomes of parsing the NMEA strings read by run(), counted per parse status. */
+	public NMEAParseStatistics getParseStatistics() {
+		return parseStatistics;
+	}
+
 	public final Boolean isStopRequested() {
 		return this.stopRequested.get();
 	}
 
 	private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+	private final NMEAParseStatistics parseStatistics = new NMEAParseStatistics();
 	private final Supplier<String> stringSupplier;
+	private final List<String> nmeaStrings;
 	private final Function<String, String> nmeaMessagePreProcessor;
 	private final Consumer<? super NMEAMessage> nmeaMessageHandler;
 }
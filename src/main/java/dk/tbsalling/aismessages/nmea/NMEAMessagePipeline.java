@@ -0,0 +1,271 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
+import lombok.extern.java.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * A multi-threaded pipeline which decodes raw NMEA strings into AIS messages.
+ * <p>
+ * NMEA strings are submitted by a single thread (typically the one reading the input) and handed to
+ * a number of decode workers. Each worker parses, reassembles and decodes the strings given to it.
+ * Fragments of multipart messages are routed to the same worker by (source, radio channel, sequence number),
+ * where they are reassembled; unfragmented messages are spread evenly over the workers.
+ * <p>
+ * With ordered delivery, the AIS messages are passed on to the receivers in the order in which their
+ * last NMEA string was submitted, one at a time. With unordered delivery, the receivers are called directly
+ * from the worker threads as soon as a message is decoded, and must therefore be thread-safe.
+ *
+ * @author tbsalling
+ */
+@Log
+public class NMEAMessagePipeline implements Consumer<String>, AutoCloseable {
+
+    /** Default capacity of the queue of each decode worker. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    private static final Task END_OF_INPUT = new Task(-1, null, null);
+
+    private final String source;
+    private final boolean orderedDelivery;
+    private final Worker[] workers;
+    private final Thread[] threads;
+    private final List<Consumer<? super AISMessage>> aisMessageReceivers = new LinkedList<>();
+
+    private long nextTicket;
+    private boolean closed;
+
+    /** Guards delivery in ordered mode. */
+    private final Object deliveryLock = new Object();
+    private final Map<Long, AISMessage> completed = new HashMap<>();
+    private long nextTicketToDeliver;
+
+    public NMEAMessagePipeline(String source, int numberOfWorkers, boolean orderedDelivery, Consumer<? super AISMessage>... aisMessageReceivers) {
+        this(source, numberOfWorkers, DEFAULT_QUEUE_CAPACITY, orderedDelivery, aisMessageReceivers);
+    }
+
+    public NMEAMessagePipeline(String source, int numberOfWorkers, int queueCapacity, boolean orderedDelivery, Consumer<? super AISMessage>... aisMessageReceivers) {
+        if (numberOfWorkers < 1)
+            throw new IllegalArgumentException("numberOfWorkers must be positive: " + numberOfWorkers);
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+
+        this.source = source;
+        this.orderedDelivery = orderedDelivery;
+        for (Consumer<? super AISMessage> aisMessageReceiver : aisMessageReceivers) {
+            this.aisMessageReceivers.add(Objects.requireNonNull(aisMessageReceiver));
+        }
+
+        this.workers = new Worker[numberOfWorkers];
+        this.threads = new Thread[numberOfWorkers];
+        for (int i = 0; i < numberOfWorkers; i++) {
+            workers[i] = new Worker(new ArrayBlockingQueue<>(queueCapacity));
+            threads[i] = new Thread(workers[i], "aismessages-decoder-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Submit a raw NMEA string from the default source of this pipeline.
+     * @param nmeaString the NMEA string to decode.
+     */
+    @Override
+    public void accept(String nmeaString) {
+        submit(source, nmeaString);
+    }
+
+    /**
+     * Submit a raw NMEA string. Blocks while the queue of the selected worker is full.
+     * Must be called from one thread at a time.
+     * @param source the source of the NMEA string; fragments are only reassembled with fragments of the same source.
+     * @param nmeaString the NMEA string to decode.
+     */
+    public void submit(String source, String nmeaString) {
+        if (closed)
+            throw new IllegalStateException("Pipeline is closed.");
+
+        long ticket = nextTicket++;
+        int shard = shardOf(source, nmeaString, ticket, workers.length);
+        try {
+            workers[shard].queue.put(new Task(ticket, source, nmeaString));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(ticket, null);
+        }
+    }
+
+    /**
+     * Wait for all submitted NMEA strings to be decoded and delivered, and stop the decode workers.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+
+        try {
+            for (Worker worker : workers)
+                worker.queue.put(END_OF_INPUT);
+            for (Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Thread thread : threads)
+                thread.interrupt();
+        }
+    }
+
+    /**
+     * Select the worker for an NMEA string. Fragments of multipart messages are routed by (source, radio channel,
+     * sequence number), which is scanned from the raw string without parsing it; everything else by ticket.
+     */
+    static int shardOf(String source, String nmeaString, long ticket, int numberOfShards) {
+        int roundRobin = (int) (ticket % numberOfShards);
+        if (nmeaString == null)
+            return roundRobin;
+
+        int start = 0;
+        if (nmeaString.startsWith("\\")) {
+            int endOfTagBlock = nmeaString.indexOf('\\', 1);
+            if (endOfTagBlock < 0)
+                return roundRobin;
+            start = endOfTagBlock + 1;
+        }
+
+        // Fields: sentence type, number of fragments, fragment number, sequence number, radio channel
+        int[] commas = new int[5];
+        int found = 0;
+        for (int i = start; i < nmeaString.length() && found < commas.length; i++) {
+            if (nmeaString.charAt(i) == ',')
+                commas[found++] = i;
+        }
+        if (found < commas.length)
+            return roundRobin;
+        if (commas[1] - commas[0] == 2 && nmeaString.charAt(commas[0] + 1) == '1')
+            return roundRobin;
+
+        int hash = Objects.hashCode(source);
+        for (int i = commas[2] + 1; i < commas[4]; i++)
+            hash = 31 * hash + nmeaString.charAt(i);
+        return Math.floorMod(hash, numberOfShards);
+    }
+
+    /** Record the outcome of a ticket; and deliver it (in ordered mode together with any following tickets). */
+    private void complete(long ticket, AISMessage aisMessage) {
+        if (!orderedDelivery) {
+            if (aisMessage != null)
+                deliver(aisMessage);
+            return;
+        }
+
+        synchronized (deliveryLock) {
+            if (ticket != nextTicketToDeliver) {
+                completed.put(ticket, aisMessage);
+                return;
+            }
+            if (aisMessage != null)
+                deliver(aisMessage);
+            nextTicketToDeliver++;
+            while (completed.containsKey(nextTicketToDeliver)) {
+                AISMessage next = completed.remove(nextTicketToDeliver);
+                if (next != null)
+                    deliver(next);
+                nextTicketToDeliver++;
+            }
+        }
+    }
+
+    /** Send decoded AIS message to all interested receivers. */
+    private void deliver(AISMessage aisMessage) {
+        for (Consumer<? super AISMessage> aisMessageReceiver : aisMessageReceivers) {
+            try {
+                aisMessageReceiver.accept(aisMessage);
+            } catch (RuntimeException e) {
+                log.warning("AIS message receiver failed: %s".formatted(e.getMessage()));
+            }
+        }
+    }
+
+    private record Task(long ticket, String source, String nmeaString) {
+    }
+
+    /**
+     * Decode worker. Owns one NMEAMessageHandler per source; these are only ever touched by the worker thread.
+     */
+    private final class Worker implements Runnable {
+
+        private final BlockingQueue<Task> queue;
+        private final Map<String, NMEAMessageHandler> handlers = new HashMap<>();
+        private final List<AISMessage> decoded = new ArrayList<>(1);
+
+        private Worker(BlockingQueue<Task> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Task task;
+                while ((task = queue.take()) != END_OF_INPUT) {
+                    complete(task.ticket(), decode(task));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private AISMessage decode(Task task) {
+            decoded.clear();
+            NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(task.nmeaString());
+            if (!result.isSuccess()) {
+                log.warning(NMEAParseStatistics.warningOf(result.status(), task.nmeaString()));
+                return null;
+            }
+            try {
+                NMEAMessage nmeaMessage = result.value();
+                handlers.computeIfAbsent(task.source(), source -> new NMEAMessageHandler(source, decoded::add)).accept(nmeaMessage);
+            } catch (InvalidMessage invalidMessageException) {
+                log.warning("Received invalid AIS message: \"%s\"".formatted(task.nmeaString()));
+            } catch (UnsupportedMessageType unsupportedMessageTypeException) {
+                log.warning("Received unsupported NMEA message: \"%s\"".formatted(task.nmeaString()));
+            } catch (NMEAParseException parseException) {
+                log.warning("Received non-compliant NMEA message: \"%s\"".formatted(task.nmeaString()));
+            } catch (RuntimeException e) {
+                log.warning("Failed to decode NMEA message: \"%s\": %s".formatted(task.nmeaString(), e.getMessage()));
+            }
+            return decoded.isEmpty() ? null : decoded.get(0);
+        }
+    }
+
+}
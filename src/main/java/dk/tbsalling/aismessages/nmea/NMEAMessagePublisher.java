@@ -0,0 +1,66 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.nmea.AsyncAISMessageReceiver.OverflowPolicy;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A Flow.Publisher of the NMEA messages read from a channel or input stream, honouring the demand of its subscriber.
+ *
+ * @author tbsalling
+ * @see BufferedPublisher
+ */
+public class NMEAMessagePublisher extends BufferedPublisher<NMEAMessage> {
+
+    private final ReadableByteChannel channel;
+    private volatile NMEAMessageInputStreamReader reader;
+
+    public NMEAMessagePublisher(InputStream inputStream) {
+        this(Channels.newChannel(inputStream), DEFAULT_BUFFER_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    public NMEAMessagePublisher(InputStream inputStream, int bufferCapacity, OverflowPolicy overflowPolicy) {
+        this(Channels.newChannel(inputStream), bufferCapacity, overflowPolicy);
+    }
+
+    public NMEAMessagePublisher(ReadableByteChannel channel, int bufferCapacity, OverflowPolicy overflowPolicy) {
+        super(bufferCapacity, overflowPolicy);
+        this.channel = Objects.requireNonNull(channel, "channel cannot be null.");
+    }
+
+    @Override
+    protected void read(Consumer<NMEAMessage> sink) {
+        reader = new NMEAMessageInputStreamReader(channel, sink);
+        if (!isCancelled())
+            reader.run();
+    }
+
+    @Override
+    protected void requestStop() {
+        NMEAMessageInputStreamReader r = reader;
+        if (r != null)
+            r.requestStop();
+    }
+
+}
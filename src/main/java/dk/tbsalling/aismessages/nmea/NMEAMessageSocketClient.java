@@ -27,7 +27,7 @@ import java.util.function.Consumer;
 
 /**
  * @deprecated This class is deprecated and may be removed in a future version.
- * Please use alternative socket communication methods instead.
+ * Please use {@link NMEAMessageFeedClient} instead.
  */
 @Deprecated(since = "4.0")
 @Log
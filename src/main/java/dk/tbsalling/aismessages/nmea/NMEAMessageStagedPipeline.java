@@ -0,0 +1,266 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.nmea.RingBuffer.WaitStrategy;
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
+import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
+import dk.tbsalling.aismessages.nmea.tagblock.NMEATagBlock;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Decodes NMEA messages from a byte channel in four stages, each on a thread of its own:
+ * <ol>
+ *     <li>reading lines (NMEALineReader),</li>
+ *     <li>parsing NMEA sentences (NMEAMessage),</li>
+ *     <li>reassembling fragmented messages (NMEAMessageHandler), and</li>
+ *     <li>decoding AIS messages (AISMessageFactory) and delivering them to the receivers.</li>
+ * </ol>
+ * The stages are connected by preallocated lock-free ring buffers; a stage waits for its input according to the
+ * WaitStrategy. With BUSY_SPIN each stage occupies a core, and the latency from wire to receiver is kept low
+ * and stable.
+ *
+ * @author tbsalling
+ */
+@Log
+public class NMEAMessageStagedPipeline implements AutoCloseable {
+
+    /** Default capacity of each ring buffer. */
+    public static final int DEFAULT_RING_CAPACITY = 4096;
+
+    private final ReadableByteChannel channel;
+    private final String source;
+    private final WaitStrategy waitStrategy;
+    private final Consumer<? super AISMessage>[] aisMessageReceivers;
+    private final RingBuffer<String> lines;
+    private final RingBuffer<NMEAMessage> nmeaMessages;
+    private final RingBuffer<CompleteMessage> completeMessages;
+    private final NMEAMessageHandler handler;
+    private final Thread readThread;
+    private final List<Thread> threads;
+    private final AtomicLong lineCount = new AtomicLong();
+    private final AtomicLong decodedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile boolean stopRequested;
+    private volatile boolean readingDone;
+    private volatile boolean parsingDone;
+    private volatile boolean reassemblyDone;
+
+    @SafeVarargs
+    public NMEAMessageStagedPipeline(ReadableByteChannel channel, String source, WaitStrategy waitStrategy, Consumer<? super AISMessage>... aisMessageReceivers) {
+        this(channel, source, DEFAULT_RING_CAPACITY, waitStrategy, aisMessageReceivers);
+    }
+
+    /**
+     * @param channel the channel to read from; in blocking mode.
+     * @param source the source of the messages.
+     * @param ringCapacity the capacity of each ring buffer between stages.
+     * @param waitStrategy how stages wait for input, or for room for output.
+     * @param aisMessageReceivers the receivers of decoded AIS messages; called from the decoding stage. Exceptions
+     *                            thrown by a receiver are logged and counted; they do not stop the pipeline.
+     */
+    @SafeVarargs
+    public NMEAMessageStagedPipeline(ReadableByteChannel channel, String source, int ringCapacity, WaitStrategy waitStrategy, Consumer<? super AISMessage>... aisMessageReceivers) {
+        this.channel = Objects.requireNonNull(channel, "channel cannot be null.");
+        this.source = source;
+        this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy cannot be null.");
+        this.aisMessageReceivers = aisMessageReceivers.clone();
+        this.lines = new RingBuffer<>(ringCapacity);
+        this.nmeaMessages = new RingBuffer<>(ringCapacity);
+        this.completeMessages = new RingBuffer<>(ringCapacity);
+        this.handler = new NMEAMessageHandler(source);
+        this.handler.setCompleteMessageReceiver((tagBlock, messages) -> put(completeMessages, new CompleteMessage(tagBlock, messages)));
+        this.readThread = new Thread(this::read, "aismessages-stage-read");
+        this.threads = List.of(
+                readThread,
+                new Thread(this::parse, "aismessages-stage-parse"),
+                new Thread(this::reassemble, "aismessages-stage-reassemble"),
+                new Thread(this::decode, "aismessages-stage-decode"));
+        threads.forEach(thread -> thread.setDaemon(true));
+    }
+
+    /**
+     * Start the stages.
+     */
+    public void start() {
+        threads.forEach(Thread::start);
+    }
+
+    /**
+     * Wait until all input has been read and the decoded messages delivered.
+     */
+    public void join() throws InterruptedException {
+        for (Thread thread : threads)
+            thread.join();
+    }
+
+    /**
+     * Stop the stages without waiting for the remaining input, and wait for them to finish.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        stopRequested = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.fine(() -> "Failed to close channel: %s".formatted(e.getMessage()));
+        }
+        // Not all channels unblock a pending read when closed; interruptible channels do when interrupted
+        readThread.interrupt();
+        join();
+    }
+
+    private void read() {
+        NMEALineReader lineReader = new NMEALineReader(channel);
+        try {
+            String line;
+            while (!stopRequested && (line = lineReader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    lineCount.incrementAndGet();
+                    put(lines, line);
+                }
+            }
+        } catch (IOException e) {
+            if (!stopRequested)
+                log.warning("Failed to read from %s: %s".formatted(source, e.getMessage()));
+        } finally {
+            readingDone = true;
+        }
+    }
+
+    private void parse() {
+        try {
+            for (int attempt = 0; !stopRequested; ) {
+                boolean done = readingDone;
+                String line = lines.poll();
+                if (line == null) {
+                    if (done)
+                        break;
+                    waitStrategy.idle(attempt++);
+                    continue;
+                }
+                attempt = 0;
+                NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(line);
+                if (result.isSuccess())
+                    put(nmeaMessages, result.value());
+                else
+                    log.warning(NMEAParseStatistics.warningOf(result.status(), line));
+            }
+        } finally {
+            parsingDone = true;
+        }
+    }
+
+    private void reassemble() {
+        try {
+            for (int attempt = 0; !stopRequested; ) {
+                boolean done = parsingDone;
+                NMEAMessage nmeaMessage = nmeaMessages.poll();
+                if (nmeaMessage == null) {
+                    if (done)
+                        break;
+                    waitStrategy.idle(attempt++);
+                    continue;
+                }
+                attempt = 0;
+                try {
+                    handler.accept(nmeaMessage);
+                } catch (InvalidMessage | UnsupportedMessageType | NMEAParseException e) {
+                    log.warning("Received invalid AIS message: \"%s\"".formatted(nmeaMessage.getRawMessage()));
+                } catch (RuntimeException e) {
+                    failedCount.incrementAndGet();
+                    log.warning("Failed to reassemble NMEA message: \"%s\": %s".formatted(nmeaMessage.getRawMessage(), e.getMessage()));
+                }
+            }
+        } finally {
+            reassemblyDone = true;
+        }
+    }
+
+    private void decode() {
+        for (int attempt = 0; !stopRequested; ) {
+            boolean done = reassemblyDone;
+            CompleteMessage completeMessage = completeMessages.poll();
+            if (completeMessage == null) {
+                if (done)
+                    break;
+                waitStrategy.idle(attempt++);
+                continue;
+            }
+            attempt = 0;
+            AISMessage aisMessage;
+            try {
+                aisMessage = AISMessageFactory.create(Instant.now(), source, completeMessage.tagBlock(), completeMessage.nmeaMessages());
+            } catch (InvalidMessage | UnsupportedMessageType | NMEAParseException e) {
+                log.warning("Received invalid AIS message: \"%s\"".formatted(completeMessage.nmeaMessages()[0].getRawMessage()));
+                continue;
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                log.warning("Failed to decode AIS message: \"%s\": %s".formatted(completeMessage.nmeaMessages()[0].getRawMessage(), e.getMessage()));
+                continue;
+            }
+            decodedCount.incrementAndGet();
+            for (Consumer<? super AISMessage> receiver : aisMessageReceivers) {
+                try {
+                    receiver.accept(aisMessage);
+                } catch (RuntimeException e) {
+                    failedCount.incrementAndGet();
+                    log.warning("Receiver failed to handle AIS message: %s".formatted(e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /** Add an element to a ring buffer; waiting for room, unless stop is requested. */
+    private <E> void put(RingBuffer<E> ringBuffer, E element) {
+        for (int attempt = 0; !ringBuffer.offer(element) && !stopRequested; attempt++)
+            waitStrategy.idle(attempt);
+    }
+
+    /** @return the number of non-empty lines read. */
+    public long getLineCount() {
+        return lineCount.get();
+    }
+
+    /** @return the number of AIS messages decoded. */
+    public long getDecodedCount() {
+        return decodedCount.get();
+    }
+
+    /** @return the number of messages on which reassembly, decoding or a receiver threw an unexpected exception. */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private record CompleteMessage(NMEATagBlock tagBlock, NMEAMessage[] nmeaMessages) {
+    }
+
+}
@@ -20,6 +20,7 @@ import dk.tbsalling.aismessages.nmea.exceptions.InvalidMessage;
 import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
 import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
 import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
 import lombok.extern.java.Log;
 
 import java.io.IOException;
@@ -79,9 +80,15 @@ public class NMEAMessageUDPSocket {
                         if (line.trim().isEmpty()) {
                             continue;
                         }
-                        
+
+                        NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(line);
+                        if (!result.isSuccess()) {
+                            log.warning(NMEAParseStatistics.warningOf(result.status(), line));
+                            continue;
+                        }
+
                         try {
-                            NMEAMessage nmea = new NMEAMessage(line);
+                            NMEAMessage nmea = result.value();
                             nmeaMessageConsumer.accept(nmea);
                             log.fine("Received: %s".formatted(nmea.toString()));
                         } catch (InvalidMessage invalidMessageException) {
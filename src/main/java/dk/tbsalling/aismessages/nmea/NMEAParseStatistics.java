@@ -0,0 +1,84 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the outcomes of parsing NMEA messages per parse status, so the reasons for rejecting input can be
+ * monitored without catching exceptions.
+ *
+ * @author tbsalling
+ * @see dk.tbsalling.aismessages.nmea.messages.NMEAMessage#parse(String)
+ */
+public class NMEAParseStatistics {
+
+    private static final NMEAParseStatus[] STATUSES = NMEAParseStatus.values();
+
+    public void record(NMEAParseStatus status) {
+        counts.incrementAndGet(status.ordinal());
+    }
+
+    /** @return the number of parses which ended with the given status. */
+    public long getCount(NMEAParseStatus status) {
+        return counts.get(status.ordinal());
+    }
+
+    /** @return the number of parses which succeeded. */
+    public long getSuccessCount() {
+        return getCount(NMEAParseStatus.OK);
+    }
+
+    /** @return the number of parses which failed; for any reason. */
+    public long getFailureCount() {
+        long failures = 0;
+        for (NMEAParseStatus status : STATUSES) {
+            if (status != NMEAParseStatus.OK)
+                failures += counts.get(status.ordinal());
+        }
+        return failures;
+    }
+
+    /** @return the number of parses per status; statuses never seen are left out. */
+    public Map<NMEAParseStatus, Long> getCounts() {
+        Map<NMEAParseStatus, Long> map = new EnumMap<>(NMEAParseStatus.class);
+        for (NMEAParseStatus status : STATUSES) {
+            long count = counts.get(status.ordinal());
+            if (count > 0)
+                map.put(status, count);
+        }
+        return map;
+    }
+
+    /** The warning logged for an NMEA string which could not be parsed. */
+    static String warningOf(NMEAParseStatus status, String nmeaString) {
+        return status == NMEAParseStatus.UNSUPPORTED_MESSAGE_TYPE
+                ? "Received unsupported NMEA message: \"%s\"".formatted(nmeaString)
+                : "Received non-compliant NMEA message: \"%s\"".formatted(nmeaString);
+    }
+
+    @Override
+    public String toString() {
+        return "NMEAParseStatistics" + getCounts();
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(STATUSES.length);
+}
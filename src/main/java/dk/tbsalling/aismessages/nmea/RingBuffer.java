@@ -0,0 +1,143 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free single-producer single-consumer queue on a preallocated array.
+ * <p>
+ * One thread may offer elements and one other thread may poll them. The producer and consumer only
+ * read each other's position when their cached copy of it runs out, so in steady state a transfer costs
+ * a plain array store and load plus one release write each.
+ *
+ * @param <E> the type of elements.
+ * @author tbsalling
+ */
+public final class RingBuffer<E> {
+
+    /**
+     * How a stage waits for its ring buffer to have elements (or room for elements).
+     */
+    public enum WaitStrategy {
+        /** Spin on the CPU; lowest latency, but occupies a core per waiting stage. */
+        BUSY_SPIN,
+        /** Spin for a while, then yield the CPU to other threads. */
+        YIELD,
+        /** Spin, then yield, then park the thread briefly; lowest CPU use, highest latency. */
+        PARK;
+
+        private static final int SPIN_TRIES = 100;
+        private static final int YIELD_TRIES = 200;
+        private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+        /**
+         * Wait a little.
+         * @param attempt the number of times waited in a row, starting at 0.
+         */
+        public void idle(int attempt) {
+            if (this == BUSY_SPIN || attempt < SPIN_TRIES)
+                Thread.onSpinWait();
+            else if (this == YIELD || attempt < YIELD_TRIES)
+                Thread.yield();
+            else
+                LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    private final Object[] slots;
+    private final int mask;
+    /** Position of the next element to poll; written by the consumer only. */
+    private final AtomicLong head = new AtomicLong();
+    /** Position of the next element to offer; written by the producer only. */
+    private final AtomicLong tail = new AtomicLong();
+    /** The producer's copy of head. */
+    private long cachedHead;
+    /** The consumer's copy of tail. */
+    private long cachedTail;
+
+    /**
+     * @param capacity the capacity; rounded up to a power of two.
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add an element, if there is room. To be called from the producer thread only.
+     * @return true if the element was added; false if the ring buffer is full.
+     */
+    public boolean offer(E element) {
+        if (element == null)
+            throw new NullPointerException("element cannot be null.");
+        long t = tail.getPlain();
+        if (t - cachedHead >= slots.length) {
+            cachedHead = head.getAcquire();
+            if (t - cachedHead >= slots.length)
+                return false;
+        }
+        slots[(int) t & mask] = element;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    /**
+     * Add an element; waiting for room if the ring buffer is full. To be called from the producer thread only.
+     */
+    public void put(E element, WaitStrategy waitStrategy) {
+        for (int attempt = 0; !offer(element); attempt++)
+            waitStrategy.idle(attempt);
+    }
+
+    /**
+     * Remove the oldest element, if any. To be called from the consumer thread only.
+     * @return the oldest element; or null if the ring buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.getPlain();
+        if (h >= cachedTail) {
+            cachedTail = tail.getAcquire();
+            if (h >= cachedTail)
+                return null;
+        }
+        int index = (int) h & mask;
+        E element = (E) slots[index];
+        slots[index] = null;
+        head.setRelease(h + 1);
+        return element;
+    }
+
+    /** @return the number of elements in the ring buffer; approximate while it is in use. */
+    public int size() {
+        long h = head.getAcquire();
+        return (int) (tail.getAcquire() - h);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+}
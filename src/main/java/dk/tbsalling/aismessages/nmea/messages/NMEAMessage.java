@@ -16,63 +16,163 @@
 
 package dk.tbsalling.aismessages.nmea.messages;
 
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidTagBlock;
 import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
 import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
 import dk.tbsalling.aismessages.nmea.tagblock.NMEATagBlock;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 @Value
 public class NMEAMessage {
 
+    /** Result of parsing a numeric field which is not a number. */
+    private static final long INVALID_NUMBER = Long.MIN_VALUE;
+
+    /**
+     * Parse an NMEA message.
+     * @param input the NMEA message, optionally preceded by a tag block.
+     * @throws NMEAParseException if the message is malformed.
+     * @throws InvalidTagBlock if the checksum of the tag block is invalid.
+     * @throws UnsupportedMessageType if the message is not of type VDM or VDO.
+     * @throws NumberFormatException if a numeric field is not a number.
+     * @see #parse(String)
+     */
     public NMEAMessage(String input) {
+        this(parseOrThrow(input));
+    }
+
+    private NMEAMessage(NMEAMessage other) {
+        this(other.rawMessage, other.tagBlock, other.messageType, other.numberOfFragments, other.fragmentNumber, other.sequenceNumber,
+                other.radioChannelCode, other.encodedPayload, other.fillBits, other.checksum, other.calculatedChecksum);
+    }
+
+    private NMEAMessage(String rawMessage, NMEATagBlock tagBlock, String messageType, int numberOfFragments, int fragmentNumber, int sequenceNumber,
+                        String radioChannelCode, String encodedPayload, int fillBits, int checksum, int calculatedChecksum) {
+        this.rawMessage = rawMessage;
+        this.tagBlock = tagBlock;
+        this.messageType = messageType;
+        this.numberOfFragments = numberOfFragments;
+        this.fragmentNumber = fragmentNumber;
+        this.sequenceNumber = sequenceNumber;
+        this.radioChannelCode = radioChannelCode;
+        this.encodedPayload = encodedPayload;
+        this.fillBits = fillBits;
+        this.checksum = checksum;
+        this.calculatedChecksum = calculatedChecksum;
+    }
+
+    private static NMEAMessage parseOrThrow(String input) {
+        NMEAParseResult<NMEAMessage> result = parse(input);
+        if (result.isSuccess())
+            return result.value();
+
+        // Cold path: rebuild the exception which describes the failure
+        int endOfTagBlock = endOfTagBlock(input);
+        if (result.status().isTagBlockStatus())
+            throw result.status().toException(input.substring(0, endOfTagBlock));
+        throw result.status().toException(endOfTagBlock > 0 ? input.substring(endOfTagBlock) : input);
+    }
+
+    /**
+     * Parse an NMEA message without throwing exceptions on bad input. The AIS payload is not validated; that is
+     * done when the AIS message is decoded, which throws InvalidMessage if the payload does not fit its type.
+     * @param input the NMEA message, optionally preceded by a tag block.
+     * @return the NMEA message; or the reason it could not be parsed.
+     */
+    public static NMEAParseResult<NMEAMessage> parse(String input) {
         // Parse tag block first and strip it from the working string
-        final String nmeaTagBlockRegEx = "^\\\\.*\\*[0-9A-Fa-f]{2}\\\\";
-        String working = input;
-        NMEATagBlock parsedTagBlock = null;
-        Pattern tbPattern = Pattern.compile(nmeaTagBlockRegEx);
-        Matcher tbMatcher = tbPattern.matcher(working);
-        if (tbMatcher.lookingAt()) {
-            String nmeaTagBlockString = working.substring(tbMatcher.start(), tbMatcher.end());
-            parsedTagBlock = NMEATagBlock.fromString(nmeaTagBlockString);
-            working = working.substring(tbMatcher.end());
+        String rawMessage = input;
+        NMEATagBlock tagBlock = null; // can be null
+        int endOfTagBlock = endOfTagBlock(input);
+        if (endOfTagBlock > 0) {
+            NMEAParseResult<NMEATagBlock> tagBlockResult = NMEATagBlock.parse(input.substring(0, endOfTagBlock));
+            if (!tagBlockResult.isSuccess())
+                return NMEAParseResult.failure(tagBlockResult.status());
+            tagBlock = tagBlockResult.value();
+            rawMessage = input.substring(endOfTagBlock);
         }
-        this.tagBlock = parsedTagBlock; // can be null
 
-        // Store the raw NMEA sentence (without tag block if it existed)
-        this.rawMessage = working;
+        // Single pass over the sentence: locate field separators, look for line terminators and compute checksum
+        final int length = rawMessage.length();
+        final int[] commas = new int[6];
+        int numberOfCommas = 0;
+        int asterisksInLastField = 0;
+        boolean seenAsterisk = false;
+        boolean seenLineTerminator = false;
+        int calculatedChecksum = 0;
+        for (int i = 1; i < length; i++) {
+            char c = rawMessage.charAt(i);
+            if (c == ',') {
+                if (numberOfCommas < commas.length)
+                    commas[numberOfCommas] = i;
+                numberOfCommas++;
+                asterisksInLastField = 0;
+            } else if (c == '*') {
+                seenAsterisk = true;
+                asterisksInLastField++;
+            } else if (isLineTerminator(c)) {
+                seenLineTerminator = true;
+            }
+            if (!seenAsterisk)
+                calculatedChecksum ^= (byte) c;
+        }
 
         // Basic structural validations before parsing fields
-        final String nmeaMessageRegExp = "^!.*\\*[0-9A-Fa-f]{2}$";
-        if (!rawMessage.matches(nmeaMessageRegExp))
-            throw new NMEAParseException(rawMessage, "Message does not comply with regexp \"" + nmeaMessageRegExp + "\"");
-
-        String[] fields = rawMessage.split(",", -1); // keep empty strings
-        if (fields.length != 7)
-            throw new NMEAParseException(rawMessage, "Expected 7 fields separated by commas; got " + fields.length);
-
-        String[] lastFieldParts = fields[6].split("\\*", -1);
-        if (lastFieldParts.length != 2)
-            throw new NMEAParseException(rawMessage, "Expected checksum fields to start with *");
-
-        // Eagerly parse and assign all fields (using sentinel -1 for missing numeric fields)
-        this.messageType = (isBlank(fields[0]) ? null : fields[0].replace("!", ""));
-        this.numberOfFragments = (isBlank(fields[1]) ? -1 : Integer.parseInt(fields[1]));
-        this.fragmentNumber = (isBlank(fields[2]) ? -1 : Integer.parseInt(fields[2]));
-        this.sequenceNumber = (isBlank(fields[3]) ? -1 : Integer.parseInt(fields[3]));
-        this.radioChannelCode = (isBlank(fields[4]) ? null : fields[4]);
-        this.encodedPayload = (isBlank(fields[5]) ? null : fields[5]);
-        this.fillBits = (isBlank(lastFieldParts[0]) ? -1 : Integer.parseInt(lastFieldParts[0]));
-        this.checksum = (isBlank(lastFieldParts[1]) ? -1 : Integer.parseInt(lastFieldParts[1], 16));
+        if (seenLineTerminator || length < 4 || rawMessage.charAt(0) != '!' || rawMessage.charAt(length - 3) != '*' || !isHexDigit(rawMessage.charAt(length - 2)) || !isHexDigit(rawMessage.charAt(length - 1)))
+            return NMEAParseResult.failure(NMEAParseStatus.MALFORMED_SENTENCE);
+
+        if (numberOfCommas != 6)
+            return NMEAParseResult.failure(NMEAParseStatus.WRONG_NUMBER_OF_FIELDS);
+
+        if (asterisksInLastField != 1)
+            return NMEAParseResult.failure(NMEAParseStatus.MALFORMED_CHECKSUM_FIELD);
+
+        // Eagerly parse all fields (using sentinel -1 for missing numeric fields)
+        long numberOfFragments = parseInt(rawMessage, commas[0] + 1, commas[1], 10);
+        long fragmentNumber = parseInt(rawMessage, commas[1] + 1, commas[2], 10);
+        long sequenceNumber = parseInt(rawMessage, commas[2] + 1, commas[3], 10);
+        long fillBits = parseInt(rawMessage, commas[5] + 1, length - 3, 10);
+        long checksum = parseInt(rawMessage, length - 2, length, 16);
+        if (numberOfFragments == INVALID_NUMBER || fragmentNumber == INVALID_NUMBER || sequenceNumber == INVALID_NUMBER || fillBits == INVALID_NUMBER)
+            return NMEAParseResult.failure(NMEAParseStatus.INVALID_NUMBER);
 
         // Validate supported message type
-        if (!isValid())
-            throw new UnsupportedMessageType(this.messageType);
+        String type = rawMessage.substring(1, commas[0]);
+        String messageType = type.indexOf('!') < 0 ? type : type.replace("!", "");
+        if (!isValid(messageType))
+            return NMEAParseResult.failure(NMEAParseStatus.UNSUPPORTED_MESSAGE_TYPE);
+
+        String radioChannelCode = (isBlank(rawMessage, commas[3] + 1, commas[4]) ? null : rawMessage.substring(commas[3] + 1, commas[4]));
+        String encodedPayload = (isBlank(rawMessage, commas[4] + 1, commas[5]) ? null : rawMessage.substring(commas[4] + 1, commas[5]));
+
+        return NMEAParseResult.success(new NMEAMessage(rawMessage, tagBlock, messageType, (int) numberOfFragments, (int) fragmentNumber, (int) sequenceNumber,
+                radioChannelCode, encodedPayload, (int) fillBits, (int) checksum, calculatedChecksum));
     }
 
-    private boolean isValid() {
+    /**
+     * Find the end of a leading tag block - i.e. the longest prefix matching ^\\.*\*[0-9A-Fa-f]{2}\\
+     * @return the index following the tag block; or -1 if there is no tag block.
+     */
+    private static int endOfTagBlock(String input) {
+        if (input.isEmpty() || input.charAt(0) != '\\')
+            return -1;
+
+        int endOfTagBlock = -1;
+        for (int i = 1; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (isLineTerminator(c))
+                break;
+            if (c == '\\' && i >= 4 && input.charAt(i - 3) == '*' && isHexDigit(input.charAt(i - 2)) && isHexDigit(input.charAt(i - 1)))
+                endOfTagBlock = i + 1;
+        }
+        return endOfTagBlock;
+    }
+
+    private static boolean isValid(String messageType) {
         if (messageType == null || messageType.length() != 5) return false;
         String type = messageType.substring(2);
         return ("VDM".equals(type) || "VDO".equals(type));
@@ -86,26 +186,52 @@ public class NMEAMessage {
      * @return true if the checksum is valid, false otherwise
      */
     public boolean isChecksumValid() {
-        // Extract the part between '!' and '*' for checksum calculation
-        int startIndex = rawMessage.indexOf('!');
-        int endIndex = rawMessage.indexOf('*');
-        
-        if (startIndex == -1 || endIndex == -1 || startIndex >= endIndex) {
-            return false;
+        return calculatedChecksum == this.checksum;
+    }
+
+    /**
+     * Parse an int like Integer.parseInt; without throwing.
+     * @return the int; -1 if the field is blank; or INVALID_NUMBER if the field is not an int.
+     */
+    private static long parseInt(String s, int beginIndex, int endIndex, int radix) {
+        if (isBlank(s, beginIndex, endIndex))
+            return -1;
+
+        int i = beginIndex;
+        boolean negative = s.charAt(i) == '-';
+        if (negative || s.charAt(i) == '+')
+            i++;
+        if (i == endIndex)
+            return INVALID_NUMBER;
+
+        long value = 0;
+        for (; i < endIndex; i++) {
+            int digit = Character.digit(s.charAt(i), radix);
+            if (digit < 0)
+                return INVALID_NUMBER;
+            value = value * radix + digit;
+            if (value > (long) Integer.MAX_VALUE + 1)
+                return INVALID_NUMBER;
         }
-        
-        // Calculate checksum by XORing all characters between '!' and '*' (exclusive)
-        String checksumString = rawMessage.substring(startIndex + 1, endIndex);
-        int calculatedChecksum = 0;
-        for (int i = 0; i < checksumString.length(); i++) {
-            calculatedChecksum ^= (byte) checksumString.charAt(i);
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? INVALID_NUMBER : value;
+    }
+
+    private static boolean isBlank(String s, int beginIndex, int endIndex) {
+        for (int i = beginIndex; i < endIndex; i++) {
+            if (!Character.isWhitespace(s.charAt(i)))
+                return false;
         }
-        
-        return calculatedChecksum == this.checksum;
+        return true;
     }
 
-    private static boolean isBlank(String s) {
-        return s == null || s.isBlank();
+    /** Line terminators as recognized by '.' in java.util.regex. */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'F') || (c >= 'a' && c <= 'f');
     }
 
     String rawMessage;
@@ -118,4 +244,10 @@ public class NMEAMessage {
     String encodedPayload;
     int fillBits;
     int checksum;
+
+    /** Checksum calculated from the characters between '!' and the first '*' (exclusive). */
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    int calculatedChecksum;
 }
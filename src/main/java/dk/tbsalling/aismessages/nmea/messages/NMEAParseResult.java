@@ -0,0 +1,56 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea.messages;
+
+import java.util.Objects;
+
+/**
+ * The result of parsing an NMEA message or tag block without throwing: the value parsed, or the reason it could
+ * not be parsed. Results of failures are shared instances, so a failure costs no allocation.
+ *
+ * @param value  the value parsed; or null if parsing failed.
+ * @param status OK; or the reason parsing failed.
+ * @param <T>    the type of value parsed.
+ * @author tbsalling
+ */
+public record NMEAParseResult<T>(T value, NMEAParseStatus status) {
+
+    private static final NMEAParseResult<?>[] FAILURES = new NMEAParseResult<?>[NMEAParseStatus.values().length];
+
+    static {
+        for (NMEAParseStatus status : NMEAParseStatus.values()) {
+            if (status != NMEAParseStatus.OK)
+                FAILURES[status.ordinal()] = new NMEAParseResult<>(null, status);
+        }
+    }
+
+    public static <T> NMEAParseResult<T> success(T value) {
+        return new NMEAParseResult<>(Objects.requireNonNull(value, "value cannot be null."), NMEAParseStatus.OK);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> NMEAParseResult<T> failure(NMEAParseStatus status) {
+        if (status == NMEAParseStatus.OK)
+            throw new IllegalArgumentException("status of failure cannot be OK.");
+        return (NMEAParseResult<T>) FAILURES[status.ordinal()];
+    }
+
+    public boolean isSuccess() {
+        return status == NMEAParseStatus.OK;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.nmea.messages;
+
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidTagBlock;
+import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
+
+/**
+ * The outcome of parsing an NMEA message or tag block; either OK or the reason it could not be parsed.
+ * <p>
+ * Only the NMEA layer is covered. An AIS payload which does not fit its message type is detected when the
+ * AIS message is decoded, and reported by an InvalidMessage thrown from AISMessageFactory.
+ *
+ * @author tbsalling
+ * @see NMEAMessage#parse(String)
+ */
+public enum NMEAParseStatus {
+
+    /** Parsed successfully. */
+    OK,
+    /** The sentence does not have the form !...*hh. */
+    MALFORMED_SENTENCE,
+    /** The sentence does not have 7 fields separated by commas. */
+    WRONG_NUMBER_OF_FIELDS,
+    /** The checksum field does not start with a single asterisk. */
+    MALFORMED_CHECKSUM_FIELD,
+    /** A numeric field of the sentence or tag block is not a number. */
+    INVALID_NUMBER,
+    /** The sentence is not of type VDM or VDO. */
+    UNSUPPORTED_MESSAGE_TYPE,
+    /** The tag block does not have the form \...*hh\. */
+    MALFORMED_TAG_BLOCK,
+    /** The tag block does not have a single asterisk before its checksum. */
+    MALFORMED_TAG_BLOCK_CHECKSUM_FIELD,
+    /** A tag block parameter is not a code and a value separated by colon. */
+    MALFORMED_TAG_BLOCK_PARAMETER,
+    /** The checksum of the tag block does not match its content. */
+    INVALID_TAG_BLOCK_CHECKSUM;
+
+    private static final String NMEA_MESSAGE_REGEXP = "^!.*\\*[0-9A-Fa-f]{2}$";
+    private static final String NMEA_TAG_BLOCK_REGEX = "^\\\\.*\\*[0-9A-Fa-f]{2}\\\\$";
+
+    /** @return true if the status concerns the tag block rather than the sentence. */
+    public boolean isTagBlockStatus() {
+        return this == MALFORMED_TAG_BLOCK || this == MALFORMED_TAG_BLOCK_CHECKSUM_FIELD
+                || this == MALFORMED_TAG_BLOCK_PARAMETER || this == INVALID_TAG_BLOCK_CHECKSUM;
+    }
+
+    /**
+     * Create the exception thrown by the throwing parse methods for this status.
+     * @param rawMessage the sentence (without tag block) - or the tag block, if this is a tag block status.
+     */
+    public RuntimeException toException(String rawMessage) {
+        return switch (this) {
+            case OK -> new IllegalStateException("Not an error: " + rawMessage);
+            case MALFORMED_SENTENCE -> new NMEAParseException(rawMessage, "Message does not comply with regexp \"" + NMEA_MESSAGE_REGEXP + "\"");
+            case WRONG_NUMBER_OF_FIELDS -> new NMEAParseException(rawMessage, "Expected 7 fields separated by commas; got " + (rawMessage.chars().filter(c -> c == ',').count() + 1));
+            case MALFORMED_CHECKSUM_FIELD -> new NMEAParseException(rawMessage, "Expected checksum fields to start with *");
+            case INVALID_NUMBER -> new NumberFormatException("Invalid number in: " + rawMessage);
+            case UNSUPPORTED_MESSAGE_TYPE -> new UnsupportedMessageType(rawMessage.substring(1, rawMessage.indexOf(',')).replace("!", ""));
+            case MALFORMED_TAG_BLOCK -> new NMEAParseException(rawMessage, "Message does not comply with regexp \"%s\"".formatted(NMEA_TAG_BLOCK_REGEX));
+            case MALFORMED_TAG_BLOCK_CHECKSUM_FIELD -> new NMEAParseException(rawMessage, "Checksum separator expected to be asterisk(*)");
+            case MALFORMED_TAG_BLOCK_PARAMETER -> new NMEAParseException(rawMessage, "Parameter code and its value has to be separated by colon(:)");
+            case INVALID_TAG_BLOCK_CHECKSUM -> new InvalidTagBlock(rawMessage);
+        };
+    }
+
+}
@@ -3,16 +3,27 @@ package dk.tbsalling.aismessages.nmea.tagblock;
 import dk.tbsalling.aismessages.ais.messages.types.TAGBlockParameterCodeType;
 import dk.tbsalling.aismessages.nmea.exceptions.InvalidTagBlock;
 import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseResult;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseStatus;
 import lombok.Value;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
 @Value
 public class NMEATagBlock {
 
+    private static final TAGBlockParameterCodeType[] PARAMETER_CODE_TYPES = new TAGBlockParameterCodeType[128];
+
+    static {
+        for (TAGBlockParameterCodeType codeType : TAGBlockParameterCodeType.values()) {
+            if (codeType.name().length() == 1)
+                PARAMETER_CODE_TYPES[codeType.name().charAt(0)] = codeType;
+        }
+    }
+
     Long timestamp;
     String destinationId;
     String sentenceGrouping;
@@ -25,66 +36,150 @@ public class NMEATagBlock {
     Boolean valid;
     Map<TAGBlockParameterCodeType, NMEATagBlockParameterCode> parameterMap;
 
+    /**
+     * Parse a tag block.
+     * @throws NMEAParseException if the tag block is malformed.
+     * @throws InvalidTagBlock if the checksum of the tag block is invalid.
+     * @throws NumberFormatException if a numeric parameter is not a number.
+     * @see #parse(String)
+     */
     public static NMEATagBlock fromString(String nmeaTagBlockString) {
-        return new NMEATagBlock(nmeaTagBlockString);
+        NMEAParseResult<NMEATagBlock> result = parse(nmeaTagBlockString);
+        if (!result.isSuccess())
+            throw result.status().toException(nmeaTagBlockString);
+        return result.value();
     }
 
-    private NMEATagBlock(String rawMessage) {
-        final String nmeaTagBlockRegEx = "^\\\\.*\\*[0-9A-Fa-f]{2}\\\\$";
-
-        if (!rawMessage.matches(nmeaTagBlockRegEx))
-            throw new NMEAParseException(rawMessage, "Message does not comply with regexp \"%s\"".formatted(nmeaTagBlockRegEx));
-
-        String rawMessageCleaned = rawMessage.substring(1, rawMessage.length() - 1);
-        String[] msg = rawMessageCleaned.split("\\*");
-
-        if (msg.length != 2)
-            throw new NMEAParseException(rawMessage, "Checksum separator expected to be asterisk(*)");
-
-        String parameterString = msg[0];
-        String checkSum = msg[1];
+    /**
+     * Parse a tag block without throwing exceptions on bad input.
+     * @return the tag block; or the reason it could not be parsed.
+     */
+    public static NMEAParseResult<NMEATagBlock> parse(String rawMessage) {
+        // Single pass over the tag block: check structure and compute checksum of the parameters
+        final int length = rawMessage.length();
+        int asterisks = 0;
+        boolean seenLineTerminator = false;
+        int calculatedChecksum = 0;
+        for (int i = 1; i < length - 1; i++) {
+            char c = rawMessage.charAt(i);
+            if (c == '*')
+                asterisks++;
+            else if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+                seenLineTerminator = true;
+            if (asterisks == 0)
+                calculatedChecksum ^= (byte) c;
+        }
 
-        String[] parameters = parameterString.split(",");
-        parameterMap = new HashMap<>();
-        for (String parameter : parameters) {
-            String[] code = parameter.split(":", 2);
-            if (code.length != 2)
-                throw new NMEAParseException(rawMessage, "Parameter code and its value has to be separated by colon(:)");
-            if (TAGBlockParameterCodeType.contains(code[0])) {
-                NMEATagBlockParameterCode nmeaTagBlockParameterCode = new NMEATagBlockParameterCode(TAGBlockParameterCodeType.valueOf(code[0]), code[1]);
+        if (seenLineTerminator || length < 5 || rawMessage.charAt(0) != '\\' || rawMessage.charAt(length - 1) != '\\'
+                || rawMessage.charAt(length - 4) != '*' || !isHexDigit(rawMessage.charAt(length - 3)) || !isHexDigit(rawMessage.charAt(length - 2)))
+            return NMEAParseResult.failure(NMEAParseStatus.MALFORMED_TAG_BLOCK);
+
+        if (asterisks != 1)
+            return NMEAParseResult.failure(NMEAParseStatus.MALFORMED_TAG_BLOCK_CHECKSUM_FIELD);
+
+        // Parameters are between the leading backslash and the asterisk; trailing empty parameters are ignored
+        final int beginOfParameters = 1;
+        final int endOfParameters = length - 4;
+        int end = endOfParameters;
+        while (end > beginOfParameters && rawMessage.charAt(end - 1) == ',')
+            end--;
+
+        Map<TAGBlockParameterCodeType, NMEATagBlockParameterCode> parameterMap = new EnumMap<>(TAGBlockParameterCodeType.class);
+        if (end == beginOfParameters && end == endOfParameters)
+            return NMEAParseResult.failure(NMEAParseStatus.MALFORMED_TAG_BLOCK_PARAMETER);
+        for (int begin = beginOfParameters; begin < end; ) {
+            int comma = rawMessage.indexOf(',', begin);
+            int endOfParameter = comma < 0 || comma > end ? end : comma;
+            int colon = rawMessage.indexOf(':', begin);
+            if (colon < 0 || colon >= endOfParameter)
+                return NMEAParseResult.failure(NMEAParseStatus.MALFORMED_TAG_BLOCK_PARAMETER);
+            TAGBlockParameterCodeType code = parameterCodeType(rawMessage, begin, colon);
+            if (code != null) {
+                NMEATagBlockParameterCode nmeaTagBlockParameterCode = new NMEATagBlockParameterCode(code, rawMessage.substring(colon + 1, endOfParameter));
                 parameterMap.put(nmeaTagBlockParameterCode.getCode(), nmeaTagBlockParameterCode);
             }
+            begin = endOfParameter + 1;
         }
 
-        this.timestamp = parameterMap.containsKey(TAGBlockParameterCodeType.c)
-                ? Long.valueOf(parameterMap.get(TAGBlockParameterCodeType.c).getValue()) : null;
-        this.destinationId = parameterMap.containsKey(TAGBlockParameterCodeType.d)
-                ? parameterMap.get(TAGBlockParameterCodeType.d).getValue() : null;
-        this.sentenceGrouping = parameterMap.containsKey(TAGBlockParameterCodeType.g)
-                ? parameterMap.get(TAGBlockParameterCodeType.g).getValue() : null;
-        this.lineCount = parameterMap.containsKey(TAGBlockParameterCodeType.n)
-                ? Integer.valueOf(parameterMap.get(TAGBlockParameterCodeType.n).getValue()) : null;
-        this.relativeTime = parameterMap.containsKey(TAGBlockParameterCodeType.r)
-                ? Long.valueOf(parameterMap.get(TAGBlockParameterCodeType.r).getValue()) : null;
-        this.sourceId = parameterMap.containsKey(TAGBlockParameterCodeType.s)
-                ? parameterMap.get(TAGBlockParameterCodeType.s).getValue() : null;
-        this.text = parameterMap.containsKey(TAGBlockParameterCodeType.t)
-                ? parameterMap.get(TAGBlockParameterCodeType.t).getValue() : null;
-
-        this.checksum = (checkSum == null || checkSum.isBlank()) ? null : Integer.valueOf(checkSum, 16);
+        String timestamp = value(parameterMap, TAGBlockParameterCodeType.c);
+        String lineCount = value(parameterMap, TAGBlockParameterCodeType.n);
+        String relativeTime = value(parameterMap, TAGBlockParameterCodeType.r);
+        if ((timestamp != null && !isDecimal(timestamp, Long.MIN_VALUE, Long.MAX_VALUE))
+                || (lineCount != null && !isDecimal(lineCount, Integer.MIN_VALUE, Integer.MAX_VALUE))
+                || (relativeTime != null && !isDecimal(relativeTime, Long.MIN_VALUE, Long.MAX_VALUE)))
+            return NMEAParseResult.failure(NMEAParseStatus.INVALID_NUMBER);
+
+        int checksum = Integer.parseInt(rawMessage, length - 3, length - 1, 16);
+        if (calculatedChecksum != checksum)
+            return NMEAParseResult.failure(NMEAParseStatus.INVALID_TAG_BLOCK_CHECKSUM);
+
+        return NMEAParseResult.success(new NMEATagBlock(
+                timestamp != null ? Long.valueOf(timestamp) : null,
+                value(parameterMap, TAGBlockParameterCodeType.d),
+                value(parameterMap, TAGBlockParameterCodeType.g),
+                lineCount != null ? Integer.valueOf(lineCount) : null,
+                relativeTime != null ? Long.valueOf(relativeTime) : null,
+                value(parameterMap, TAGBlockParameterCodeType.s),
+                value(parameterMap, TAGBlockParameterCodeType.t),
+                checksum, rawMessage, true, parameterMap));
+    }
+
+    private NMEATagBlock(Long timestamp, String destinationId, String sentenceGrouping, Integer lineCount, Long relativeTime, String sourceId,
+                         String text, Integer checksum, String rawMessage, Boolean valid, Map<TAGBlockParameterCodeType, NMEATagBlockParameterCode> parameterMap) {
+        this.timestamp = timestamp;
+        this.destinationId = destinationId;
+        this.sentenceGrouping = sentenceGrouping;
+        this.lineCount = lineCount;
+        this.relativeTime = relativeTime;
+        this.sourceId = sourceId;
+        this.text = text;
+        this.checksum = checksum;
         this.rawMessage = rawMessage;
-        this.valid = validate(parameterString);
-        if (!valid)
-            throw new InvalidTagBlock(rawMessage);
+        this.valid = valid;
+        this.parameterMap = parameterMap;
+    }
+
+    private static String value(Map<TAGBlockParameterCodeType, NMEATagBlockParameterCode> parameterMap, TAGBlockParameterCodeType code) {
+        NMEATagBlockParameterCode parameterCode = parameterMap.get(code);
+        return parameterCode != null ? parameterCode.getValue() : null;
     }
 
-    private Boolean validate(String checkString) {
-        int checksum = 0;
-        for (int i = 0; i < checkString.length(); i++) {
-            checksum ^= (byte) (checkString.charAt(i));
+    /** @return true if s is a decimal number between min and max as accepted by Long.valueOf; without throwing. */
+    private static boolean isDecimal(String s, long min, long max) {
+        final int length = s.length();
+        int i = 0;
+        boolean negative = length > 0 && s.charAt(0) == '-';
+        if (negative || (length > 0 && s.charAt(0) == '+'))
+            i++;
+        if (i == length)
+            return false;
+
+        // Accumulate negatively to cover Long.MIN_VALUE
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0 || value < (Long.MIN_VALUE + digit) / 10)
+                return false;
+            value = value * 10 - digit;
         }
+        if (!negative) {
+            if (value == Long.MIN_VALUE)
+                return false;
+            value = -value;
+        }
+        return value >= min && value <= max;
+    }
+
+    /** Look up a parameter code by its name; without creating a substring. */
+    private static TAGBlockParameterCodeType parameterCodeType(String s, int beginIndex, int endIndex) {
+        if (endIndex - beginIndex != 1)
+            return null;
+        char c = s.charAt(beginIndex);
+        return c < PARAMETER_CODE_TYPES.length ? PARAMETER_CODE_TYPES[c] : null;
+    }
 
-        return checksum == this.checksum;
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'F') || (c >= 'a' && c <= 'f');
     }
 
     @Override
@@ -0,0 +1,70 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.DynamicDataReport;
+import dk.tbsalling.aismessages.ais.messages.types.ShipType;
+
+/**
+ * A position report joined with the static data known of the vessel sending it.
+ *
+ * @param positionReport the position report; an AIS message which is a DynamicDataReport.
+ * @param staticData     the static data of the vessel; or null if none is known yet.
+ * @author tbsalling
+ * @see VesselProfileCache
+ */
+public record VesselProfile(AISMessage positionReport, VesselStaticData staticData) {
+
+    public int mmsi() {
+        return positionReport.getSourceMmsi().getMmsi();
+    }
+
+    public float latitude() {
+        return ((DynamicDataReport) positionReport).getLatitude();
+    }
+
+    public float longitude() {
+        return ((DynamicDataReport) positionReport).getLongitude();
+    }
+
+    /** @return the name of the vessel; or null if not known. */
+    public String shipName() {
+        return staticData != null ? staticData.shipName() : null;
+    }
+
+    /** @return the callsign of the vessel; or null if not known. */
+    public String callsign() {
+        return staticData != null ? staticData.callsign() : null;
+    }
+
+    /** @return the ship type of the vessel; or null if not known. */
+    public ShipType shipType() {
+        return staticData != null ? staticData.shipType() : null;
+    }
+
+    /** @return the length of the vessel in metres; or 0 if not known. */
+    public int length() {
+        return staticData != null ? staticData.length() : 0;
+    }
+
+    /** @return the beam of the vessel in metres; or 0 if not known. */
+    public int beam() {
+        return staticData != null ? staticData.beam() : 0;
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.ClassBCSStaticDataReport;
+import dk.tbsalling.aismessages.ais.messages.DynamicDataReport;
+import dk.tbsalling.aismessages.ais.messages.ExtendedClassBEquipmentPositionReport;
+import dk.tbsalling.aismessages.ais.messages.ShipAndVoyageData;
+import lombok.extern.java.Log;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Joins the static and dynamic data of each vessel, and passes on each position report together with the static
+ * data known of its vessel.
+ * <p>
+ * Static data is collected per MMSI from ShipAndVoyageData (type 5), both parts of ClassBCSStaticDataReport (type 24;
+ * part A carries the name and part B the callsign, ship type and dimensions) and ExtendedClassBEquipmentPositionReport
+ * (type 19). Each dynamic data report - e.g. PositionReport or StandardClassBCSPositionReport - is passed on to the
+ * receiver as a VesselProfile; so receivers get names, types and dimensions without lookups of their own.
+ * <p>
+ * Memory is bounded: the cache holds at most a maximum number of vessels and evicts the least recently seen vessel
+ * when full, and vessels not seen within the time to live are evicted as well. Any message from a vessel counts as
+ * seeing it. Instances are thread-safe; receivers are called outside the lock.
+ *
+ * @author tbsalling
+ */
+@Log
+public class VesselProfileCache implements Consumer<AISMessage> {
+
+    /** Default maximum number of vessels held. */
+    public static final int DEFAULT_MAX_VESSELS = 100_000;
+
+    /** Default time a vessel is held after it was last seen; a few times the 6 minutes between static reports. */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(30);
+
+    private final Consumer<? super VesselProfile> profileReceiver;
+    private final int maxVessels;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoClock;
+
+    /** Vessels; least recently seen first. */
+    private final Map<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong enrichedCount = new AtomicLong();
+    private final AtomicLong unenrichedCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    public VesselProfileCache(Consumer<? super VesselProfile> profileReceiver) {
+        this(profileReceiver, DEFAULT_MAX_VESSELS, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param profileReceiver receives each position report joined with the static data of its vessel.
+     * @param maxVessels      the maximum number of vessels held; the least recently seen is evicted when exceeded.
+     * @param timeToLive      the time a vessel is held after it was last seen.
+     */
+    public VesselProfileCache(Consumer<? super VesselProfile> profileReceiver, int maxVessels, Duration timeToLive) {
+        this(profileReceiver, maxVessels, timeToLive, System::nanoTime);
+    }
+
+    VesselProfileCache(Consumer<? super VesselProfile> profileReceiver, int maxVessels, Duration timeToLive, LongSupplier nanoClock) {
+        this.profileReceiver = Objects.requireNonNull(profileReceiver, "profileReceiver cannot be null.");
+        if (maxVessels < 1)
+            throw new IllegalArgumentException("maxVessels must be positive: " + maxVessels);
+        Objects.requireNonNull(timeToLive, "timeToLive cannot be null.");
+        if (timeToLive.isNegative() || timeToLive.isZero())
+            throw new IllegalArgumentException("timeToLive must be positive: " + timeToLive);
+        this.maxVessels = maxVessels;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void accept(AISMessage aisMessage) {
+        if (aisMessage.getSourceMmsi() == null)
+            return;
+
+        int mmsi = aisMessage.getSourceMmsi().getMmsi();
+        long timestamp = VesselRegistry.timestampOf(aisMessage);
+        VesselStaticData staticData;
+        synchronized (entries) {
+            long now = nanoClock.getAsLong();
+            evictExpired(now);
+            Entry entry = entries.get(mmsi);
+            if (entry == null && isStaticDataReport(aisMessage)) {
+                entry = new Entry();
+                entries.put(mmsi, entry);
+                evictLeastRecentlySeen();
+            }
+            if (entry != null) {
+                entry.lastSeenNanos = now;
+                entry.staticData = merge(entry.staticData, mmsi, timestamp, aisMessage);
+            }
+            staticData = entry != null ? entry.staticData : null;
+        }
+
+        if (aisMessage instanceof DynamicDataReport) {
+            (staticData != null ? enrichedCount : unenrichedCount).incrementAndGet();
+            profileReceiver.accept(new VesselProfile(aisMessage, staticData));
+        }
+    }
+
+    private static boolean isStaticDataReport(AISMessage aisMessage) {
+        return aisMessage instanceof ShipAndVoyageData || aisMessage instanceof ClassBCSStaticDataReport || aisMessage instanceof ExtendedClassBEquipmentPositionReport;
+    }
+
+    /** @return the static data joined with that carried by the message, if any. */
+    private static VesselStaticData merge(VesselStaticData old, int mmsi, long timestamp, AISMessage aisMessage) {
+        return switch (aisMessage) {
+            case ShipAndVoyageData data -> new VesselStaticData(mmsi, timestamp, data.getImo() != null ? data.getImo().getImo() : 0,
+                    data.getCallsign(), data.getShipName(), data.getShipType(),
+                    data.getToBow(), data.getToStern(), data.getToStarboard(), data.getToPort(), data.getDraught(), data.getDestination());
+            case ClassBCSStaticDataReport report when report.getPartNumber() == 0 -> old == null
+                    ? new VesselStaticData(mmsi, timestamp, 0, null, report.getShipName(), null, 0, 0, 0, 0, 0f, null)
+                    : new VesselStaticData(mmsi, timestamp, old.imo(), old.callsign(), report.getShipName(), old.shipType(),
+                    old.toBow(), old.toStern(), old.toStarboard(), old.toPort(), old.draught(), old.destination());
+            case ClassBCSStaticDataReport report -> new VesselStaticData(mmsi, timestamp, old != null ? old.imo() : 0,
+                    report.getCallsign(), old != null ? old.shipName() : null, report.getShipType(),
+                    report.getToBow(), report.getToStern(), report.getToStarboard(), report.getToPort(),
+                    old != null ? old.draught() : 0f, old != null ? old.destination() : null);
+            case ExtendedClassBEquipmentPositionReport report -> new VesselStaticData(mmsi, timestamp, old != null ? old.imo() : 0,
+                    old != null ? old.callsign() : null, report.getShipName(), report.getShipType(),
+                    report.getToBow(), report.getToStern(), report.getToStarboard(), report.getToPort(),
+                    old != null ? old.draught() : 0f, old != null ? old.destination() : null);
+            default -> old;
+        };
+    }
+
+    /** Evict vessels not seen within the time to live; under the lock. */
+    private void evictExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.lastSeenNanos <= timeToLiveNanos)
+                break;
+            iterator.remove();
+            expiredCount.incrementAndGet();
+        }
+    }
+
+    /** Evict the least recently seen vessel, if there are too many; under the lock. */
+    private void evictLeastRecentlySeen() {
+        if (entries.size() > maxVessels) {
+            Iterator<Map.Entry<Integer, Entry>> iterator = entries.entrySet().iterator();
+            Map.Entry<Integer, Entry> eldest = iterator.next();
+            log.fine(() -> "Evicted vessel profile of MMSI %d.".formatted(eldest.getKey()));
+            iterator.remove();
+            evictedCount.incrementAndGet();
+        }
+    }
+
+    /** @return the static data known of the vessel; or null if none. Counts as seeing the vessel. */
+    public VesselStaticData getStaticData(int mmsi) {
+        synchronized (entries) {
+            Entry entry = entries.get(mmsi);
+            if (entry == null)
+                return null;
+            entry.lastSeenNanos = nanoClock.getAsLong();
+            return entry.staticData;
+        }
+    }
+
+    /** @return the number of vessels held. */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /** @return the number of position reports passed on with static data. */
+    public long getEnrichedCount() {
+        return enrichedCount.get();
+    }
+
+    /** @return the number of position reports passed on without static data; as none was known of the vessel. */
+    public long getUnenrichedCount() {
+        return unenrichedCount.get();
+    }
+
+    /** @return the number of vessels evicted because the cache was full. */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /** @return the number of vessels evicted because they were not seen within the time to live. */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    private static final class Entry {
+        private long lastSeenNanos;
+        private VesselStaticData staticData;
+    }
+}
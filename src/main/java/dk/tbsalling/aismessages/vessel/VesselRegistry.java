@@ -0,0 +1,392 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.DynamicDataReport;
+import dk.tbsalling.aismessages.ais.messages.ExtendedDynamicDataReport;
+import dk.tbsalling.aismessages.ais.messages.LongRangeBroadcastMessage;
+import dk.tbsalling.aismessages.ais.messages.PositionReport;
+import dk.tbsalling.aismessages.ais.messages.types.NavigationStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * A registry of the latest dynamic state of each vessel; keyed by MMSI.
+ * <p>
+ * Feed it with AIS messages - e.g. by adding it as a receiver of an NMEAMessageHandler - and it keeps the position,
+ * speed, course, heading and navigation status last reported by each vessel. Unlike a map of MMSI to AISMessage,
+ * neither keys nor messages are retained: MMSIs are held as primitive ints in an open-addressing table, and the
+ * state is held in primitive columns alongside; about {@value #BYTES_PER_SLOT} bytes per slot.
+ * <p>
+ * The table is striped into segments by MMSI, each guarded by a lock of its own; so many decoding threads can update
+ * concurrently, and reads are optimistic and take no lock unless racing an update of the same segment. Reports
+ * older than the state held are ignored, so messages may be delivered out of order.
+ *
+ * @author tbsalling
+ * @see VesselState
+ */
+public class VesselRegistry implements Consumer<AISMessage> {
+
+    /** Default number of vessels the registry is sized for initially; it grows as needed. */
+    public static final int DEFAULT_EXPECTED_VESSELS = 4096;
+
+    /** Default number of segments; i.e. of threads which can update at the same time. */
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /** Bytes of heap per slot of the table: MMSI, timestamp, 4 floats, heading and navigation status. */
+    public static final int BYTES_PER_SLOT = Integer.BYTES + Long.BYTES + 4 * Float.BYTES + Short.BYTES + Byte.BYTES;
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int EMPTY = -1;
+    private static final NavigationStatus[] NAVIGATION_STATUSES = NavigationStatus.values();
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    public VesselRegistry() {
+        this(DEFAULT_EXPECTED_VESSELS, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public VesselRegistry(int expectedVessels) {
+        this(expectedVessels, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * @param expectedVessels  the number of vessels to size the registry for initially.
+     * @param concurrencyLevel the number of segments; rounded up to a power of two.
+     */
+    public VesselRegistry(int expectedVessels, int concurrencyLevel) {
+        if (expectedVessels < 0)
+            throw new IllegalArgumentException("expectedVessels cannot be negative: " + expectedVessels);
+        if (concurrencyLevel < 1 || concurrencyLevel > 1 << 16)
+            throw new IllegalArgumentException("concurrencyLevel must be between 1 and 65536: " + concurrencyLevel);
+
+        int numberOfSegments = concurrencyLevel == 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        int segmentCapacity = tableSizeFor((int) Math.ceil(expectedVessels / (double) numberOfSegments / LOAD_FACTOR));
+        this.segments = new Segment[numberOfSegments];
+        for (int i = 0; i < numberOfSegments; i++)
+            segments[i] = new Segment(segmentCapacity);
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(numberOfSegments);
+    }
+
+    /**
+     * Update the registry with an AIS message. Messages which are not dynamic data reports - i.e. which carry no
+     * position - are ignored.
+     */
+    @Override
+    public void accept(AISMessage aisMessage) {
+        if (!(aisMessage instanceof DynamicDataReport report) || aisMessage.getSourceMmsi() == null)
+            return;
+
+        update(aisMessage.getSourceMmsi().getMmsi(), timestampOf(aisMessage), report.getLatitude(), report.getLongitude(),
+                report.getSpeedOverGround(), report.getCourseOverGround(), trueHeadingOf(report), navigationStatusOf(aisMessage));
+    }
+
+    /** @return the time the AIS message was received, in milliseconds since the epoch; or now if not known. */
+    static long timestampOf(AISMessage aisMessage) {
+        Instant received = aisMessage.getMetadata() != null ? aisMessage.getMetadata().received() : null;
+        return received != null ? received.toEpochMilli() : System.currentTimeMillis();
+    }
+
+    static int trueHeadingOf(DynamicDataReport report) {
+        return report instanceof ExtendedDynamicDataReport extendedReport ? extendedReport.getTrueHeading() : VesselState.HEADING_NOT_AVAILABLE;
+    }
+
+    static NavigationStatus navigationStatusOf(AISMessage aisMessage) {
+        return switch (aisMessage) {
+            case PositionReport positionReport -> positionReport.getNavigationStatus();
+            case LongRangeBroadcastMessage longRangeBroadcastMessage -> longRangeBroadcastMessage.getNavigationStatus();
+            default -> null;
+        };
+    }
+
+    /**
+     * Update the state of a vessel, unless the state held is more recent.
+     * @param timestamp the time the state was reported, in milliseconds since the epoch.
+     * @return true if the state was updated; false if the state held is more recent.
+     */
+    public boolean update(int mmsi, long timestamp, float latitude, float longitude, float speedOverGround,
+                          float courseOverGround, int trueHeading, NavigationStatus navigationStatus) {
+        checkMmsi(mmsi);
+        int hash = hash(mmsi);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.writeLock();
+        try {
+            Table table = segment.table;
+            int index = table.indexOf(mmsi, hash);
+            if (index < 0) {
+                if (segment.size + 1 > table.threshold) {
+                    table = segment.resize(table.keys.length << 1);
+                    index = table.indexOf(mmsi, hash);
+                }
+                index = -(index + 1);
+                table.keys[index] = mmsi;
+                segment.size++;
+            } else if (table.timestamps[index] > timestamp) {
+                return false;
+            }
+            table.timestamps[index] = timestamp;
+            table.latitudes[index] = latitude;
+            table.longitudes[index] = longitude;
+            table.speedsOverGround[index] = speedOverGround;
+            table.coursesOverGround[index] = courseOverGround;
+            table.trueHeadings[index] = (short) trueHeading;
+            table.navigationStatuses[index] = (byte) (navigationStatus != null ? navigationStatus.ordinal() : -1);
+            return true;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /** @return the latest state of the vessel; or null if the vessel is not in the registry. */
+    public VesselState get(int mmsi) {
+        checkMmsi(mmsi);
+        int hash = hash(mmsi);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.tryOptimisticRead();
+        if (stamp != 0) {
+            VesselState state = segment.table.read(mmsi, hash);
+            if (segment.validate(stamp))
+                return state;
+        }
+        stamp = segment.readLock();
+        try {
+            return segment.table.read(mmsi, hash);
+        } finally {
+            segment.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(int mmsi) {
+        return get(mmsi) != null;
+    }
+
+    /**
+     * Remove a vessel from the registry.
+     * @return true if the vessel was in the registry.
+     */
+    public boolean remove(int mmsi) {
+        checkMmsi(mmsi);
+        int hash = hash(mmsi);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.writeLock();
+        try {
+            Table table = segment.table;
+            int index = table.indexOf(mmsi, hash);
+            if (index < 0)
+                return false;
+            table.delete(index);
+            segment.size--;
+            return true;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove vessels whose state was reported before the given time; e.g. vessels which have left the area.
+     * @param timestamp the time in milliseconds since the epoch.
+     * @return the number of vessels removed.
+     */
+    public int removeOlderThan(long timestamp) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.writeLock();
+            try {
+                Table table = segment.table;
+                for (int i = 0; i <= table.mask; ) {
+                    // Deletion shifts later entries back into slot i, so it must be examined again
+                    if (table.keys[i] != EMPTY && table.timestamps[i] < timestamp) {
+                        table.delete(i);
+                        segment.size--;
+                        removed++;
+                    } else {
+                        i++;
+                    }
+                }
+            } finally {
+                segment.unlockWrite(stamp);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Pass the state of each vessel to the consumer. Each segment is copied under its lock, and the consumer is
+     * called outside the lock; so the states passed reflect each segment at some point during the call.
+     */
+    public void forEach(Consumer<? super VesselState> consumer) {
+        List<VesselState> states = new ArrayList<>();
+        for (Segment segment : segments) {
+            states.clear();
+            long stamp = segment.readLock();
+            try {
+                Table table = segment.table;
+                for (int i = 0; i <= table.mask; i++) {
+                    if (table.keys[i] != EMPTY)
+                        states.add(table.stateAt(i));
+                }
+            } finally {
+                segment.unlockRead(stamp);
+            }
+            states.forEach(consumer);
+        }
+    }
+
+    /** @return the number of vessels in the registry. */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments)
+            size += segment.size;
+        return size;
+    }
+
+    /** @return the number of slots allocated; multiply by {@value #BYTES_PER_SLOT} for the approximate heap use. */
+    public long getCapacity() {
+        long capacity = 0;
+        for (Segment segment : segments)
+            capacity += segment.table.keys.length;
+        return capacity;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & (segments.length - 1)];
+    }
+
+    static void checkMmsi(int mmsi) {
+        if (mmsi < 0)
+            throw new IllegalArgumentException("mmsi cannot be negative: " + mmsi);
+    }
+
+    /** Spread the bits of the MMSI; the high bits select the segment and the low bits the slot. */
+    static int hash(int mmsi) {
+        int h = mmsi * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int n) {
+        return Math.max(4, n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1);
+    }
+
+    private static final class Segment extends StampedLock {
+        /** Replaced on resize; read optimistically. */
+        private Table table;
+        private volatile int size;
+
+        private Segment(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        /** Move all entries into a new table of the given capacity; under the write lock. */
+        private Table resize(int capacity) {
+            Table oldTable = table;
+            Table newTable = new Table(capacity);
+            for (int i = 0; i <= oldTable.mask; i++) {
+                int mmsi = oldTable.keys[i];
+                if (mmsi != EMPTY)
+                    newTable.copyFrom(oldTable, i, -(newTable.indexOf(mmsi, hash(mmsi)) + 1));
+            }
+            table = newTable;
+            return newTable;
+        }
+    }
+
+    /** Open-addressing table with linear probing; the state of each vessel is held in columns of primitives. */
+    private static final class Table {
+        private final int mask;
+        private final int threshold;
+        private final int[] keys;
+        private final long[] timestamps;
+        private final float[] latitudes;
+        private final float[] longitudes;
+        private final float[] speedsOverGround;
+        private final float[] coursesOverGround;
+        private final short[] trueHeadings;
+        private final byte[] navigationStatuses;
+
+        private Table(int capacity) {
+            this.mask = capacity - 1;
+            this.threshold = (int) (capacity * LOAD_FACTOR);
+            this.keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            this.timestamps = new long[capacity];
+            this.latitudes = new float[capacity];
+            this.longitudes = new float[capacity];
+            this.speedsOverGround = new float[capacity];
+            this.coursesOverGround = new float[capacity];
+            this.trueHeadings = new short[capacity];
+            this.navigationStatuses = new byte[capacity];
+        }
+
+        /**
+         * @return the index of the MMSI; or -(index + 1) of the free slot where it would be inserted. The number of
+         * slots probed is bounded, so racing optimistic readers terminate.
+         */
+        private int indexOf(int mmsi, int hash) {
+            for (int probe = 0, i = hash & mask; probe <= mask; probe++, i = (i + 1) & mask) {
+                int key = keys[i];
+                if (key == mmsi)
+                    return i;
+                if (key == EMPTY)
+                    return -(i + 1);
+            }
+            return Integer.MIN_VALUE;
+        }
+
+        private VesselState read(int mmsi, int hash) {
+            int index = indexOf(mmsi, hash);
+            return index < 0 ? null : stateAt(index);
+        }
+
+        private VesselState stateAt(int i) {
+            byte navigationStatus = navigationStatuses[i];
+            return new VesselState(keys[i], timestamps[i], latitudes[i], longitudes[i], speedsOverGround[i],
+                    coursesOverGround[i], trueHeadings[i], navigationStatus < 0 ? null : NAVIGATION_STATUSES[navigationStatus]);
+        }
+
+        private void copyFrom(Table other, int from, int to) {
+            keys[to] = other.keys[from];
+            timestamps[to] = other.timestamps[from];
+            latitudes[to] = other.latitudes[from];
+            longitudes[to] = other.longitudes[from];
+            speedsOverGround[to] = other.speedsOverGround[from];
+            coursesOverGround[to] = other.coursesOverGround[from];
+            trueHeadings[to] = other.trueHeadings[from];
+            navigationStatuses[to] = other.navigationStatuses[from];
+        }
+
+        /** Delete the entry at index by shifting later entries of its probe sequence back; so no tombstones are needed. */
+        private void delete(int index) {
+            int hole = index;
+            for (int i = (hole + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                int home = hash(keys[i]) & mask;
+                // Move the entry into the hole, unless its home slot lies cyclically in (hole, i]
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    copyFrom(this, i, hole);
+                    hole = i;
+                }
+            }
+            keys[hole] = EMPTY;
+        }
+    }
+}
@@ -0,0 +1,498 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.DynamicDataReport;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A spatial index of the latest positions of vessels, for bounding box and radius queries.
+ * <p>
+ * The earth is divided into a uniform grid of cells of a given size in degrees. Each cell holds the MMSIs and
+ * positions of the vessels within it in primitive arrays, and vessels are moved between cells as dynamic data
+ * reports are received. Queries visit only the cells overlapping the area queried; so their cost depends on the
+ * number of vessels nearby, not on the total number of vessels.
+ * <p>
+ * Positions reported as not available - latitude 91 or longitude 181 - or out of range remove the vessel from the
+ * index, since its position is no longer known. Updates and queries may run concurrently: each cell is guarded by a
+ * lock of its own, and updates of the same vessel are serialized by a striped lock. Queries are weakly consistent -
+ * a vessel moving between cells while a query runs may or may not be found - but never report a vessel twice.
+ *
+ * @author tbsalling
+ * @see VesselRegistry
+ */
+public class VesselSpatialIndex implements Consumer<AISMessage> {
+
+    /** Default size of the cells of the grid in degrees. */
+    public static final double DEFAULT_CELL_SIZE = 0.25;
+
+    /** Latitude reported when the position is not available. */
+    public static final float LATITUDE_NOT_AVAILABLE = 91f;
+
+    /** Longitude reported when the position is not available. */
+    public static final float LONGITUDE_NOT_AVAILABLE = 181f;
+
+    private static final double EARTH_RADIUS_NAUTICAL_MILES = 3440.065;
+    private static final int NO_CELL = -1;
+    private static final int NUMBER_OF_STRIPES = 64;
+
+    private final double cellSize;
+    private final int rows;
+    private final int columns;
+    /** Rows of cells; allocated as vessels arrive, so that only the latitudes in use take memory. */
+    private final AtomicReferenceArray<AtomicReferenceArray<Cell>> grid;
+    /** Cell of each vessel; striped by MMSI. */
+    private final CellMap[] stripes = new CellMap[NUMBER_OF_STRIPES];
+
+    private final AtomicLong unavailableCount = new AtomicLong();
+
+    public VesselSpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * @param cellSize the size of the cells of the grid in degrees; e.g. a fraction of the typical area queried.
+     */
+    public VesselSpatialIndex(double cellSize) {
+        if (!(cellSize >= 0.1 && cellSize <= 90))
+            throw new IllegalArgumentException("cellSize must be between 0.1 and 90 degrees: " + cellSize);
+        this.cellSize = cellSize;
+        this.rows = (int) Math.ceil(180 / cellSize);
+        this.columns = (int) Math.ceil(360 / cellSize);
+        this.grid = new AtomicReferenceArray<>(rows);
+        for (int i = 0; i < NUMBER_OF_STRIPES; i++)
+            stripes[i] = new CellMap();
+    }
+
+    /** Update the index with an AIS message. Messages which are not dynamic data reports are ignored. */
+    @Override
+    public void accept(AISMessage aisMessage) {
+        if (aisMessage instanceof DynamicDataReport report && aisMessage.getSourceMmsi() != null)
+            update(aisMessage.getSourceMmsi().getMmsi(), VesselRegistry.timestampOf(aisMessage), report.getLatitude(), report.getLongitude());
+    }
+
+    /**
+     * Update the position of a vessel, unless the position held is more recent. If the position is not available
+     * or out of range, the vessel is removed.
+     * @param timestamp the time the position was reported, in milliseconds since the epoch.
+     * @return true if the index was updated; false if the position held is more recent.
+     */
+    public boolean update(int mmsi, long timestamp, float latitude, float longitude) {
+        VesselRegistry.checkMmsi(mmsi);
+        int newCell = cellOf(latitude, longitude);
+        if (newCell == NO_CELL)
+            unavailableCount.incrementAndGet();
+
+        CellMap stripe = stripeOf(mmsi);
+        synchronized (stripe) {
+            int oldCell = stripe.get(mmsi);
+            if (oldCell != NO_CELL && timestamp < cell(oldCell).timestampOf(mmsi))
+                return false;
+            if (oldCell == newCell) {
+                if (newCell != NO_CELL)
+                    cell(newCell).update(mmsi, timestamp, latitude, longitude);
+                return true;
+            }
+            if (oldCell != NO_CELL)
+                cell(oldCell).remove(mmsi);
+            if (newCell != NO_CELL) {
+                cell(newCell).add(mmsi, timestamp, latitude, longitude);
+                stripe.put(mmsi, newCell);
+            } else {
+                stripe.remove(mmsi);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Remove a vessel from the index.
+     * @return true if the vessel was in the index.
+     */
+    public boolean remove(int mmsi) {
+        VesselRegistry.checkMmsi(mmsi);
+        CellMap stripe = stripeOf(mmsi);
+        synchronized (stripe) {
+            int oldCell = stripe.remove(mmsi);
+            if (oldCell == NO_CELL)
+                return false;
+            cell(oldCell).remove(mmsi);
+            return true;
+        }
+    }
+
+    /**
+     * Remove vessels whose position was reported before the given time; e.g. vessels which have left the area.
+     * @param timestamp the time in milliseconds since the epoch.
+     * @return the number of vessels removed.
+     */
+    public int removeOlderThan(long timestamp) {
+        int removed = 0;
+        for (int row = 0; row < rows; row++) {
+            AtomicReferenceArray<Cell> cells = grid.get(row);
+            if (cells == null)
+                continue;
+            for (int column = 0; column < columns; column++) {
+                Cell cell = cells.get(column);
+                if (cell == null)
+                    continue;
+                int index = row * columns + column;
+                for (int mmsi : cell.olderThan(timestamp)) {
+                    CellMap stripe = stripeOf(mmsi);
+                    synchronized (stripe) {
+                        // The vessel may have moved or been updated meanwhile
+                        if (stripe.get(mmsi) == index && cell.removeIfOlderThan(mmsi, timestamp)) {
+                            stripe.remove(mmsi);
+                            removed++;
+                        }
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Find the vessels within a bounding box. Boxes crossing the antimeridian are given with minLongitude greater
+     * than maxLongitude.
+     * @return the MMSIs of the vessels within the box, in ascending order; boundaries included.
+     */
+    public int[] queryBoundingBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        IntList result = new IntList();
+        if (minLongitude <= maxLongitude) {
+            collect(result, minLatitude, minLongitude, maxLatitude, maxLongitude, Double.NaN, Double.NaN, 0);
+        } else {
+            collect(result, minLatitude, minLongitude, maxLatitude, 180, Double.NaN, Double.NaN, 0);
+            collect(result, minLatitude, -180, maxLatitude, maxLongitude, Double.NaN, Double.NaN, 0);
+        }
+        return result.toDistinctArray();
+    }
+
+    /**
+     * Find the vessels within a distance of a position; measured along great circles.
+     * @param radius the distance in nautical miles.
+     * @return the MMSIs of the vessels within the distance, in ascending order.
+     */
+    public int[] queryRadius(double latitude, double longitude, double radius) {
+        IntList result = new IntList();
+        double radians = radius / EARTH_RADIUS_NAUTICAL_MILES;
+        double deltaLatitude = Math.toDegrees(radians);
+        double minLatitude = latitude - deltaLatitude;
+        double maxLatitude = latitude + deltaLatitude;
+        double sinDeltaLongitude = Math.sin(radians) / Math.cos(Math.toRadians(latitude));
+        if (minLatitude <= -90 || maxLatitude >= 90 || sinDeltaLongitude >= 1) {
+            // The circle contains a pole or spans all longitudes
+            collect(result, minLatitude, -180, maxLatitude, 180, latitude, longitude, radians);
+        } else {
+            double deltaLongitude = Math.toDegrees(Math.asin(sinDeltaLongitude));
+            double minLongitude = longitude - deltaLongitude;
+            double maxLongitude = longitude + deltaLongitude;
+            if (minLongitude < -180) {
+                collect(result, minLatitude, minLongitude + 360, maxLatitude, 180, latitude, longitude, radians);
+                collect(result, minLatitude, -180, maxLatitude, maxLongitude, latitude, longitude, radians);
+            } else if (maxLongitude > 180) {
+                collect(result, minLatitude, minLongitude, maxLatitude, 180, latitude, longitude, radians);
+                collect(result, minLatitude, -180, maxLatitude, maxLongitude - 360, latitude, longitude, radians);
+            } else {
+                collect(result, minLatitude, minLongitude, maxLatitude, maxLongitude, latitude, longitude, radians);
+            }
+        }
+        return result.toDistinctArray();
+    }
+
+    /**
+     * Collect the vessels of the cells overlapping the box which are within the box, and - unless centreLatitude is
+     * NaN - within the given angular distance of the centre.
+     */
+    private void collect(IntList result, double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                         double centreLatitude, double centreLongitude, double radians) {
+        int minRow = rowOf(Math.max(-90, minLatitude));
+        int maxRow = rowOf(Math.min(90, maxLatitude));
+        int minColumn = columnOf(Math.max(-180, minLongitude));
+        int maxColumn = columnOf(Math.min(180, maxLongitude));
+        for (int row = minRow; row <= maxRow; row++) {
+            AtomicReferenceArray<Cell> cells = grid.get(row);
+            if (cells == null)
+                continue;
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Cell cell = cells.get(column);
+                if (cell != null)
+                    cell.collect(result, minLatitude, minLongitude, maxLatitude, maxLongitude, centreLatitude, centreLongitude, radians);
+            }
+        }
+    }
+
+    /** @return the index of the cell of the position; or NO_CELL if the position is not available or out of range. */
+    private int cellOf(float latitude, float longitude) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180))
+            return NO_CELL;
+        return rowOf(latitude) * columns + columnOf(longitude);
+    }
+
+    private int rowOf(double latitude) {
+        return Math.min(rows - 1, (int) ((latitude + 90) / cellSize));
+    }
+
+    private int columnOf(double longitude) {
+        return Math.min(columns - 1, (int) ((longitude + 180) / cellSize));
+    }
+
+    /** @return the cell with the given index; allocating it, and its row, if not yet done. */
+    private Cell cell(int index) {
+        int row = index / columns;
+        AtomicReferenceArray<Cell> cells = grid.get(row);
+        if (cells == null) {
+            grid.compareAndSet(row, null, new AtomicReferenceArray<>(columns));
+            cells = grid.get(row);
+        }
+        int column = index % columns;
+        Cell cell = cells.get(column);
+        if (cell == null) {
+            cells.compareAndSet(column, null, new Cell());
+            cell = cells.get(column);
+        }
+        return cell;
+    }
+
+    private CellMap stripeOf(int mmsi) {
+        return stripes[(VesselRegistry.hash(mmsi) >>> 26) & (NUMBER_OF_STRIPES - 1)];
+    }
+
+    /** @return the number of vessels in the index. */
+    public int size() {
+        int size = 0;
+        for (CellMap stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /** @return the number of positions received which were not available or out of range. */
+    public long getUnavailableCount() {
+        return unavailableCount.get();
+    }
+
+    /** @return the size of the cells of the grid in degrees. */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /** The vessels within a cell of the grid; held in primitive arrays and guarded by the monitor of the cell. */
+    private static final class Cell {
+        private int size;
+        private int[] mmsis = new int[4];
+        private float[] latitudes = new float[4];
+        private float[] longitudes = new float[4];
+        private long[] timestamps = new long[4];
+
+        private synchronized void add(int mmsi, long timestamp, float latitude, float longitude) {
+            if (size == mmsis.length) {
+                int capacity = size << 1;
+                mmsis = Arrays.copyOf(mmsis, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+            }
+            set(size++, mmsi, timestamp, latitude, longitude);
+        }
+
+        private synchronized void update(int mmsi, long timestamp, float latitude, float longitude) {
+            int i = indexOf(mmsi);
+            if (i >= 0)
+                set(i, mmsi, timestamp, latitude, longitude);
+        }
+
+        /** @return the time the position of the vessel was reported; or Long.MIN_VALUE if not in this cell. */
+        private synchronized long timestampOf(int mmsi) {
+            int i = indexOf(mmsi);
+            return i < 0 ? Long.MIN_VALUE : timestamps[i];
+        }
+
+        private synchronized void remove(int mmsi) {
+            int i = indexOf(mmsi);
+            if (i >= 0)
+                removeAt(i);
+        }
+
+        private synchronized boolean removeIfOlderThan(int mmsi, long timestamp) {
+            int i = indexOf(mmsi);
+            if (i < 0 || timestamps[i] >= timestamp)
+                return false;
+            removeAt(i);
+            return true;
+        }
+
+        private synchronized int[] olderThan(long timestamp) {
+            IntList older = new IntList();
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] < timestamp)
+                    older.add(mmsis[i]);
+            }
+            return older.toArray();
+        }
+
+        private synchronized void collect(IntList result, double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                                          double centreLatitude, double centreLongitude, double radians) {
+            for (int i = 0; i < size; i++) {
+                float latitude = latitudes[i];
+                float longitude = longitudes[i];
+                if (latitude >= minLatitude && latitude <= maxLatitude && longitude >= minLongitude && longitude <= maxLongitude
+                        && (Double.isNaN(centreLatitude) || distance(centreLatitude, centreLongitude, latitude, longitude) <= radians))
+                    result.add(mmsis[i]);
+            }
+        }
+
+        private void set(int i, int mmsi, long timestamp, float latitude, float longitude) {
+            mmsis[i] = mmsi;
+            timestamps[i] = timestamp;
+            latitudes[i] = latitude;
+            longitudes[i] = longitude;
+        }
+
+        /** Remove by moving the last vessel into the slot; the order of vessels within a cell is of no concern. */
+        private void removeAt(int i) {
+            int last = --size;
+            set(i, mmsis[last], timestamps[last], latitudes[last], longitudes[last]);
+        }
+
+        private int indexOf(int mmsi) {
+            for (int i = 0; i < size; i++) {
+                if (mmsis[i] == mmsi)
+                    return i;
+            }
+            return -1;
+        }
+    }
+
+    /** @return the angular distance in radians between two positions; by the haversine formula. */
+    static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double sinHalfDeltaLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double sinHalfDeltaLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = sinHalfDeltaLatitude * sinHalfDeltaLatitude
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * sinHalfDeltaLongitude * sinHalfDeltaLongitude;
+        return 2 * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /** Open-addressing map of MMSI to cell index, with linear probing; guarded by its own monitor. */
+    private static final class CellMap {
+        private static final int EMPTY = -1;
+
+        private int size;
+        private int[] keys = newKeys(16);
+        private int[] values = new int[16];
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private int indexOf(int mmsi) {
+            int mask = keys.length - 1;
+            int i = VesselRegistry.hash(mmsi) & mask;
+            while (keys[i] != EMPTY && keys[i] != mmsi)
+                i = (i + 1) & mask;
+            return i;
+        }
+
+        private int get(int mmsi) {
+            int i = indexOf(mmsi);
+            return keys[i] == EMPTY ? NO_CELL : values[i];
+        }
+
+        private void put(int mmsi, int cell) {
+            int i = indexOf(mmsi);
+            if (keys[i] == EMPTY) {
+                if (size + 1 > keys.length * 3 / 4) {
+                    resize(keys.length << 1);
+                    i = indexOf(mmsi);
+                }
+                keys[i] = mmsi;
+                size++;
+            }
+            values[i] = cell;
+        }
+
+        /** @return the cell removed; or NO_CELL if none. Later entries of the probe sequence are shifted back. */
+        private int remove(int mmsi) {
+            int hole = indexOf(mmsi);
+            if (keys[hole] == EMPTY)
+                return NO_CELL;
+            int cell = values[hole];
+            int mask = keys.length - 1;
+            for (int i = (hole + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                int home = VesselRegistry.hash(keys[i]) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    hole = i;
+                }
+            }
+            keys[hole] = EMPTY;
+            size--;
+            return cell;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(capacity);
+            values = new int[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int j = indexOf(oldKeys[i]);
+                    keys[j] = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    /** Growable list of ints. */
+    private static final class IntList {
+        private int size;
+        private int[] elements = new int[16];
+
+        private void add(int element) {
+            if (size == elements.length)
+                elements = Arrays.copyOf(elements, size << 1);
+            elements[size++] = element;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+
+        /** @return the elements sorted, without duplicates; a vessel moved during a query may be collected twice. */
+        private int[] toDistinctArray() {
+            Arrays.sort(elements, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || elements[i] != elements[distinct - 1])
+                    elements[distinct++] = elements[i];
+            }
+            return Arrays.copyOf(elements, distinct);
+        }
+    }
+}
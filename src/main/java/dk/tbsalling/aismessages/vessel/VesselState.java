@@ -0,0 +1,47 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.types.NavigationStatus;
+
+import java.time.Instant;
+
+/**
+ * A snapshot of the latest dynamic state of a vessel, as held by a VesselRegistry.
+ *
+ * @param mmsi              the MMSI of the vessel.
+ * @param timestamp         the time the state was reported, in milliseconds since the epoch.
+ * @param latitude          the latitude in degrees; 91 if not available.
+ * @param longitude         the longitude in degrees; 181 if not available.
+ * @param speedOverGround   the speed over ground in knots.
+ * @param courseOverGround  the course over ground in degrees.
+ * @param trueHeading       the true heading in degrees; 511 if not available.
+ * @param navigationStatus  the navigation status; or null if not reported by the message type.
+ * @author tbsalling
+ */
+public record VesselState(int mmsi, long timestamp, float latitude, float longitude, float speedOverGround,
+                          float courseOverGround, int trueHeading, NavigationStatus navigationStatus) {
+
+    /** True heading when not available. */
+    public static final int HEADING_NOT_AVAILABLE = 511;
+
+    /** @return the time the state was reported. */
+    public Instant instant() {
+        return Instant.ofEpochMilli(timestamp);
+    }
+
+}
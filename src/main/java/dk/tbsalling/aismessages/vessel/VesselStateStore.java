@@ -0,0 +1,455 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.ClassBCSStaticDataReport;
+import dk.tbsalling.aismessages.ais.messages.DynamicDataReport;
+import dk.tbsalling.aismessages.ais.messages.ShipAndVoyageData;
+import dk.tbsalling.aismessages.ais.messages.types.NavigationStatus;
+import dk.tbsalling.aismessages.ais.messages.types.ShipType;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * A store of the latest dynamic and static state of each vessel, kept off-heap in a memory-mapped file.
+ * <p>
+ * Each vessel has a fixed-size record in an open-addressing table laid out directly in the file, and AIS messages
+ * update the records in place. Since the file holds the table itself - not a serialized form of it - a restarted
+ * process reopens the store instantly, with the static data of type 5 and 24 messages already known instead of
+ * waiting minutes for them to be rebroadcast. The state is outside the Java heap, so it adds nothing to GC work.
+ * <p>
+ * Records are claimed with compare-and-set, and each record is guarded by a sequence lock; so many decoding threads
+ * can update the store concurrently, and readers never block writers. The capacity is fixed when the file is
+ * created; records are never removed. Changes reach the file when the operating system writes back the mapped pages,
+ * even if the process crashes; call force() to write them back at once. A file can only be opened by one process at
+ * a time.
+ *
+ * @author tbsalling
+ * @see VesselRegistry
+ */
+@Log
+public class VesselStateStore implements Consumer<AISMessage>, AutoCloseable {
+
+    /** Size of the record of each vessel in bytes. */
+    public static final int RECORD_SIZE = 128;
+
+    /** Maximum number of records of a store. */
+    public static final int MAX_CAPACITY = 1 << 23;
+
+    static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x41495356; // "AISV"
+    private static final int VERSION = 1;
+
+    // Layout of header
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int RECORD_SIZE_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int SIZE_OFFSET = 16;
+    private static final int CLOSED_OFFSET = 20;
+
+    // Layout of record; keys are MMSI + 1 so a zero-filled record is free, and enums are stored as ordinal + 1
+    private static final int KEY = 0;
+    private static final int SEQUENCE = 4;
+    private static final int DYNAMIC_TIMESTAMP = 8;
+    private static final int LATITUDE = 16;
+    private static final int LONGITUDE = 20;
+    private static final int SPEED_OVER_GROUND = 24;
+    private static final int COURSE_OVER_GROUND = 28;
+    private static final int TRUE_HEADING = 32;
+    private static final int NAVIGATION_STATUS = 34;
+    private static final int IMO = 36;
+    private static final int STATIC_TIMESTAMP = 40;
+    private static final int SHIP_TYPE = 48;
+    private static final int TO_BOW = 50;
+    private static final int TO_STERN = 52;
+    private static final int TO_STARBOARD = 54;
+    private static final int TO_PORT = 56;
+    private static final int DRAUGHT = 60;
+    private static final int CALLSIGN = 64;
+    private static final int CALLSIGN_LENGTH = 8;
+    private static final int SHIP_NAME = 72;
+    private static final int SHIP_NAME_LENGTH = 20;
+    private static final int DESTINATION = 92;
+    private static final int DESTINATION_LENGTH = 20;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final NavigationStatus[] NAVIGATION_STATUSES = NavigationStatus.values();
+    private static final ShipType[] SHIP_TYPES = ShipType.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+
+    /**
+     * Open the store in the given file; creating it if it does not exist.
+     * @param path     the file.
+     * @param capacity the number of records of a new store; rounded up to a power of two. Should be about twice the
+     *                 number of vessels expected. Ignored if the file exists.
+     * @throws IOException if the file cannot be opened or is not a store.
+     */
+    public VesselStateStore(Path path, int capacity) throws IOException {
+        if (capacity < 1 || capacity > MAX_CAPACITY)
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.tryLock() == null)
+                throw new IOException("Vessel state store is in use by another process: " + path);
+            boolean created = channel.size() == 0;
+            int tableSize = created ? Math.max(2, Integer.highestOneBit(capacity - 1) << 1) : readCapacity(channel, path);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) tableSize * RECORD_SIZE);
+            if (created) {
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                buffer.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+                buffer.putInt(CAPACITY_OFFSET, tableSize);
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+            }
+            this.capacity = tableSize;
+            this.mask = tableSize - 1;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (buffer.getInt(CLOSED_OFFSET) == 0 && !isEmpty()) {
+            log.warning("Vessel state store %s was not closed; records being written may be inconsistent.".formatted(path));
+            releaseSequenceLocks();
+        }
+        buffer.putInt(CLOSED_OFFSET, 0);
+        log.info("Opened vessel state store %s with %d of %d records in use.".formatted(path, size(), this.capacity));
+    }
+
+    private boolean isEmpty() {
+        return buffer.getInt(SIZE_OFFSET) == 0;
+    }
+
+    /** Release sequence locks held by writers of a process which ended without closing the store. */
+    private void releaseSequenceLocks() {
+        for (int i = 0; i < capacity; i++) {
+            int record = recordOffset(i);
+            int sequence = buffer.getInt(record + SEQUENCE);
+            if ((sequence & 1) != 0)
+                buffer.putInt(record + SEQUENCE, sequence + 1);
+        }
+    }
+
+    private static int readCapacity(FileChannel channel, Path path) throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), HEADER_SIZE));
+        if (header.capacity() < HEADER_SIZE || header.getInt(MAGIC_OFFSET) != MAGIC)
+            throw new IOException("Not a vessel state store: " + path);
+        if (header.getInt(VERSION_OFFSET) != VERSION || header.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE)
+            throw new IOException("Unsupported version %d of vessel state store: %s".formatted(header.getInt(VERSION_OFFSET), path));
+        int capacity = header.getInt(CAPACITY_OFFSET);
+        if (Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY || channel.size() < HEADER_SIZE + (long) capacity * RECORD_SIZE)
+            throw new IOException("Corrupt vessel state store: " + path);
+        return capacity;
+    }
+
+    /**
+     * Update the store with an AIS message. Dynamic data reports update the dynamic state, and messages of type 5
+     * and 24 the static data; other messages are ignored.
+     */
+    @Override
+    public void accept(AISMessage aisMessage) {
+        if (aisMessage.getSourceMmsi() == null)
+            return;
+        int mmsi = aisMessage.getSourceMmsi().getMmsi();
+        long timestamp = VesselRegistry.timestampOf(aisMessage);
+        switch (aisMessage) {
+            case DynamicDataReport report -> updateDynamicState(mmsi, timestamp, report.getLatitude(), report.getLongitude(),
+                    report.getSpeedOverGround(), report.getCourseOverGround(), VesselRegistry.trueHeadingOf(report), VesselRegistry.navigationStatusOf(aisMessage));
+            case ShipAndVoyageData data -> updateStaticData(mmsi, timestamp, data);
+            case ClassBCSStaticDataReport report -> updateStaticData(mmsi, timestamp, report);
+            default -> { }
+        }
+    }
+
+    /**
+     * Update the dynamic state of a vessel, unless the state held is more recent.
+     * @param timestamp the time the state was reported, in milliseconds since the epoch.
+     * @return true if the state was updated; false if the state held is more recent.
+     */
+    public boolean updateDynamicState(int mmsi, long timestamp, float latitude, float longitude, float speedOverGround,
+                                      float courseOverGround, int trueHeading, NavigationStatus navigationStatus) {
+        int record = claim(mmsi);
+        int sequence = lock(record);
+        try {
+            if (buffer.getLong(record + DYNAMIC_TIMESTAMP) > timestamp)
+                return false;
+            buffer.putLong(record + DYNAMIC_TIMESTAMP, timestamp);
+            buffer.putFloat(record + LATITUDE, latitude);
+            buffer.putFloat(record + LONGITUDE, longitude);
+            buffer.putFloat(record + SPEED_OVER_GROUND, speedOverGround);
+            buffer.putFloat(record + COURSE_OVER_GROUND, courseOverGround);
+            buffer.putShort(record + TRUE_HEADING, (short) trueHeading);
+            buffer.put(record + NAVIGATION_STATUS, (byte) (navigationStatus != null ? navigationStatus.ordinal() + 1 : 0));
+            return true;
+        } finally {
+            unlock(record, sequence);
+        }
+    }
+
+    private void updateStaticData(int mmsi, long timestamp, ShipAndVoyageData data) {
+        int record = claim(mmsi);
+        int sequence = lock(record);
+        try {
+            if (buffer.getLong(record + STATIC_TIMESTAMP) > timestamp)
+                return;
+            buffer.putLong(record + STATIC_TIMESTAMP, timestamp);
+            buffer.putInt(record + IMO, data.getImo() != null ? data.getImo().getImo() : 0);
+            putString(record + CALLSIGN, CALLSIGN_LENGTH, data.getCallsign());
+            putString(record + SHIP_NAME, SHIP_NAME_LENGTH, data.getShipName());
+            buffer.put(record + SHIP_TYPE, (byte) (data.getShipType() != null ? data.getShipType().ordinal() + 1 : 0));
+            putDimensions(record, data.getToBow(), data.getToStern(), data.getToStarboard(), data.getToPort());
+            buffer.putFloat(record + DRAUGHT, data.getDraught());
+            putString(record + DESTINATION, DESTINATION_LENGTH, data.getDestination());
+        } finally {
+            unlock(record, sequence);
+        }
+    }
+
+    /** Type 24 comes in two parts: part A carries the name, and part B the remaining data. */
+    private void updateStaticData(int mmsi, long timestamp, ClassBCSStaticDataReport report) {
+        int record = claim(mmsi);
+        int sequence = lock(record);
+        try {
+            if (buffer.getLong(record + STATIC_TIMESTAMP) > timestamp)
+                return;
+            buffer.putLong(record + STATIC_TIMESTAMP, timestamp);
+            if (report.getPartNumber() == 0) {
+                putString(record + SHIP_NAME, SHIP_NAME_LENGTH, report.getShipName());
+            } else {
+                putString(record + CALLSIGN, CALLSIGN_LENGTH, report.getCallsign());
+                buffer.put(record + SHIP_TYPE, (byte) (report.getShipType() != null ? report.getShipType().ordinal() + 1 : 0));
+                putDimensions(record, report.getToBow(), report.getToStern(), report.getToStarboard(), report.getToPort());
+            }
+        } finally {
+            unlock(record, sequence);
+        }
+    }
+
+    private void putDimensions(int record, int toBow, int toStern, int toStarboard, int toPort) {
+        buffer.putShort(record + TO_BOW, (short) toBow);
+        buffer.putShort(record + TO_STERN, (short) toStern);
+        buffer.putShort(record + TO_STARBOARD, (short) toStarboard);
+        buffer.putShort(record + TO_PORT, (short) toPort);
+    }
+
+    /** Write a string as ASCII, truncated or padded with zeros to the length of the field. */
+    private void putString(int index, int length, String s) {
+        int n = s == null ? 0 : Math.min(s.length(), length);
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            buffer.put(index + i, (byte) (c < 0x80 ? c : '?'));
+        }
+        for (int i = n; i < length; i++)
+            buffer.put(index + i, (byte) 0);
+    }
+
+    private String getString(int index, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(index, bytes);
+        int n = 0;
+        while (n < length && bytes[n] != 0)
+            n++;
+        return n == 0 ? null : new String(bytes, 0, n, StandardCharsets.ISO_8859_1);
+    }
+
+    /** @return the latest dynamic state of the vessel; or null if none is stored. */
+    public VesselState getDynamicState(int mmsi) {
+        int record = find(mmsi);
+        if (record < 0)
+            return null;
+        while (true) {
+            int sequence = (int) INT.getAcquire(buffer, record + SEQUENCE);
+            if ((sequence & 1) == 0) {
+                VesselState state = readDynamicState(mmsi, record);
+                VarHandle.acquireFence();
+                if ((int) INT.getVolatile(buffer, record + SEQUENCE) == sequence)
+                    return state;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** @return the latest static data of the vessel; or null if none is stored. */
+    public VesselStaticData getStaticData(int mmsi) {
+        int record = find(mmsi);
+        if (record < 0)
+            return null;
+        while (true) {
+            int sequence = (int) INT.getAcquire(buffer, record + SEQUENCE);
+            if ((sequence & 1) == 0) {
+                VesselStaticData data = readStaticData(mmsi, record);
+                VarHandle.acquireFence();
+                if ((int) INT.getVolatile(buffer, record + SEQUENCE) == sequence)
+                    return data;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private VesselState readDynamicState(int mmsi, int record) {
+        long timestamp = buffer.getLong(record + DYNAMIC_TIMESTAMP);
+        if (timestamp == 0)
+            return null;
+        int navigationStatus = buffer.get(record + NAVIGATION_STATUS);
+        return new VesselState(mmsi, timestamp, buffer.getFloat(record + LATITUDE), buffer.getFloat(record + LONGITUDE),
+                buffer.getFloat(record + SPEED_OVER_GROUND), buffer.getFloat(record + COURSE_OVER_GROUND),
+                buffer.getShort(record + TRUE_HEADING), enumOf(NAVIGATION_STATUSES, navigationStatus));
+    }
+
+    private VesselStaticData readStaticData(int mmsi, int record) {
+        long timestamp = buffer.getLong(record + STATIC_TIMESTAMP);
+        if (timestamp == 0)
+            return null;
+        return new VesselStaticData(mmsi, timestamp, buffer.getInt(record + IMO),
+                getString(record + CALLSIGN, CALLSIGN_LENGTH), getString(record + SHIP_NAME, SHIP_NAME_LENGTH),
+                enumOf(SHIP_TYPES, buffer.get(record + SHIP_TYPE) & 0xff),
+                buffer.getShort(record + TO_BOW), buffer.getShort(record + TO_STERN),
+                buffer.getShort(record + TO_STARBOARD), buffer.getShort(record + TO_PORT),
+                buffer.getFloat(record + DRAUGHT), getString(record + DESTINATION, DESTINATION_LENGTH));
+    }
+
+    /** Decode an enum stored as ordinal + 1; where 0 - or an ordinal out of range in a damaged record - is null. */
+    private static <E> E enumOf(E[] values, int storedOrdinal) {
+        return storedOrdinal > 0 && storedOrdinal <= values.length ? values[storedOrdinal - 1] : null;
+    }
+
+    /** Pass the dynamic state of each vessel to the consumer; e.g. to initialise a VesselRegistry after restart. */
+    public void forEachDynamicState(Consumer<? super VesselState> consumer) {
+        for (int i = 0; i < capacity; i++) {
+            int key = (int) INT.getAcquire(buffer, recordOffset(i) + KEY);
+            if (key != 0) {
+                VesselState state = getDynamicState(key - 1);
+                if (state != null)
+                    consumer.accept(state);
+            }
+        }
+    }
+
+    /** Pass the static data of each vessel to the consumer. */
+    public void forEachStaticData(Consumer<? super VesselStaticData> consumer) {
+        for (int i = 0; i < capacity; i++) {
+            int key = (int) INT.getAcquire(buffer, recordOffset(i) + KEY);
+            if (key != 0) {
+                VesselStaticData data = getStaticData(key - 1);
+                if (data != null)
+                    consumer.accept(data);
+            }
+        }
+    }
+
+    /** @return the offset of the record of the vessel; or -1 if it has none. */
+    private int find(int mmsi) {
+        checkMmsi(mmsi);
+        int key = mmsi + 1;
+        for (int probe = 0, i = VesselRegistry.hash(mmsi) & mask; probe < capacity; probe++, i = (i + 1) & mask) {
+            int storedKey = (int) INT.getAcquire(buffer, recordOffset(i) + KEY);
+            if (storedKey == key)
+                return recordOffset(i);
+            if (storedKey == 0)
+                return -1;
+        }
+        return -1;
+    }
+
+    /** @return the offset of the record of the vessel; claimed if it has none. */
+    private int claim(int mmsi) {
+        checkMmsi(mmsi);
+        int key = mmsi + 1;
+        for (int probe = 0, i = VesselRegistry.hash(mmsi) & mask; probe < capacity; ) {
+            int record = recordOffset(i);
+            int storedKey = (int) INT.getAcquire(buffer, record + KEY);
+            if (storedKey == key)
+                return record;
+            if (storedKey == 0) {
+                if (INT.compareAndSet(buffer, record + KEY, 0, key)) {
+                    INT.getAndAdd(buffer, SIZE_OFFSET, 1);
+                    return record;
+                }
+                continue; // Claimed by another thread meanwhile - perhaps for the same vessel; look again
+            }
+            probe++;
+            i = (i + 1) & mask;
+        }
+        throw new IllegalStateException("Vessel state store is full: " + capacity + " records.");
+    }
+
+    /** Acquire the sequence lock of a record; the sequence is odd while the record is being written. */
+    private int lock(int record) {
+        while (true) {
+            int sequence = (int) INT.getVolatile(buffer, record + SEQUENCE);
+            if ((sequence & 1) == 0 && INT.compareAndSet(buffer, record + SEQUENCE, sequence, sequence + 1)) {
+                VarHandle.storeStoreFence();
+                return sequence;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void unlock(int record, int sequence) {
+        INT.setRelease(buffer, record + SEQUENCE, sequence + 2);
+    }
+
+    private static int recordOffset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private static void checkMmsi(int mmsi) {
+        if (mmsi < 0 || mmsi == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid mmsi: " + mmsi);
+    }
+
+    /** @return the number of vessels in the store. */
+    public int size() {
+        return (int) INT.getVolatile(buffer, SIZE_OFFSET);
+    }
+
+    /** @return the number of records of the store. */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Write changes back to the file now. */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Write changes back to the file and close it. The store must not be updated while or after it is closed.
+     * The mapping is released when the store is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.putInt(CLOSED_OFFSET, 1);
+        force();
+        channel.close();
+    }
+}
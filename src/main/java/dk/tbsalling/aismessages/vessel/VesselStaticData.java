@@ -0,0 +1,59 @@
+/*
+ * AISMessages
+ * - a java-based library for decoding of AIS messages from digital VHF radio traffic related
+ * to maritime navigation and safety in compliance with ITU 1371.
+ *
+ * (C) Copyright 2011- by S-Consult ApS, VAT no. DK31327490, Denmark.
+ *
+ * Released under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * For details of this license see the nearby LICENCE-full file, visit http://creativecommons.org/licenses/by-nc-sa/3.0/
+ * or send a letter to Creative Commons, 171 Second Street, Suite 300, San Francisco, California, 94105, USA.
+ *
+ * NOT FOR COMMERCIAL USE!
+ * Contact Thomas Borg Salling <tbsalling@tbsalling.dk> to obtain a commercially licensed version of this software.
+ *
+ */
+
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.types.ShipType;
+
+import java.time.Instant;
+
+/**
+ * A snapshot of the latest static and voyage related data of a vessel; as reported by AIS message types 5 and 24.
+ * Type 24 is sent in two parts, so data may be partial.
+ *
+ * @param mmsi         the MMSI of the vessel.
+ * @param timestamp    the time the data was last reported, in milliseconds since the epoch.
+ * @param imo          the IMO number; or 0 if not reported.
+ * @param callsign     the callsign; or null if not reported.
+ * @param shipName     the name; or null if not reported.
+ * @param shipType     the ship type; or null if not reported.
+ * @param toBow        the distance from the reference point to the bow in metres.
+ * @param toStern      the distance from the reference point to the stern in metres.
+ * @param toStarboard  the distance from the reference point to starboard in metres.
+ * @param toPort       the distance from the reference point to port in metres.
+ * @param draught      the draught in metres; or 0 if not reported.
+ * @param destination  the destination; or null if not reported.
+ * @author tbsalling
+ */
+public record VesselStaticData(int mmsi, long timestamp, int imo, String callsign, String shipName, ShipType shipType,
+                               int toBow, int toStern, int toStarboard, int toPort, float draught, String destination) {
+
+    /** @return the time the data was last reported. */
+    public Instant instant() {
+        return Instant.ofEpochMilli(timestamp);
+    }
+
+    /** @return the length of the vessel in metres; or 0 if not reported. */
+    public int length() {
+        return toBow + toStern;
+    }
+
+    /** @return the beam of the vessel in metres; or 0 if not reported. */
+    public int beam() {
+        return toStarboard + toPort;
+    }
+
+}
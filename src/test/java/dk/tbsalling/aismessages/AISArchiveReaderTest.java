@@ -0,0 +1,113 @@
+package dk.tbsalling.aismessages;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AISArchiveReaderTest {
+
+    private static final List<String> NMEA = List.of(
+            "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A",
+            "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27",
+            "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C",
+            "!AIVDM,1,1,,B,402=481uaUcf;OQ55JS9ITi025Jp,0*2B",
+            "garbage",
+            "!AIVDM,2,1,0,B,539S:k40000000c3G04PPh63<00000000080000o1PVG2uGD:00000000000,0*34",
+            "!AIVDM,1,1,,A,33nr7t001f13KNTOahh2@QpF00vh,0*58",
+            "!AIVDM,2,2,0,B,00000000000,2*27"
+    );
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void decodesSameMessagesAsSequentialReader() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            lines.addAll(NMEA);
+        Path file = tempDir.resolve("archive.nmea");
+        Files.writeString(file, String.join("\r\n", lines), StandardCharsets.US_ASCII);
+
+        List<String> expected = new ArrayList<>();
+        new AISInputStreamReader(lines, aisMessage -> expected.add(rawMessages(aisMessage))).run();
+
+        for (int chunkSize : new int[] {1, 37, 100, 1000, AISArchiveReader.DEFAULT_CHUNK_SIZE}) {
+            try (AISArchiveReader reader = new AISArchiveReader(file, chunkSize)) {
+                List<String> actual = reader.stream().map(AISArchiveReaderTest::rawMessages).collect(Collectors.toList());
+                assertEquals(expected.stream().sorted().toList(), actual.stream().sorted().toList(), "chunkSize " + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    public void leavesMultipartMessagesBegunAfterChunkToFollowingChunk() throws IOException {
+        // The continuation of the first message is lost; the next message with the same key straddles the chunk end
+        String lostContinuation = "!AIVDM,2,1,3,B,55DB><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*24";
+        List<String> lines = List.of(lostContinuation, NMEA.get(0), NMEA.get(1), NMEA.get(2));
+        Path file = tempDir.resolve("archive.nmea");
+        Files.writeString(file, String.join("\n", lines) + "\n", StandardCharsets.US_ASCII);
+
+        List<String> expected = new ArrayList<>();
+        new AISInputStreamReader(lines, aisMessage -> expected.add(rawMessages(aisMessage))).run();
+        assertEquals(List.of(NMEA.get(0), NMEA.get(1) + NMEA.get(2)), expected);
+
+        int chunkSize = lostContinuation.length() + NMEA.get(0).length() + 2;
+        try (AISArchiveReader reader = new AISArchiveReader(file, chunkSize)) {
+            assertEquals(2, reader.numberOfChunks());
+            assertEquals(expected, reader.stream().map(AISArchiveReaderTest::rawMessages).toList());
+        }
+    }
+
+    @Test
+    public void skipsLinesWithCorruptPayload() throws IOException {
+        List<String> lines = List.of(NMEA.get(0), "!AIVDM,1,1,,B,15Mqd{P000G@qoLEi69PVGaN0D0=,0*01", NMEA.get(3));
+        Path file = tempDir.resolve("archive.nmea");
+        Files.writeString(file, String.join("\n", lines) + "\n", StandardCharsets.US_ASCII);
+
+        try (AISArchiveReader reader = new AISArchiveReader(file)) {
+            assertEquals(List.of(NMEA.get(0), NMEA.get(3)), reader.stream().map(AISArchiveReaderTest::rawMessages).toList());
+        }
+    }
+
+    @Test
+    public void splitsFileIntoLineAlignedChunks() throws IOException {
+        Path file = tempDir.resolve("archive.nmea");
+        Files.writeString(file, String.join("\n", NMEA) + "\n", StandardCharsets.US_ASCII);
+
+        try (AISArchiveReader reader = new AISArchiveReader(file, 10)) {
+            assertEquals(NMEA.size(), reader.numberOfChunks());
+        }
+        try (AISArchiveReader reader = new AISArchiveReader(file)) {
+            assertEquals(1, reader.numberOfChunks());
+            assertEquals(5, reader.stream().count());
+        }
+    }
+
+    @Test
+    public void decodesEmptyFile() throws IOException {
+        Path file = Files.createFile(tempDir.resolve("empty.nmea"));
+
+        try (AISArchiveReader reader = new AISArchiveReader(file)) {
+            assertEquals(0, reader.stream().count());
+        }
+    }
+
+    private static String rawMessages(AISMessage aisMessage) {
+        StringBuilder sb = new StringBuilder();
+        for (NMEAMessage nmeaMessage : aisMessage.getMetadata().nmeaMessages())
+            sb.append(nmeaMessage.getRawMessage());
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,139 @@
+package dk.tbsalling.aismessages;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.AsyncAISMessageReceiver.OverflowPolicy;
+import dk.tbsalling.aismessages.nmea.NMEAMessagePublisher;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AISMessagePublisherTest {
+
+    private static final List<String> NMEA = List.of(
+            "!AIVDM,1,1,,A,18UG;P0012G?Uq4EdHa=c;7@051@,0*53",
+            "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27",
+            "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C",
+            "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A",
+            "!AIVDM,1,1,,A,13aEOK?P00PD2wVMdLDRhgvL289?,0*26",
+            "!AIVDM,1,1,,B,16S`2cPP00a3UF6EKT@2:?vOr0S2,0*00"
+    );
+
+    @Test
+    public void publishesOneMessagePerRequest() throws Exception {
+        TestSubscriber<AISMessage> subscriber = new TestSubscriber<>();
+        new AISMessagePublisher(input(), 1, OverflowPolicy.BLOCK).subscribe(subscriber);
+
+        for (int i = 1; i <= 5; i++) {
+            subscriber.subscription.request(1);
+            int expected = i;
+            awaitTrue(() -> subscriber.items.size() == expected);
+            Thread.sleep(20);
+            assertEquals(expected, subscriber.items.size());
+        }
+
+        subscriber.completed.get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(NMEA.get(0), NMEA.get(1), NMEA.get(3), NMEA.get(4), NMEA.get(5)),
+                subscriber.items.stream().map(m -> m.getMetadata().nmeaMessages()[0].getRawMessage()).toList());
+    }
+
+    @Test
+    public void dropsNewestWhenBufferIsFull() throws Exception {
+        TestSubscriber<NMEAMessage> subscriber = new TestSubscriber<>();
+        NMEAMessagePublisher publisher = new NMEAMessagePublisher(input(), 2, OverflowPolicy.DROP_NEWEST);
+        publisher.subscribe(subscriber);
+
+        awaitTrue(() -> publisher.getDroppedCount() == 4);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        subscriber.completed.get(10, TimeUnit.SECONDS);
+        assertEquals(NMEA.subList(0, 2), subscriber.items.stream().map(NMEAMessage::getRawMessage).toList());
+    }
+
+    @Test
+    public void dropsOldestWhenBufferIsFull() throws Exception {
+        TestSubscriber<NMEAMessage> subscriber = new TestSubscriber<>();
+        NMEAMessagePublisher publisher = new NMEAMessagePublisher(input(), 2, OverflowPolicy.DROP_OLDEST);
+        publisher.subscribe(subscriber);
+
+        awaitTrue(() -> publisher.getDroppedCount() == 4);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        subscriber.completed.get(10, TimeUnit.SECONDS);
+        assertEquals(NMEA.subList(4, 6), subscriber.items.stream().map(NMEAMessage::getRawMessage).toList());
+    }
+
+    @Test
+    public void cancelStopsPublishing() throws Exception {
+        TestSubscriber<AISMessage> subscriber = new TestSubscriber<>();
+        new AISMessagePublisher(input(), 1, OverflowPolicy.BLOCK).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        awaitTrue(() -> subscriber.items.size() == 1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(10);
+        Thread.sleep(50);
+
+        assertEquals(1, subscriber.items.size());
+        assertFalse(subscriber.completed.isDone());
+    }
+
+    @Test
+    public void canBeSubscribedToOnce() {
+        AISMessagePublisher publisher = new AISMessagePublisher(input());
+        publisher.subscribe(new TestSubscriber<>());
+
+        TestSubscriber<AISMessage> second = new TestSubscriber<>();
+        publisher.subscribe(second);
+        assertTrue(second.completed.isCompletedExceptionally());
+    }
+
+    private static InputStream input() {
+        return new ByteArrayInputStream(String.join("\n", NMEA).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static class TestSubscriber<T> implements Flow.Subscriber<T> {
+
+        final List<T> items = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Void> completed = new CompletableFuture<>();
+        volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.complete(null);
+        }
+    }
+
+}
@@ -251,4 +251,56 @@ public class BitStringParserTest {
         assertEquals(combo.length(), parser.getLength());
     }
 
+    @Test
+    public void readsFieldsStraddlingWordBoundaries() {
+        // 60 zero bits followed by a 28-bit signed value of -1 spanning the 64-bit word boundary
+        String bits = "0".repeat(60) + "1".repeat(28) + "0101";
+        BitStringParser parser = new BitStringParser(bits);
+        assertEquals(-1, parser.getSignedInt(60, 88));
+        assertEquals((1 << 28) - 1, parser.getUnsignedInt(60, 88));
+        assertEquals(5, parser.getUnsignedInt(88, 92));
+        assertEquals(bits, parser.getBitString());
+    }
+
+    @Test
+    public void zeroPadsBeyondLengthForNumericFields() {
+        BitStringParser parser = new BitStringParser("11");
+        // 11 followed by padding -> 1100 = 12
+        assertEquals(12, parser.getUnsignedInt(0, 4));
+        assertEquals(0, parser.getUnsignedInt(2, 40));
+        assertFalse(parser.getBoolean(100, 101));
+    }
+
+    @Test
+    public void rejectsNonBinaryCharacters() {
+        assertThrows(NumberFormatException.class, () -> new BitStringParser("01x1"));
+    }
+
+    @Test
+    public void fromSixBitPayloadMatchesBitString() {
+        String payload = "13HOI:0P0000VOHLCnHQKwvL05Ip";
+        BitStringParser expected = new BitStringParser(AISMessageFactory.toBitString(payload, 0));
+        assertEquals(expected, BitStringParser.fromSixBitPayload(0, payload));
+        assertEquals(expected, BitStringParser.fromSixBitPayload(0, payload.substring(0, 11), payload.substring(11)));
+        byte[] bytes = ("xx" + payload + "yy").getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        assertEquals(expected, BitStringParser.fromSixBitPayload(bytes, 2, payload.length(), 0));
+        assertEquals(expected, BitStringParser.fromSixBitPayload(java.nio.ByteBuffer.wrap(bytes, 2, payload.length()), 0));
+    }
+
+    @Test
+    public void fromSixBitPayloadDiscardsFillBits() {
+        String payload = "H3HOIj0LhuE<Tpp@E<";
+        BitStringParser parser = BitStringParser.fromSixBitPayload(2, payload);
+        assertEquals(payload.length() * 6 - 2, parser.getLength());
+        assertEquals(AISMessageFactory.toBitString(payload, 2), parser.getBitString());
+        // Fill bits must read as zero when padding beyond the length
+        assertEquals(0, parser.getUnsignedInt(parser.getLength(), parser.getLength() + 2));
+    }
+
+    @Test
+    public void fromSixBitPayloadRejectsInvalidCharacters() {
+        assertThrows(IllegalArgumentException.class, () -> BitStringParser.fromSixBitPayload(0, "13X"));
+        assertThrows(IllegalArgumentException.class, () -> BitStringParser.fromSixBitPayload(6, "13"));
+    }
+
 }
@@ -1,5 +1,6 @@
 package dk.tbsalling.aismessages.ais.messages;
 
+import dk.tbsalling.aismessages.ais.BitStringParser;
 import dk.tbsalling.aismessages.ais.messages.types.*;
 import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
 import org.junit.jupiter.api.Test;
@@ -39,7 +40,7 @@ public class PositionReportClassAScheduledTest {
         int rawCourseOverGround = 3590;
 
         PositionReportClassAScheduled msg = new PositionReportClassAScheduled(
-                mmsi, repeatIndicator, null, nmeaMessages, bitString, source, received,
+                mmsi, repeatIndicator, null, nmeaMessages, new BitStringParser(bitString), source, received,
                 navigationStatus, rateOfTurn, speedOverGround, positionAccuracy, latitude, longitude,
                 courseOverGround, trueHeading, second, specialManeuverIndicator, raimFlag, communicationState,
                 rawRateOfTurn, rawSpeedOverGround, rawLatitude, rawLongitude, rawCourseOverGround);
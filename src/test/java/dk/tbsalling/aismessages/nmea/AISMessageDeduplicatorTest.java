@@ -0,0 +1,112 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AISMessageDeduplicatorTest {
+
+    private static final NMEAMessage STATION_1 = new NMEAMessage("\\s:station1*02\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A");
+    private static final NMEAMessage STATION_2 = new NMEAMessage("\\s:station2*01\\!AIVDM,1,1,,A,15MqdBP000G@qoLEi69PVGaN0D0=,0*39");
+    private static final NMEAMessage OTHER = new NMEAMessage("!AIVDM,1,1,,A,18UG;P0012G?Uq4EdHa=c;7@051@,0*53");
+
+    @Test
+    public void suppressesSamePayloadFromOtherSourcesWithinWindow() {
+        AtomicLong clock = new AtomicLong();
+        AISMessageDeduplicator deduplicator = new AISMessageDeduplicator(Duration.ofSeconds(2), 1024, clock::get);
+
+        assertFalse(deduplicator.isDuplicate("station1", STATION_1));
+        assertFalse(deduplicator.isDuplicate("station1", OTHER));
+        clock.addAndGet(Duration.ofMillis(1500).toNanos());
+        assertTrue(deduplicator.isDuplicate("station2", STATION_2));
+        assertTrue(deduplicator.isDuplicate("station1", STATION_1));
+
+        // Duplicates do not extend the window
+        clock.addAndGet(Duration.ofMillis(1000).toNanos());
+        assertFalse(deduplicator.isDuplicate("station2", STATION_2));
+
+        assertEquals(Set.of("station1", "station2"), deduplicator.getSources());
+        assertEquals(1, deduplicator.getHitCount("station1"));
+        assertEquals(2, deduplicator.getMissCount("station1"));
+        assertEquals(1, deduplicator.getHitCount("station2"));
+        assertEquals(1, deduplicator.getMissCount("station2"));
+        assertEquals(2, deduplicator.getHitCount());
+        assertEquals(3, deduplicator.getMissCount());
+        assertEquals(0, deduplicator.getHitCount("station3"));
+    }
+
+    @Test
+    public void countsNullSourceAsEmpty() {
+        AtomicLong clock = new AtomicLong();
+        AISMessageDeduplicator deduplicator = new AISMessageDeduplicator(Duration.ofSeconds(2), 1024, clock::get);
+
+        assertEquals(0, deduplicator.getHitCount(null));
+        assertEquals(0, deduplicator.getMissCount(null));
+        assertFalse(deduplicator.isDuplicate(null, STATION_1));
+        assertTrue(deduplicator.isDuplicate(null, STATION_2));
+
+        assertEquals(Set.of(""), deduplicator.getSources());
+        assertEquals(1, deduplicator.getHitCount(null));
+        assertEquals(1, deduplicator.getMissCount(null));
+        assertEquals(1, deduplicator.getHitCount(""));
+    }
+
+    @Test
+    public void keysOnReassembledPayloadAndFillBits() {
+        NMEAMessage part1 = new NMEAMessage("!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27");
+        NMEAMessage part2 = new NMEAMessage("!AIVDM,2,2,3,B,p=Mh00000000000,2*4C");
+        NMEAMessage part2OtherFillBits = new NMEAMessage("!AIVDM,2,2,3,B,p=Mh00000000000,0*4E");
+        NMEAMessage part2OtherSequence = new NMEAMessage("!AIVDM,2,2,7,A,p=Mh00000000000,2*4B");
+
+        assertEquals(AISMessageDeduplicator.hash(part1, part2), AISMessageDeduplicator.hash(part1, part2OtherSequence));
+        assertNotEquals(AISMessageDeduplicator.hash(part1, part2), AISMessageDeduplicator.hash(part1, part2OtherFillBits));
+        assertNotEquals(AISMessageDeduplicator.hash(part1, part2), AISMessageDeduplicator.hash(part1));
+        assertNotEquals(AISMessageDeduplicator.hash(STATION_1), AISMessageDeduplicator.hash(OTHER));
+    }
+
+    @Test
+    public void evictsOldestKeyWhenProbeRangeIsFull() {
+        AtomicLong clock = new AtomicLong();
+        AISMessageDeduplicator deduplicator = new AISMessageDeduplicator(Duration.ofSeconds(10), 8, clock::get);
+        assertEquals(8, deduplicator.getCapacity());
+
+        for (int i = 0; i < 9; i++) {
+            clock.incrementAndGet();
+            assertFalse(deduplicator.isDuplicate(null, new NMEAMessage("!AIVDM,1,1,,A,1%d,0*00".formatted(i))));
+        }
+        assertEquals(1, deduplicator.getEvictedCount());
+        assertFalse(deduplicator.isDuplicate(null, new NMEAMessage("!AIVDM,1,1,,A,10,0*00")));
+        assertTrue(deduplicator.isDuplicate(null, new NMEAMessage("!AIVDM,1,1,,A,18,0*00")));
+        assertEquals(Set.of(""), deduplicator.getSources());
+    }
+
+    @Test
+    public void handlerSuppressesDuplicatesBeforeDecoding() {
+        AISMessageDeduplicator deduplicator = new AISMessageDeduplicator();
+        List<AISMessage> received = new ArrayList<>();
+        NMEAMessageHandler handler1 = new NMEAMessageHandler("station1", received::add);
+        NMEAMessageHandler handler2 = new NMEAMessageHandler("station2", received::add);
+        handler1.setDeduplicator(deduplicator);
+        handler2.setDeduplicator(deduplicator);
+
+        handler1.accept(STATION_1);
+        handler2.accept(STATION_2);
+        handler2.accept(OTHER);
+        handler1.accept(OTHER);
+
+        assertEquals(2, received.size());
+        assertEquals("station1", received.get(0).getMetadata().source());
+        assertEquals("station2", received.get(1).getMetadata().source());
+        assertEquals(1, deduplicator.getHitCount("station1"));
+        assertEquals(1, deduplicator.getHitCount("station2"));
+        assertTrue(deduplicator.isDuplicate(received.get(0)));
+    }
+}
@@ -1,6 +1,11 @@
 package dk.tbsalling.aismessages.nmea;
 
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
 import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.ais.messages.BinaryBroadcastMessage;
+import dk.tbsalling.aismessages.ais.messages.PositionReport;
+import dk.tbsalling.aismessages.ais.messages.ShipAndVoyageData;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -116,4 +121,50 @@ public class AISMessageFactoryTest {
         assertEquals("100000", upperPBits);
         assertEquals("111111", lowerWBits);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void createLazily_decodesSameValuesAsEagerMode() {
+        // Arrange
+        NMEAMessage[][] inputs = {
+                {new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A")},
+                {new NMEAMessage("!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27"),
+                 new NMEAMessage("!AIVDM,2,2,3,B,p=Mh00000000000,2*4C")},
+                {new NMEAMessage("!AIVDM,1,1,,A,85Mwp`1Kf3aCnsNvBWLi=wQuNhA5t43N`5nCuI=p<IBfVqnMgPGs,0*47")},
+                {new NMEAMessage("!AIVDM,1,1,,B,B5NJ;PP005l4ot5Isbl03wsUkP06,0*76")}
+        };
+
+        for (NMEAMessage[] nmeaMessages : inputs) {
+            // Act
+            AISMessage eager = AISMessageFactory.create(null, "SRC", null, nmeaMessages);
+            AISMessage lazy = AISMessageFactory.createLazily(null, "SRC", null, nmeaMessages);
+
+            // Assert
+            assertEquals(eager, lazy);
+            assertEquals(eager.hashCode(), lazy.hashCode());
+            assertEquals(eager.toString(), lazy.toString());
+        }
+    }
+
+    @Test
+    public void createLazily_decodesCostlyFieldsOnAccess() {
+        // Arrange
+        PositionReport positionReport = (PositionReport) AISMessageFactory.createLazily(null, null, null,
+                new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        ShipAndVoyageData shipAndVoyageData = (ShipAndVoyageData) AISMessageFactory.createLazily(null, null, null,
+                new NMEAMessage("!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27"),
+                new NMEAMessage("!AIVDM,2,2,3,B,p=Mh00000000000,2*4C"));
+        BinaryBroadcastMessage binaryBroadcastMessage = (BinaryBroadcastMessage) AISMessageFactory.createLazily(null, null, null,
+                new NMEAMessage("!AIVDM,1,1,,A,85Mwp`1Kf3aCnsNvBWLi=wQuNhA5t43N`5nCuI=p<IBfVqnMgPGs,0*47"));
+
+        // Act + Assert
+        assertNotNull(positionReport.getCommunicationState());
+        ShipAndVoyageData eager = (ShipAndVoyageData) AISMessageFactory.create(null, null, null, shipAndVoyageData.getMetadata().nmeaMessages());
+        assertEquals(eager.getCallsign(), shipAndVoyageData.getCallsign());
+        assertEquals(eager.getShipName(), shipAndVoyageData.getShipName());
+        assertEquals(eager.getDestination(), shipAndVoyageData.getDestination());
+        assertFalse(shipAndVoyageData.getShipName().isEmpty());
+        assertNotNull(binaryBroadcastMessage.getBinaryData());
+        assertEquals(binaryBroadcastMessage.getDesignatedAreaCode(), binaryBroadcastMessage.getApplicationSpecificMessage().getDesignatedAreaCode());
+    }
+
+}
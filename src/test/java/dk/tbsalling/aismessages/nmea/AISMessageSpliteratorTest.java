@@ -0,0 +1,121 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.AISInputStreamReader;
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AISMessageSpliteratorTest {
+
+    private static final String POSITION_REPORT = "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A";
+    private static final String BASE_STATION_REPORT = "!AIVDM,1,1,,B,402=481uaUcf;OQ55JS9ITi025Jp,0*2B";
+    private static final String STATIC_3B_1 = "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27";
+    private static final String STATIC_3B_2 = "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C";
+    private static final String STATIC_3A_1 = "!AIVDM,2,1,3,A,55MuUD02;EFUL@CO;W@lU=<U=<U10V1HuT4LE:1DC@T>B4kC0DliSp=t,0*14";
+    private static final String STATIC_3A_2 = "!AIVDM,2,2,3,A,888888888888880,2*27";
+
+    // Fragments of multipart messages interleaved with each other and with unfragmented messages,
+    // and repeated with an odd period so that split points fall everywhere
+    private static final List<String> PATTERN = List.of(
+            STATIC_3B_1, STATIC_3A_1, POSITION_REPORT, STATIC_3B_2, BASE_STATION_REPORT, STATIC_3A_2, POSITION_REPORT
+    );
+
+    @Test
+    public void parallelStreamOverListDecodesSameMessagesAsRun() {
+        List<String> input = input(5_000);
+
+        List<String> expected = new ArrayList<>();
+        new AISInputStreamReader(input, aisMessage -> expected.add(raw(aisMessage))).run();
+
+        List<String> actual = new AISInputStreamReader(input, aisMessage -> fail()).stream()
+                .parallel()
+                .map(AISMessageSpliteratorTest::raw)
+                .toList();
+
+        assertEquals(5 * 5_000, expected.size());
+        assertEquals(sorted(expected), sorted(actual));
+    }
+
+    @Test
+    public void skipsCorruptLinesInMiddleOfInput() {
+        List<String> tooShort = List.of(POSITION_REPORT, "!AIVDM,1,1,,A,13aG?P,0*46", BASE_STATION_REPORT);
+        List<String> expected = new ArrayList<>();
+        new AISInputStreamReader(tooShort, aisMessage -> expected.add(raw(aisMessage))).run();
+        assertEquals(expected, new AISInputStreamReader(tooShort, aisMessage -> fail()).stream().map(AISMessageSpliteratorTest::raw).toList());
+
+        List<String> invalidCharacter = List.of(POSITION_REPORT, "!AIVDM,1,1,,B,15Mqd{P000G@qoLEi69PVGaN0D0=,0*01", BASE_STATION_REPORT);
+        assertEquals(List.of(POSITION_REPORT, BASE_STATION_REPORT),
+                new AISInputStreamReader(invalidCharacter, aisMessage -> fail()).stream().map(AISMessageSpliteratorTest::raw).toList());
+    }
+
+    @Test
+    public void parallelStreamOverInputStreamDecodesSameMessagesAsRun() {
+        byte[] bytes = String.join("\n", input(5_000)).getBytes(StandardCharsets.US_ASCII);
+
+        List<String> expected = new ArrayList<>();
+        new AISInputStreamReader(new ByteArrayInputStream(bytes), aisMessage -> expected.add(raw(aisMessage))).run();
+
+        List<String> actual = new AISInputStreamReader(new ByteArrayInputStream(bytes), aisMessage -> fail()).stream()
+                .parallel()
+                .map(AISMessageSpliteratorTest::raw)
+                .toList();
+
+        assertEquals(sorted(expected), sorted(actual));
+    }
+
+    @Test
+    public void multipartMessageStraddlingSplitPointIsDecodedOnce() {
+        // The second fragment of a multipart message begun before the split point, and a new multipart message
+        // with the same sequence number begun after it, both follow the split point
+        List<String> input = new ArrayList<>();
+        for (int i = 0; i < AISMessageSpliterator.MIN_SPLIT_SIZE - 1; i++)
+            input.add(POSITION_REPORT);
+        input.add(STATIC_3B_1);
+        input.add(STATIC_3B_1);
+        input.add(STATIC_3B_2);
+        for (int i = 0; i < AISMessageSpliterator.MIN_SPLIT_SIZE - 2; i++)
+            input.add(BASE_STATION_REPORT);
+        assertEquals(2 * AISMessageSpliterator.MIN_SPLIT_SIZE, input.size());
+
+        AISMessageSpliterator suffix = new AISMessageSpliterator(input, Function.identity(), receiver -> new NMEAMessageHandler("SRC", receiver));
+        Spliterator<AISMessage> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+
+        List<String> prefixMessages = new ArrayList<>();
+        prefix.forEachRemaining(aisMessage -> prefixMessages.add(raw(aisMessage)));
+        List<String> suffixMessages = new ArrayList<>();
+        suffix.forEachRemaining(aisMessage -> suffixMessages.add(raw(aisMessage)));
+
+        assertEquals(AISMessageSpliterator.MIN_SPLIT_SIZE - 1, prefixMessages.size());
+        assertFalse(prefixMessages.contains(STATIC_3B_1 + STATIC_3B_2));
+        assertEquals(AISMessageSpliterator.MIN_SPLIT_SIZE - 1, suffixMessages.size());
+        assertEquals(STATIC_3B_1 + STATIC_3B_2, suffixMessages.get(0));
+    }
+
+    private static List<String> input(int repetitions) {
+        List<String> input = new ArrayList<>();
+        for (int i = 0; i < repetitions; i++)
+            input.addAll(PATTERN);
+        return input;
+    }
+
+    private static List<String> sorted(List<String> strings) {
+        return strings.stream().sorted().toList();
+    }
+
+    private static String raw(AISMessage aisMessage) {
+        return Arrays.stream(aisMessage.getMetadata().nmeaMessages()).map(NMEAMessage::getRawMessage).collect(Collectors.joining());
+    }
+
+}
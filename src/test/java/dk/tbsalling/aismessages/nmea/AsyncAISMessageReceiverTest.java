@@ -0,0 +1,179 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.nmea.AsyncAISMessageReceiver.OverflowPolicy;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncAISMessageReceiverTest {
+
+    private static final String[] NMEA = {
+            "!AIVDM,1,1,,A,18UG;P0012G?Uq4EdHa=c;7@051@,0*53",
+            "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A",
+            "!AIVDM,1,1,,A,13aEOK?P00PD2wVMdLDRhgvL289?,0*26",
+            "!AIVDM,1,1,,B,16S`2cPP00a3UF6EKT@2:?vOr0S2,0*00",
+            "!AIVDM,1,1,,B,133m@ogP00PD;88MD5MTDww@2D7k,0*46"
+    };
+
+    @Test
+    public void deliversAllMessagesOnWorkerThreadWhenBlocking() throws Exception {
+        List<AISMessage> delivered = new CopyOnWriteArrayList<>();
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+        AsyncAISMessageReceiver receiver = new AsyncAISMessageReceiver(aisMessage -> {
+            delivered.add(aisMessage);
+            threadNames.add(Thread.currentThread().getName());
+        }, 1, OverflowPolicy.BLOCK);
+
+        for (AISMessage aisMessage : messages())
+            receiver.accept(aisMessage);
+        receiver.close();
+
+        assertEquals(messages().size(), delivered.size());
+        assertEquals(messages().size(), receiver.getDeliveredCount());
+        assertEquals(0, receiver.getDroppedCount());
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("aismessages-receiver-")));
+        assertThrows(IllegalStateException.class, () -> receiver.accept(messages().get(0)));
+    }
+
+    @Test
+    public void accountsForEveryMessageAcceptedWhileClosing() throws Exception {
+        AISMessage aisMessage = messages().get(0);
+        for (OverflowPolicy overflowPolicy : List.of(OverflowPolicy.BLOCK, OverflowPolicy.DROP_NEWEST)) {
+            for (int round = 0; round < 20; round++) {
+                AsyncAISMessageReceiver receiver = new AsyncAISMessageReceiver(m -> {}, 16, overflowPolicy);
+                AtomicLong accepted = new AtomicLong();
+                Thread[] producers = new Thread[4];
+                for (int p = 0; p < producers.length; p++) {
+                    producers[p] = new Thread(() -> {
+                        try {
+                            while (true) {
+                                receiver.accept(aisMessage);
+                                accepted.incrementAndGet();
+                            }
+                        } catch (IllegalStateException e) {
+                            // Closed
+                        }
+                    });
+                    producers[p].start();
+                }
+                Thread.sleep(2);
+                receiver.close();
+                for (Thread producer : producers)
+                    producer.join(10_000);
+
+                // Every message accepted is either delivered or counted as dropped
+                assertEquals(accepted.get(), receiver.getDeliveredCount() + receiver.getDroppedCount(), overflowPolicy.name());
+                assertEquals(0, receiver.getQueueDepth());
+            }
+        }
+    }
+
+    @Test
+    public void dropsNewestWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        AsyncAISMessageReceiver receiver = new AsyncAISMessageReceiver(
+                blockingReceiver(started, release, delivered), 2, OverflowPolicy.DROP_NEWEST);
+
+        List<AISMessage> messages = messages();
+        receiver.accept(messages.get(0));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < messages.size(); i++)
+            receiver.accept(messages.get(i));
+
+        assertEquals(2, receiver.getQueueDepth());
+        release.countDown();
+        receiver.close();
+
+        assertEquals(2, receiver.getDroppedCount());
+        assertEquals(List.of(NMEA[0], NMEA[1], NMEA[2]), delivered);
+    }
+
+    @Test
+    public void dropsOldestWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        AsyncAISMessageReceiver receiver = new AsyncAISMessageReceiver(
+                blockingReceiver(started, release, delivered), 2, OverflowPolicy.DROP_OLDEST);
+
+        List<AISMessage> messages = messages();
+        receiver.accept(messages.get(0));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < messages.size(); i++)
+            receiver.accept(messages.get(i));
+
+        release.countDown();
+        receiver.close();
+
+        assertEquals(2, receiver.getDroppedCount());
+        assertEquals(List.of(NMEA[0], NMEA[3], NMEA[4]), delivered);
+    }
+
+    @Test
+    public void samplesWhenHalfFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        AsyncAISMessageReceiver receiver = new AsyncAISMessageReceiver(
+                blockingReceiver(started, release, delivered), 4, OverflowPolicy.SAMPLE, 2);
+
+        List<AISMessage> messages = messages();
+        receiver.accept(messages.get(0));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < messages.size(); i++)
+            receiver.accept(messages.get(i));
+
+        release.countDown();
+        receiver.close();
+
+        // Queue is half full after 2 messages; then every second message is kept
+        assertEquals(1, receiver.getDroppedCount());
+        assertEquals(List.of(NMEA[0], NMEA[1], NMEA[2], NMEA[3]), delivered);
+    }
+
+    @Test
+    public void handlerDeliversToAsyncReceiver() throws Exception {
+        List<AISMessage> delivered = new CopyOnWriteArrayList<>();
+        NMEAMessageHandler handler = new NMEAMessageHandler("SRC");
+        AsyncAISMessageReceiver receiver = handler.addAsyncAisMessageReceiver(delivered::add, 16, OverflowPolicy.DROP_NEWEST);
+
+        for (String nmea : NMEA)
+            handler.accept(new NMEAMessage(nmea));
+        receiver.close();
+
+        assertEquals(NMEA.length, delivered.size());
+        assertEquals(OverflowPolicy.DROP_NEWEST, receiver.getOverflowPolicy());
+    }
+
+    private static Consumer<AISMessage> blockingReceiver(CountDownLatch started, CountDownLatch release, List<String> delivered) {
+        return aisMessage -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.add(aisMessage.getMetadata().nmeaMessages()[0].getRawMessage());
+        };
+    }
+
+    private static List<AISMessage> messages() {
+        return Arrays.stream(NMEA)
+                .map(nmea -> AISMessageFactory.create(null, null, null, new NMEAMessage(nmea)))
+                .toList();
+    }
+
+}
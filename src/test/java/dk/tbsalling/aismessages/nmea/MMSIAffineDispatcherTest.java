@@ -0,0 +1,69 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MMSIAffineDispatcherTest {
+
+    private static final String[] NMEA = {
+            "!AIVDM,1,1,,A,18UG;P0012G?Uq4EdHa=c;7@051@,0*53",
+            "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A",
+            "!AIVDM,1,1,,A,13aEOK?P00PD2wVMdLDRhgvL289?,0*26",
+            "!AIVDM,1,1,,B,16S`2cPP00a3UF6EKT@2:?vOr0S2,0*00",
+            "!AIVDM,1,1,,B,133m@ogP00PD;88MD5MTDww@2D7k,0*46"
+    };
+
+    @Test
+    public void preservesOrderPerVessel() throws Exception {
+        Map<Integer, List<AISMessage>> receivedPerMmsi = new ConcurrentHashMap<>();
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+        MMSIAffineDispatcher dispatcher = new MMSIAffineDispatcher(aisMessage -> {
+            receivedPerMmsi.computeIfAbsent(aisMessage.getSourceMmsi().getMmsi(), mmsi -> new CopyOnWriteArrayList<>()).add(aisMessage);
+            threadNames.add(Thread.currentThread().getName());
+        }, 3);
+
+        // Each message sent is told apart by its time of reception, so any reordering per vessel is detected
+        List<AISMessage> sent = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            sent.add(AISMessageFactory.create(Instant.ofEpochSecond(i), null, null, new NMEAMessage(NMEA[i % NMEA.length])));
+        sent.forEach(dispatcher);
+        dispatcher.close();
+
+        assertEquals(NMEA.length, receivedPerMmsi.size());
+        for (Map.Entry<Integer, List<AISMessage>> entry : receivedPerMmsi.entrySet()) {
+            int mmsi = entry.getKey();
+            List<Instant> expected = sent.stream().filter(m -> m.getSourceMmsi().getMmsi() == mmsi).map(m -> m.getMetadata().received()).toList();
+            assertEquals(200, expected.size());
+            assertEquals(expected, entry.getValue().stream().map(m -> m.getMetadata().received()).toList());
+        }
+        assertEquals(1000, Arrays.stream(dispatcher.getLaneDeliveredCounts()).sum());
+        assertArrayEquals(new int[3], dispatcher.getLaneQueueDepths());
+        assertEquals(0, dispatcher.getDroppedCount());
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("aismessages-receiver-")));
+    }
+
+    @Test
+    public void spreadsMmsisOverLanes() {
+        int[] counts = new int[8];
+        // Consecutive Danish MMSIs
+        IntStream.range(219_000_000, 219_008_000).forEach(mmsi -> counts[MMSIAffineDispatcher.laneOf(mmsi, counts.length)]++);
+        for (int count : counts)
+            assertTrue(count > 800 && count < 1200, "Uneven spread: " + Arrays.toString(counts));
+
+        assertEquals(MMSIAffineDispatcher.laneOf(219_000_000, 5), MMSIAffineDispatcher.laneOf(219_000_000, 5));
+    }
+
+}
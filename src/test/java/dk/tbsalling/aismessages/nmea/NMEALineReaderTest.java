@@ -0,0 +1,67 @@
+package dk.tbsalling.aismessages.nmea;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NMEALineReaderTest {
+
+    @Test
+    public void splitsLinesLikeBufferedReader() throws IOException {
+        String input = "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A\r\n" +
+                "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27\n" +
+                "\n" +
+                "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C\r" +
+                "\r\n" +
+                "!AIVDM,1,1,,B,402=481uaUcf;OQ55JS9ITi025Jp,0*2B";
+
+        for (int bufferSize : new int[] {1, 2, 7, 64, 4096}) {
+            assertEquals(input.lines().toList(), readLines(input, bufferSize), "bufferSize " + bufferSize);
+        }
+    }
+
+    @Test
+    public void returnsNullAtEndOfInput() throws IOException {
+        NMEALineReader reader = reader("", 16);
+        assertNull(reader.readLine());
+
+        reader = reader("abc\n", 16);
+        assertEquals("abc", reader.readLine());
+        assertNull(reader.readLine());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    public void readsLinesAsByteBufferViews() throws IOException {
+        NMEALineReader reader = reader("abc\r\nde\n", 3);
+
+        ByteBuffer first = reader.readLineBytes();
+        assertEquals("abc", StandardCharsets.US_ASCII.decode(first).toString());
+        assertTrue(first.isReadOnly());
+        ByteBuffer second = reader.readLineBytes();
+        assertEquals("de", StandardCharsets.US_ASCII.decode(second).toString());
+        assertNull(reader.readLineBytes());
+    }
+
+    private static List<String> readLines(String input, int bufferSize) throws IOException {
+        NMEALineReader reader = reader(input, bufferSize);
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null)
+            lines.add(line);
+        return lines;
+    }
+
+    private static NMEALineReader reader(String input, int bufferSize) {
+        return new NMEALineReader(Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))), bufferSize);
+    }
+
+}
@@ -0,0 +1,121 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NMEAMessageDatagramReceiverTest {
+
+    @Test
+    public void receivesAndDecodesDatagramsOffTheReceiveThread() throws Exception {
+        CountDownLatch latch = new CountDownLatch(3);
+        List<NMEAMessage> received = new CopyOnWriteArrayList<>();
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+        NMEAMessageDatagramReceiver receiver = new NMEAMessageDatagramReceiver(nmeaMessage -> {
+            received.add(nmeaMessage);
+            threadNames.add(Thread.currentThread().getName());
+            latch.countDown();
+        });
+        receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread receiveThread = start(receiver);
+
+        SocketAddress target = receiver.getLocalAddresses().get(0);
+        send(target, "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27\r\n!AIVDM,2,2,3,B,p=Mh00000000000,2*4C\r\n");
+        send(target, "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A");
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        receiver.requestStop();
+        receiveThread.join(10_000);
+
+        assertFalse(receiveThread.isAlive());
+        assertEquals(3, received.size());
+        assertEquals(2, receiver.getReceivedPacketCount());
+        assertEquals(0, receiver.getQueueOverflowCount());
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("aismessages-udp-decoder-")));
+    }
+
+    @Test
+    public void survivesDatagramWithInvalidPayloadCharacter() throws Exception {
+        CountDownLatch latch = new CountDownLatch(20);
+        NMEAMessageHandler handler = new NMEAMessageHandler("UDP", aisMessage -> latch.countDown());
+        NMEAMessageDatagramReceiver receiver = new NMEAMessageDatagramReceiver(handler);
+        receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread receiveThread = start(receiver);
+
+        SocketAddress target = receiver.getLocalAddresses().get(0);
+        send(target, "!AIVDM,1,1,,B,15Mqd{P000G@qoLEi69PVGaN0D0=,0*01");
+        for (int i = 0; i < 20; i++)
+            send(target, "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A");
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        receiver.requestStop();
+        receiveThread.join(10_000);
+        assertFalse(receiveThread.isAlive());
+    }
+
+    @Test
+    public void readsKernelDropCountOfOwnSockets() throws Exception {
+        NMEAMessageDatagramReceiver receiver = new NMEAMessageDatagramReceiver(nmeaMessage -> {});
+        receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+        boolean linux = Files.isReadable(Path.of("/proc/net/udp")) && Files.isDirectory(Path.of("/proc/self/fd"));
+        assertEquals(linux ? 0 : -1, receiver.getKernelDropCount());
+
+        Thread receiveThread = start(receiver);
+        receiver.requestStop();
+        receiveThread.join(10_000);
+    }
+
+    @Test
+    public void bindsSeveralChannelsToSamePort() throws Exception {
+        NMEAMessageDatagramReceiver receiver = new NMEAMessageDatagramReceiver(nmeaMessage -> {});
+        try {
+            receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        } catch (UnsupportedOperationException e) {
+            return; // SO_REUSEPORT not available on this platform
+        }
+
+        List<SocketAddress> localAddresses = receiver.getLocalAddresses();
+        assertEquals(2, localAddresses.size());
+        assertEquals(localAddresses.get(0), localAddresses.get(1));
+
+        Thread receiveThread = start(receiver);
+        receiver.requestStop();
+        receiveThread.join(10_000);
+        assertFalse(receiveThread.isAlive());
+    }
+
+    private static Thread start(NMEAMessageDatagramReceiver receiver) {
+        Thread thread = new Thread(() -> {
+            try {
+                receiver.run();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void send(SocketAddress target, String data) throws IOException {
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.send(ByteBuffer.wrap(data.getBytes(StandardCharsets.US_ASCII)), target);
+        }
+    }
+
+}
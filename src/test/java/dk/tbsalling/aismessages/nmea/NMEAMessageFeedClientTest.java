@@ -0,0 +1,102 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NMEAMessageFeedClientTest {
+
+    @Test
+    public void receivesFromSeveralFeedsAndTagsMessagesWithFeedName() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        List<AISMessage> received = new CopyOnWriteArrayList<>();
+        NMEAMessageFeedClient client = new NMEAMessageFeedClient(aisMessage -> {
+            received.add(aisMessage);
+            latch.countDown();
+        });
+
+        try (ServerSocket server1 = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             ServerSocket server2 = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            NMEAMessageFeedClient.Feed feed1 = client.addFeed("feed1", "127.0.0.1", server1.getLocalPort());
+            NMEAMessageFeedClient.Feed feed2 = client.addFeed("feed2", "127.0.0.1", server2.getLocalPort());
+            Thread clientThread = start(client);
+
+            try (Socket socket1 = server1.accept(); Socket socket2 = server2.accept()) {
+                // Split lines across writes to exercise reassembly of lines from several reads
+                write(socket1, "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27\r\n!AIVDM,2,2,3,B,");
+                Thread.sleep(50);
+                write(socket1, "p=Mh00000000000,2*4C\r\n");
+                write(socket2, "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A\n");
+
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+            }
+
+            client.requestStop();
+            clientThread.join(10_000);
+            assertFalse(clientThread.isAlive());
+
+            assertEquals(2, received.size());
+            assertTrue(received.stream().anyMatch(m -> "feed1".equals(m.getMetadata().source()) && m.getMetadata().nmeaMessages().length == 2));
+            assertTrue(received.stream().anyMatch(m -> "feed2".equals(m.getMetadata().source())));
+            assertEquals(2, feed1.getLinesReceived());
+            assertEquals(1, feed2.getLinesReceived());
+            assertEquals(48, feed2.getBytesReceived());
+            assertNotNull(feed1.getLag());
+        }
+    }
+
+    @Test
+    public void reconnectsWhenServerClosesConnection() throws Exception {
+        NMEAMessageFeedClient client = new NMEAMessageFeedClient((feedName, line) -> {});
+        client.setReconnectDelay(Duration.ofMillis(10), Duration.ofMillis(100));
+
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            NMEAMessageFeedClient.Feed feed = client.addFeed("feed", "127.0.0.1", server.getLocalPort());
+            Thread clientThread = start(client);
+
+            server.accept().close();
+            try (Socket socket = server.accept()) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (feed.getConnectCount() < 2 && System.nanoTime() < deadline)
+                    Thread.sleep(10);
+                assertEquals(2, feed.getConnectCount());
+            }
+
+            client.requestStop();
+            clientThread.join(10_000);
+            assertFalse(clientThread.isAlive());
+            assertEquals(List.of(feed), client.getFeeds());
+        }
+    }
+
+    private static void write(Socket socket, String data) throws Exception {
+        OutputStream out = socket.getOutputStream();
+        out.write(data.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    private static Thread start(NMEAMessageFeedClient client) {
+        Thread thread = new Thread(() -> {
+            try {
+                client.run();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+}
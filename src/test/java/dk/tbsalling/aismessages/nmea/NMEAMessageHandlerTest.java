@@ -1,6 +1,8 @@
 package dk.tbsalling.aismessages.nmea;
 
 import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFilter;
 import dk.tbsalling.aismessages.ais.messages.types.AISMessageType;
 import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +14,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -114,4 +120,191 @@ public class NMEAMessageHandlerTest {
         assertEquals(0, flush.size());
         assertDoesNotThrow(() -> {});
     }
+
+    @Test
+    public void e_skipsMessagesRejectedByFilter() {
+        // Arrange
+        NMEAMessage unfragmentedNMEAMessage = new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A");
+        NMEAMessage fragmentedNMEAMessage1 = new NMEAMessage("!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27");
+        NMEAMessage fragmentedNMEAMessage2 = new NMEAMessage("!AIVDM,2,2,3,B,p=Mh00000000000,2*4C");
+        ArgumentCaptor<AISMessage> aisMessage = ArgumentCaptor.forClass(AISMessage.class);
+        aisMessageReceiver.setMessageFilter(AISMessageFilter.messageTypes(AISMessageType.ShipAndVoyageRelatedData));
+
+        // Act
+        aisMessageReceiver.accept(unfragmentedNMEAMessage);
+        aisMessageReceiver.accept(fragmentedNMEAMessage1);
+        aisMessageReceiver.accept(fragmentedNMEAMessage2);
+
+        // Assert
+        verify(aisMessageHandler, times(1)).accept(aisMessage.capture());
+        assertEquals(AISMessageType.ShipAndVoyageRelatedData, aisMessage.getValue().getMessageType());
+        assertTrue(aisMessageReceiver.flush().isEmpty());
+    }
+
+    @Test
+    public void f_filterIsEvaluatedOnHeader() {
+        // Arrange
+        NMEAMessage unfragmentedNMEAMessage = new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A");
+        AISMessage expected = AISMessageFactory.create(null, null, null, unfragmentedNMEAMessage);
+        int[] header = new int[3];
+        aisMessageReceiver.setMessageFilter((messageType, mmsi, repeatIndicator) -> {
+            header[0] = messageType.getCode();
+            header[1] = mmsi;
+            header[2] = repeatIndicator;
+            return false;
+        });
+
+        // Act
+        aisMessageReceiver.accept(unfragmentedNMEAMessage);
+
+        // Assert
+        verify(aisMessageHandler, never()).accept(any(AISMessage.class));
+        assertEquals(expected.getMessageType().getCode(), header[0]);
+        assertEquals(expected.getSourceMmsi().getMmsi(), header[1]);
+        assertEquals(expected.getRepeatIndicator(), header[2]);
+    }
+
+    @Test
+    public void g_canReassembleInterleavedFragmentedMessages() {
+        // Arrange
+        NMEAMessage fragmented3B1 = new NMEAMessage("!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27");
+        NMEAMessage fragmented3B2 = new NMEAMessage("!AIVDM,2,2,3,B,p=Mh00000000000,2*4C");
+        NMEAMessage fragmented3A1 = new NMEAMessage("!AIVDM,2,1,3,A,55MuUD02;EFUL@CO;W@lU=<U=<U10V1HuT4LE:1DC@T>B4kC0DliSp=t,0*14");
+        NMEAMessage fragmented3A2 = new NMEAMessage("!AIVDM,2,2,3,A,888888888888880,2*27");
+        NMEAMessage unfragmented = new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A");
+
+        // Act
+        aisMessageReceiver.accept(fragmented3B1);
+        aisMessageReceiver.accept(fragmented3A1);
+        aisMessageReceiver.accept(unfragmented);
+        aisMessageReceiver.accept(fragmented3A2);
+        aisMessageReceiver.accept(fragmented3B2);
+
+        // Assert
+        verify(aisMessageHandler, times(3)).accept(any(AISMessage.class));
+        assertEquals(2, aisMessageReceiver.getReassembledCount());
+        assertEquals(0, aisMessageReceiver.getDiscardedCount());
+        assertTrue(aisMessageReceiver.flush().isEmpty());
+    }
+
+    @Test
+    public void h_canReassembleFragmentsByTagBlockGroup() {
+        // Arrange
+        NMEAMessage group1234a = new NMEAMessage("\\g:1-2-1234,s:rORBCOMM*1E\\!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27");
+        NMEAMessage group5678a = new NMEAMessage("\\g:1-2-5678,s:rORBCOMM*16\\!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27");
+        NMEAMessage group1234b = new NMEAMessage("\\g:2-2-1234*59\\!AIVDM,2,2,3,B,p=Mh00000000000,2*4C");
+        NMEAMessage group5678b = new NMEAMessage("\\g:2-2-5678*51\\!AIVDM,2,2,3,B,p=Mh00000000000,2*4C");
+
+        // Act
+        aisMessageReceiver.accept(group1234a);
+        aisMessageReceiver.accept(group5678a);
+        aisMessageReceiver.accept(group1234b);
+        aisMessageReceiver.accept(group5678b);
+
+        // Assert
+        verify(aisMessageHandler, times(2)).accept(any(AISMessage.class));
+        assertEquals(2, aisMessageReceiver.getReassembledCount());
+    }
+
+    @Test
+    public void i_evictsOldestIncompleteMessageWhenAtCapacity() {
+        // Arrange
+        NMEAMessage fragmented3B1 = new NMEAMessage("!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27");
+        NMEAMessage fragmented3B2 = new NMEAMessage("!AIVDM,2,2,3,B,p=Mh00000000000,2*4C");
+        NMEAMessage fragmented3A1 = new NMEAMessage("!AIVDM,2,1,3,A,55MuUD02;EFUL@CO;W@lU=<U=<U10V1HuT4LE:1DC@T>B4kC0DliSp=t,0*14");
+        NMEAMessage fragmented3A2 = new NMEAMessage("!AIVDM,2,2,3,A,888888888888880,2*27");
+        aisMessageReceiver.setMaxIncompleteMessages(1);
+
+        // Act
+        aisMessageReceiver.accept(fragmented3B1);
+        aisMessageReceiver.accept(fragmented3A1);
+        aisMessageReceiver.accept(fragmented3B2);
+        aisMessageReceiver.accept(fragmented3A2);
+
+        // Assert
+        verify(aisMessageHandler, times(1)).accept(any(AISMessage.class));
+        assertEquals(1, aisMessageReceiver.getEvictedCount());
+        assertEquals(1, aisMessageReceiver.getReassembledCount());
+    }
+
+    @Test
+    public void j_evictsTimedOutIncompleteMessages() throws InterruptedException {
+        // Arrange
+        NMEAMessage fragmented3B1 = new NMEAMessage("!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27");
+        NMEAMessage fragmented3B2 = new NMEAMessage("!AIVDM,2,2,3,B,p=Mh00000000000,2*4C");
+        aisMessageReceiver.setFragmentTimeout(Duration.ofMillis(1));
+
+        // Act
+        aisMessageReceiver.accept(fragmented3B1);
+        Thread.sleep(10);
+        aisMessageReceiver.accept(fragmented3B2);
+
+        // Assert
+        verify(aisMessageHandler, never()).accept(any(AISMessage.class));
+        assertEquals(1, aisMessageReceiver.getTimedOutCount());
+        assertEquals(0, aisMessageReceiver.getReassembledCount());
+    }
+
+    @Test
+    public void k_decodesBatchOfStrings() {
+        // Act
+        AISMessageBatch batch = aisMessageReceiver.decodeBatch(
+                "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27",
+                "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A",
+                "not an NMEA string",
+                "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C",
+                "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*00",
+                "");
+
+        // Assert
+        verify(aisMessageHandler, never()).accept(any(AISMessage.class));
+        assertEquals(3, batch.aisMessages().length);
+        assertEquals(AISMessageType.PositionReportClassAScheduled, batch.aisMessages()[0].getMessageType());
+        assertEquals(AISMessageType.ShipAndVoyageRelatedData, batch.aisMessages()[1].getMessageType());
+        assertEquals(batch.aisMessages()[0].getMetadata().received(), batch.aisMessages()[2].getMetadata().received());
+        assertEquals(5, batch.lineCount());
+        assertEquals(1, batch.invalidChecksumCount());
+        assertEquals(1, batch.parseErrorCount());
+        assertEquals(0, batch.decodeErrorCount());
+        assertEquals(1, batch.errorSamples().size());
+        assertTrue(batch.errorSamples().get(0).endsWith("not an NMEA string"));
+    }
+
+    @Test
+    public void l_decodesBatchOfLinesInBufferAcrossBatches() {
+        // Arrange
+        ByteBuffer first = ByteBuffer.wrap("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A\r\n!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27\r\n".getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer second = ByteBuffer.wrap("!AIVDM,2,2,3,B,p=Mh00000000000,2*4C".getBytes(StandardCharsets.US_ASCII));
+
+        // Act
+        AISMessageBatch firstBatch = aisMessageReceiver.decodeBatch(first);
+        AISMessageBatch secondBatch = aisMessageReceiver.decodeBatch(List.of(new StringBuilder("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A")));
+        AISMessageBatch thirdBatch = aisMessageReceiver.decodeBatch(second);
+
+        // Assert
+        assertEquals(1, firstBatch.aisMessages().length);
+        assertEquals(2, firstBatch.lineCount());
+        assertFalse(first.hasRemaining());
+        assertEquals(1, secondBatch.aisMessages().length);
+        assertEquals(1, thirdBatch.aisMessages().length);
+        assertEquals(AISMessageType.ShipAndVoyageRelatedData, thirdBatch.aisMessages()[0].getMessageType());
+        assertEquals(0, thirdBatch.errorCount());
+    }
+
+    @Test
+    public void m_acceptsMessagesAfterFailedBatch() {
+        // Arrange
+        ArgumentCaptor<AISMessage> aisMessage = ArgumentCaptor.forClass(AISMessage.class);
+        List<String> withNull = Arrays.asList("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A", null);
+
+        // Act
+        assertThrows(NullPointerException.class, () -> aisMessageReceiver.decodeBatch("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A", null));
+        assertThrows(NullPointerException.class, () -> aisMessageReceiver.decodeBatch(withNull));
+        aisMessageReceiver.accept(new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+
+        // Assert
+        verify(aisMessageHandler, times(1)).accept(aisMessage.capture());
+        assertEquals(AISMessageType.PositionReportClassAScheduled, aisMessage.getValue().getMessageType());
+    }
+
 }
@@ -0,0 +1,164 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NMEAMessageIngestServerTest {
+
+    @Test
+    public void reassemblesFragmentsPerConnection() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        List<AISMessage> received = new CopyOnWriteArrayList<>();
+        NMEAMessageIngestServer server = new NMEAMessageIngestServer(aisMessage -> {
+            received.add(aisMessage);
+            latch.countDown();
+        });
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread serverThread = start(server);
+
+        try (Socket socket1 = connect(server); Socket socket2 = connect(server)) {
+            // Interleave fragments with the same sequence number on two connections; each is reassembled separately
+            write(socket1, "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27\r\n");
+            write(socket2, "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27\r\n");
+            write(socket1, "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C\r\n");
+            write(socket2, "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C\r\n");
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(2, server.getConnectionCount());
+        }
+
+        server.requestStop();
+        serverThread.join(10_000);
+        assertFalse(serverThread.isAlive());
+
+        assertEquals(2, received.size());
+        assertNotEquals(received.get(0).getMetadata().source(), received.get(1).getMetadata().source());
+        assertEquals(2, server.getAcceptedCount());
+        assertEquals(4, server.getLineCount());
+    }
+
+    @Test
+    public void closesConnectionsSendingTooLongLines() throws Exception {
+        NMEAMessageIngestServer server = new NMEAMessageIngestServer(aisMessage -> {});
+        server.setBufferSize(100);
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread serverThread = start(server);
+
+        try (Socket socket = connect(server)) {
+            write(socket, "!".repeat(200));
+            assertEquals(-1, read(socket));
+            assertEquals(1, server.getOverflowDisconnectCount());
+        }
+
+        server.requestStop();
+        serverThread.join(10_000);
+    }
+
+    @Test
+    public void closesIdleConnectionsAndRejectsConnectionsBeyondMaximum() throws Exception {
+        NMEAMessageIngestServer server = new NMEAMessageIngestServer(aisMessage -> {});
+        server.setIdleTimeout(Duration.ofMillis(200));
+        server.setMaxConnections(1);
+        server.setSourceLabeller(address -> "station");
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread serverThread = start(server);
+
+        try (Socket socket1 = connect(server)) {
+            awaitTrue(() -> server.getConnectionCount() == 1);
+            try (Socket socket2 = connect(server)) {
+                assertEquals(-1, read(socket2));
+                assertEquals(1, server.getRejectedCount());
+            }
+
+            write(socket1, "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A\n!AIVDM,1,1,,B,");
+            assertEquals(-1, read(socket1));
+            assertEquals(1, server.getIdleDisconnectCount());
+            assertEquals(1, server.getLineCount());
+        }
+
+        server.requestStop();
+        serverThread.join(10_000);
+    }
+
+    @Test
+    public void keepsRunningWhenSettingUpConnectionFails() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        NMEAMessageIngestServer server = new NMEAMessageIngestServer(aisMessage -> latch.countDown());
+        AtomicInteger labelled = new AtomicInteger();
+        server.setSourceLabeller(address -> {
+            if (labelled.getAndIncrement() == 0)
+                throw new IllegalStateException("Labeller failure");
+            return "station";
+        });
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread serverThread = start(server);
+
+        try (Socket socket1 = connect(server)) {
+            assertEquals(-1, read(socket1));
+            assertEquals(1, server.getAcceptFailedCount());
+            try (Socket socket2 = connect(server)) {
+                write(socket2, "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A\n");
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+                assertEquals(1, server.getConnectionCount());
+            }
+        }
+
+        server.requestStop();
+        serverThread.join(10_000);
+        assertFalse(serverThread.isAlive());
+        assertEquals(1, server.getAcceptedCount());
+    }
+
+    private static Socket connect(NMEAMessageIngestServer server) throws Exception {
+        Socket socket = new Socket(server.getLocalAddress().getAddress(), server.getLocalAddress().getPort());
+        socket.setSoTimeout(10_000);
+        return socket;
+    }
+
+    private static void write(Socket socket, String data) throws Exception {
+        OutputStream out = socket.getOutputStream();
+        out.write(data.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    private static int read(Socket socket) throws Exception {
+        InputStream in = socket.getInputStream();
+        return in.read();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static Thread start(NMEAMessageIngestServer server) {
+        Thread thread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+}
@@ -1,6 +1,7 @@
 package dk.tbsalling.aismessages.nmea;
 
 import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAParseStatus;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -12,6 +13,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 public class NMEAMessageInputStreamReaderTest {
 
     private static Consumer<NMEAMessage> nmeaMessageHandler;
@@ -55,6 +58,30 @@ public class NMEAMessageInputStreamReaderTest {
         new NMEAMessageInputStreamReader(nmeaQueue, nmeaMessageHandler).run();
     }
 
+    @Test
+    public void countsParseStatuses() {
+        List<String> nmeaStrings = List.of(
+                "!AIVDM,1,1,,B,402=481uaUcf;OQ55JS9ITi025Jp,0*2B",
+                "!AIXYZ,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A",
+                "!AIVDM,x,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A",
+                "\\g:1-2-1234,s:rORBCOMM*1F\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A",
+                "not an NMEA string",
+                "!AIVDM,1,1,,A,33nr7t001f13KNTOahh2@QpF00vh,0*58"
+        );
+
+        NMEAMessageInputStreamReader reader = new NMEAMessageInputStreamReader(nmeaStrings, nmeaMessageHandler);
+        reader.run();
+
+        NMEAParseStatistics statistics = reader.getParseStatistics();
+        assertEquals(2, statistics.getSuccessCount());
+        assertEquals(4, statistics.getFailureCount());
+        assertEquals(1, statistics.getCount(NMEAParseStatus.UNSUPPORTED_MESSAGE_TYPE));
+        assertEquals(1, statistics.getCount(NMEAParseStatus.INVALID_NUMBER));
+        assertEquals(1, statistics.getCount(NMEAParseStatus.INVALID_TAG_BLOCK_CHECKSUM));
+        assertEquals(1, statistics.getCount(NMEAParseStatus.MALFORMED_SENTENCE));
+        assertEquals(5, statistics.getCounts().size());
+    }
+
     @Test
     public void nmeaStringPreProcessor() {
         List<String> nmeaQueue = new LinkedList<>(List.of(
@@ -0,0 +1,93 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NMEAMessagePipelineTest {
+
+    private static final String POSITION_REPORT = "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A";
+    private static final String BASE_STATION_REPORT = "!AIVDM,1,1,,B,402=481uaUcf;OQ55JS9ITi025Jp,0*2B";
+    private static final String STATIC_3B_1 = "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27";
+    private static final String STATIC_3B_2 = "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C";
+    private static final String STATIC_3A_1 = "!AIVDM,2,1,3,A,55MuUD02;EFUL@CO;W@lU=<U=<U10V1HuT4LE:1DC@T>B4kC0DliSp=t,0*14";
+    private static final String STATIC_3A_2 = "!AIVDM,2,2,3,A,888888888888880,2*27";
+    private static final String STATIC_0B_1 = "!AIVDM,2,1,0,B,539S:k40000000c3G04PPh63<00000000080000o1PVG2uGD:00000000000,0*34";
+    private static final String STATIC_0B_2 = "!AIVDM,2,2,0,B,00000000000,2*27";
+
+    // Fragments of three multipart messages interleaved with each other and with unfragmented messages
+    private static final List<String> INPUT = List.of(
+            STATIC_3B_1, STATIC_3A_1, POSITION_REPORT, STATIC_3B_2, STATIC_0B_1,
+            BASE_STATION_REPORT, STATIC_3A_2, "not an NMEA string", STATIC_0B_2, POSITION_REPORT
+    );
+
+    private static final List<String> EXPECTED = List.of(
+            POSITION_REPORT,
+            STATIC_3B_1 + STATIC_3B_2,
+            BASE_STATION_REPORT,
+            STATIC_3A_1 + STATIC_3A_2,
+            STATIC_0B_1 + STATIC_0B_2,
+            POSITION_REPORT
+    );
+
+    @Test
+    public void orderedDeliveryReassemblesInterleavedFragmentsInInputOrder() {
+        List<AISMessage> received = new ArrayList<>();
+
+        try (NMEAMessagePipeline pipeline = new NMEAMessagePipeline("TEST", 4, true, received::add)) {
+            INPUT.forEach(pipeline);
+        }
+
+        assertEquals(EXPECTED, rawMessages(received));
+    }
+
+    @Test
+    public void unorderedDeliveryDeliversAllMessages() {
+        List<AISMessage> received = Collections.synchronizedList(new ArrayList<>());
+
+        try (NMEAMessagePipeline pipeline = new NMEAMessagePipeline("TEST", 3, false, received::add)) {
+            for (int i = 0; i < 100; i++)
+                INPUT.forEach(pipeline);
+        }
+
+        assertEquals(EXPECTED.size() * 100, received.size());
+        assertEquals(new HashSet<>(EXPECTED), new HashSet<>(rawMessages(received)));
+    }
+
+    @Test
+    public void fragmentsOfSameMessageAreRoutedToSameShard() {
+        for (long ticket = 0; ticket < 8; ticket++) {
+            assertEquals(NMEAMessagePipeline.shardOf("TEST", STATIC_3B_1, 0, 8), NMEAMessagePipeline.shardOf("TEST", STATIC_3B_2, ticket, 8));
+            assertEquals(NMEAMessagePipeline.shardOf("TEST", "\\s:2573485,c:1671533231*0B\\" + STATIC_3A_1, 0, 8), NMEAMessagePipeline.shardOf("TEST", STATIC_3A_2, ticket, 8));
+        }
+        assertEquals(5, NMEAMessagePipeline.shardOf("TEST", POSITION_REPORT, 13, 8));
+    }
+
+    @Test
+    public void rejectsSubmitAfterClose() {
+        NMEAMessagePipeline pipeline = new NMEAMessagePipeline("TEST", 1, true);
+        pipeline.close();
+
+        assertThrows(IllegalStateException.class, () -> pipeline.accept(POSITION_REPORT));
+    }
+
+    /** Identify each AIS message by the NMEA strings it was decoded from. */
+    private static List<String> rawMessages(List<AISMessage> aisMessages) {
+        List<String> result = new ArrayList<>();
+        for (AISMessage aisMessage : aisMessages) {
+            StringBuilder sb = new StringBuilder();
+            for (NMEAMessage nmeaMessage : aisMessage.getMetadata().nmeaMessages())
+                sb.append(nmeaMessage.getRawMessage());
+            result.add(sb.toString());
+        }
+        return result;
+    }
+
+}
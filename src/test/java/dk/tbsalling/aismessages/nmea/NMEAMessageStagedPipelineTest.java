@@ -0,0 +1,115 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.nmea.RingBuffer.WaitStrategy;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NMEAMessageStagedPipelineTest {
+
+    private static final String POSITION_REPORT = "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A";
+    private static final String BASE_STATION_REPORT = "!AIVDM,1,1,,B,402=481uaUcf;OQ55JS9ITi025Jp,0*2B";
+    private static final String STATIC_3B_1 = "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27";
+    private static final String STATIC_3B_2 = "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C";
+
+    @Test
+    public void decodesThroughAllStagesInOrder() throws Exception {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            List<String> input = new ArrayList<>();
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                input.addAll(List.of(STATIC_3B_1, POSITION_REPORT, STATIC_3B_2, "not an NMEA string", BASE_STATION_REPORT));
+                expected.addAll(List.of(POSITION_REPORT, STATIC_3B_1 + STATIC_3B_2, BASE_STATION_REPORT));
+            }
+            byte[] bytes = (String.join("\r\n", input) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+            List<AISMessage> received = new CopyOnWriteArrayList<>();
+            NMEAMessageStagedPipeline pipeline = new NMEAMessageStagedPipeline(
+                    Channels.newChannel(new ByteArrayInputStream(bytes)), "SRC", 16, waitStrategy, received::add);
+            pipeline.start();
+            pipeline.join();
+
+            assertEquals(expected, received.stream().map(NMEAMessageStagedPipelineTest::raw).toList(), waitStrategy.name());
+            assertEquals("SRC", received.get(0).getMetadata().source());
+            assertEquals(input.size(), pipeline.getLineCount());
+            assertEquals(expected.size(), pipeline.getDecodedCount());
+        }
+    }
+
+    @Test
+    public void closeStopsStagesWaitingForInput() throws Exception {
+        PipedOutputStream out = new PipedOutputStream();
+        NMEAMessageStagedPipeline pipeline = new NMEAMessageStagedPipeline(
+                Channels.newChannel(new PipedInputStream(out)), "SRC", WaitStrategy.PARK, aisMessage -> {});
+        pipeline.start();
+        out.write((POSITION_REPORT + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), pipeline::close);
+        assertTrue(pipeline.getDecodedCount() <= 1);
+        try {
+            out.close();
+        } catch (IOException e) {
+            // Reading end already closed
+        }
+    }
+
+    @Test
+    public void continuesWhenReceiverThrows() {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            List<String> input = new ArrayList<>();
+            for (int i = 0; i < 100; i++)
+                input.addAll(List.of(POSITION_REPORT, STATIC_3B_1, STATIC_3B_2));
+            byte[] bytes = (String.join("\r\n", input) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+            List<AISMessage> received = new CopyOnWriteArrayList<>();
+            NMEAMessageStagedPipeline pipeline = new NMEAMessageStagedPipeline(
+                    Channels.newChannel(new ByteArrayInputStream(bytes)), "SRC", 16, waitStrategy,
+                    aisMessage -> { throw new IllegalStateException("Receiver failure"); }, received::add);
+            pipeline.start();
+            assertTimeoutPreemptively(Duration.ofSeconds(10), pipeline::join, waitStrategy.name());
+
+            assertEquals(200, received.size(), waitStrategy.name());
+            assertEquals(200, pipeline.getDecodedCount());
+            assertEquals(200, pipeline.getFailedCount());
+        }
+    }
+
+    @Test
+    public void continuesAfterCorruptPayload() {
+        List<String> input = new ArrayList<>();
+        input.add("!AIVDM,1,1,,B,15Mqd{P000G@qoLEi69PVGaN0D0=,0*01");
+        for (int i = 0; i < 50; i++)
+            input.add(POSITION_REPORT);
+        byte[] bytes = (String.join("\r\n", input) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        List<AISMessage> received = new CopyOnWriteArrayList<>();
+        NMEAMessageStagedPipeline pipeline = new NMEAMessageStagedPipeline(
+                Channels.newChannel(new ByteArrayInputStream(bytes)), "SRC", 16, WaitStrategy.PARK, received::add);
+        pipeline.start();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), pipeline::join);
+
+        assertEquals(50, received.size());
+        assertEquals(1, pipeline.getFailedCount());
+    }
+
+    private static String raw(AISMessage aisMessage) {
+        return Arrays.stream(aisMessage.getMetadata().nmeaMessages()).map(NMEAMessage::getRawMessage).collect(Collectors.joining());
+    }
+
+}
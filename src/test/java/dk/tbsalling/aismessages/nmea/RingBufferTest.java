@@ -0,0 +1,58 @@
+package dk.tbsalling.aismessages.nmea;
+
+import dk.tbsalling.aismessages.nmea.RingBuffer.WaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferTest {
+
+    @Test
+    public void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(1, new RingBuffer<>(1).capacity());
+        assertEquals(8, new RingBuffer<>(5).capacity());
+        assertEquals(8, new RingBuffer<>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0));
+    }
+
+    @Test
+    public void offerFailsWhenFullAndPollReturnsNullWhenEmpty() {
+        RingBuffer<String> ringBuffer = new RingBuffer<>(2);
+        assertNull(ringBuffer.poll());
+        assertTrue(ringBuffer.offer("a"));
+        assertTrue(ringBuffer.offer("b"));
+        assertFalse(ringBuffer.offer("c"));
+        assertEquals(2, ringBuffer.size());
+        assertEquals("a", ringBuffer.poll());
+        assertTrue(ringBuffer.offer("c"));
+        assertEquals("b", ringBuffer.poll());
+        assertEquals("c", ringBuffer.poll());
+        assertNull(ringBuffer.poll());
+        assertEquals(0, ringBuffer.size());
+        assertThrows(NullPointerException.class, () -> ringBuffer.offer(null));
+    }
+
+    @Test
+    public void transfersElementsInOrderBetweenThreads() throws Exception {
+        int n = 1_000_000;
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(64);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < n; i++)
+                ringBuffer.put(i, WaitStrategy.YIELD);
+        });
+        producer.start();
+
+        for (int expected = 0, attempt = 0; expected < n; ) {
+            Integer element = ringBuffer.poll();
+            if (element == null) {
+                WaitStrategy.YIELD.idle(attempt++);
+            } else {
+                assertEquals(expected++, element);
+                attempt = 0;
+            }
+        }
+        producer.join();
+        assertNull(ringBuffer.poll());
+    }
+
+}
@@ -1,5 +1,8 @@
 package dk.tbsalling.aismessages.nmea.messages;
 
+import dk.tbsalling.aismessages.nmea.exceptions.InvalidTagBlock;
+import dk.tbsalling.aismessages.nmea.exceptions.NMEAParseException;
+import dk.tbsalling.aismessages.nmea.exceptions.UnsupportedMessageType;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -68,4 +71,92 @@ public class NMEAMessageTest {
         NMEAMessage msg = new NMEAMessage("!AIVDM,,1,,B,13cpFJ0P0100`lE4IIvW8@Ow`052p,0*53");
         assertTrue(msg.isChecksumValid());
     }
+
+    @Test
+    public void testFieldsAreParsed() {
+        NMEAMessage msg = new NMEAMessage("\\g:1-2-1234,s:rORBCOMM*1E\\!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27");
+        assertEquals("!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27", msg.getRawMessage());
+        assertEquals("1-2-1234", msg.getTagBlock().getSentenceGrouping());
+        assertEquals("rORBCOMM", msg.getTagBlock().getSourceId());
+        assertEquals("AIVDM", msg.getMessageType());
+        assertEquals(2, msg.getNumberOfFragments());
+        assertEquals(1, msg.getFragmentNumber());
+        assertEquals(3, msg.getSequenceNumber());
+        assertEquals("B", msg.getRadioChannelCode());
+        assertEquals("55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB", msg.getEncodedPayload());
+        assertEquals(0, msg.getFillBits());
+        assertEquals(0x27, msg.getChecksum());
+        assertTrue(msg.isChecksumValid());
+    }
+
+    @Test
+    public void testEmptyFieldsAreParsedAsSentinels() {
+        NMEAMessage msg = new NMEAMessage("!AIVDO,,, ,,,*3C");
+        assertNull(msg.getTagBlock());
+        assertEquals(-1, msg.getNumberOfFragments());
+        assertEquals(-1, msg.getFragmentNumber());
+        assertEquals(-1, msg.getSequenceNumber());
+        assertNull(msg.getRadioChannelCode());
+        assertNull(msg.getEncodedPayload());
+        assertEquals(-1, msg.getFillBits());
+    }
+
+    @Test
+    public void testMalformedMessagesAreRejected() {
+        assertThrows(NMEAParseException.class, () -> new NMEAMessage("AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        assertThrows(NMEAParseException.class, () -> new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3"));
+        assertThrows(NMEAParseException.class, () -> new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3G"));
+        assertThrows(NMEAParseException.class, () -> new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A\n"));
+        assertThrows(NMEAParseException.class, () -> new NMEAMessage("!AIVDM,1,1,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        assertThrows(NMEAParseException.class, () -> new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0**3A"));
+        assertThrows(NMEAParseException.class, () -> new NMEAMessage("\\g:1-2-1234*00\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A\\x"));
+        assertThrows(InvalidTagBlock.class, () -> new NMEAMessage("\\g:1-2-1234,s:rORBCOMM*1F\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        assertThrows(NMEAParseException.class, () -> new NMEAMessage("\\g1-2-1234*00\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        assertThrows(UnsupportedMessageType.class, () -> new NMEAMessage("!AIXYZ,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        assertThrows(NumberFormatException.class, () -> new NMEAMessage("!AIVDM,x,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+    }
+
+    @Test
+    public void testParseReturnsReasonInsteadOfThrowing() {
+        assertEquals(NMEAParseStatus.MALFORMED_SENTENCE, NMEAMessage.parse("AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A").status());
+        assertEquals(NMEAParseStatus.MALFORMED_SENTENCE, NMEAMessage.parse("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A\n").status());
+        assertEquals(NMEAParseStatus.WRONG_NUMBER_OF_FIELDS, NMEAMessage.parse("!AIVDM,1,1,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A").status());
+        assertEquals(NMEAParseStatus.MALFORMED_CHECKSUM_FIELD, NMEAMessage.parse("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0**3A").status());
+        assertEquals(NMEAParseStatus.INVALID_TAG_BLOCK_CHECKSUM, NMEAMessage.parse("\\g:1-2-1234,s:rORBCOMM*1F\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A").status());
+        assertEquals(NMEAParseStatus.MALFORMED_TAG_BLOCK_PARAMETER, NMEAMessage.parse("\\g1-2-1234*00\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A").status());
+        assertEquals(NMEAParseStatus.UNSUPPORTED_MESSAGE_TYPE, NMEAMessage.parse("!AIXYZ,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A").status());
+        assertEquals(NMEAParseStatus.INVALID_NUMBER, NMEAMessage.parse("!AIVDM,x,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A").status());
+        assertEquals(NMEAParseStatus.INVALID_NUMBER, NMEAMessage.parse("!AIVDM,1,1,9999999999,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A").status());
+        assertEquals(NMEAParseStatus.INVALID_NUMBER, NMEAMessage.parse("\\c:12x*22\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A").status());
+        assertNull(NMEAMessage.parse("!AIXYZ,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A").value());
+    }
+
+    @Test
+    public void testParseSucceedsLikeConstructor() {
+        String nmeaString = "\\g:1-2-73874,n:157036,s:r003669945,c:1241544035*4A\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A";
+        NMEAParseResult<NMEAMessage> result = NMEAMessage.parse(nmeaString);
+        assertTrue(result.isSuccess());
+        assertEquals(NMEAParseStatus.OK, result.status());
+        assertEquals(new NMEAMessage(nmeaString), result.value());
+        assertEquals(1241544035L, result.value().getTagBlock().getTimestamp());
+        assertEquals(157036, result.value().getTagBlock().getLineCount());
+        assertTrue(result.value().isChecksumValid());
+    }
+
+    @Test
+    public void testParseFailuresDoNotAllocate() {
+        assertSame(NMEAMessage.parse("!AIXYZ,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"), NMEAMessage.parse("!AIXYZ,1,1,,B,16S`2cPP00a3UF6EKT@2:?vOr0S2,0*00"));
+        assertSame(NMEAParseResult.failure(NMEAParseStatus.INVALID_NUMBER), NMEAMessage.parse("!AIVDM,x,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+    }
+
+    @Test
+    public void testThrowingConstructorKeepsErrorDescriptions() {
+        NMEAParseException e1 = assertThrows(NMEAParseException.class, () -> new NMEAMessage("!AIVDM,1,1,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        assertEquals("Expected 7 fields separated by commas; got 6", e1.getErrorDescription());
+        assertEquals("!AIVDM,1,1,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A", e1.getRawMessage());
+        NMEAParseException e2 = assertThrows(NMEAParseException.class, () -> new NMEAMessage("\\g1-2-1234*00\\!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        assertEquals("\\g1-2-1234*00\\", e2.getRawMessage());
+        UnsupportedMessageType e3 = assertThrows(UnsupportedMessageType.class, () -> new NMEAMessage("!AIXYZ,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        assertEquals("AIXYZ", e3.getMessage());
+    }
 }
@@ -0,0 +1,107 @@
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VesselProfileCacheTest {
+
+    private static final String TYPE_5_PART_1 = "!AIVDM,2,1,3,A,55MuUD02;EFUL@CO;W@lU=<U=<U10V1HuT4LE:1DC@T>B4kC0DliSp=t,0*14";
+    private static final String TYPE_5_PART_2 = "!AIVDM,2,2,3,A,888888888888880,2*27";
+    private static final String TYPE_1_OF_366962000 = "!AIVDM,1,1,,A,15MuUD0000G@qoLEi69PVGaN0D0=,0*6A";
+    private static final String TYPE_24_PART_A = "!AIVDM,1,1,,A,H42O55i18tMET00000000000000,2*6D";
+    private static final String TYPE_24_PART_B = "!AIVDM,1,1,,A,H42O55lti4hhhilD3nink000?050,0*40";
+    private static final String TYPE_18_OF_271041815 = "!AIVDM,1,1,,A,B42O55h005l4ot5Isbl03wsUkP06,0*5D";
+    private static final String TYPE_19 = "!AIVDM,1,1,,B,C69DqeP0Ar8;JH3R6<4O7wWPl@:62L>jcaQgh0000000?104222P,0*32";
+
+    private static AISMessage decode(String... nmea) {
+        NMEAMessage[] nmeaMessages = new NMEAMessage[nmea.length];
+        for (int i = 0; i < nmea.length; i++)
+            nmeaMessages[i] = new NMEAMessage(nmea[i]);
+        return AISMessageFactory.create(null, null, null, nmeaMessages);
+    }
+
+    @Test
+    public void enrichesPositionReportsWithStaticData() {
+        List<VesselProfile> profiles = new ArrayList<>();
+        VesselProfileCache cache = new VesselProfileCache(profiles::add);
+
+        cache.accept(decode(TYPE_1_OF_366962000));
+        cache.accept(decode(TYPE_5_PART_1, TYPE_5_PART_2));
+        cache.accept(decode(TYPE_1_OF_366962000));
+
+        assertEquals(2, profiles.size());
+        assertNull(profiles.get(0).staticData());
+        assertNull(profiles.get(0).shipName());
+        VesselProfile profile = profiles.get(1);
+        assertEquals(366962000, profile.mmsi());
+        assertEquals("MISSISSIPPI VOYAGER", profile.shipName());
+        assertEquals("WDD7294", profile.callsign());
+        assertEquals(9131369, profile.staticData().imo());
+        assertEquals(1, cache.getEnrichedCount());
+        assertEquals(1, cache.getUnenrichedCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void pairsPartsOfType24() {
+        List<VesselProfile> profiles = new ArrayList<>();
+        VesselProfileCache cache = new VesselProfileCache(profiles::add);
+
+        cache.accept(decode(TYPE_24_PART_B));
+        cache.accept(decode(TYPE_24_PART_A));
+        cache.accept(decode(TYPE_18_OF_271041815));
+
+        VesselProfile profile = profiles.get(0);
+        assertEquals(271041815, profile.mmsi());
+        assertEquals("PROGUY", profile.shipName());
+        assertEquals("TC6163", profile.callsign());
+        assertEquals(60, profile.shipType().getCode());
+        assertEquals(15, profile.length());
+        assertEquals(5, profile.beam());
+        assertEquals(profile.staticData(), cache.getStaticData(271041815));
+    }
+
+    @Test
+    public void takesStaticDataFromType19() {
+        List<VesselProfile> profiles = new ArrayList<>();
+        VesselProfileCache cache = new VesselProfileCache(profiles::add);
+
+        AISMessage type19 = decode(TYPE_19);
+        cache.accept(type19);
+
+        assertEquals(1, profiles.size());
+        assertSame(type19, profiles.get(0).positionReport());
+        assertNotNull(profiles.get(0).shipName());
+        assertEquals(1, cache.getEnrichedCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlySeenAndExpiredVessels() {
+        AtomicLong clock = new AtomicLong();
+        VesselProfileCache cache = new VesselProfileCache(profile -> {}, 2, Duration.ofMinutes(10), clock::get);
+
+        cache.accept(decode(TYPE_5_PART_1, TYPE_5_PART_2));
+        cache.accept(decode(TYPE_24_PART_A));
+        cache.accept(decode(TYPE_1_OF_366962000)); // 366962000 is now more recently seen than 271041815
+        cache.accept(decode(TYPE_19));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictedCount());
+        assertNull(cache.getStaticData(271041815));
+        assertNotNull(cache.getStaticData(366962000));
+
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+        cache.accept(decode(TYPE_24_PART_A));
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getExpiredCount());
+        assertEquals("PROGUY", cache.getStaticData(271041815).shipName());
+    }
+}
@@ -0,0 +1,124 @@
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.ais.messages.PositionReport;
+import dk.tbsalling.aismessages.ais.messages.types.NavigationStatus;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VesselRegistryTest {
+
+    private static AISMessage decode(Instant received, String... nmea) {
+        NMEAMessage[] nmeaMessages = new NMEAMessage[nmea.length];
+        for (int i = 0; i < nmea.length; i++)
+            nmeaMessages[i] = new NMEAMessage(nmea[i]);
+        return AISMessageFactory.create(received, null, null, nmeaMessages);
+    }
+
+    @Test
+    public void holdsLatestStateOfPositionReports() {
+        Instant received = Instant.parse("2026-01-01T12:00:00Z");
+        PositionReport positionReport = (PositionReport) decode(received, "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A");
+
+        VesselRegistry registry = new VesselRegistry();
+        registry.accept(positionReport);
+        registry.accept(decode(received, "!AIVDM,2,1,3,B,55DA><02=6wpPuID000qTf059@DlU<00000000171lMDD4q20LmDp3hB,0*27", "!AIVDM,2,2,3,B,p=Mh00000000000,2*4C"));
+
+        assertEquals(1, registry.size());
+        int mmsi = positionReport.getSourceMmsi().getMmsi();
+        VesselState state = registry.get(mmsi);
+        assertEquals(mmsi, state.mmsi());
+        assertEquals(received, state.instant());
+        assertEquals(positionReport.getLatitude(), state.latitude());
+        assertEquals(positionReport.getLongitude(), state.longitude());
+        assertEquals(positionReport.getSpeedOverGround(), state.speedOverGround());
+        assertEquals(positionReport.getCourseOverGround(), state.courseOverGround());
+        assertEquals(positionReport.getTrueHeading(), state.trueHeading());
+        assertEquals(positionReport.getNavigationStatus(), state.navigationStatus());
+        assertNull(registry.get(mmsi + 1));
+    }
+
+    @Test
+    public void ignoresReportsOlderThanStateHeld() {
+        VesselRegistry registry = new VesselRegistry();
+        assertTrue(registry.update(219000001, 2000, 55.5f, 12.5f, 10.0f, 90.0f, 88, NavigationStatus.UnderwayUsingEngine));
+        assertFalse(registry.update(219000001, 1000, 56.5f, 13.5f, 0.0f, 0.0f, 511, NavigationStatus.Moored));
+        assertTrue(registry.update(219000001, 2000, 55.6f, 12.6f, 10.0f, 90.0f, 88, null));
+
+        VesselState state = registry.get(219000001);
+        assertEquals(55.6f, state.latitude());
+        assertEquals(2000, state.timestamp());
+        assertNull(state.navigationStatus());
+    }
+
+    @Test
+    public void behavesLikeMapUnderGrowthAndRemoval() {
+        VesselRegistry registry = new VesselRegistry(16, 4);
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int mmsi = random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(mmsi) != null, registry.remove(mmsi));
+            } else {
+                long timestamp = i;
+                registry.update(mmsi, timestamp, mmsi / 1000f, -mmsi / 1000f, 1f, 2f, 3, null);
+                expected.put(mmsi, timestamp);
+            }
+        }
+        assertEquals(expected.size(), registry.size());
+        expected.forEach((mmsi, timestamp) -> {
+            VesselState state = registry.get(mmsi);
+            assertEquals(timestamp, state.timestamp());
+            assertEquals(mmsi / 1000f, state.latitude());
+        });
+
+        int removed = registry.removeOlderThan(50_000);
+        assertEquals(expected.values().stream().filter(t -> t < 50_000).count(), removed);
+        expected.values().removeIf(t -> t < 50_000);
+        assertEquals(expected.size(), registry.size());
+        AtomicInteger visited = new AtomicInteger();
+        registry.forEach(state -> {
+            assertEquals(expected.get(state.mmsi()), state.timestamp());
+            visited.incrementAndGet();
+        });
+        assertEquals(expected.size(), visited.get());
+        assertTrue(registry.getCapacity() >= registry.size());
+    }
+
+    @Test
+    public void acceptsConcurrentUpdates() throws InterruptedException {
+        VesselRegistry registry = new VesselRegistry(16, 8);
+        AtomicInteger mismatches = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    int mmsi = (i * threads.length + offset) % 40_000;
+                    registry.update(mmsi, i, mmsi, mmsi, 0f, 0f, 0, null);
+                    VesselState state = registry.get(mmsi);
+                    if (state == null || state.latitude() != mmsi)
+                        mismatches.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(0, mismatches.get());
+        assertEquals(40_000, registry.size());
+        for (int mmsi = 0; mmsi < 40_000; mmsi++)
+            assertEquals((float) mmsi, registry.get(mmsi).longitude());
+    }
+}
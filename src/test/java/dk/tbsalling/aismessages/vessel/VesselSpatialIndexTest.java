@@ -0,0 +1,207 @@
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.ais.messages.PositionReport;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VesselSpatialIndexTest {
+
+    private static int[] sorted(int[] mmsis) {
+        Arrays.sort(mmsis);
+        return mmsis;
+    }
+
+    @Test
+    public void indexesPositionReports() {
+        PositionReport positionReport = (PositionReport) AISMessageFactory.create(Instant.parse("2026-01-01T12:00:00Z"), null, null,
+                new NMEAMessage("!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A"));
+        float latitude = positionReport.getLatitude();
+        float longitude = positionReport.getLongitude();
+
+        VesselSpatialIndex index = new VesselSpatialIndex();
+        index.accept(positionReport);
+
+        assertEquals(1, index.size());
+        assertArrayEquals(new int[] {positionReport.getSourceMmsi().getMmsi()},
+                index.queryBoundingBox(latitude - 0.01, longitude - 0.01, latitude + 0.01, longitude + 0.01));
+        assertEquals(0, index.queryBoundingBox(latitude + 0.01, longitude - 0.01, latitude + 0.02, longitude + 0.01).length);
+    }
+
+    @Test
+    public void movesVesselsBetweenCells() {
+        VesselSpatialIndex index = new VesselSpatialIndex(0.5);
+        index.update(219000001, 1000, 55.1f, 12.1f);
+        index.update(219000002, 1000, 55.2f, 12.2f);
+        index.update(219000001, 2000, 56.1f, 13.1f);
+
+        assertEquals(2, index.size());
+        assertArrayEquals(new int[] {219000002}, index.queryBoundingBox(55, 12, 55.5, 12.5));
+        assertArrayEquals(new int[] {219000001}, index.queryBoundingBox(56, 13, 56.5, 13.5));
+
+        assertTrue(index.remove(219000001));
+        assertFalse(index.remove(219000001));
+        assertEquals(1, index.size());
+        assertEquals(0, index.queryBoundingBox(56, 13, 56.5, 13.5).length);
+    }
+
+    @Test
+    public void removesVesselsWithPositionNotAvailable() {
+        VesselSpatialIndex index = new VesselSpatialIndex();
+        index.update(219000001, 1000, 55.1f, 12.1f);
+        index.update(219000002, 1000, 55.2f, 12.2f);
+        index.update(219000003, 1000, 91f, 181f);
+
+        index.update(219000001, 2000, VesselSpatialIndex.LATITUDE_NOT_AVAILABLE, 12.1f);
+        index.update(219000002, 2000, 55.2f, VesselSpatialIndex.LONGITUDE_NOT_AVAILABLE);
+
+        assertEquals(0, index.size());
+        assertEquals(3, index.getUnavailableCount());
+        assertEquals(0, index.queryBoundingBox(-90, -180, 90, 180).length);
+    }
+
+    @Test
+    public void queriesAcrossAntimeridian() {
+        VesselSpatialIndex index = new VesselSpatialIndex(1);
+        index.update(1, 0, 10f, 179.5f);
+        index.update(2, 0, 10f, -179.5f);
+        index.update(3, 0, 10f, 180f);
+        index.update(4, 0, 10f, 0f);
+
+        assertArrayEquals(new int[] {1, 2, 3}, sorted(index.queryBoundingBox(9, 179, 11, -179)));
+        assertArrayEquals(new int[] {1, 2, 3}, sorted(index.queryRadius(10, 180, 60)));
+        assertArrayEquals(new int[] {1, 2, 3}, sorted(index.queryRadius(10, -179.9, 60)));
+    }
+
+    @Test
+    public void queriesRadiusByGreatCircleDistance() {
+        VesselSpatialIndex index = new VesselSpatialIndex(0.1);
+        // One minute of latitude is one nautical mile
+        index.update(1, 0, 55f + 9.9f / 60, 12f);
+        index.update(2, 0, 55f + 10.1f / 60, 12f);
+        index.update(3, 0, 55f, 12f + 9.9f / 60 / (float) Math.cos(Math.toRadians(55)));
+        index.update(4, 0, 55f + 7.5f / 60, 12f + 7.5f / 60 / (float) Math.cos(Math.toRadians(55)));
+
+        assertArrayEquals(new int[] {1, 3}, sorted(index.queryRadius(55, 12, 10)));
+        assertArrayEquals(new int[] {1, 2, 3, 4}, sorted(index.queryRadius(55, 12, 11)));
+    }
+
+    @Test
+    public void queriesRadiusAroundPoles() {
+        VesselSpatialIndex index = new VesselSpatialIndex();
+        index.update(1, 0, 89.9f, 0f);
+        index.update(2, 0, 89.9f, 180f);
+        index.update(3, 0, 89.0f, 90f);
+
+        assertArrayEquals(new int[] {1, 2}, sorted(index.queryRadius(89.9, 0, 13)));
+        assertArrayEquals(new int[] {1, 2, 3}, sorted(index.queryRadius(90, 0, 61)));
+    }
+
+    @Test
+    public void removesVesselsOlderThan() {
+        VesselSpatialIndex index = new VesselSpatialIndex();
+        index.update(1, 1000, 55.1f, 12.1f);
+        index.update(2, 2000, 55.1f, 12.1f);
+        index.update(3, 3000, -33.9f, 151.2f);
+
+        assertEquals(1, index.removeOlderThan(2000));
+        assertArrayEquals(new int[] {2, 3}, sorted(index.queryBoundingBox(-90, -180, 90, 180)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void rejectsInvalidCellSize() {
+        assertThrows(IllegalArgumentException.class, () -> new VesselSpatialIndex(0));
+        assertThrows(IllegalArgumentException.class, () -> new VesselSpatialIndex(0.01));
+        assertThrows(IllegalArgumentException.class, () -> new VesselSpatialIndex(Double.NaN));
+    }
+
+    @Test
+    public void rejectsNegativeMmsi() {
+        VesselSpatialIndex index = new VesselSpatialIndex();
+        assertThrows(IllegalArgumentException.class, () -> index.update(-1, 1000, 55.1f, 12.1f));
+        assertThrows(IllegalArgumentException.class, () -> index.remove(-1));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void ignoresReportsOlderThanPositionHeld() {
+        VesselSpatialIndex index = new VesselSpatialIndex();
+        assertTrue(index.update(219000001, 2000, 55.1f, 12.1f));
+        assertFalse(index.update(219000001, 1000, 56.1f, 13.1f));
+        assertFalse(index.update(219000001, 1000, 91f, 181f));
+        assertTrue(index.update(219000001, 2000, 55.2f, 12.2f));
+
+        assertEquals(1, index.size());
+        assertArrayEquals(new int[] {219000001}, index.queryBoundingBox(55.15, 12.15, 55.25, 12.25));
+        assertEquals(0, index.queryBoundingBox(56, 13, 56.5, 13.5).length);
+    }
+
+    @Test
+    public void agreesWithLinearScan() {
+        Random random = new Random(42);
+        float[] latitudes = new float[2000];
+        float[] longitudes = new float[2000];
+        VesselSpatialIndex index = new VesselSpatialIndex(0.5);
+        for (int round = 0; round < 3; round++) {
+            for (int mmsi = 0; mmsi < latitudes.length; mmsi++) {
+                latitudes[mmsi] = 50 + random.nextFloat() * 10;
+                longitudes[mmsi] = random.nextFloat() * 20;
+                index.update(mmsi, round, latitudes[mmsi], longitudes[mmsi]);
+            }
+        }
+        assertEquals(latitudes.length, index.size());
+
+        for (int query = 0; query < 100; query++) {
+            double latitude = 50 + random.nextDouble() * 10;
+            double longitude = random.nextDouble() * 20;
+            double radius = random.nextDouble() * 100;
+            int[] expected = new int[latitudes.length];
+            int count = 0;
+            for (int mmsi = 0; mmsi < latitudes.length; mmsi++) {
+                if (VesselSpatialIndex.distance(latitude, longitude, latitudes[mmsi], longitudes[mmsi]) * 3440.065 <= radius)
+                    expected[count++] = mmsi;
+            }
+            assertArrayEquals(Arrays.copyOf(expected, count), sorted(index.queryRadius(latitude, longitude, radius)));
+        }
+    }
+
+    @Test
+    public void queriesConcurrentlyWithUpdates() throws InterruptedException {
+        VesselSpatialIndex index = new VesselSpatialIndex(0.5);
+        int vessels = 1000;
+        AtomicInteger mismatches = new AtomicInteger();
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            int first = w * vessels / writers.length;
+            writers[w] = new Thread(() -> {
+                Random random = new Random(first);
+                for (int round = 0; round < 50; round++) {
+                    for (int mmsi = first; mmsi < first + vessels / writers.length; mmsi++)
+                        index.update(mmsi, round, 50 + random.nextFloat() * 10, random.nextFloat() * 20);
+                }
+            });
+        }
+        for (Thread writer : writers)
+            writer.start();
+        while (Arrays.stream(writers).anyMatch(Thread::isAlive)) {
+            // A vessel is reported once, even when moved between cells during the query
+            int[] mmsis = index.queryBoundingBox(-90, -180, 90, 180);
+            if (Arrays.stream(mmsis).distinct().count() != mmsis.length)
+                mismatches.incrementAndGet();
+        }
+        for (Thread writer : writers)
+            writer.join();
+
+        assertEquals(0, mismatches.get());
+        assertEquals(vessels, index.size());
+        assertEquals(vessels, index.queryBoundingBox(50, 0, 60, 20).length);
+    }
+}
@@ -0,0 +1,142 @@
+package dk.tbsalling.aismessages.vessel;
+
+import dk.tbsalling.aismessages.ais.messages.AISMessage;
+import dk.tbsalling.aismessages.ais.messages.AISMessageFactory;
+import dk.tbsalling.aismessages.ais.messages.PositionReport;
+import dk.tbsalling.aismessages.ais.messages.types.NavigationStatus;
+import dk.tbsalling.aismessages.nmea.messages.NMEAMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VesselStateStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private static AISMessage decode(Instant received, String... nmea) {
+        NMEAMessage[] nmeaMessages = new NMEAMessage[nmea.length];
+        for (int i = 0; i < nmea.length; i++)
+            nmeaMessages[i] = new NMEAMessage(nmea[i]);
+        return AISMessageFactory.create(received, null, null, nmeaMessages);
+    }
+
+    @Test
+    public void keepsStateAcrossReopening() throws IOException {
+        Path file = directory.resolve("vessels.dat");
+        Instant received = Instant.parse("2026-01-01T12:00:00Z");
+        PositionReport positionReport = (PositionReport) decode(received, "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A");
+        int mmsi = positionReport.getSourceMmsi().getMmsi();
+
+        try (VesselStateStore store = new VesselStateStore(file, 1000)) {
+            assertEquals(1024, store.getCapacity());
+            store.accept(positionReport);
+            store.accept(decode(received, "!AIVDM,2,1,3,A,55MuUD02;EFUL@CO;W@lU=<U=<U10V1HuT4LE:1DC@T>B4kC0DliSp=t,0*14", "!AIVDM,2,2,3,A,888888888888880,2*27"));
+            store.accept(decode(received, "!AIVDM,1,1,,A,H42O55i18tMET00000000000000,2*6D"));
+            store.accept(decode(received.plusSeconds(1), "!AIVDM,1,1,,A,H42O55lti4hhhilD3nink000?050,0*40"));
+            store.accept(decode(received, "!AIVDM,1,1,,B,402=481uaUcf;OQ55JS9ITi025Jp,0*2B"));
+            assertEquals(3, store.size());
+        }
+
+        try (VesselStateStore store = new VesselStateStore(file, 1)) {
+            assertEquals(1024, store.getCapacity());
+            assertEquals(3, store.size());
+
+            VesselState state = store.getDynamicState(mmsi);
+            assertEquals(received.toEpochMilli(), state.timestamp());
+            assertEquals(positionReport.getLatitude(), state.latitude());
+            assertEquals(positionReport.getLongitude(), state.longitude());
+            assertEquals(positionReport.getSpeedOverGround(), state.speedOverGround());
+            assertEquals(positionReport.getCourseOverGround(), state.courseOverGround());
+            assertEquals(positionReport.getTrueHeading(), state.trueHeading());
+            assertEquals(positionReport.getNavigationStatus(), state.navigationStatus());
+            assertNull(store.getStaticData(mmsi));
+
+            VesselStaticData shipAndVoyageData = store.getStaticData(366962000);
+            assertEquals(9131369, shipAndVoyageData.imo());
+            assertEquals("WDD7294", shipAndVoyageData.callsign());
+            assertEquals("MISSISSIPPI VOYAGER", shipAndVoyageData.shipName());
+            assertEquals(8.3f, shipAndVoyageData.draught());
+            assertEquals("SFO 70", shipAndVoyageData.destination());
+            assertNull(store.getDynamicState(366962000));
+
+            VesselStaticData classBStaticData = store.getStaticData(271041815);
+            assertEquals("PROGUY", classBStaticData.shipName());
+            assertEquals("TC6163", classBStaticData.callsign());
+            assertEquals(60, classBStaticData.shipType().getCode());
+            assertEquals(15, classBStaticData.length());
+            assertEquals(5, classBStaticData.beam());
+            assertEquals(received.plusSeconds(1), classBStaticData.instant());
+
+            assertNull(store.getDynamicState(123456789));
+            List<VesselState> states = new ArrayList<>();
+            store.forEachDynamicState(states::add);
+            assertEquals(List.of(state), states);
+            AtomicInteger staticData = new AtomicInteger();
+            store.forEachStaticData(data -> staticData.incrementAndGet());
+            assertEquals(2, staticData.get());
+        }
+    }
+
+    @Test
+    public void ignoresStateOlderThanStored() throws IOException {
+        try (VesselStateStore store = new VesselStateStore(directory.resolve("vessels.dat"), 16)) {
+            assertTrue(store.updateDynamicState(0, 2000, 55.5f, 12.5f, 10.0f, 90.0f, 88, NavigationStatus.Moored));
+            assertFalse(store.updateDynamicState(0, 1000, 56.5f, 13.5f, 0.0f, 0.0f, 511, null));
+            VesselState state = store.getDynamicState(0);
+            assertEquals(55.5f, state.latitude());
+            assertEquals(NavigationStatus.Moored, state.navigationStatus());
+        }
+    }
+
+    @Test
+    public void rejectsVesselsBeyondCapacity() throws IOException {
+        try (VesselStateStore store = new VesselStateStore(directory.resolve("vessels.dat"), 4)) {
+            for (int mmsi = 1; mmsi <= 4; mmsi++)
+                store.updateDynamicState(mmsi, 1, 0f, 0f, 0f, 0f, 511, null);
+            assertThrows(IllegalStateException.class, () -> store.updateDynamicState(5, 1, 0f, 0f, 0f, 0f, 511, null));
+            assertTrue(store.updateDynamicState(4, 2, 1f, 1f, 0f, 0f, 511, null));
+        }
+    }
+
+    @Test
+    public void rejectsFilesWhichAreNotStores() throws IOException {
+        Path file = Files.writeString(directory.resolve("other.txt"), "!AIVDM,1,1,,B,15MqdBP000G@qoLEi69PVGaN0D0=,0*3A\n".repeat(10));
+        assertThrows(IOException.class, () -> new VesselStateStore(file, 16));
+    }
+
+    @Test
+    public void acceptsConcurrentUpdates() throws Exception {
+        try (VesselStateStore store = new VesselStateStore(directory.resolve("vessels.dat"), 8192)) {
+            AtomicInteger mismatches = new AtomicInteger();
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 1; i <= 20_000; i++) {
+                        int mmsi = i % 4000;
+                        store.updateDynamicState(mmsi, i, i, i, i, i, 511, null);
+                        VesselState state = store.getDynamicState(mmsi);
+                        if (state.latitude() != state.timestamp() || state.longitude() != state.timestamp() || state.speedOverGround() != state.courseOverGround())
+                            mismatches.incrementAndGet();
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads)
+                thread.join();
+
+            assertEquals(0, mismatches.get());
+            assertEquals(4000, store.size());
+            assertEquals(20_000, store.getDynamicState(0).timestamp());
+        }
+    }
+}